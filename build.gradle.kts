@@ -106,6 +106,8 @@ allprojects {
                     "example.*",
                     "io.github.davidburstrom.gradle.versioncompatibility.*"
                 )
+                /* The generated adapter dispatcher of the example is tested by the plugin itself. */
+                excludedClasses = setOf("example.LangAdapters")
                 threads = 2
                 failWhenNoMutations = true
                 mutators = listOf("DEFAULTS")
@@ -1,3 +1,5 @@
+import net.ltgt.gradle.errorprone.errorprone
+
 plugins {
     kotlin("jvm") version "2.1.21"
     id("io.github.davidburstrom.version-compatibility")
@@ -13,6 +15,12 @@ versionCompatibility {
     adapters {
         namespaces.create("Lang") {
             versions = listOf("3.0", "3.5", "3.10")
+            // Generates a class that instantiates the adapter matching the runtime version
+            dispatcherClassName = "example.LangAdapters"
+            // Creates a JMH source set per adapter, run them all with "jmhCompatibilityAdapters"
+            benchmarks = true
+            // Measures the adapter selection and first call in fresh JVMs, with "coldStartCompatLang"
+            coldStartClassName = "example.LangColdStart"
         }
     }
 
@@ -72,6 +80,17 @@ dependencies {
 
     // Required for mutation testing and JUnit 5.12 and later
     "testCommonRuntimeOnly"("org.junit.platform:junit-platform-launcher:1.14.3")
+
+    // All adapter benchmarks use JMH
+    "jmhCommonImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhCommonAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+plugins.withId("net.ltgt.errorprone") {
+    tasks.withType<JavaCompile>().matching { it.name.startsWith("compileJmh") }.configureEach {
+        // The code generated by the JMH annotation processor is not up to ErrorProne standards.
+        options.errorprone.excludedPaths = ".*/build/generated/.*"
+    }
 }
 
 tasks.withType<Test>().configureEach {
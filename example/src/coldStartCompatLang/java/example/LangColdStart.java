@@ -0,0 +1,29 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+/**
+ * Makes the first call through the adapters, so that the cold start includes both the adapter
+ * selection in the static initializer of {@link Main} and the first invocation of an adapter.
+ */
+public class LangColdStart implements Runnable {
+  @Override
+  public void run() {
+    if (Main.removeAllOccurrences(new byte[] {1, 2, 1}, (byte) 1).length != 1) {
+      throw new AssertionError("Expected one remaining element");
+    }
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class CompatArrayUtilsBenchmark {
+  private final CompatArrayUtils compatArrayUtils = new CompatArrayUtils3Dot5();
+  private final byte[] array = {1, 2, 1, 3, 1, 4, 1, 5};
+
+  @Benchmark
+  public byte[] removeAllOccurrences() {
+    return compatArrayUtils.removeAllOccurrences(array, (byte) 1);
+  }
+}
@@ -1,3 +1,5 @@
+import net.ltgt.gradle.errorprone.errorprone
+
 plugins {
     id("com.gradle.plugin-publish") version "2.1.1"
     id("io.github.davidburstrom.version-compatibility")
@@ -35,6 +37,43 @@ val functionalTest by tasks.registering(Test::class) {
 
 gradlePlugin.testSourceSets(functionalTestSourceSet)
 
+/*
+ * JMH benchmarks of the configuration time hot paths, e.g. the version tuple generation and the
+ * task naming, and of the generated runtime code, e.g. the version detection. Run with
+ * "./gradlew :plugin:jmh", optionally with "-Pjmh.includes=<regex>" to select benchmarks. Both
+ * throughput and allocation rate (through the GC profiler) are reported.
+ */
+val jmhVersion = "1.37"
+
+val jmhSourceSet: SourceSet = sourceSets.create("jmh") {
+    compileClasspath += sourceSets["main"].output + sourceSets["main"].compileClasspath
+    runtimeClasspath += sourceSets["main"].output + sourceSets["main"].runtimeClasspath
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+}
+
+plugins.withId("net.ltgt.errorprone") {
+    tasks.named<JavaCompile>(jmhSourceSet.compileJavaTaskName).configure {
+        /* The code generated by the JMH annotation processor is not up to ErrorProne standards. */
+        options.errorprone.excludedPaths = ".*/build/generated/.*"
+    }
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    classpath = jmhSourceSet.runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(resultFile)
+    outputs.upToDateWhen { false }
+    args("-prof", "gc", "-rf", "json", "-rff", resultFile.get().asFile.absolutePath)
+    providers.gradleProperty("jmh.includes").orNull?.let { args(it) }
+}
+
 versionCompatibility {
     tests {
         dimensions {
@@ -50,12 +89,10 @@ versionCompatibility {
                 versions = listOf("8", "11", "17", "21", "25")
             }
         }
-        filter { (gradleVersion, javaVersion) ->
-            !((javaVersion == "11" || javaVersion == "8") && gradleVersion.startsWith("9.")) &&
-                !(javaVersion == "17" && (gradleVersion == "7.0" || gradleVersion == "7.1")) &&
-                !(javaVersion == "21" && (gradleVersion.startsWith("7.") || gradleVersion in listOf("8.0.2", "8.1.1", "8.2.1"))) &&
-                !(javaVersion == "25" && (gradleVersion.startsWith("7.") || gradleVersion.startsWith("8.") || gradleVersion == "9.0.0"))
-        }
+        exclude(mapOf("Java" to listOf("8", "11"), "Gradle" to "[9,)"))
+        exclude(mapOf("Java" to "17", "Gradle" to "(,7.2)"))
+        exclude(mapOf("Java" to "21", "Gradle" to "(,8.3)"))
+        exclude(mapOf("Java" to "25", "Gradle" to "(,9.1)"))
         testSourceSetName = "functionalTest"
         eachTestTask {
             val (gradleVersion, javaVersion) = versions
@@ -21,7 +21,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.GradleRunner;
 import org.junit.jupiter.api.Test;
@@ -117,7 +120,118 @@ class VersionCompatibilityPluginFunctionalTest {
     runAndVerifyOutput(":processTestResources", ":testCompatibility");
   }
 
+  @Test
+  void durationsAreOnlyRecordedForTheReport() throws IOException {
+    writeString(getSettingsFile(), "");
+    // language=kotlin
+    writeString(
+        new File(projectDir, "build.gradle.kts"),
+        "plugins {\n"
+            + "  java\n"
+            + "  id(\"io.github.davidburstrom.version-compatibility\")\n"
+            + "}\n"
+            + "versionCompatibility {\n"
+            + "  tests {\n"
+            + "    dimensions.register(\"dummy\") { versions.set(listOf(\"0.1\")) }\n"
+            + "  }\n"
+            // language=none
+            + (System.getProperty("GRADLE_VERSION") == null
+                    || System.getProperty("GRADLE_VERSION").startsWith("9.")
+                // language=kotlin
+                ? "tasks.withType<Test> {\n" + "    failOnNoDiscoveredTests=false\n" + "}\n"
+                : "")
+            + "}");
+    writeString(new File(projectDir, "src/test/java/Test.java"), "class Test { }");
+    final File historyFile =
+        new File(projectDir, "build/version-compatibility/test-durations.properties");
+
+    runAndVerifyOutput(":testCompatibility");
+    assertFalse(historyFile.exists());
+
+    runAndVerifyOutput("--rerun-tasks", ":testCompatibility", ":compatibilityReport");
+    assertTrue(historyFile.exists());
+  }
+
+  @Test
+  void bisectionMustBeRequestedByName() throws IOException {
+    writeString(getSettingsFile(), "");
+    // language=kotlin
+    writeString(
+        new File(projectDir, "build.gradle.kts"),
+        "plugins {\n"
+            + "  java\n"
+            + "  id(\"io.github.davidburstrom.version-compatibility\")\n"
+            + "}\n"
+            + "versionCompatibility {\n"
+            + "  tests {\n"
+            + "    dimensions.register(\"dummy\") { versions.set(listOf(\"0.1\", \"0.2\")) }\n"
+            + "  }\n"
+            + "}");
+
+    final BuildResult result = createRunner("bTCWD").buildAndFail();
+
+    assertTrue(
+        result
+            .getOutput()
+            .contains(
+                "The :bisectTestCompatibilityWithDummy task must be requested by its full name or"
+                    + " path"));
+  }
+
+  @Test
+  void sharedJvmResultsAreReported() throws IOException {
+    writeString(getSettingsFile(), "");
+    /* The build runs offline, so JUnit is taken from the classpath of this test. */
+    final String junitFiles =
+        Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+            .filter(
+                path ->
+                    path.contains("junit")
+                        || path.contains("opentest4j")
+                        || path.contains("apiguardian"))
+            .map(path -> "\"" + path.replace('\\', '/') + "\"")
+            .collect(Collectors.joining(", "));
+    // language=kotlin
+    writeString(
+        new File(projectDir, "build.gradle.kts"),
+        "plugins {\n"
+            + "  java\n"
+            + "  id(\"io.github.davidburstrom.version-compatibility\")\n"
+            + "}\n"
+            + "dependencies {\n"
+            + "  testImplementation(files("
+            + junitFiles
+            + "))\n"
+            + "}\n"
+            + "versionCompatibility {\n"
+            + "  tests {\n"
+            + "    sharedJvm.set(true)\n"
+            + "    dimensions.register(\"dummy\") { versions.set(listOf(\"0.1\")) }\n"
+            + "  }\n"
+            + "}");
+    writeString(
+        new File(projectDir, "src/test/java/SomeTest.java"),
+        "class SomeTest { @org.junit.jupiter.api.Test void passes() { } }");
+
+    createRunner(":testCompatibility", ":compatibilityReport").build();
+
+    final String report =
+        new String(
+            Files.readAllBytes(
+                new File(projectDir, "build/reports/compatibility/compatibility-report.json")
+                    .toPath()),
+            StandardCharsets.UTF_8);
+    assertTrue(report.contains("\"outcome\":\"passed\",\"tests\":1,"), report);
+  }
+
   private void runAndVerifyOutput(String... arguments) {
+    BuildResult result = createRunner(arguments).build();
+
+    // Verify the result
+    assertTrue(result.getOutput().contains("Task :testCompatibilityWithDummy0Dot1"));
+  }
+
+  private GradleRunner createRunner(String... arguments) {
     GradleRunner runner = GradleRunner.create();
     runner.forwardOutput();
     final String gradleVersion = System.getProperty("GRADLE_VERSION");
@@ -127,10 +241,7 @@ class VersionCompatibilityPluginFunctionalTest {
     runner.withPluginClasspath();
     runner.withArguments(arguments);
     runner.withProjectDir(projectDir);
-    BuildResult result = runner.build();
-
-    // Verify the result
-    assertTrue(result.getOutput().contains("Task :testCompatibilityWithDummy0Dot1"));
+    return runner;
   }
 
   private void writeString(File file, String string) throws IOException {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the creation of the task names and descriptions for all the tuples of a test matrix, as
+ * is done once per tuple when the compatibility tests are configured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskNamesBenchmark {
+
+  @Param({"1", "2", "3"})
+  int dimensionCount;
+
+  @Param({"5", "20"})
+  int versionCount;
+
+  private List<List<NamedVersion>> tuples;
+
+  @Setup
+  public void setUp() {
+    final List<String> dimensionNames = new ArrayList<>();
+    final List<List<String>> dimensionVersions = new ArrayList<>();
+    for (int dimension = 0; dimension < dimensionCount; dimension++) {
+      dimensionNames.add("dimension" + dimension);
+      final List<String> versions = new ArrayList<>();
+      for (int version = 0; version < versionCount; version++) {
+        versions.add(dimension + "." + version + ".0-rc-1");
+      }
+      dimensionVersions.add(versions);
+    }
+    tuples =
+        new VersionTupleGenerator(dimensionNames, dimensionVersions)
+            .generate(prefix -> true, Collections.emptyList());
+  }
+
+  @Benchmark
+  public void taskNames(Blackhole blackhole) {
+    for (List<NamedVersion> tuple : tuples) {
+      blackhole.consume(TaskNames.compatibilityTestTaskName("test", tuple));
+    }
+  }
+
+  @Benchmark
+  public void taskDescriptions(Blackhole blackhole) {
+    for (List<NamedVersion> tuple : tuples) {
+      blackhole.consume(TaskNames.compatibilityTestTaskDescription(tuple));
+    }
+  }
+
+  @Benchmark
+  public void unpunctuate(Blackhole blackhole) {
+    for (List<NamedVersion> tuple : tuples) {
+      for (NamedVersion namedVersion : tuple) {
+        blackhole.consume(TaskNames.unpunctuate(namedVersion.getVersion()));
+      }
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import javax.tools.ToolProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the version detection of the generated adapter dispatcher with scanning all manifests on
+ * the classpath, as a cold start of an application would do it, i.e. with a fresh class loader for
+ * each measurement. The library to detect is the last of a number of jars on the classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 100)
+@Fork(3)
+public class VersionDetectionBenchmark {
+  private static final String DISPATCHER_CLASS_NAME = "lib.Dispatcher";
+
+  @Param({"30", "300"})
+  int jarCount;
+
+  private File directory;
+  private URL[] jars;
+  private URLClassLoader classLoader;
+  private Class<?> probe;
+  private Method detectVersionMethod;
+
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("version-detection").toFile();
+    final File sourceDirectory = new File(directory, "src/lib");
+    final File classesDirectory = new File(directory, "classes");
+    Files.createDirectories(sourceDirectory.toPath());
+    Files.createDirectories(classesDirectory.toPath());
+    final File source = new File(sourceDirectory, "Dispatcher.java");
+    Files.write(
+        source.toPath(),
+        AdapterDispatcherSource.generate(DISPATCHER_CLASS_NAME, Collections.singletonList("1.0"))
+            .getBytes(StandardCharsets.UTF_8));
+    if (ToolProvider.getSystemJavaCompiler()
+            .run(null, null, null, "-d", classesDirectory.getPath(), source.getPath())
+        != 0) {
+      throw new IllegalStateException("Could not compile " + source);
+    }
+
+    jars = new URL[jarCount];
+    for (int index = 0; index < jarCount; index++) {
+      final Manifest manifest = new Manifest();
+      manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+      manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_TITLE, "Library " + index);
+      manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_VERSION, "1." + index);
+      final File jar = new File(directory, "library" + index + ".jar");
+      try (OutputStream outputStream = Files.newOutputStream(jar.toPath());
+          JarOutputStream jarOutputStream = new JarOutputStream(outputStream, manifest)) {
+        /* Only the last jar contains the dispatcher, which is also the probe class. */
+        final File[] classFiles = new File(classesDirectory, "lib").listFiles();
+        if (index == jarCount - 1 && classFiles != null) {
+          for (File classFile : classFiles) {
+            jarOutputStream.putNextEntry(new JarEntry("lib/" + classFile.getName()));
+            jarOutputStream.write(Files.readAllBytes(classFile.toPath()));
+          }
+        }
+      }
+      jars[index] = jar.toURI().toURL();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory.toPath())) {
+      paths
+          .sorted(Collections.reverseOrder())
+          .forEach(
+              path -> {
+                try {
+                  Files.delete(path);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+    }
+  }
+
+  /*
+   * The probe class is loaded up front, as an application would load it anyway to use the library,
+   * which opens all jars before it on the classpath.
+   */
+  @Setup(Level.Iteration)
+  public void createClassLoader() throws ReflectiveOperationException {
+    classLoader = new URLClassLoader(jars, null);
+    probe = classLoader.loadClass(DISPATCHER_CLASS_NAME);
+    detectVersionMethod = probe.getMethod("detectVersion", Class.class);
+  }
+
+  @TearDown(Level.Iteration)
+  public void closeClassLoader() throws IOException {
+    classLoader.close();
+  }
+
+  @Benchmark
+  public String manifestScanning() throws IOException {
+    final String title = "Library " + (jarCount - 1);
+    final Enumeration<URL> resources = classLoader.getResources("META-INF/MANIFEST.MF");
+    while (resources.hasMoreElements()) {
+      try (InputStream inputStream = resources.nextElement().openStream()) {
+        final Manifest manifest = new Manifest(inputStream);
+        if (title.equals(
+            manifest.getMainAttributes().getValue(Attributes.Name.IMPLEMENTATION_TITLE))) {
+          return manifest.getMainAttributes().getValue(Attributes.Name.IMPLEMENTATION_VERSION);
+        }
+      }
+    }
+    throw new IllegalStateException("Could not find " + title);
+  }
+
+  @Benchmark
+  public Object detectVersion() throws ReflectiveOperationException {
+    return detectVersionMethod.invoke(null, probe);
+  }
+}
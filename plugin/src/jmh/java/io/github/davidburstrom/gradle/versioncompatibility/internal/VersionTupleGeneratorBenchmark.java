@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the generation of the version tuples, i.e. the Cartesian product of the dimensions and
+ * the evaluation of the filters and rules, for different matrix shapes.
+ *
+ * <p>The selectivity is the fraction of the versions in the first dimension that is retained. It is
+ * applied either by a filter predicate, which sees every complete tuple, or by an exclusion rule,
+ * which prunes the rejected prefixes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionTupleGeneratorBenchmark {
+
+  @Param({"1", "2", "3"})
+  int dimensionCount;
+
+  @Param({"5", "20"})
+  int versionCount;
+
+  @Param({"1.0", "0.5", "0.1"})
+  double selectivity;
+
+  private VersionTupleGenerator generator;
+  private Predicate<List<String>> exclusionRules;
+  private List<Predicate<List<String>>> filters;
+
+  @Setup
+  public void setUp() {
+    final List<String> dimensionNames = new ArrayList<>();
+    final List<List<String>> dimensionVersions = new ArrayList<>();
+    for (int dimension = 0; dimension < dimensionCount; dimension++) {
+      dimensionNames.add("dimension" + dimension);
+      final List<String> versions = new ArrayList<>();
+      for (int version = 0; version < versionCount; version++) {
+        versions.add(dimension + "." + version + ".0");
+      }
+      dimensionVersions.add(versions);
+    }
+    generator = new VersionTupleGenerator(dimensionNames, dimensionVersions);
+
+    final List<String> firstVersions = dimensionVersions.get(0);
+    final List<String> excludedVersions =
+        new ArrayList<>(
+            firstVersions.subList((int) Math.ceil(selectivity * versionCount), versionCount));
+    final List<VersionRule> rules = new ArrayList<>();
+    if (!excludedVersions.isEmpty()) {
+      rules.add(VersionRule.of(Collections.singletonMap(dimensionNames.get(0), excludedVersions)));
+    }
+    exclusionRules = new VersionRules(dimensionNames, rules, Collections.emptyList());
+    filters = Collections.singletonList(tuple -> !excludedVersions.contains(tuple.get(0)));
+  }
+
+  @Benchmark
+  public List<List<NamedVersion>> filterPredicate() {
+    return generator.generate(prefix -> true, filters);
+  }
+
+  @Benchmark
+  public List<List<NamedVersion>> exclusionRule() {
+    return generator.generate(exclusionRules, Collections.emptyList());
+  }
+}
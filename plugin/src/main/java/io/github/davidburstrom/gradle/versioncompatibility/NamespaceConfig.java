@@ -42,4 +42,44 @@ public interface NamespaceConfig {
    * @return the property.
    */
   Property<String> getTargetSourceSetName();
+
+  /**
+   * Gets the property with which to set the fully qualified name of a class to generate into the
+   * "compat&lt;Namespace&gt;Api" source set, which instantiates the adapter that matches a runtime
+   * version, e.g. {@code LangAdapters.create(CompatArrayUtils.class, "3.7")} instantiates {@code
+   * CompatArrayUtils3Dot5} if the adapter versions are "3.0", "3.5" and "3.10".
+   *
+   * <p>If not set, no class is generated.
+   *
+   * @return the property.
+   */
+  Property<String> getDispatcherClassName();
+
+  /**
+   * Gets the property with which to enable JMH benchmarks of the adapters, in a
+   * "jmhCompat&lt;Namespace&gt;&lt;Version&gt;" source set per adapter version, with a task of the
+   * same name that runs them.
+   *
+   * <p>If not set, no benchmark source sets are created.
+   *
+   * @return the property.
+   */
+  Property<Boolean> getBenchmarks();
+
+  /**
+   * Gets the property with which to set the fully qualified name of a class whose cold start to
+   * measure with each adapter version, e.g. the adapter selection in a static initializer. The
+   * class is initialized, and if it is a {@link Runnable}, instantiated and run, e.g. to make the
+   * first call through the adapter API.
+   *
+   * <p>The class is put in a "coldStartCompat&lt;Namespace&gt;" source set, which depends on the
+   * target source set, and a task of the same name measures it in many forked JVMs per adapter
+   * version, with the "compat&lt;Namespace&gt;&lt;Version&gt;CompileAndTestOnly" dependencies on
+   * the classpath. The task reports the medians and 99th percentiles of the time to the first call,
+   * the number of loaded classes and the used metaspace. If not set, no cold start source set is
+   * created.
+   *
+   * @return the property.
+   */
+  Property<String> getColdStartClassName();
 }
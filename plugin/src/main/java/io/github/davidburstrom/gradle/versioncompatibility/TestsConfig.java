@@ -16,11 +16,15 @@
 package io.github.davidburstrom.gradle.versioncompatibility;
 
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import org.gradle.api.Action;
 import org.gradle.api.NamedDomainObjectContainer;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
 
 /** Used for configuring a compatibility test suite. */
 public interface TestsConfig {
@@ -42,10 +46,240 @@ public interface TestsConfig {
    *
    * <p>Multiple predicates can be registered, and will be applied in order of registration.
    *
+   * <p>The predicate is given a read-only view of the version tuple, which is only valid during the
+   * invocation, so it must not be retained.
+   *
    * @param versionTuplePredicate the predicate to be registered.
    */
   void filter(Predicate<List<String>> versionTuplePredicate);
 
+  /**
+   * Excludes the version combinations that match all the given dimension patterns, e.g. {@code
+   * exclude(mapOf("Java" to listOf("8", "11"), "Gradle" to "9.*"))} in Kotlin or {@code
+   * exclude(Java: ['8', '11'], Gradle: '9.*')} in Groovy.
+   *
+   * <p>Each value is either a pattern or a list of alternative patterns. A pattern is an exact
+   * version, a glob where "*" matches any sequence of characters (e.g. "9.*"), or a version range
+   * where brackets are inclusive and parentheses are exclusive (e.g. "[8.0,8.3)" or "[9,)").
+   *
+   * <p>Unlike {@link #filter(Predicate)}, the rules are evaluated as soon as the versions of the
+   * mentioned dimensions are known, so excluded combinations are skipped without being enumerated.
+   * Multiple rules can be registered, and a combination is excluded if any of them matches.
+   *
+   * @param dimensionPatterns the version patterns, keyed by dimension name.
+   */
+  void exclude(@Nonnull Map<String, ?> dimensionPatterns);
+
+  /**
+   * Includes only the version combinations that match all the given dimension patterns, using the
+   * same notation as {@link #exclude(Map)}.
+   *
+   * <p>Multiple rules can be registered, and a combination is included if any of them matches.
+   * Exclusion rules and filters are still applied to the included combinations.
+   *
+   * @param dimensionPatterns the version patterns, keyed by dimension name.
+   */
+  void include(@Nonnull Map<String, ?> dimensionPatterns);
+
+  /**
+   * Reduces the test matrix to a pairwise covering array, i.e. a subset of the version combinations
+   * in which every pair of versions from any two dimensions occurs at least once. Same as {@code
+   * nWise(2)}.
+   */
+  void pairwise();
+
+  /**
+   * Reduces the test matrix to an n-wise covering array, i.e. a subset of the version combinations
+   * in which every combination of versions from any {@code strength} dimensions occurs at least
+   * once. This drastically reduces the number of test tasks for matrices with three or more
+   * dimensions, while still exercising all interactions of lower order.
+   *
+   * <p>The covering array is selected among the combinations that remain after the filters and
+   * rules are applied, so excluded combinations are never tested. If the strength is at least the
+   * number of dimensions, all combinations are retained.
+   *
+   * @param strength the number of dimensions whose version combinations must all be covered.
+   */
+  void nWise(int strength);
+
+  /**
+   * Gets the property to configure the number of version combinations to sample for the {@code
+   * testCompatibility} lifecycle task. All combinations are still available through the {@code
+   * testCompatibilityAll} lifecycle task.
+   *
+   * <p>At most one of this property and {@link #getSampleRatio()} can be set. If neither is set,
+   * all combinations are run.
+   *
+   * @return the sample size property.
+   */
+  Property<Integer> getSampleSize();
+
+  /**
+   * Gets the property to configure the ratio of version combinations, in (0, 1], to sample for the
+   * {@code testCompatibility} lifecycle task. The number of sampled combinations is rounded up.
+   *
+   * @return the sample ratio property.
+   * @see #getSampleSize()
+   */
+  Property<Double> getSampleRatio();
+
+  /**
+   * Gets the property to configure the seed that the sample is drawn with. The same seed and matrix
+   * always give the same sample.
+   *
+   * <p>If not set, the hash of the commit that Git HEAD points at is used, so that different
+   * commits cover different parts of the matrix while each build is reproducible. The Git
+   * repository may also be a parent directory, worktree or submodule of the build. If no commit is
+   * found, a warning is logged, and the same combinations are sampled in every build.
+   *
+   * @return the sample seed property.
+   */
+  Property<String> getSampleSeed();
+
+  /**
+   * Gets the property to configure which shard of the version combinations to wire into the {@code
+   * testCompatibility} and {@code testCompatibilityAll} lifecycle tasks, given as the one-based
+   * shard index and the number of shards, e.g. "3/8". This makes it possible to spread the
+   * compatibility tests over multiple CI machines, by running the lifecycle task with a different
+   * shard on each machine.
+   *
+   * <p>If {@link #getDurationHistoryFile()} is set, the combinations are bin-packed into the shards
+   * by their recorded durations. Otherwise, each combination is assigned to a shard by a stable
+   * hash of its versions, so a combination stays in the same shard when other versions are added or
+   * removed. Sharding is applied after sampling.
+   *
+   * <p>If not set, the {@code versionCompatibility.shard} Gradle property is used, e.g. {@code
+   * -PversionCompatibility.shard=3/8}. If neither is set, all combinations are wired.
+   *
+   * @return the shard property.
+   */
+  Property<String> getShard();
+
+  /**
+   * Gets the property to configure whether the remaining compatibility test tasks should be skipped
+   * once any of them has failed, e.g. to save CI time when a change breaks something fundamental.
+   * This is mostly useful together with {@code --continue}, as Gradle otherwise stops scheduling
+   * tasks after the first failure anyway. The skipped tasks are listed at the end of the build.
+   *
+   * <p>Test tasks that are already running when the failure occurs run to completion. To also stop
+   * each test task at its first failing test, set {@code testTask.failFast} in {@link
+   * #eachTestTask(Action)}.
+   *
+   * <p>If not set, the {@code versionCompatibility.failFast} Gradle property is used, e.g. {@code
+   * -PversionCompatibility.failFast=true}, and otherwise it defaults to false.
+   *
+   * @return the fail fast property.
+   */
+  Property<Boolean> getFailFast();
+
+  /**
+   * Gets the property to configure whether compatibility test tasks that would run the same tests
+   * as another one should be skipped, e.g. when two versions resolve to the same artifact, or when
+   * a dependency constraint overrides the version. Two test tasks are considered the same if they
+   * have the same classpath, test classes, Java executable, JVM arguments including system
+   * properties, environment variables and test filters. The skipped tasks are listed as aliases of
+   * the tasks that ran at the end of the build.
+   *
+   * <p>The classpath is resolved when the task is about to run. If not set, it defaults to false.
+   *
+   * @return the skip duplicate tests property.
+   * @see #getDuplicateTestsIgnoredSystemProperties()
+   */
+  Property<Boolean> getSkipDuplicateTests();
+
+  /**
+   * Gets the property to configure the names of the system properties that don't tell test tasks
+   * apart when skipping duplicate test tasks, see {@link #getSkipDuplicateTests()}. A system
+   * property that passes the versions of the tuple to the tests, e.g. {@code
+   * systemProperty("MY_DEPENDENCY_VERSION", versions[0])}, differs between all test tasks, so it
+   * must be ignored for any test task to be skipped. Only ignore the properties that don't change
+   * the outcome of the tests on the same classpath. If not set, no system properties are ignored.
+   *
+   * @return the ignored system properties property.
+   */
+  SetProperty<String> getDuplicateTestsIgnoredSystemProperties();
+
+  /**
+   * Gets the property to configure whether the compatibility tests should run in shared JVMs rather
+   * than in a JVM per version tuple, which avoids the JVM startup and warm-up cost that dominates
+   * for fast test suites. The {@code testCompatibility} and {@code testCompatibilityAll} lifecycle
+   * tasks then depend on a task such as {@code testCompatibilityInSharedJvm}, which runs the tests
+   * of each tuple in a fresh class loader in a worker JVM. The worker JVMs are pooled by the Gradle
+   * daemon, keyed by the Java launcher, JVM arguments and heap sizes, so they are reused by the
+   * tuples with the same settings, also in subsequent builds. The JUnit XML results of each tuple
+   * are written to {@code build/test-results/<task name>/<tuple test task name>}.
+   *
+   * <p>Only the JUnit Platform is supported, and {@code org.junit.platform:junit-platform-launcher}
+   * must be on the test runtime classpath. The classpath, the Java launcher, the JVM arguments, the
+   * heap sizes and the system properties of each tuple are taken from its test task, so they can be
+   * configured in {@link #eachTestTask(Action)}, but other settings such as environment variables
+   * and test filters are not applied. The test tasks of the individual tuples are still available.
+   *
+   * <p>If not set, it defaults to false.
+   *
+   * @return the shared JVM property.
+   */
+  Property<Boolean> getSharedJvm();
+
+  /**
+   * Gets the property to configure whether the classpaths of all compatibility test tasks should be
+   * resolved before any of them run. The {@code testCompatibility} and {@code testCompatibilityAll}
+   * lifecycle tasks then depend on the {@code resolveCompatibilityClasspaths} task, which downloads
+   * the dependencies of all version tuples and reports the failures of all unresolvable tuples at
+   * once, e.g. non-existent versions, before the tests start.
+   *
+   * <p>The {@code resolveCompatibilityClasspaths} task can also be run on its own, e.g. to prefetch
+   * the dependencies in CI. If not set, it defaults to false.
+   *
+   * @return the resolve classpaths first property.
+   */
+  Property<Boolean> getResolveClasspathsFirst();
+
+  /**
+   * Gets the property to configure whether each compatibility test task should only run the test
+   * classes that may exercise the dependencies whose versions vary, rather than all the test
+   * classes. The varying dependencies of a version tuple are the modules that it adds constraints
+   * for in {@link #eachTestRuntimeOnly(Action)}. A test class is selected if it, through the test
+   * and production classes that it references transitively, references a class in a package of
+   * those modules, or a class of an adapter API source set. The selection is done by a {@code
+   * selectTestCompatibilityTestsWith...} task per version tuple, and test tasks without any
+   * selected test classes are skipped. The regular test task still runs all the test classes.
+   *
+   * <p>The references are read from the bytecode, so classes that are only used through reflection,
+   * service loading or resources are not seen. Dimensions that vary something else than the
+   * dependencies, e.g. the Java version, are not taken into account, but version tuples without any
+   * constrained classes run all the test classes. The selection is not applied to the tests in
+   * shared JVMs, see {@link #getSharedJvm()}. If not set, it defaults to false.
+   *
+   * @return the select tests by reference property.
+   */
+  Property<Boolean> getSelectTestsByReference();
+
+  /**
+   * Gets the property to configure the file where the durations of the compatibility test tasks are
+   * recorded. The durations are used to balance the shards, see {@link #getShard()}, so that they
+   * take about equally long, with the longest test tasks distributed first.
+   *
+   * <p>All machines must use the same history to agree on the shards, so the file should e.g. be
+   * checked in, or cached and restored between builds. If the file is missing, the shards are
+   * assigned by hash with a warning, and the durations are recorded for the next build. If not set,
+   * the shards are assigned by hash, and the durations are only recorded when the {@code
+   * compatibilityReport} task runs.
+   *
+   * @return the duration history file property.
+   */
+  RegularFileProperty getDurationHistoryFile();
+
+  /**
+   * Gets the results directories copied from the other CI shards, e.g. their {@code
+   * build/test-results} directories, which the {@code aggregateCompatibilityResults} task merges
+   * with the results of this build. The results of each compatibility test task are looked up in a
+   * subdirectory named after the task, and the results of this build take precedence.
+   *
+   * @return the shard results directories.
+   */
+  ConfigurableFileCollection getShardResults();
+
   /**
    * Gets the property to configure the test source set name that the compatibility test should run
    * against. If not set, it will run against "test".
@@ -54,9 +288,50 @@ public interface TestsConfig {
    */
   Property<String> getTestSourceSetName();
 
+  /**
+   * Gets the property to configure a JMH benchmark source set to run against each version tuple,
+   * e.g. "jmh". The benchmarks are run by a {@code <benchmarkSourceSetName>CompatibilityWith...}
+   * task per tuple, with the same runtime classpath and Java launcher as the corresponding test
+   * task, and the scores are compared against {@link #getPerformanceBaselineFile()} by the {@code
+   * checkCompatibilityPerformance} task.
+   *
+   * <p>The source set must already exist, and its runtime classpath must contain JMH. The tuples
+   * are the ones that the {@code testCompatibility} task runs. If not set, no benchmarks are run.
+   *
+   * @return the benchmark source set name property.
+   */
+  Property<String> getBenchmarkSourceSetName();
+
+  /**
+   * Gets the property to configure the file with the benchmark scores to compare against, see
+   * {@link #getBenchmarkSourceSetName()}. The file should be checked in, and is updated from the
+   * latest benchmark results by the {@code update<BenchmarkSourceSetName>CompatibilityBaseline}
+   * task. The scores of the tuples that were not benchmarked are kept, so that sharded builds can
+   * update their part of the baseline.
+   *
+   * <p>If not set, the file is {@code <benchmarkSourceSetName>-compatibility-baseline.properties}
+   * in the project directory.
+   *
+   * @return the performance baseline file property.
+   */
+  RegularFileProperty getPerformanceBaselineFile();
+
+  /**
+   * Gets the property to configure how much worse than the baseline a benchmark score may be, as a
+   * fraction of the baseline score, before the {@code checkCompatibilityPerformance} task fails.
+   * For throughput benchmarks the score must not drop by more than the threshold, and for the other
+   * modes it must not rise by more than the threshold. If not set, it defaults to 0.1.
+   *
+   * @return the performance regression threshold property.
+   */
+  Property<Double> getPerformanceRegressionThreshold();
+
   /**
    * Adds a dependencies configuration block for each compatibility test runtime classpath.
    *
+   * <p>The block is executed lazily, when the runtime classpath configuration is realized, which
+   * usually happens when the corresponding test task is part of the task graph.
+   *
    * @param action The configuration action.
    */
   void eachTestRuntimeOnly(@Nonnull Action<TestRuntimeOnlyConfig> action);
@@ -17,6 +17,7 @@ package io.github.davidburstrom.gradle.versioncompatibility;
 
 import javax.annotation.Nonnull;
 import org.gradle.api.Action;
+import org.gradle.api.provider.Property;
 
 public interface VersionCompatibilityExtension {
   /**
@@ -32,4 +33,16 @@ public interface VersionCompatibilityExtension {
    * @param action The config action.
    */
   void tests(@Nonnull Action<TestsConfig> action);
+
+  /**
+   * Gets whether to measure the configuration overhead of the adapters and tests blocks, i.e. the
+   * wall time and allocation of their phases, and the number of source sets, configurations and
+   * tasks that they register. Only the blocks that follow it are measured. The measurements are
+   * written to {@code build/version-compatibility/configuration-profile.json}, and summarized when
+   * the build finishes. Defaults to the {@code versionCompatibility.profileConfiguration} Gradle
+   * property, or false.
+   *
+   * @return the profile configuration property.
+   */
+  Property<Boolean> getProfileConfiguration();
 }
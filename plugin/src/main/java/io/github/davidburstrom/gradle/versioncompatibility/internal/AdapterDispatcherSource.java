@@ -0,0 +1,270 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.unpunctuate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Generates the source of a class that instantiates the adapter of a namespace that matches a
+ * version at runtime, and that detects the version of a library cheaply.
+ *
+ * <p>The adapter versions are sorted at build time, newest first, so at runtime the version is only
+ * compared with the table until the newest adapter version that is not newer than it is found. The
+ * versions are compared like {@link VersionComparator} does. Only the matching adapter class is
+ * loaded, through the naming convention that the adapter of an interface "a.Api" for version "1.0"
+ * is named "a.Api1Dot0".
+ *
+ * <p>The version of a library is detected through a class of it, from the manifest of the library
+ * that the class loader has already read, or from the file name of the library, instead of scanning
+ * all manifests on the classpath. The result is cached in a {@link ClassValue}, which doesn't keep
+ * the class loader of the library alive.
+ */
+public final class AdapterDispatcherSource {
+  private AdapterDispatcherSource() {}
+
+  /**
+   * Generates the source of a dispatcher class.
+   *
+   * @param className the fully qualified name of the class.
+   * @param versions the adapter versions.
+   * @return the Java source of the class.
+   * @throws IllegalArgumentException if the class name is not a valid qualified name, or if there
+   *     are no versions.
+   */
+  @Nonnull
+  public static String generate(@Nonnull String className, @Nonnull Collection<String> versions) {
+    if (!isQualifiedName(className)) {
+      throw new IllegalArgumentException("Invalid dispatcher class name: " + className);
+    }
+    if (versions.isEmpty()) {
+      throw new IllegalArgumentException("No versions specified for " + className);
+    }
+    final List<String> sortedVersions = new ArrayList<>(versions);
+    sortedVersions.sort(Collections.reverseOrder(new VersionComparator()));
+    final List<String> versionLiterals = new ArrayList<>();
+    final List<String> suffixLiterals = new ArrayList<>();
+    for (String version : sortedVersions) {
+      versionLiterals.add(literal(version));
+      suffixLiterals.add(literal(unpunctuate(version)));
+    }
+
+    final int lastDot = className.lastIndexOf('.');
+    final String simpleName = className.substring(lastDot + 1);
+    final StringBuilder source = new StringBuilder(8192);
+    if (lastDot != -1) {
+      source.append("package ").append(className, 0, lastDot).append(";\n\n");
+    }
+    source
+        .append(
+            "/**\n"
+                + " * Detects a library version at runtime, and instantiates the matching"
+                + " adapter.\n"
+                + " *\n"
+                + " * <p>Generated by the version compatibility plugin, do not edit.\n"
+                + " */\n"
+                + "@SuppressWarnings(\"all\")\n"
+                + "public final class ")
+        .append(simpleName)
+        .append(
+            " {\n"
+                + "  /* The adapter versions, newest first, and their class name suffixes. */\n"
+                + "  private static final String[] VERSIONS = {")
+        .append(String.join(", ", versionLiterals))
+        .append("};\n  private static final String[] SUFFIXES = {")
+        .append(String.join(", ", suffixLiterals))
+        .append(
+            "};\n"
+                + "  /* A version in a library file name, e.g. \"lib-1.0.jar\". */\n"
+                + "  private static final java.util.regex.Pattern FILE_NAME_VERSION =\n"
+                + "      java.util.regex.Pattern.compile(\"-(\\\\d[^/]*?)\\\\.jar$\");\n"
+                + "  /* The detected versions, per probe class and thereby per class loader. */\n"
+                + "  private static final ClassValue<String> DETECTED_VERSIONS =\n"
+                + "      new ClassValue<String>() {\n"
+                + "        @Override\n"
+                + "        protected String computeValue(Class<?> probe) {\n"
+                + "          return detect(probe);\n"
+                + "        }\n"
+                + "      };\n\n"
+                + "  private ")
+        .append(simpleName)
+        .append(
+            "() {}\n\n"
+                + "  /**\n"
+                + "   * Gets the newest adapter version that is not newer than a version.\n"
+                + "   *\n"
+                + "   * @param version the runtime version.\n"
+                + "   * @return the adapter version.\n"
+                + "   * @throws IllegalArgumentException if no adapter supports the version.\n"
+                + "   */\n"
+                + "  public static String adapterVersion(String version) {\n"
+                + "    return VERSIONS[index(version)];\n"
+                + "  }\n"
+                + "\n"
+                + "  /**\n"
+                + "   * Instantiates the adapter of an interface for a version. No other\n"
+                + "   * adapter classes are loaded.\n"
+                + "   *\n"
+                + "   * @param api the adapter interface.\n"
+                + "   * @param version the runtime version.\n"
+                + "   * @return the adapter.\n"
+                + "   * @throws IllegalArgumentException if no adapter supports the version.\n"
+                + "   * @throws IllegalStateException if the adapter could not be instantiated.\n"
+                + "   */\n"
+                + "  public static <T> T create(Class<T> api, String version) {\n"
+                + "    final String adapterName = api.getName() + SUFFIXES[index(version)];\n"
+                + "    try {\n"
+                + "      return api.cast(\n"
+                + "          Class.forName(adapterName, true, api.getClassLoader())\n"
+                + "              .getDeclaredConstructor()\n"
+                + "              .newInstance());\n"
+                + "    } catch (ReflectiveOperationException e) {\n"
+                + "      throw new IllegalStateException(\n"
+                + "          \"Could not instantiate \" + adapterName, e);\n"
+                + "    }\n"
+                + "  }\n"
+                + "\n"
+                + "  /**\n"
+                + "   * Instantiates the adapter of an interface for the version of the library\n"
+                + "   * that contains a probe class, see {@link #detectVersion(Class)}.\n"
+                + "   *\n"
+                + "   * @param api the adapter interface.\n"
+                + "   * @param probe a class of the library.\n"
+                + "   * @return the adapter.\n"
+                + "   */\n"
+                + "  public static <T> T create(Class<T> api, Class<?> probe) {\n"
+                + "    return create(api, detectVersion(probe));\n"
+                + "  }\n"
+                + "\n"
+                + "  /**\n"
+                + "   * Detects the version of the library that contains a probe class, without\n"
+                + "   * scanning the classpath. The implementation version in the manifest of\n"
+                + "   * the library is used if there is one, otherwise the version in the file\n"
+                + "   * name of the library, e.g. \"lib-1.0.jar\". The result is cached per probe\n"
+                + "   * class.\n"
+                + "   *\n"
+                + "   * @param probe a class of the library.\n"
+                + "   * @return the version.\n"
+                + "   * @throws IllegalStateException if the version could not be detected.\n"
+                + "   */\n"
+                + "  public static String detectVersion(Class<?> probe) {\n"
+                + "    return DETECTED_VERSIONS.get(probe);\n"
+                + "  }\n"
+                + "\n"
+                + "  private static String detect(Class<?> probe) {\n"
+                + "    final Package probePackage = probe.getPackage();\n"
+                + "    final String implementationVersion =\n"
+                + "        probePackage == null ? null : probePackage.getImplementationVersion();\n"
+                + "    if (implementationVersion != null) {\n"
+                + "      return implementationVersion;\n"
+                + "    }\n"
+                + "    final java.security.CodeSource codeSource =\n"
+                + "        probe.getProtectionDomain().getCodeSource();\n"
+                + "    if (codeSource != null && codeSource.getLocation() != null) {\n"
+                + "      final java.util.regex.Matcher matcher =\n"
+                + "          FILE_NAME_VERSION.matcher(codeSource.getLocation().getPath());\n"
+                + "      if (matcher.find()) {\n"
+                + "        return matcher.group(1);\n"
+                + "      }\n"
+                + "    }\n"
+                + "    throw new IllegalStateException(\n"
+                + "        \"Could not detect the library version of \" + probe.getName());\n"
+                + "  }\n"
+                + "\n"
+                + "  private static int index(String version) {\n"
+                + "    for (int index = 0; index < VERSIONS.length; index++) {\n"
+                + "      if (compare(VERSIONS[index], version) <= 0) {\n"
+                + "        return index;\n"
+                + "      }\n"
+                + "    }\n"
+                + "    throw new IllegalArgumentException(\n"
+                + "        \"No adapter supports version \" + version + \", the oldest is \"\n"
+                + "            + VERSIONS[VERSIONS.length - 1]);\n"
+                + "  }\n"
+                + "\n"
+                + "  private static int compare(String first, String second) {\n"
+                + "    final String[] firstSegments = first.split(\"[.\\\\-_+]\", -1);\n"
+                + "    final String[] secondSegments = second.split(\"[.\\\\-_+]\", -1);\n"
+                + "    final int count = Math.max(firstSegments.length, secondSegments.length);\n"
+                + "    for (int index = 0; index < count; index++) {\n"
+                + "      final int result =\n"
+                + "          compareSegments(\n"
+                + "              index < firstSegments.length ? firstSegments[index] : \"0\",\n"
+                + "              index < secondSegments.length ? secondSegments[index] : \"0\");\n"
+                + "      if (result != 0) {\n"
+                + "        return result;\n"
+                + "      }\n"
+                + "    }\n"
+                + "    return 0;\n"
+                + "  }\n"
+                + "\n"
+                + "  private static int compareSegments(String first, String second) {\n"
+                + "    final boolean firstIsNumeric = isNumeric(first);\n"
+                + "    final boolean secondIsNumeric = isNumeric(second);\n"
+                + "    if (firstIsNumeric && secondIsNumeric) {\n"
+                + "      final String firstNumber = first.replaceFirst(\"^0+(?=.)\", \"\");\n"
+                + "      final String secondNumber = second.replaceFirst(\"^0+(?=.)\", \"\");\n"
+                + "      if (firstNumber.length() != secondNumber.length()) {\n"
+                + "        return Integer.compare(firstNumber.length(), secondNumber.length());\n"
+                + "      }\n"
+                + "      return firstNumber.compareTo(secondNumber);\n"
+                + "    } else if (firstIsNumeric) {\n"
+                + "      return 1;\n"
+                + "    } else if (secondIsNumeric) {\n"
+                + "      return -1;\n"
+                + "    }\n"
+                + "    return first.compareTo(second);\n"
+                + "  }\n"
+                + "\n"
+                + "  private static boolean isNumeric(String segment) {\n"
+                + "    if (segment.isEmpty()) {\n"
+                + "      return false;\n"
+                + "    }\n"
+                + "    for (int index = 0; index < segment.length(); index++) {\n"
+                + "      if (!Character.isDigit(segment.charAt(index))) {\n"
+                + "        return false;\n"
+                + "      }\n"
+                + "    }\n"
+                + "    return true;\n"
+                + "  }\n"
+                + "}\n");
+    return source.toString();
+  }
+
+  private static boolean isQualifiedName(@Nonnull String name) {
+    for (String part : name.split("\\.", -1)) {
+      if (part.isEmpty() || !Character.isJavaIdentifierStart(part.charAt(0))) {
+        return false;
+      }
+      for (int index = 1; index < part.length(); index++) {
+        if (!Character.isJavaIdentifierPart(part.charAt(index))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Nonnull
+  private static String literal(@Nonnull String value) {
+    return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+}
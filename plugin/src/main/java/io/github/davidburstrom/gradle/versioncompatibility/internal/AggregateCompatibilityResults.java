@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Merges the JUnit XML results of the compatibility test tasks, including the results copied from
+ * other CI shards, into a single JUnit XML file, and lists the distinct failures with the tuples
+ * they occurred with, see {@link CompatibilityResults}.
+ *
+ * <p>Unlike the Gradle {@code TestReport} task, the results are streamed, so the memory use doesn't
+ * grow with the number of tests.
+ */
+@DisableCachingByDefault(because = "The aggregation depends on the outcomes of other tasks")
+public abstract class AggregateCompatibilityResults extends DefaultTask {
+  private final List<CompatibilityReportTuple> tuples = new ArrayList<>();
+
+  /**
+   * Gets the compatibility test tasks to aggregate, in order.
+   *
+   * @return the mutable list of tuples.
+   */
+  @Nested
+  public List<CompatibilityReportTuple> getTuples() {
+    return tuples;
+  }
+
+  /**
+   * Gets the results directories copied from other CI shards, which contain the results of each
+   * compatibility test task in a subdirectory named after the task, like {@code
+   * build/test-results}. The results of this build take precedence.
+   *
+   * @return the shard results directories.
+   */
+  @InputFiles
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public abstract ConfigurableFileCollection getShardResults();
+
+  /**
+   * Gets the file to write the merged JUnit XML results to.
+   *
+   * @return the results file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getResultsFile();
+
+  /**
+   * Gets the file to write the distinct failures to.
+   *
+   * @return the failures file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getFailuresFile();
+
+  /** Merges the results, and writes the failures. */
+  @TaskAction
+  public void aggregate() {
+    final List<CompatibilityResults.Source> sources = new ArrayList<>();
+    for (CompatibilityReportTuple tuple : tuples) {
+      final String taskName = tuple.getTaskName().get();
+      final List<String> dimensions = tuple.getDimensions().get();
+      final List<String> versions = tuple.getVersions().get();
+      final List<NamedVersion> combinedVersion = new ArrayList<>();
+      for (int index = 0; index < dimensions.size(); index++) {
+        combinedVersion.add(new NamedVersion(dimensions.get(index), versions.get(index)));
+      }
+      final List<File> directories = new ArrayList<>();
+      directories.add(tuple.getResultsDirectory().get().getAsFile());
+      for (File shardResults : getShardResults()) {
+        directories.add(new File(shardResults, taskName));
+      }
+      sources.add(new CompatibilityResults.Source(taskName, combinedVersion, directories));
+    }
+
+    final Path resultsFile = getResultsFile().get().getAsFile().toPath();
+    final Path failuresFile = getFailuresFile().get().getAsFile().toPath();
+    final CompatibilityResults results;
+    try {
+      Files.createDirectories(resultsFile.toAbsolutePath().getParent());
+      try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(resultsFile))) {
+        results = CompatibilityResults.aggregate(sources, output);
+      }
+      Files.createDirectories(failuresFile.toAbsolutePath().getParent());
+      Files.write(failuresFile, results.formatFailures().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write the aggregated test results", e);
+    }
+    getLogger()
+        .lifecycle(
+            "Aggregated "
+                + results.getTests()
+                + " test(s) of "
+                + tuples.size()
+                + " tuple(s) into "
+                + resultsFile.toUri()
+                + ", with "
+                + results.getDistinctFailures()
+                + " distinct failure(s) in "
+                + results.getFailures()
+                + " failed test(s), see "
+                + failuresFile.toUri());
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Formats the JMH results of the adapters of a namespace as a Markdown table, with one row per
+ * benchmark and one column per adapter version, so that the adapters can be compared side by side.
+ *
+ * <p>Each cell contains the score of the primary metric, and the allocation per operation if the
+ * benchmarks were run with the GC profiler. The benchmarks are matched by their fully qualified
+ * name, mode and parameters, so the benchmark classes should be named the same in each adapter
+ * benchmark source set.
+ */
+public final class BenchmarkComparison {
+  private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+  private static final String MISSING = "-";
+
+  private BenchmarkComparison() {}
+
+  /**
+   * Formats the results of the adapter versions.
+   *
+   * @param resultsByVersion the JMH JSON results, by adapter version, in column order.
+   * @return the Markdown table.
+   * @throws IllegalArgumentException if any results are malformed.
+   */
+  @Nonnull
+  public static String format(@Nonnull Map<String, String> resultsByVersion) {
+    final Map<String, Map<String, String>> cellsByBenchmark = new LinkedHashMap<>();
+    resultsByVersion.forEach(
+        (version, results) -> {
+          for (Object result : asList(Json.parse(results), "results")) {
+            final Map<String, Object> benchmark = asMap(result, "benchmark");
+            cellsByBenchmark
+                .computeIfAbsent(benchmarkName(benchmark), name -> new LinkedHashMap<>())
+                .put(version, cell(benchmark));
+          }
+        });
+
+    final StringBuilder table = new StringBuilder("| Benchmark |");
+    final StringBuilder separator = new StringBuilder("|---|");
+    for (String version : resultsByVersion.keySet()) {
+      table.append(' ').append(version).append(" |");
+      separator.append("---|");
+    }
+    table.append('\n').append(separator).append('\n');
+    cellsByBenchmark.forEach(
+        (name, cells) -> {
+          table.append("| ").append(name).append(" |");
+          for (String version : resultsByVersion.keySet()) {
+            table.append(' ').append(cells.getOrDefault(version, MISSING)).append(" |");
+          }
+          table.append('\n');
+        });
+    return table.toString();
+  }
+
+  @Nonnull
+  static String benchmarkName(@Nonnull Map<String, Object> benchmark) {
+    final StringBuilder name = new StringBuilder(String.valueOf(benchmark.get("benchmark")));
+    name.append(" (").append(benchmark.get("mode"));
+    final Object params = benchmark.get("params");
+    if (params != null) {
+      asMap(params, "params")
+          .forEach((key, value) -> name.append(", ").append(key).append('=').append(value));
+    }
+    return name.append(')').toString();
+  }
+
+  @Nonnull
+  private static String cell(@Nonnull Map<String, Object> benchmark) {
+    final StringBuilder cell = new StringBuilder(metric(benchmark.get("primaryMetric")));
+    final Object secondaryMetrics = benchmark.get("secondaryMetrics");
+    if (secondaryMetrics != null) {
+      final Object allocation = asMap(secondaryMetrics, "secondaryMetrics").get(ALLOCATION_METRIC);
+      if (allocation != null) {
+        cell.append(", ").append(metric(allocation));
+      }
+    }
+    return cell.toString();
+  }
+
+  @Nonnull
+  private static String metric(@Nullable Object metric) {
+    final Map<String, Object> values = asMap(metric, "metric");
+    final Object score = values.get("score");
+    /* JMH writes the scores that could not be computed as the string "NaN". */
+    final String formattedScore =
+        score instanceof Double
+            ? String.format(Locale.ROOT, "%.3f", (Double) score)
+            : String.valueOf(score);
+    return formattedScore + " " + values.get("scoreUnit");
+  }
+
+  @Nonnull
+  @SuppressWarnings("unchecked")
+  static Map<String, Object> asMap(@Nullable Object value, @Nonnull String description) {
+    if (!(value instanceof Map)) {
+      throw new IllegalArgumentException("Expected " + description + " to be an object");
+    }
+    return (Map<String, Object>) value;
+  }
+
+  @Nonnull
+  static List<Object> asList(@Nullable Object value, @Nonnull String description) {
+    if (!(value instanceof List)) {
+      throw new IllegalArgumentException("Expected " + description + " to be an array");
+    }
+    return new ArrayList<>((List<?>) value);
+  }
+}
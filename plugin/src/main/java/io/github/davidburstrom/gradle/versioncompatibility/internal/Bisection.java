@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Binary search for the first incompatible version of a dimension, given that the versions are
+ * ordered so that all versions from some point onward are incompatible.
+ *
+ * <p>The outcomes of the tested versions are given as a list with one element per version, which is
+ * true if the version is compatible, false if it is incompatible and null if it hasn't been tested.
+ */
+public final class Bisection {
+  private Bisection() {}
+
+  /**
+   * Creates an order in which the versions can be tested, such that every version that the search
+   * may need is preceded by all versions that the search needs before it. This is the level order
+   * of the implicit search tree, so the tests can be scheduled before their outcomes are known.
+   *
+   * @param count the number of versions.
+   * @return the version indices, in test order.
+   */
+  @Nonnull
+  public static List<Integer> probeOrder(int count) {
+    final List<Integer> order = new ArrayList<>(count);
+    final Deque<int[]> intervals = new ArrayDeque<>();
+    intervals.add(new int[] {0, count});
+    while (!intervals.isEmpty()) {
+      final int[] interval = intervals.poll();
+      if (interval[0] < interval[1]) {
+        final int middle = (interval[0] + interval[1]) >>> 1;
+        order.add(middle);
+        intervals.add(new int[] {interval[0], middle});
+        intervals.add(new int[] {middle + 1, interval[1]});
+      }
+    }
+    return order;
+  }
+
+  /**
+   * Finds the version to test next.
+   *
+   * @param outcomes the outcome of each version.
+   * @return the index of the version to test next, or -1 if the search is complete.
+   */
+  public static int nextProbe(@Nonnull List<Boolean> outcomes) {
+    return search(outcomes, true);
+  }
+
+  /**
+   * Finds the first incompatible version.
+   *
+   * @param outcomes the outcome of each version.
+   * @return the index of the first incompatible version, the number of versions if all are
+   *     compatible, or -1 if the search is incomplete.
+   */
+  public static int firstIncompatible(@Nonnull List<Boolean> outcomes) {
+    return search(outcomes, false);
+  }
+
+  private static int search(@Nonnull List<Boolean> outcomes, boolean findNextProbe) {
+    int low = 0;
+    int high = outcomes.size();
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      final Boolean compatible = outcomes.get(middle);
+      if (compatible == null) {
+        return findNextProbe ? middle : -1;
+      } else if (compatible) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return findNextProbe ? -1 : low;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import javax.annotation.Nonnull;
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+
+/**
+ * Reports the start or the successful end of a compatibility test task to the {@link
+ * BisectionService}.
+ *
+ * <p>This is a class rather than a lambda, so that it can be stored in the configuration cache.
+ */
+public final class BisectionRecorder implements Action<Task> {
+  private final Provider<BisectionService> service;
+  private final String version;
+  private final boolean finished;
+
+  private BisectionRecorder(
+      @Nonnull Provider<BisectionService> service, @Nonnull String version, boolean finished) {
+    this.service = service;
+    this.version = version;
+    this.finished = finished;
+  }
+
+  /**
+   * Creates an action to add with {@link Task#doFirst(Action)}.
+   *
+   * @param service the service to report to.
+   * @param version the version that the task tests.
+   * @return the action.
+   */
+  @Nonnull
+  public static BisectionRecorder start(
+      @Nonnull Provider<BisectionService> service, @Nonnull String version) {
+    return new BisectionRecorder(service, version, false);
+  }
+
+  /**
+   * Creates an action to add with {@link Task#doLast(Action)}.
+   *
+   * @param service the service to report to.
+   * @param version the version that the task tests.
+   * @return the action.
+   */
+  @Nonnull
+  public static BisectionRecorder finish(
+      @Nonnull Provider<BisectionService> service, @Nonnull String version) {
+    return new BisectionRecorder(service, version, true);
+  }
+
+  @Override
+  public void execute(@Nonnull Task task) {
+    if (finished) {
+      service.get().finished(version, task.getPath());
+    } else {
+      service.get().started(version, task.getPath());
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import javax.annotation.Nonnull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Decides which versions of a dimension to test while bisecting it, and reports the first
+ * incompatible version when the build finishes.
+ *
+ * <p>A version is incompatible if any of its test tasks started executing but didn't finish, i.e.
+ * failed. Test tasks that are up to date or loaded from the build cache have passed before, so they
+ * count as compatible.
+ *
+ * <p>The test tasks of each version must run after those of every version before it in the probe
+ * order, so the decision for a version only reads the outcomes of versions whose test tasks have
+ * all finished. The test tasks of one version, e.g. one per version of another dimension, may still
+ * run in parallel with each other, so the state is kept in concurrent collections.
+ */
+public abstract class BisectionService
+    implements BuildService<BisectionService.Parameters>, AutoCloseable {
+  private static final Logger LOGGER = Logging.getLogger(BisectionService.class);
+
+  /** The parameters of the service. */
+  public interface Parameters extends BuildServiceParameters {
+    /**
+     * Gets the name of the dimension to bisect.
+     *
+     * @return the dimension name property.
+     */
+    Property<String> getDimension();
+
+    /**
+     * Gets the versions of the dimension, from the earliest to the latest.
+     *
+     * @return the versions property.
+     */
+    ListProperty<String> getVersions();
+  }
+
+  private final Set<String> testedVersions = new CopyOnWriteArraySet<>();
+  private final Map<String, Set<String>> unfinishedTasks = new ConcurrentHashMap<>();
+
+  /**
+   * Checks whether the test tasks of a version should run, and records the decision.
+   *
+   * @param version the version.
+   * @return true if the version is the next one to test.
+   */
+  public boolean shouldRun(@Nonnull String version) {
+    final List<String> versions = getParameters().getVersions().get();
+    final List<Boolean> outcomes = getOutcomes(versions);
+    /* Other test tasks of the same version may be running, so its outcome is not yet known. */
+    outcomes.set(versions.indexOf(version), null);
+    if (Bisection.nextProbe(outcomes) == versions.indexOf(version)) {
+      testedVersions.add(version);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Records that a test task has started executing.
+   *
+   * @param version the version that the task tests.
+   * @param taskPath the path of the test task.
+   */
+  public void started(@Nonnull String version, @Nonnull String taskPath) {
+    unfinishedTasks.computeIfAbsent(version, v -> ConcurrentHashMap.newKeySet()).add(taskPath);
+  }
+
+  /**
+   * Records that a test task has finished executing successfully.
+   *
+   * @param version the version that the task tests.
+   * @param taskPath the path of the test task.
+   */
+  public void finished(@Nonnull String version, @Nonnull String taskPath) {
+    unfinishedTasks.getOrDefault(version, Collections.emptySet()).remove(taskPath);
+  }
+
+  @Nonnull
+  private List<Boolean> getOutcomes(@Nonnull List<String> versions) {
+    final List<Boolean> outcomes = new ArrayList<>(versions.size());
+    for (String version : versions) {
+      outcomes.add(
+          testedVersions.contains(version)
+              ? unfinishedTasks.getOrDefault(version, Collections.emptySet()).isEmpty()
+              : null);
+    }
+    return outcomes;
+  }
+
+  /**
+   * Gets the index of the first incompatible version, as determined by {@link
+   * Bisection#firstIncompatible(List)} from the outcomes so far.
+   *
+   * @return the index, the number of versions if all are compatible, or -1 if the bisection is
+   *     incomplete.
+   */
+  int getFirstIncompatible() {
+    return Bisection.firstIncompatible(getOutcomes(getParameters().getVersions().get()));
+  }
+
+  @Override
+  public void close() {
+    if (testedVersions.isEmpty()) {
+      return;
+    }
+    final String dimension = getParameters().getDimension().get();
+    final List<String> versions = getParameters().getVersions().get();
+    final int firstIncompatible = getFirstIncompatible();
+    final String tested = "after testing " + String.join(", ", testedVersions);
+    if (firstIncompatible < 0) {
+      LOGGER.lifecycle(
+          "The bisection of "
+              + dimension
+              + " is incomplete "
+              + tested
+              + ". Run the build with --continue to keep bisecting after a failure.");
+    } else if (firstIncompatible == versions.size()) {
+      LOGGER.lifecycle("No incompatible version of " + dimension + " was found " + tested + ".");
+    } else if (firstIncompatible == 0) {
+      LOGGER.lifecycle(
+          "The first incompatible version of "
+              + dimension
+              + " is "
+              + versions.get(0)
+              + ", which is the earliest version, found "
+              + tested
+              + ".");
+    } else {
+      LOGGER.lifecycle(
+          "The first incompatible version of "
+              + dimension
+              + " is "
+              + versions.get(firstIncompatible)
+              + ", after "
+              + versions.get(firstIncompatible - 1)
+              + ", found "
+              + tested
+              + ".");
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import javax.annotation.Nonnull;
+import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.specs.Spec;
+
+/**
+ * Skips a compatibility test task unless its version is the next one to test in a bisection.
+ *
+ * <p>This is a class rather than a lambda, so that it can be stored in the configuration cache.
+ */
+public final class BisectionSpec implements Spec<Task> {
+  private final Provider<BisectionService> service;
+  private final String version;
+
+  public BisectionSpec(@Nonnull Provider<BisectionService> service, @Nonnull String version) {
+    this.service = service;
+    this.version = version;
+  }
+
+  @Override
+  public boolean isSatisfiedBy(@Nonnull Task task) {
+    return service.get().shouldRun(version);
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import javax.inject.Inject;
+import org.gradle.build.event.BuildEventsListenerRegistry;
+
+/** Gives access to the build events listener registry, which can only be injected. */
+public abstract class BuildEvents {
+
+  /**
+   * Gets the build events listener registry.
+   *
+   * @return the registry.
+   */
+  @Inject
+  @SuppressWarnings("JavaxInjectOnAbstractMethod")
+  public abstract BuildEventsListenerRegistry getListenerRegistry();
+}
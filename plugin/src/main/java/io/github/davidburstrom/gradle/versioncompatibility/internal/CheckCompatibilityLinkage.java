@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Checks the linkage of the production classes against the classpath of a compatibility test task,
+ * i.e. that every class, field and method that they reference exists, without running any tests.
+ */
+@CacheableTask
+public abstract class CheckCompatibilityLinkage extends DefaultTask {
+
+  /**
+   * Gets the class directories and jars to check the references of.
+   *
+   * @return the classes.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getClasses();
+
+  /**
+   * Gets the symbol indexes of the classpath to check the classes against, in classpath order.
+   *
+   * @return the symbol index files.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getSymbolIndexes();
+
+  /**
+   * Gets the file to write the linkage problems to.
+   *
+   * @return the report file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getReportFile();
+
+  /** Checks the linkage, and fails if there are any problems. */
+  @TaskAction
+  public void check() {
+    final Map<String, ClassFile> classpath = new LinkedHashMap<>();
+    for (File symbolIndex : getSymbolIndexes()) {
+      try {
+        final String text =
+            new String(Files.readAllBytes(symbolIndex.toPath()), StandardCharsets.UTF_8);
+        SymbolIndex.parse(text).forEach(classpath::putIfAbsent);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not read the symbol index " + symbolIndex, e);
+      }
+    }
+    final List<ClassFile> classes = new ArrayList<>();
+    for (File file : getClasses()) {
+      classes.addAll(SymbolIndex.readClasses(file));
+    }
+    /* The checked classes may reference each other, but the classpath takes precedence. */
+    for (ClassFile classFile : classes) {
+      classpath.putIfAbsent(classFile.getName(), classFile);
+    }
+
+    final Set<String> problems = new LinkageChecker(classpath).check(classes);
+    final StringBuilder report = new StringBuilder();
+    for (String problem : problems) {
+      report.append(problem).append('\n');
+    }
+    final File reportFile = getReportFile().get().getAsFile();
+    try {
+      Files.write(reportFile.toPath(), report.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write the linkage report " + reportFile, e);
+    }
+    if (!problems.isEmpty()) {
+      throw new GradleException(
+          "Found "
+              + problems.size()
+              + " linkage problem(s), see "
+              + reportFile
+              + ":\n  "
+              + String.join("\n  ", problems));
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Compares the JMH results of the compatibility benchmark tasks against the baseline, see {@link
+ * PerformanceBaseline}, and fails if any of them regressed by more than the threshold.
+ */
+@DisableCachingByDefault(because = "The benchmark results are never up to date")
+public abstract class CheckCompatibilityPerformance extends DefaultTask {
+  static final String RESULT_FILE_EXTENSION = ".json";
+
+  /**
+   * Gets the JMH JSON result files, named by the benchmark task name with a ".json" extension.
+   *
+   * @return the result files.
+   */
+  @InputFiles
+  @PathSensitive(PathSensitivity.NAME_ONLY)
+  public abstract ConfigurableFileCollection getResultFiles();
+
+  /**
+   * Gets the baseline file to compare against. A missing file fails the check.
+   *
+   * @return the baseline file property.
+   */
+  @InputFiles
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getBaselineFile();
+
+  /**
+   * Gets the tolerated regression, as a fraction of the baseline score.
+   *
+   * @return the threshold property.
+   */
+  @Input
+  public abstract Property<Double> getThreshold();
+
+  /**
+   * Gets the name of the task that updates the baseline, for the error message.
+   *
+   * @return the baseline task name property.
+   */
+  @Internal
+  public abstract Property<String> getBaselineTaskName();
+
+  /**
+   * Gets the file to write the regressions to.
+   *
+   * @return the report file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getReportFile();
+
+  /** Checks the results, and fails if any benchmark task regressed. */
+  @TaskAction
+  public void check() {
+    final File baselineFile = getBaselineFile().get().getAsFile();
+    if (!baselineFile.isFile()) {
+      throw new GradleException(
+          "The performance baseline "
+              + baselineFile
+              + " does not exist, it can be created by the "
+              + getBaselineTaskName().get()
+              + " task");
+    }
+    final File reportFile = getReportFile().get().getAsFile();
+    try {
+      final Map<String, List<String>> regressions =
+          PerformanceBaseline.regressions(
+              PerformanceBaseline.parse(
+                  new String(Files.readAllBytes(baselineFile.toPath()), StandardCharsets.UTF_8)),
+              readResults(getResultFiles()),
+              getThreshold().get());
+      final StringBuilder report = new StringBuilder();
+      regressions.forEach(
+          (taskName, descriptions) -> {
+            report.append(taskName).append(":\n");
+            for (String description : descriptions) {
+              report.append("  ").append(description).append('\n');
+            }
+          });
+      Files.write(reportFile.toPath(), report.toString().getBytes(StandardCharsets.UTF_8));
+      if (!regressions.isEmpty()) {
+        getLogger().lifecycle(report.toString());
+        throw new GradleException(
+            regressions.size()
+                + " benchmark task(s) regressed beyond the threshold, see "
+                + reportFile
+                + ": "
+                + String.join(", ", regressions.keySet()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not check the benchmark results", e);
+    }
+  }
+
+  /* Reads the result files, keyed by the benchmark task name. */
+  @Nonnull
+  static Map<String, String> readResults(@Nonnull Iterable<File> resultFiles) throws IOException {
+    final Map<String, String> resultsByTask = new LinkedHashMap<>();
+    for (File resultFile : resultFiles) {
+      final String name = resultFile.getName();
+      resultsByTask.put(
+          name.substring(0, name.length() - RESULT_FILE_EXTENSION.length()),
+          new String(Files.readAllBytes(resultFile.toPath()), StandardCharsets.UTF_8));
+    }
+    return resultsByTask;
+  }
+}
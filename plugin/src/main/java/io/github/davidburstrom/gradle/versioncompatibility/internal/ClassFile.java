@@ -0,0 +1,361 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The symbols that a class file declares, and the symbols of other classes that it references
+ * through its constant pool, as needed to check its linkage against a classpath.
+ *
+ * <p>Class names are in the internal form, e.g. "java/lang/String", and members are identified by
+ * their name and descriptor, e.g. "length()I" or "value[B".
+ */
+public final class ClassFile {
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_FLOAT = 4;
+  private static final int CONSTANT_LONG = 5;
+  private static final int CONSTANT_DOUBLE = 6;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_FIELDREF = 9;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int CONSTANT_METHOD_HANDLE = 15;
+  private static final int CONSTANT_METHOD_TYPE = 16;
+  private static final int CONSTANT_DYNAMIC = 17;
+  private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+  private static final int CONSTANT_MODULE = 19;
+  private static final int CONSTANT_PACKAGE = 20;
+  private static final String FIELD_SEPARATOR = ":";
+
+  private final String name;
+  @Nullable private final String superName;
+  private final List<String> interfaces;
+  private final Set<String> fields;
+  private final Set<String> methods;
+  private final Set<String> referencedClasses;
+  private final List<MemberReference> referencedMembers;
+
+  ClassFile(
+      @Nonnull String name,
+      @Nullable String superName,
+      @Nonnull List<String> interfaces,
+      @Nonnull Set<String> fields,
+      @Nonnull Set<String> methods,
+      @Nonnull Set<String> referencedClasses,
+      @Nonnull List<MemberReference> referencedMembers) {
+    this.name = name;
+    this.superName = superName;
+    this.interfaces = interfaces;
+    this.fields = fields;
+    this.methods = methods;
+    this.referencedClasses = referencedClasses;
+    this.referencedMembers = referencedMembers;
+  }
+
+  /**
+   * Parses a class file.
+   *
+   * @param bytes the contents of the class file.
+   * @return the parsed class file.
+   * @throws IllegalArgumentException if the bytes are not a valid class file.
+   */
+  @Nonnull
+  public static ClassFile parse(@Nonnull byte[] bytes) {
+    try {
+      return parse(new DataInputStream(new ByteArrayInputStream(bytes)));
+    } catch (IOException | IndexOutOfBoundsException | ClassCastException e) {
+      throw new IllegalArgumentException("Invalid class file", e);
+    }
+  }
+
+  @Nonnull
+  private static ClassFile parse(@Nonnull DataInputStream input) throws IOException {
+    if (input.readInt() != MAGIC) {
+      throw new IOException("Invalid magic number");
+    }
+    input.readUnsignedShort();
+    input.readUnsignedShort();
+
+    final int constantCount = input.readUnsignedShort();
+    final Object[] constants = new Object[constantCount];
+    final int[][] references = new int[constantCount][];
+    final int[] tags = new int[constantCount];
+    int index = 1;
+    while (index < constantCount) {
+      final int tag = input.readUnsignedByte();
+      tags[index] = tag;
+      switch (tag) {
+        case CONSTANT_UTF8:
+          constants[index] = input.readUTF();
+          break;
+        case CONSTANT_INTEGER:
+        case CONSTANT_FLOAT:
+          input.readInt();
+          break;
+        case CONSTANT_LONG:
+        case CONSTANT_DOUBLE:
+          input.readLong();
+          /* These constants take up two entries. */
+          index++;
+          break;
+        case CONSTANT_CLASS:
+        case CONSTANT_STRING:
+        case CONSTANT_METHOD_TYPE:
+        case CONSTANT_MODULE:
+        case CONSTANT_PACKAGE:
+          references[index] = new int[] {input.readUnsignedShort()};
+          break;
+        case CONSTANT_FIELDREF:
+        case CONSTANT_METHODREF:
+        case CONSTANT_INTERFACE_METHODREF:
+        case CONSTANT_NAME_AND_TYPE:
+        case CONSTANT_DYNAMIC:
+        case CONSTANT_INVOKE_DYNAMIC:
+          references[index] = new int[] {input.readUnsignedShort(), input.readUnsignedShort()};
+          break;
+        case CONSTANT_METHOD_HANDLE:
+          input.readUnsignedByte();
+          references[index] = new int[] {input.readUnsignedShort()};
+          break;
+        default:
+          throw new IOException("Invalid constant pool tag " + tag);
+      }
+      index++;
+    }
+
+    input.readUnsignedShort();
+    final String name = className(constants, references, input.readUnsignedShort());
+    final int superIndex = input.readUnsignedShort();
+    final String superName = superIndex == 0 ? null : className(constants, references, superIndex);
+    final int interfaceCount = input.readUnsignedShort();
+    final List<String> interfaces = new ArrayList<>(interfaceCount);
+    for (int interfaceIndex = 0; interfaceIndex < interfaceCount; interfaceIndex++) {
+      interfaces.add(className(constants, references, input.readUnsignedShort()));
+    }
+    final Set<String> fields = readMembers(input, constants, FIELD_SEPARATOR);
+    final Set<String> methods = readMembers(input, constants, "");
+
+    final Set<String> referencedClasses = new LinkedHashSet<>();
+    final List<MemberReference> referencedMembers = new ArrayList<>();
+    for (int entry = 1; entry < constantCount; entry++) {
+      if (tags[entry] == CONSTANT_CLASS) {
+        final String referencedClass = elementClassName(className(constants, references, entry));
+        if (referencedClass != null && !referencedClass.equals(name)) {
+          referencedClasses.add(referencedClass);
+        }
+      } else if (tags[entry] == CONSTANT_FIELDREF
+          || tags[entry] == CONSTANT_METHODREF
+          || tags[entry] == CONSTANT_INTERFACE_METHODREF) {
+        final int[] nameAndType = references[references[entry][1]];
+        referencedMembers.add(
+            new MemberReference(
+                className(constants, references, references[entry][0]),
+                (String) constants[nameAndType[0]],
+                (String) constants[nameAndType[1]],
+                tags[entry] == CONSTANT_FIELDREF));
+      }
+    }
+    return new ClassFile(
+        name,
+        superName,
+        Collections.unmodifiableList(interfaces),
+        Collections.unmodifiableSet(fields),
+        Collections.unmodifiableSet(methods),
+        Collections.unmodifiableSet(referencedClasses),
+        Collections.unmodifiableList(referencedMembers));
+  }
+
+  @Nonnull
+  private static Set<String> readMembers(
+      @Nonnull DataInputStream input, @Nonnull Object[] constants, @Nonnull String separator)
+      throws IOException {
+    final int memberCount = input.readUnsignedShort();
+    final Set<String> members = new LinkedHashSet<>();
+    for (int index = 0; index < memberCount; index++) {
+      input.readUnsignedShort();
+      final String memberName = (String) constants[input.readUnsignedShort()];
+      final String descriptor = (String) constants[input.readUnsignedShort()];
+      members.add(memberName + separator + descriptor);
+      skipAttributes(input);
+    }
+    return members;
+  }
+
+  private static void skipAttributes(@Nonnull DataInputStream input) throws IOException {
+    final int attributeCount = input.readUnsignedShort();
+    for (int index = 0; index < attributeCount; index++) {
+      input.readUnsignedShort();
+      final int length = input.readInt();
+      if (input.skipBytes(length) != length) {
+        throw new IOException("Truncated attribute");
+      }
+    }
+  }
+
+  @Nonnull
+  private static String className(
+      @Nonnull Object[] constants, @Nonnull int[][] references, int classIndex) {
+    return (String) constants[references[classIndex][0]];
+  }
+
+  /*
+   * Gets the class name of an array element type, or null if it is a primitive type, since class
+   * constants may also be array descriptors such as "[Ljava/lang/String;" or "[I".
+   */
+  @Nullable
+  static String elementClassName(@Nonnull String className) {
+    if (!className.startsWith("[")) {
+      return className;
+    }
+    final String elementType = className.substring(className.lastIndexOf('[') + 1);
+    return elementType.startsWith("L") ? elementType.substring(1, elementType.length() - 1) : null;
+  }
+
+  /**
+   * Gets the name of the class.
+   *
+   * @return the class name.
+   */
+  @Nonnull
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the name of the superclass.
+   *
+   * @return the superclass name, or null for java/lang/Object.
+   */
+  @Nullable
+  public String getSuperName() {
+    return superName;
+  }
+
+  /**
+   * Gets the names of the directly implemented interfaces.
+   *
+   * @return the interface names.
+   */
+  @Nonnull
+  public List<String> getInterfaces() {
+    return interfaces;
+  }
+
+  /**
+   * Gets the declared fields, by name and descriptor, e.g. "count:I".
+   *
+   * @return the fields.
+   */
+  @Nonnull
+  public Set<String> getFields() {
+    return fields;
+  }
+
+  /**
+   * Gets the declared methods, by name and descriptor, e.g. "length()I".
+   *
+   * @return the methods.
+   */
+  @Nonnull
+  public Set<String> getMethods() {
+    return methods;
+  }
+
+  /**
+   * Gets the other classes that are referenced, with array types replaced by their element types.
+   *
+   * @return the referenced class names.
+   */
+  @Nonnull
+  public Set<String> getReferencedClasses() {
+    return referencedClasses;
+  }
+
+  /**
+   * Gets the fields and methods that are referenced.
+   *
+   * @return the member references.
+   */
+  @Nonnull
+  public List<MemberReference> getReferencedMembers() {
+    return referencedMembers;
+  }
+
+  /** A reference to a field or method of a class. */
+  public static final class MemberReference {
+    private final String owner;
+    private final String name;
+    private final String descriptor;
+    private final boolean field;
+
+    MemberReference(
+        @Nonnull String owner, @Nonnull String name, @Nonnull String descriptor, boolean field) {
+      this.owner = owner;
+      this.name = name;
+      this.descriptor = descriptor;
+      this.field = field;
+    }
+
+    /**
+     * Gets the name of the class that the member is looked up in.
+     *
+     * @return the owner class name, which may be an array descriptor.
+     */
+    @Nonnull
+    public String getOwner() {
+      return owner;
+    }
+
+    /**
+     * Gets the name and descriptor of the member, e.g. "count:I" for a field or "length()I" for a
+     * method.
+     *
+     * @return the member name and descriptor.
+     */
+    @Nonnull
+    public String getMember() {
+      return name + (field ? FIELD_SEPARATOR : "") + descriptor;
+    }
+
+    /**
+     * Gets whether the member is a field.
+     *
+     * @return true for fields, false for methods.
+     */
+    public boolean isField() {
+      return field;
+    }
+
+    @Override
+    public String toString() {
+      return owner + "." + getMember();
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.process.ExecOperations;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Measures the cold start of a class with each adapter version, i.e. what steady state benchmarks
+ * don't capture, like the adapter selection in a static initializer. Each measurement is made by
+ * {@link ColdStartProbe} in a JVM of its own, and the medians and 99th percentiles are written as a
+ * Markdown table, see {@link ColdStartReport}.
+ *
+ * <p>The forks of the versions are interleaved, so that any drift of the machine state affects all
+ * versions alike.
+ */
+@DisableCachingByDefault(because = "Cold start measurements are only meaningful when measured")
+public abstract class ColdStartBenchmark extends DefaultTask {
+  private final List<ColdStartTarget> targets = new ArrayList<>();
+
+  /**
+   * Gets the adapter versions to measure, in report order.
+   *
+   * @return the mutable list of targets.
+   */
+  @Nested
+  public List<ColdStartTarget> getTargets() {
+    return targets;
+  }
+
+  /**
+   * Gets the fully qualified name of the class to measure. The class is initialized, and if it is a
+   * {@link Runnable}, instantiated with its no-arg constructor and run, e.g. to make the first call
+   * through the adapter API.
+   *
+   * @return the class name property.
+   */
+  @Input
+  public abstract Property<String> getClassName();
+
+  /**
+   * Gets the number of JVMs to fork per adapter version.
+   *
+   * @return the forks property.
+   */
+  @Input
+  public abstract Property<Integer> getForks();
+
+  /**
+   * Gets the Java launcher of the forked JVMs. If not set, the JVM that runs Gradle is used.
+   *
+   * @return the Java launcher property.
+   */
+  @Nested
+  @Optional
+  public abstract Property<JavaLauncher> getJavaLauncher();
+
+  /**
+   * Gets the file to write the Markdown table to.
+   *
+   * @return the report file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getReportFile();
+
+  /**
+   * Gets the exec operations to fork the JVMs with.
+   *
+   * @return the exec operations.
+   */
+  @Inject
+  @SuppressWarnings("JavaxInjectOnAbstractMethod")
+  protected abstract ExecOperations getExecOperations();
+
+  /** Measures the targets, and writes and reports the table. */
+  @TaskAction
+  public void measure() {
+    final int forks = getForks().get();
+    if (forks < 1) {
+      throw new IllegalArgumentException("The number of forks must be positive, got " + forks);
+    }
+    final File probeLocation = probeLocation();
+    final Map<String, List<ColdStartReport.Sample>> samplesByVersion = new LinkedHashMap<>();
+    for (int fork = 0; fork < forks; fork++) {
+      for (ColdStartTarget target : targets) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        getExecOperations()
+            .javaexec(
+                spec -> {
+                  if (getJavaLauncher().isPresent()) {
+                    spec.setExecutable(getJavaLauncher().get().getExecutablePath().getAsFile());
+                  }
+                  spec.classpath(target.getClasspath(), probeLocation);
+                  spec.getMainClass().set(ColdStartProbe.class.getName());
+                  spec.args(getClassName().get());
+                  spec.setStandardOutput(output);
+                });
+        samplesByVersion
+            .computeIfAbsent(target.getVersion().get(), version -> new ArrayList<>())
+            .add(ColdStartReport.parse(new String(output.toByteArray(), StandardCharsets.UTF_8)));
+      }
+    }
+    final String table = ColdStartReport.format(samplesByVersion);
+    final File reportFile = getReportFile().get().getAsFile();
+    try {
+      Files.write(reportFile.toPath(), table.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write the cold start report " + reportFile, e);
+    }
+    getLogger().lifecycle(table);
+  }
+
+  /* The probe is run from the plugin classes, which is either a jar or a directory. */
+  @Nonnull
+  private static File probeLocation() {
+    try {
+      return Paths.get(
+              ColdStartProbe.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+          .toFile();
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException("Could not locate the cold start probe", e);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import javax.annotation.Nonnull;
+
+/**
+ * Measures the cold start of a class in a fresh JVM, i.e. the time to initialize it and, if it is a
+ * {@link Runnable}, to instantiate and run it, followed by the number of loaded classes and the
+ * used metaspace. This is the main class of the JVMs that {@link ColdStartBenchmark} forks, so it
+ * must only depend on the JDK.
+ *
+ * <p>The class counts and metaspace include the probe itself and the management beans, which is a
+ * constant overhead, so they are only meaningful in comparison.
+ */
+public final class ColdStartProbe {
+  static final String RESULT_PREFIX = "version-compatibility-cold-start:";
+  private static final String METASPACE_POOL_NAME = "Metaspace";
+
+  private ColdStartProbe() {}
+
+  /**
+   * Measures the cold start, and prints the result on a line of its own.
+   *
+   * @param args the name of the class to measure.
+   * @throws ReflectiveOperationException if the class can't be loaded or instantiated.
+   */
+  @SuppressWarnings("PMD.SystemPrintln")
+  public static void main(String[] args) throws ReflectiveOperationException {
+    System.out.println(measure(args[0]));
+  }
+
+  @Nonnull
+  static String measure(@Nonnull String className) throws ReflectiveOperationException {
+    final long start = System.nanoTime();
+    final Class<?> measuredClass =
+        Class.forName(className, true, ColdStartProbe.class.getClassLoader());
+    if (Runnable.class.isAssignableFrom(measuredClass)) {
+      ((Runnable) measuredClass.getDeclaredConstructor().newInstance()).run();
+    }
+    final long timeToFirstCall = System.nanoTime() - start;
+
+    long metaspace = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (METASPACE_POOL_NAME.equals(pool.getName())) {
+        metaspace = pool.getUsage().getUsed();
+      }
+    }
+    return RESULT_PREFIX
+        + timeToFirstCall
+        + " "
+        + ManagementFactory.getClassLoadingMXBean().getLoadedClassCount()
+        + " "
+        + metaspace;
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nonnull;
+
+/**
+ * Parses the measurements of {@link ColdStartProbe}, and formats their medians and 99th percentiles
+ * as a Markdown table with one row per adapter version.
+ */
+public final class ColdStartReport {
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+  private static final long BYTES_PER_KIBIBYTE = 1024;
+  private static final double[] PERCENTILES = {0.5, 0.99};
+
+  private ColdStartReport() {}
+
+  /** The measurements of a single forked JVM. */
+  public static final class Sample {
+    private final long timeToFirstCall;
+    private final long loadedClasses;
+    private final long metaspace;
+
+    Sample(long timeToFirstCall, long loadedClasses, long metaspace) {
+      this.timeToFirstCall = timeToFirstCall;
+      this.loadedClasses = loadedClasses;
+      this.metaspace = metaspace;
+    }
+
+    long getTimeToFirstCall() {
+      return timeToFirstCall;
+    }
+
+    long getLoadedClasses() {
+      return loadedClasses;
+    }
+
+    long getMetaspace() {
+      return metaspace;
+    }
+  }
+
+  /**
+   * Parses the standard output of a probe JVM, which may contain the output of the measured class.
+   *
+   * @param output the standard output.
+   * @return the sample.
+   * @throws IllegalArgumentException if the output contains no well-formed result.
+   */
+  @Nonnull
+  public static Sample parse(@Nonnull String output) {
+    for (String line : output.split("\\R", -1)) {
+      if (line.startsWith(ColdStartProbe.RESULT_PREFIX)) {
+        final String[] values =
+            line.substring(ColdStartProbe.RESULT_PREFIX.length()).trim().split(" ", -1);
+        if (values.length != 3) {
+          throw new IllegalArgumentException("Malformed cold start result '" + line + "'");
+        }
+        try {
+          return new Sample(
+              Long.parseLong(values[0]), Long.parseLong(values[1]), Long.parseLong(values[2]));
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Malformed cold start result '" + line + "'", e);
+        }
+      }
+    }
+    throw new IllegalArgumentException("No cold start result in the output:\n" + output);
+  }
+
+  /**
+   * Formats the samples of the adapter versions.
+   *
+   * @param samplesByVersion the samples, by adapter version, in row order.
+   * @return the Markdown table.
+   */
+  @Nonnull
+  public static String format(@Nonnull Map<String, List<Sample>> samplesByVersion) {
+    final StringBuilder table = new StringBuilder(1024);
+    table.append(
+        "| Version | Forks | First call p50 | First call p99 | Loaded classes p50"
+            + " | Loaded classes p99 | Metaspace p50 | Metaspace p99 |\n"
+            + "|---|---|---|---|---|---|---|---|\n");
+    samplesByVersion.forEach(
+        (version, samples) -> {
+          table.append("| ").append(version).append(" | ").append(samples.size());
+          for (double percentile : PERCENTILES) {
+            table.append(
+                String.format(
+                    Locale.ROOT,
+                    " | %.3f ms",
+                    percentile(samples, Sample::getTimeToFirstCall, percentile) / NANOS_PER_MILLI));
+          }
+          for (double percentile : PERCENTILES) {
+            table.append(" | ").append(percentile(samples, Sample::getLoadedClasses, percentile));
+          }
+          for (double percentile : PERCENTILES) {
+            table
+                .append(" | ")
+                .append(percentile(samples, Sample::getMetaspace, percentile) / BYTES_PER_KIBIBYTE)
+                .append(" KiB");
+          }
+          table.append(" |\n");
+        });
+    return table.toString();
+  }
+
+  /* Uses the nearest-rank method, so that the percentile is always a measured value. */
+  static long percentile(
+      @Nonnull List<Sample> samples, @Nonnull ToLongFunction<Sample> value, double percentile) {
+    final List<Long> values = new ArrayList<>();
+    for (Sample sample : samples) {
+      values.add(value.applyAsLong(sample));
+    }
+    Collections.sort(values);
+    return values.get((int) Math.ceil(percentile * values.size()) - 1);
+  }
+}
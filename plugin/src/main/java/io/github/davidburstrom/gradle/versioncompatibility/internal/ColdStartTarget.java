@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+
+/** An adapter version to measure in a {@link ColdStartBenchmark} task. */
+public abstract class ColdStartTarget {
+
+  /**
+   * Gets the adapter version, which names the row in the report.
+   *
+   * @return the version property.
+   */
+  @Input
+  public abstract Property<String> getVersion();
+
+  /**
+   * Gets the classpath of the forked JVMs, with the library version that the adapter was compiled
+   * against.
+   *
+   * @return the classpath.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getClasspath();
+}
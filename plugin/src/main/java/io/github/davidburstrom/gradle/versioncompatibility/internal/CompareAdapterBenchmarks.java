@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Writes the JMH results of the adapters of a namespace side by side, see {@link
+ * BenchmarkComparison}, and reports them in the build output.
+ */
+@DisableCachingByDefault(because = "Formatting a table is not worth caching")
+public abstract class CompareAdapterBenchmarks extends DefaultTask {
+  static final String RESULT_FILE_EXTENSION = ".json";
+
+  /**
+   * Gets the JMH JSON result files, named by the adapter version with a ".json" extension, in
+   * column order.
+   *
+   * @return the result files.
+   */
+  @InputFiles
+  @PathSensitive(PathSensitivity.NAME_ONLY)
+  public abstract ConfigurableFileCollection getResultFiles();
+
+  /**
+   * Gets the file to write the Markdown table to.
+   *
+   * @return the report file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getReportFile();
+
+  /** Writes and reports the table. */
+  @TaskAction
+  public void compare() {
+    final Map<String, String> resultsByVersion = new LinkedHashMap<>();
+    final File reportFile = getReportFile().get().getAsFile();
+    try {
+      for (File resultFile : getResultFiles()) {
+        final String name = resultFile.getName();
+        resultsByVersion.put(
+            name.substring(0, name.length() - RESULT_FILE_EXTENSION.length()),
+            new String(Files.readAllBytes(resultFile.toPath()), StandardCharsets.UTF_8));
+      }
+      final String table = BenchmarkComparison.format(resultsByVersion);
+      Files.write(reportFile.toPath(), table.getBytes(StandardCharsets.UTF_8));
+      getLogger().lifecycle(table);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not compare the benchmark results", e);
+    }
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Collects the outcome and timings of the compatibility test tasks, and formats them as a compact
+ * JSON document and as an HTML heat map per test suite, with the versions of the first dimension as
+ * rows and the versions of the other dimensions as columns.
+ */
+public final class CompatibilityReport {
+  private static final double MILLIS_PER_SECOND = 1000.0;
+  private static final String NOT_RUN = "not run";
+  private static final String FAILED = "failed";
+  private static final String SKIPPED = "skipped";
+  private static final String PASSED = "passed";
+  private static final String UNKNOWN = "-";
+
+  private CompatibilityReport() {}
+
+  /** The test counts and the summed test time of the JUnit XML results of a test task. */
+  public static final class TestCounts {
+    private final long tests;
+    private final long failures;
+    private final long skipped;
+    private final long timeMillis;
+
+    TestCounts(long tests, long failures, long skipped, long timeMillis) {
+      this.tests = tests;
+      this.failures = failures;
+      this.skipped = skipped;
+      this.timeMillis = timeMillis;
+    }
+  }
+
+  /** The outcome and timings of a compatibility test task. */
+  public static final class Entry {
+    private final String suite;
+    private final String taskName;
+    private final List<NamedVersion> versions;
+    @Nullable private final Long resolutionMillis;
+    @Nullable private final Long durationMillis;
+    @Nullable private final TestCounts counts;
+
+    /**
+     * Creates an entry.
+     *
+     * @param suite the name of the test source set.
+     * @param taskName the name of the compatibility test task.
+     * @param versions the version tuple.
+     * @param resolutionMillis the time to resolve the classpath, if known.
+     * @param durationMillis the wall time of the task actions, if known.
+     * @param counts the test results, or null if the task has not run.
+     */
+    public Entry(
+        @Nonnull String suite,
+        @Nonnull String taskName,
+        @Nonnull List<NamedVersion> versions,
+        @Nullable Long resolutionMillis,
+        @Nullable Long durationMillis,
+        @Nullable TestCounts counts) {
+      this.suite = suite;
+      this.taskName = taskName;
+      this.versions = versions;
+      this.resolutionMillis = resolutionMillis;
+      this.durationMillis = durationMillis;
+      this.counts = counts;
+    }
+
+    @Nonnull
+    String getOutcome() {
+      if (counts == null) {
+        return NOT_RUN;
+      } else if (counts.failures > 0) {
+        return FAILED;
+      } else if (counts.skipped == counts.tests) {
+        return SKIPPED;
+      }
+      return PASSED;
+    }
+
+    /* The JVM startup, test discovery and the like, i.e. what isn't spent in the tests. */
+    @Nullable
+    Long getOverheadMillis() {
+      if (durationMillis == null || counts == null) {
+        return null;
+      }
+      return Math.max(0, durationMillis - counts.timeMillis);
+    }
+  }
+
+  /**
+   * Reads the JUnit XML results in a directory, i.e. the attributes of the root {@code testsuite}
+   * element of each {@code TEST-*.xml} file. Errors are counted as failures.
+   *
+   * @param directory the results directory.
+   * @return the summed counts, or null if there are no results.
+   * @throws IllegalArgumentException if any results are malformed.
+   */
+  @Nullable
+  public static TestCounts readJUnitResults(@Nonnull File directory) {
+    final File[] files =
+        directory.listFiles((dir, name) -> name.startsWith("TEST-") && name.endsWith(".xml"));
+    if (files == null || files.length == 0) {
+      return null;
+    }
+    final XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    long tests = 0;
+    long failures = 0;
+    long skipped = 0;
+    double seconds = 0;
+    for (File file : files) {
+      try (InputStream input = Files.newInputStream(file.toPath())) {
+        final XMLStreamReader reader = factory.createXMLStreamReader(input);
+        try {
+          reader.nextTag();
+          if (!"testsuite".equals(reader.getLocalName())) {
+            throw new IllegalArgumentException("Expected a testsuite element in " + file);
+          }
+          tests += (long) attribute(reader, "tests", file);
+          failures += (long) attribute(reader, "failures", file);
+          failures += (long) attribute(reader, "errors", file);
+          skipped += (long) attribute(reader, "skipped", file);
+          seconds += attribute(reader, "time", file);
+        } finally {
+          reader.close();
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not read the test results " + file, e);
+      } catch (XMLStreamException e) {
+        throw new IllegalArgumentException("Malformed test results " + file, e);
+      }
+    }
+    return new TestCounts(tests, failures, skipped, Math.round(seconds * MILLIS_PER_SECOND));
+  }
+
+  private static double attribute(
+      @Nonnull XMLStreamReader reader, @Nonnull String name, @Nonnull File file) {
+    final String value = reader.getAttributeValue(null, name);
+    if (value == null) {
+      return 0;
+    }
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          "Malformed " + name + " attribute '" + value + "' in " + file, e);
+    }
+  }
+
+  /**
+   * Formats the entries as a compact JSON document, with null for the unknown values.
+   *
+   * @param entries the entries.
+   * @return the JSON document.
+   */
+  @Nonnull
+  public static String formatJson(@Nonnull List<Entry> entries) {
+    final List<Object> tuples = new ArrayList<>();
+    for (Entry entry : entries) {
+      final Map<String, Object> tuple = new LinkedHashMap<>();
+      tuple.put("task", entry.taskName);
+      tuple.put("suite", entry.suite);
+      final Map<String, Object> versions = new LinkedHashMap<>();
+      for (NamedVersion namedVersion : entry.versions) {
+        versions.put(namedVersion.getName(), namedVersion.getVersion());
+      }
+      tuple.put("versions", versions);
+      tuple.put("outcome", entry.getOutcome());
+      final TestCounts counts = entry.counts;
+      tuple.put("tests", counts == null ? null : counts.tests);
+      tuple.put("failures", counts == null ? null : counts.failures);
+      tuple.put("skipped", counts == null ? null : counts.skipped);
+      tuple.put("resolutionMillis", entry.resolutionMillis);
+      tuple.put("durationMillis", entry.durationMillis);
+      tuple.put("testMillis", counts == null ? null : counts.timeMillis);
+      tuple.put("overheadMillis", entry.getOverheadMillis());
+      tuples.add(tuple);
+    }
+    return Json.format(Collections.singletonMap("tuples", tuples));
+  }
+
+  /**
+   * Formats the entries as an HTML heat map per test suite. The cells are shaded by the duration of
+   * the task relative to the slowest task of the suite, and the failed tasks are red.
+   *
+   * @param entries the entries.
+   * @return the HTML document.
+   */
+  @Nonnull
+  public static String formatHtml(@Nonnull List<Entry> entries) {
+    final StringBuilder html =
+        new StringBuilder(
+            "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n"
+                + "<title>Compatibility report</title>\n<style>\n"
+                + "table { border-collapse: collapse; margin-bottom: 1em; }\n"
+                + "th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: center; }\n"
+                + "td.failed { background: #f36; color: #fff; font-weight: bold; }\n"
+                + "td.not-run { background: #eee; color: #888; }\n"
+                + "</style>\n</head>\n<body>\n<h1>Compatibility report</h1>\n"
+                + "<p>The cells are shaded by the task duration, relative to the slowest task of"
+                + " the suite. Failed tasks are red, and tasks that have not run are grey. Hover"
+                + " over a cell for the timing breakdown.</p>\n");
+    final Map<String, List<Entry>> entriesBySuite = new LinkedHashMap<>();
+    for (Entry entry : entries) {
+      entriesBySuite.computeIfAbsent(entry.suite, suite -> new ArrayList<>()).add(entry);
+    }
+    entriesBySuite.forEach((suite, suiteEntries) -> appendSuite(suite, suiteEntries, html));
+    return html.append("</body>\n</html>\n").toString();
+  }
+
+  private static void appendSuite(
+      @Nonnull String suite, @Nonnull List<Entry> entries, @Nonnull StringBuilder html) {
+    final Set<String> rows = new LinkedHashSet<>();
+    final Set<String> columns = new LinkedHashSet<>();
+    final Map<String, Entry> entriesByCell = new LinkedHashMap<>();
+    long maxDuration = 0;
+    for (Entry entry : entries) {
+      final String row = entry.versions.isEmpty() ? "" : entry.versions.get(0).getVersion();
+      final String column = columnName(entry.versions);
+      rows.add(row);
+      columns.add(column);
+      entriesByCell.put(row + '\n' + column, entry);
+      if (entry.durationMillis != null) {
+        maxDuration = Math.max(maxDuration, entry.durationMillis);
+      }
+    }
+    final List<NamedVersion> dimensions = entries.get(0).versions;
+    final String rowHeader = dimensions.isEmpty() ? "" : dimensions.get(0).getName();
+    final String columnHeader =
+        dimensions.stream().skip(1).map(NamedVersion::getName).collect(Collectors.joining(" / "));
+
+    html.append("<h2>")
+        .append(escape(suite))
+        .append("</h2>\n<table>\n<tr><th>")
+        .append(escape(columnHeader.isEmpty() ? rowHeader : rowHeader + " \\ " + columnHeader))
+        .append("</th>");
+    for (String column : columns) {
+      html.append("<th>").append(escape(column)).append("</th>");
+    }
+    html.append("</tr>\n");
+    for (String row : rows) {
+      html.append("<tr><th>").append(escape(row)).append("</th>");
+      for (String column : columns) {
+        appendCell(entriesByCell.get(row + '\n' + column), maxDuration, html);
+      }
+      html.append("</tr>\n");
+    }
+    html.append("</table>\n");
+  }
+
+  @Nonnull
+  private static String columnName(@Nonnull List<NamedVersion> versions) {
+    return versions.stream()
+        .skip(1)
+        .map(NamedVersion::getVersion)
+        .collect(Collectors.joining(" / "));
+  }
+
+  private static void appendCell(
+      @Nullable Entry entry, long maxDuration, @Nonnull StringBuilder html) {
+    if (entry == null) {
+      html.append("<td></td>");
+      return;
+    }
+    final String outcome = entry.getOutcome();
+    html.append("<td");
+    if (FAILED.equals(outcome)) {
+      html.append(" class=\"failed\"");
+    } else if (NOT_RUN.equals(outcome)) {
+      html.append(" class=\"not-run\"");
+    } else if (entry.durationMillis != null && maxDuration > 0) {
+      final long lightness = 95 - Math.round(45.0 * entry.durationMillis / maxDuration);
+      html.append(" style=\"background: hsl(30, 100%, ").append(lightness).append("%)\"");
+    }
+    html.append(" title=\"")
+        .append(escape(entry.taskName))
+        .append(": resolution ")
+        .append(millis(entry.resolutionMillis))
+        .append(", overhead ")
+        .append(millis(entry.getOverheadMillis()))
+        .append(", tests ")
+        .append(millis(entry.counts == null ? null : entry.counts.timeMillis))
+        .append("\">")
+        .append(
+            entry.durationMillis == null
+                ? UNKNOWN
+                : String.format(Locale.ROOT, "%.1f s", entry.durationMillis / MILLIS_PER_SECOND));
+    final TestCounts counts = entry.counts;
+    if (counts == null) {
+      html.append("<br>").append(NOT_RUN);
+    } else {
+      html.append("<br>").append(counts.tests).append(" tests");
+      if (counts.failures > 0) {
+        html.append(", ").append(counts.failures).append(' ').append(FAILED);
+      }
+      if (counts.skipped > 0) {
+        html.append(", ").append(counts.skipped).append(' ').append(SKIPPED);
+      }
+    }
+    html.append("</td>");
+  }
+
+  @Nonnull
+  private static String millis(@Nullable Long millis) {
+    return millis == null ? UNKNOWN : millis + " ms";
+  }
+
+  @Nonnull
+  private static String escape(@Nonnull String text) {
+    return text.replace("&", "&amp;")
+        .replace("<", "&lt;")
+        .replace(">", "&gt;")
+        .replace("\"", "&quot;");
+  }
+}
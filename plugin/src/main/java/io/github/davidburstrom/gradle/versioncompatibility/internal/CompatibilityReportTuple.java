@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+
+/**
+ * A compatibility test task to include in a {@link GenerateCompatibilityReport} or {@link
+ * AggregateCompatibilityResults} task. The results and durations are internal, so that the report
+ * doesn't make the tests a dependency.
+ */
+public abstract class CompatibilityReportTuple {
+
+  /**
+   * Gets the name of the test source set, which names the heat map of the tuple.
+   *
+   * @return the suite property.
+   */
+  @Input
+  public abstract Property<String> getSuite();
+
+  /**
+   * Gets the name of the compatibility test task.
+   *
+   * @return the task name property.
+   */
+  @Input
+  public abstract Property<String> getTaskName();
+
+  /**
+   * Gets the dimension names, in dimension order.
+   *
+   * @return the dimensions property.
+   */
+  @Input
+  public abstract ListProperty<String> getDimensions();
+
+  /**
+   * Gets the versions of the tuple, in dimension order.
+   *
+   * @return the versions property.
+   */
+  @Input
+  public abstract ListProperty<String> getVersions();
+
+  /**
+   * Gets the JUnit XML results directory of the test task.
+   *
+   * @return the results directory property.
+   */
+  @Internal
+  public abstract DirectoryProperty getResultsDirectory();
+
+  /**
+   * Gets the service that measures the wall time of the test task.
+   *
+   * @return the duration service property.
+   */
+  @Internal
+  public abstract Property<TestDurationService> getDurationService();
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Merges the JUnit XML results of the compatibility test tasks into a single JUnit XML document,
+ * one event at a time, so that the memory use doesn't grow with the number of tests. Each test
+ * suite and test case is tagged with its version tuple, and the failures are grouped across the
+ * tuples, so that a failure that occurs with many tuples is only listed once.
+ */
+public final class CompatibilityResults {
+  private static final String TEST_SUITE = "testsuite";
+  private static final String TEST_CASE = "testcase";
+  private static final String PROPERTIES = "properties";
+  private static final String PROPERTY = "property";
+  private static final String NAME = "name";
+
+  private final Map<String, Set<String>> failureGroups = new TreeMap<>();
+  private long tests;
+  private long failures;
+
+  private CompatibilityResults() {}
+
+  /** The results of a compatibility test task. */
+  public static final class Source {
+    private final String taskName;
+    private final List<NamedVersion> versions;
+    private final List<File> directories;
+
+    /**
+     * Creates a source.
+     *
+     * @param taskName the name of the compatibility test task.
+     * @param versions the version tuple.
+     * @param directories the results directories, in order of precedence. A results file is only
+     *     read from the first directory that has it, and missing directories are ignored.
+     */
+    public Source(
+        @Nonnull String taskName,
+        @Nonnull List<NamedVersion> versions,
+        @Nonnull List<File> directories) {
+      this.taskName = taskName;
+      this.versions = versions;
+      this.directories = directories;
+    }
+
+    @Nonnull
+    String getTag() {
+      return versions.stream()
+          .map(namedVersion -> namedVersion.getName() + "=" + namedVersion.getVersion())
+          .collect(Collectors.joining(", ", "[", "]"));
+    }
+  }
+
+  /**
+   * Merges the results of the sources into a {@code testsuites} document.
+   *
+   * @param sources the sources.
+   * @param output the stream to write the document to.
+   * @return the aggregated results, i.e. the counts and the grouped failures.
+   * @throws IllegalArgumentException if any results are malformed.
+   */
+  @Nonnull
+  public static CompatibilityResults aggregate(
+      @Nonnull List<Source> sources, @Nonnull OutputStream output) {
+    final CompatibilityResults results = new CompatibilityResults();
+    final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    try {
+      final XMLStreamWriter writer =
+          XMLOutputFactory.newInstance().createXMLStreamWriter(output, "UTF-8");
+      writer.writeStartDocument("UTF-8", "1.0");
+      writer.writeStartElement("testsuites");
+      for (Source source : sources) {
+        for (File file : resultFiles(source)) {
+          results.copy(source, file, inputFactory, writer);
+        }
+      }
+      writer.writeEndElement();
+      writer.writeEndDocument();
+      writer.close();
+    } catch (XMLStreamException e) {
+      throw new IllegalStateException("Could not write the aggregated test results", e);
+    }
+    return results;
+  }
+
+  /* The TEST-*.xml files of the source, by name, where the first directory that has one wins. */
+  @Nonnull
+  private static List<File> resultFiles(@Nonnull Source source) {
+    final Set<String> names = new HashSet<>();
+    final List<File> files = new ArrayList<>();
+    for (File directory : source.directories) {
+      final File[] directoryFiles =
+          directory.listFiles((dir, name) -> name.startsWith("TEST-") && name.endsWith(".xml"));
+      if (directoryFiles != null) {
+        Arrays.sort(directoryFiles);
+        for (File file : directoryFiles) {
+          if (names.add(file.getName())) {
+            files.add(file);
+          }
+        }
+      }
+    }
+    return files;
+  }
+
+  private void copy(
+      @Nonnull Source source,
+      @Nonnull File file,
+      @Nonnull XMLInputFactory inputFactory,
+      @Nonnull XMLStreamWriter writer)
+      throws XMLStreamException {
+    try (InputStream input = Files.newInputStream(file.toPath())) {
+      final XMLStreamReader reader = inputFactory.createXMLStreamReader(input);
+      try {
+        reader.nextTag();
+        if (!TEST_SUITE.equals(reader.getLocalName())) {
+          throw new IllegalArgumentException("Expected a testsuite element in " + file);
+        }
+        copyTestSuite(source, reader, writer);
+      } finally {
+        reader.close();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read the test results " + file, e);
+    } catch (XMLStreamException e) {
+      /* Only the parse errors have a location, the write errors are handled by the caller. */
+      if (e.getLocation() == null) {
+        throw e;
+      }
+      throw new IllegalArgumentException("Malformed test results " + file, e);
+    }
+  }
+
+  /*
+   * The tuple properties are written first in the test suite, and any properties of the original
+   * test suite, which come first by convention, are merged into them.
+   */
+  private void copyTestSuite(
+      @Nonnull Source source, @Nonnull XMLStreamReader reader, @Nonnull XMLStreamWriter writer)
+      throws XMLStreamException {
+    final String tag = source.getTag();
+    writer.writeStartElement(TEST_SUITE);
+    copyAttributes(reader, writer, tag);
+    writer.writeStartElement(PROPERTIES);
+    writeProperty(writer, "compatibility.task", source.taskName);
+    for (NamedVersion namedVersion : source.versions) {
+      writeProperty(writer, namedVersion.getName(), namedVersion.getVersion());
+    }
+    boolean propertiesOpen = true;
+    int depth = 1;
+    String className = "";
+    String testName = "";
+    boolean failed = false;
+    while (depth > 0) {
+      final int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+        final String element = reader.getLocalName();
+        if (depth == 2 && propertiesOpen) {
+          propertiesOpen = false;
+          if (PROPERTIES.equals(element)) {
+            /* The original properties are merged into the tuple properties. */
+            continue;
+          }
+          writer.writeEndElement();
+        }
+        writer.writeStartElement(element);
+        if (depth == 2 && TEST_CASE.equals(element)) {
+          className = nonNull(reader.getAttributeValue(null, "classname"));
+          testName = nonNull(reader.getAttributeValue(null, NAME));
+          failed = false;
+          tests++;
+          copyAttributes(reader, writer, tag);
+        } else {
+          copyAttributes(reader, writer, null);
+        }
+        if (depth == 3 && ("failure".equals(element) || "error".equals(element))) {
+          if (!failed) {
+            failed = true;
+            failures++;
+          }
+          addFailure(source, className, testName, reader);
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+        if (depth > 0) {
+          writer.writeEndElement();
+        }
+      } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+        if (depth > 1) {
+          writer.writeCharacters(reader.getText());
+        }
+      }
+    }
+    if (propertiesOpen) {
+      writer.writeEndElement();
+    }
+    writer.writeEndElement();
+  }
+
+  private void addFailure(
+      @Nonnull Source source,
+      @Nonnull String className,
+      @Nonnull String testName,
+      @Nonnull XMLStreamReader reader) {
+    final String message = nonNull(reader.getAttributeValue(null, "message"));
+    final String type = nonNull(reader.getAttributeValue(null, "type"));
+    final String key =
+        className
+            + " > "
+            + testName
+            + ": "
+            + (message.isEmpty() ? type : type.isEmpty() ? message : type + ": " + message);
+    failureGroups
+        .computeIfAbsent(key, k -> new LinkedHashSet<>())
+        .add(source.taskName + " " + source.getTag());
+  }
+
+  private static void copyAttributes(
+      @Nonnull XMLStreamReader reader, @Nonnull XMLStreamWriter writer, @Nullable String tag)
+      throws XMLStreamException {
+    for (int index = 0; index < reader.getAttributeCount(); index++) {
+      final String name = reader.getAttributeLocalName(index);
+      final String value = reader.getAttributeValue(index);
+      writer.writeAttribute(name, tag != null && NAME.equals(name) ? value + " " + tag : value);
+    }
+  }
+
+  private static void writeProperty(
+      @Nonnull XMLStreamWriter writer, @Nonnull String name, @Nonnull String value)
+      throws XMLStreamException {
+    writer.writeEmptyElement(PROPERTY);
+    writer.writeAttribute(NAME, name);
+    writer.writeAttribute("value", value);
+  }
+
+  @Nonnull
+  private static String nonNull(@Nullable String value) {
+    return value == null ? "" : value;
+  }
+
+  /**
+   * Gets the number of test cases.
+   *
+   * @return the number of test cases.
+   */
+  public long getTests() {
+    return tests;
+  }
+
+  /**
+   * Gets the number of failed test cases, i.e. with failures or errors.
+   *
+   * @return the number of failed test cases.
+   */
+  public long getFailures() {
+    return failures;
+  }
+
+  /**
+   * Gets the number of distinct failures, i.e. by test, failure type and message.
+   *
+   * @return the number of distinct failures.
+   */
+  public int getDistinctFailures() {
+    return failureGroups.size();
+  }
+
+  /**
+   * Formats the distinct failures, each followed by the tuples it occurred with. Only the first
+   * line of multi-line failure messages is included.
+   *
+   * @return the failure list.
+   */
+  @Nonnull
+  public String formatFailures() {
+    final StringBuilder text =
+        new StringBuilder(256)
+            .append(failureGroups.size())
+            .append(" distinct failure(s) in ")
+            .append(failures)
+            .append(" failed test(s)\n");
+    failureGroups.forEach(
+        (failure, tuples) -> {
+          final int lineEnd = failure.indexOf('\n');
+          text.append('\n')
+              .append(lineEnd < 0 ? failure : failure.substring(0, lineEnd).trim() + " ...")
+              .append('\n');
+          for (String tuple : tuples) {
+            text.append("  ").append(tuple).append('\n');
+          }
+        });
+    return text.toString();
+  }
+}
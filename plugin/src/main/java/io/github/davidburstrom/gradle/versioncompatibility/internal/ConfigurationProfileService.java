@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import javax.annotation.Nonnull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Writes the configuration profiles of the projects and reports their summaries when the build
+ * finishes, as the lazily registered configurations and tasks are only realized after the projects
+ * have been evaluated.
+ */
+public abstract class ConfigurationProfileService
+    implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+  private static final Logger LOGGER = Logging.getLogger(ConfigurationProfileService.class);
+
+  private final Map<String, ConfigurationProfiler> profilers = new ConcurrentSkipListMap<>();
+  private final Map<String, File> files = new ConcurrentSkipListMap<>();
+
+  /**
+   * Adds the profiler of a project.
+   *
+   * @param projectPath the path of the project.
+   * @param profiler the profiler.
+   * @param file the file to write the JSON profile to.
+   */
+  public void add(
+      @Nonnull String projectPath, @Nonnull ConfigurationProfiler profiler, @Nonnull File file) {
+    profilers.put(projectPath, profiler);
+    files.put(projectPath, file);
+  }
+
+  @Override
+  public void close() {
+    profilers.forEach(
+        (projectPath, profiler) -> {
+          final Path file = files.get(projectPath).toPath();
+          try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, profiler.formatJson(projectPath).getBytes(StandardCharsets.UTF_8));
+          } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + file, e);
+          }
+          LOGGER.lifecycle(profiler.formatSummary(projectPath) + " (see " + file.toUri() + ")");
+        });
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+
+/**
+ * Measures the wall time and the allocation of the phases of the plugin configuration, e.g. the
+ * tuple generation and the task registration, and counts the source sets, configurations and tasks
+ * that are registered in each phase.
+ *
+ * <p>Phases may be nested, e.g. when a lazily registered configuration is realized while a task is
+ * registered, in which case the outer phase is only attributed what isn't attributed to the inner
+ * one. The allocation is that of the measuring thread, and it is unknown if the JVM can't measure
+ * it.
+ */
+public final class ConfigurationProfiler {
+  private static final int COUNT = 0;
+  private static final int WALL_NANOS = 1;
+  private static final int ALLOCATED_BYTES = 2;
+  private static final int SOURCE_SETS = 3;
+  private static final int CONFIGURATIONS = 4;
+  private static final int TASKS = 5;
+  private static final int MEASURES = 6;
+
+  private final LongSupplier clock;
+  private final LongSupplier allocatedBytes;
+  private final IntSupplier sourceSets;
+  private final IntSupplier configurations;
+  private final IntSupplier tasks;
+  private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+  private final Map<String, long[]> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+
+  /* A started phase, with the totals of its nested phases so far. */
+  @SuppressWarnings({"PMD.ArrayIsStoredDirectly", "PMD.UseVarargs"})
+  private static final class Frame {
+    private final String phase;
+    private final long[] start;
+    private final long[] nested = new long[MEASURES];
+
+    Frame(@Nonnull String phase, @Nonnull long[] start) {
+      this.phase = phase;
+      this.start = start;
+    }
+  }
+
+  /**
+   * Creates a profiler.
+   *
+   * @param clock the nanosecond clock.
+   * @param allocatedBytes the bytes allocated by the current thread so far, or a negative number if
+   *     unknown.
+   * @param sourceSets the number of source sets of the project.
+   * @param configurations the number of configurations of the project.
+   * @param tasks the number of tasks of the project.
+   */
+  public ConfigurationProfiler(
+      @Nonnull LongSupplier clock,
+      @Nonnull LongSupplier allocatedBytes,
+      @Nonnull IntSupplier sourceSets,
+      @Nonnull IntSupplier configurations,
+      @Nonnull IntSupplier tasks) {
+    this.clock = clock;
+    this.allocatedBytes = allocatedBytes;
+    this.sourceSets = sourceSets;
+    this.configurations = configurations;
+    this.tasks = tasks;
+  }
+
+  /**
+   * Gets the allocation counter of the current thread, if the JVM supports it.
+   *
+   * @return the bytes allocated by the current thread so far, or -1 if unknown.
+   */
+  @Nonnull
+  public static LongSupplier currentThreadAllocatedBytes() {
+    final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      final com.sun.management.ThreadMXBean allocationBean =
+          (com.sun.management.ThreadMXBean) threadBean;
+      if (allocationBean.isThreadAllocatedMemorySupported()
+          && allocationBean.isThreadAllocatedMemoryEnabled()) {
+        return () -> allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return () -> -1;
+  }
+
+  /**
+   * Starts a phase on the current thread.
+   *
+   * @param phase the name of the phase.
+   */
+  public void start(@Nonnull String phase) {
+    frames.get().push(new Frame(phase, snapshot()));
+  }
+
+  /**
+   * Stops the innermost phase of the current thread.
+   *
+   * @throws IllegalStateException if no phase is started.
+   */
+  public void stop() {
+    final long[] end = snapshot();
+    final Deque<Frame> stack = frames.get();
+    final Frame frame = stack.poll();
+    if (frame == null) {
+      throw new IllegalStateException("No configuration phase is started");
+    }
+    final long[] total = new long[MEASURES];
+    final long[] exclusive = new long[MEASURES];
+    total[COUNT] = 1;
+    exclusive[COUNT] = 1;
+    for (int measure = WALL_NANOS; measure < MEASURES; measure++) {
+      total[measure] = end[measure] - frame.start[measure];
+      exclusive[measure] = total[measure] - frame.nested[measure];
+    }
+    if (end[ALLOCATED_BYTES] < 0 || frame.start[ALLOCATED_BYTES] < 0) {
+      total[ALLOCATED_BYTES] = -1;
+      exclusive[ALLOCATED_BYTES] = -1;
+    }
+    phases.merge(frame.phase, exclusive, ConfigurationProfiler::add);
+    final Frame outer = stack.peek();
+    if (outer != null) {
+      add(outer.nested, total);
+    }
+  }
+
+  @Nonnull
+  private long[] snapshot() {
+    final long[] snapshot = new long[MEASURES];
+    snapshot[WALL_NANOS] = clock.getAsLong();
+    snapshot[ALLOCATED_BYTES] = allocatedBytes.getAsLong();
+    snapshot[SOURCE_SETS] = sourceSets.getAsInt();
+    snapshot[CONFIGURATIONS] = configurations.getAsInt();
+    snapshot[TASKS] = tasks.getAsInt();
+    return snapshot;
+  }
+
+  /* Adds the measures to the sums, where any unknown allocation makes the sum unknown. */
+  @Nonnull
+  private static long[] add(@Nonnull long[] sums, @Nonnull long... measures) {
+    final boolean allocationUnknown = sums[ALLOCATED_BYTES] < 0 || measures[ALLOCATED_BYTES] < 0;
+    for (int measure = COUNT; measure < MEASURES; measure++) {
+      sums[measure] += measures[measure];
+    }
+    if (allocationUnknown) {
+      sums[ALLOCATED_BYTES] = -1;
+    }
+    return sums;
+  }
+
+  @Nonnull
+  private long[] totals() {
+    final long[] totals = new long[MEASURES];
+    for (long[] measures : snapshotPhases().values()) {
+      add(totals, measures);
+    }
+    return totals;
+  }
+
+  @Nonnull
+  private Map<String, long[]> snapshotPhases() {
+    final Map<String, long[]> snapshot = new LinkedHashMap<>();
+    phases.forEach((phase, measures) -> snapshot.put(phase, measures.clone()));
+    return snapshot;
+  }
+
+  /**
+   * Formats the measurements as a compact JSON document, in the order the phases were first
+   * stopped. The wall times are in microseconds, and unknown allocations are null.
+   *
+   * @param projectPath the path of the measured project.
+   * @return the JSON document.
+   */
+  @Nonnull
+  public String formatJson(@Nonnull String projectPath) {
+    final Map<String, Object> document = new LinkedHashMap<>();
+    document.put("project", projectPath);
+    putMeasures(totals(), document);
+    final List<Object> phaseList = new ArrayList<>();
+    snapshotPhases()
+        .forEach(
+            (phase, measures) -> {
+              final Map<String, Object> phaseMap = new LinkedHashMap<>();
+              phaseMap.put("name", phase);
+              phaseMap.put("count", measures[COUNT]);
+              putMeasures(measures, phaseMap);
+              phaseList.add(phaseMap);
+            });
+    document.put("phases", phaseList);
+    return Json.format(document);
+  }
+
+  private static void putMeasures(@Nonnull long[] measures, @Nonnull Map<String, Object> map) {
+    map.put("wallMicros", measures[WALL_NANOS] / 1_000);
+    map.put("allocatedBytes", measures[ALLOCATED_BYTES] < 0 ? null : measures[ALLOCATED_BYTES]);
+    map.put("sourceSets", measures[SOURCE_SETS]);
+    map.put("configurations", measures[CONFIGURATIONS]);
+    map.put("tasks", measures[TASKS]);
+  }
+
+  /**
+   * Formats the totals as a one-line summary.
+   *
+   * @param projectPath the path of the measured project.
+   * @return the summary.
+   */
+  @Nonnull
+  public String formatSummary(@Nonnull String projectPath) {
+    final long[] totals = totals();
+    return String.format(
+        Locale.ROOT,
+        "Version compatibility configuration of project '%s': %.1f ms, %s allocated,"
+            + " %d source set(s), %d configuration(s) and %d task(s) registered",
+        projectPath,
+        totals[WALL_NANOS] / 1e6,
+        totals[ALLOCATED_BYTES] < 0
+            ? "unknown"
+            : String.format(Locale.ROOT, "%.1f MiB", totals[ALLOCATED_BYTES] / 1_048_576.0),
+        totals[SOURCE_SETS],
+        totals[CONFIGURATIONS],
+        totals[TASKS]);
+  }
+}
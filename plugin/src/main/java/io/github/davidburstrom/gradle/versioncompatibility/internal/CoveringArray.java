@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Selects a subset of version tuples such that every combination of versions of any {@code
+ * strength} dimensions that occurs in the given tuples also occurs in the subset, i.e. a covering
+ * array.
+ *
+ * <p>The selection is greedy: the tuple that covers the most uncovered combinations is picked until
+ * all combinations are covered, with ties broken by the original order. Since only the given tuples
+ * are candidates, the combinations removed by filters and rules are never reintroduced. This does
+ * not guarantee a minimal subset, but it is deterministic and typically close to minimal.
+ */
+public final class CoveringArray {
+  private CoveringArray() {}
+
+  /**
+   * Selects the covering subset of the tuples.
+   *
+   * @param tuples the candidate tuples, which must all have the same dimensions.
+   * @param strength the number of dimensions whose combinations must be covered.
+   * @return the selected tuples, in their original order.
+   */
+  @Nonnull
+  public static List<List<NamedVersion>> select(
+      @Nonnull List<List<NamedVersion>> tuples, int strength) {
+    if (strength < 1) {
+      throw new IllegalArgumentException("The coverage strength must be positive, got " + strength);
+    }
+    if (tuples.isEmpty() || strength >= tuples.get(0).size()) {
+      return tuples;
+    }
+    final int dimensionCount = tuples.get(0).size();
+    final int[][] indices = indexVersions(tuples, dimensionCount);
+    final int[] versionCounts = new int[dimensionCount];
+    for (int[] tupleIndices : indices) {
+      for (int dimension = 0; dimension < dimensionCount; dimension++) {
+        versionCounts[dimension] = Math.max(versionCounts[dimension], tupleIndices[dimension] + 1);
+      }
+    }
+    final List<int[]> dimensionSubsets = new ArrayList<>();
+    addDimensionSubsets(dimensionSubsets, new int[strength], 0, 0, dimensionCount);
+
+    /* The keys of the combinations that each tuple covers, per dimension subset. */
+    final int[][] keys = new int[indices.length][dimensionSubsets.size()];
+    final BitSet[] uncovered = new BitSet[dimensionSubsets.size()];
+    int uncoveredCount = 0;
+    for (int subset = 0; subset < dimensionSubsets.size(); subset++) {
+      uncovered[subset] = new BitSet();
+      for (int tuple = 0; tuple < indices.length; tuple++) {
+        keys[tuple][subset] = key(indices[tuple], dimensionSubsets.get(subset), versionCounts);
+        if (!uncovered[subset].get(keys[tuple][subset])) {
+          uncovered[subset].set(keys[tuple][subset]);
+          uncoveredCount++;
+        }
+      }
+    }
+
+    final boolean[] selected = new boolean[indices.length];
+    while (uncoveredCount > 0) {
+      int bestTuple = -1;
+      int bestGain = 0;
+      for (int tuple = 0; tuple < indices.length; tuple++) {
+        if (!selected[tuple]) {
+          final int gain = gain(keys[tuple], uncovered);
+          if (gain > bestGain) {
+            bestGain = gain;
+            bestTuple = tuple;
+          }
+        }
+      }
+      selected[bestTuple] = true;
+      for (int subset = 0; subset < uncovered.length; subset++) {
+        uncovered[subset].clear(keys[bestTuple][subset]);
+      }
+      uncoveredCount -= bestGain;
+    }
+
+    final List<List<NamedVersion>> result = new ArrayList<>();
+    for (int tuple = 0; tuple < indices.length; tuple++) {
+      if (selected[tuple]) {
+        result.add(tuples.get(tuple));
+      }
+    }
+    return result;
+  }
+
+  /* Maps each version to its index in order of appearance, per dimension. */
+  @Nonnull
+  private static int[][] indexVersions(
+      @Nonnull List<List<NamedVersion>> tuples, int dimensionCount) {
+    final List<Map<String, Integer>> versionIndices = new ArrayList<>();
+    for (int dimension = 0; dimension < dimensionCount; dimension++) {
+      versionIndices.add(new HashMap<>());
+    }
+    final int[][] indices = new int[tuples.size()][dimensionCount];
+    for (int tuple = 0; tuple < tuples.size(); tuple++) {
+      for (int dimension = 0; dimension < dimensionCount; dimension++) {
+        final Map<String, Integer> dimensionIndices = versionIndices.get(dimension);
+        indices[tuple][dimension] =
+            dimensionIndices.computeIfAbsent(
+                tuples.get(tuple).get(dimension).getVersion(), version -> dimensionIndices.size());
+      }
+    }
+    return indices;
+  }
+
+  private static void addDimensionSubsets(
+      @Nonnull List<int[]> result,
+      @Nonnull int[] subset,
+      int position,
+      int firstDimension,
+      int dimensionCount) {
+    if (position == subset.length) {
+      result.add(subset.clone());
+      return;
+    }
+    for (int dimension = firstDimension; dimension < dimensionCount; dimension++) {
+      subset[position] = dimension;
+      addDimensionSubsets(result, subset, position + 1, dimension + 1, dimensionCount);
+    }
+  }
+
+  private static int key(
+      @Nonnull int[] tupleIndices, @Nonnull int[] dimensionSubset, @Nonnull int... versionCounts) {
+    int key = 0;
+    for (int dimension : dimensionSubset) {
+      key = key * versionCounts[dimension] + tupleIndices[dimension];
+    }
+    return key;
+  }
+
+  private static int gain(@Nonnull int[] tupleKeys, @Nonnull BitSet... uncovered) {
+    int gain = 0;
+    for (int subset = 0; subset < uncovered.length; subset++) {
+      if (uncovered[subset].get(tupleKeys[subset])) {
+        gain++;
+      }
+    }
+    return gain;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import javax.annotation.Nonnull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Keeps track of the fingerprints of the compatibility test tasks that have run, so that test tasks
+ * with the same fingerprint can be skipped, and reports them as aliases when the build finishes.
+ */
+public abstract class DuplicateTestService
+    implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+  private static final Logger LOGGER = Logging.getLogger(DuplicateTestService.class);
+
+  private final Map<String, String> tasksByFingerprint = new ConcurrentHashMap<>();
+  private final Map<String, String> aliases = new ConcurrentSkipListMap<>();
+
+  /**
+   * Checks whether a compatibility test task should run, and records the decision.
+   *
+   * @param taskPath the path of the test task.
+   * @param fingerprint the fingerprint of the test task.
+   * @return false if another test task with the same fingerprint has already run.
+   */
+  public boolean shouldRun(@Nonnull String taskPath, @Nonnull String fingerprint) {
+    final String originalTaskPath = tasksByFingerprint.putIfAbsent(fingerprint, taskPath);
+    if (originalTaskPath == null || originalTaskPath.equals(taskPath)) {
+      return true;
+    }
+    aliases.put(taskPath, originalTaskPath);
+    return false;
+  }
+
+  @Override
+  public void close() {
+    if (aliases.isEmpty()) {
+      return;
+    }
+    final StringBuilder report =
+        new StringBuilder(256)
+            .append("Skipped ")
+            .append(aliases.size())
+            .append(" compatibility test task(s) with the same classpath and JVM as another:");
+    aliases.forEach(
+        (alias, original) ->
+            report.append("\n  ").append(alias).append(" is an alias of ").append(original));
+    LOGGER.lifecycle(report.toString());
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.testing.Test;
+
+/**
+ * Skips a compatibility test task if another one with the same fingerprint has already run.
+ *
+ * <p>This is a class rather than a lambda, so that it can be stored in the configuration cache.
+ */
+public final class DuplicateTestSpec implements Spec<Task> {
+  private final Provider<DuplicateTestService> service;
+  private final Set<String> ignoredSystemProperties;
+
+  public DuplicateTestSpec(
+      @Nonnull Provider<DuplicateTestService> service,
+      @Nonnull Set<String> ignoredSystemProperties) {
+    this.service = service;
+    this.ignoredSystemProperties = ignoredSystemProperties;
+  }
+
+  @Override
+  public boolean isSatisfiedBy(@Nonnull Task task) {
+    return service
+        .get()
+        .shouldRun(task.getPath(), TestTaskFingerprint.of((Test) task, ignoredSystemProperties));
+  }
+}
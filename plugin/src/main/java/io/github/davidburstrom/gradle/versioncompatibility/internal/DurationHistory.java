@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+
+/**
+ * Reads and writes the history of compatibility test durations, i.e. a properties file from test
+ * task name to the wall time in milliseconds of its last execution.
+ */
+public final class DurationHistory {
+  private DurationHistory() {}
+
+  /**
+   * Parses the history file contents, ignoring any malformed entries.
+   *
+   * @param text the file contents.
+   * @return the durations in milliseconds, keyed by test task name.
+   */
+  @Nonnull
+  public static Map<String, Long> parse(@Nonnull String text) {
+    final Properties properties = new Properties();
+    try {
+      properties.load(new StringReader(text));
+    } catch (IOException | IllegalArgumentException e) {
+      /* A corrupt history only makes the shards less balanced, so it must not fail the build. */
+      return new TreeMap<>();
+    }
+    final Map<String, Long> durations = new TreeMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      final long duration = parseDuration(properties.getProperty(key));
+      if (duration >= 0) {
+        durations.put(key, duration);
+      }
+    }
+    return durations;
+  }
+
+  /* Parses a duration, or returns -1 if it is malformed. */
+  private static long parseDuration(@Nonnull String value) {
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Formats the durations as history file contents, sorted by key for stable diffs.
+   *
+   * @param durations the durations in milliseconds, keyed by test task name.
+   * @return the file contents.
+   */
+  @Nonnull
+  public static String format(@Nonnull Map<String, Long> durations) {
+    return format(durations, "Compatibility test task durations in milliseconds");
+  }
+
+  /**
+   * Formats the durations as properties file contents with the given header comment, sorted by key
+   * for stable diffs.
+   *
+   * @param durations the durations in milliseconds, keyed by task name.
+   * @param header the header comment.
+   * @return the file contents.
+   */
+  @Nonnull
+  public static String format(@Nonnull Map<String, Long> durations, @Nonnull String header) {
+    final StringBuilder text = new StringBuilder("# ").append(header).append('\n');
+    for (Map.Entry<String, Long> entry : new TreeMap<>(durations).entrySet()) {
+      text.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+    }
+    return text.toString();
+  }
+}
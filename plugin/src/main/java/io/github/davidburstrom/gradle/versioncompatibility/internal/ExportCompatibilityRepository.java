@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Exports the resolved dependencies of the compatibility tests and adapters into a directory with
+ * the Maven repository layout, so that the compatibility tests can be run without network access.
+ *
+ * <p>A Gradle script with a matching repository declaration is written to the root of the
+ * directory, which locates the repository relative to itself, so that the directory can be moved to
+ * other machines. Only the POMs are exported as metadata, so the repository is declared to ignore
+ * any Gradle Module Metadata that the POMs refer to.
+ */
+@DisableCachingByDefault(because = "Copying files is not worth caching")
+public abstract class ExportCompatibilityRepository extends DefaultTask {
+  /** The name of the Gradle script that declares the repository. */
+  public static final String REPOSITORY_SCRIPT_NAME = "repository.gradle";
+
+  /**
+   * Gets the absolute paths of the files to export, keyed by their path in the repository.
+   *
+   * @return the repository paths property.
+   */
+  @Input
+  public abstract MapProperty<String, String> getRepositoryPaths();
+
+  /**
+   * Gets the files to export, so that changes to their contents are tracked. These are expected to
+   * be the values of {@link #getRepositoryPaths()}.
+   *
+   * @return the files.
+   */
+  @InputFiles
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract ConfigurableFileCollection getFiles();
+
+  /**
+   * Gets the directory to export the repository into.
+   *
+   * @return the repository directory property.
+   */
+  @OutputDirectory
+  public abstract DirectoryProperty getRepositoryDirectory();
+
+  /**
+   * Copies the files into the repository, skipping the files that are already there with the same
+   * checksum, and writes the repository declaration.
+   */
+  @TaskAction
+  public void export() {
+    final File repositoryDirectory = getRepositoryDirectory().get().getAsFile();
+    try {
+      for (Map.Entry<String, String> entry : getRepositoryPaths().get().entrySet()) {
+        final File source = new File(entry.getValue());
+        final File target = new File(repositoryDirectory, entry.getKey());
+        if (!target.isFile() || !Arrays.equals(checksum(target), checksum(source))) {
+          Files.createDirectories(target.getParentFile().toPath());
+          Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+      }
+      Files.write(
+          new File(repositoryDirectory, REPOSITORY_SCRIPT_NAME).toPath(),
+          repositoryScript().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          "Could not export the repository to " + repositoryDirectory, e);
+    }
+  }
+
+  @Nonnull
+  private static byte[] checksum(@Nonnull File file) throws IOException {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+    final byte[] buffer = new byte[8192];
+    try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+      int length = inputStream.read(buffer);
+      while (length >= 0) {
+        digest.update(buffer, 0, length);
+        length = inputStream.read(buffer);
+      }
+    }
+    return digest.digest();
+  }
+
+  @Nonnull
+  private static String repositoryScript() {
+    return "/*\n"
+        + " * The offline repository of the version compatibility tests, apply it with\n"
+        + " * apply(from = \"<path to this file>\") in the build script.\n"
+        + " */\n"
+        + "def offlineRepositoryDirectory = buildscript.sourceFile.parentFile\n"
+        + "repositories {\n"
+        + "    maven {\n"
+        + "        url = offlineRepositoryDirectory.toURI()\n"
+        + "        metadataSources {\n"
+        + "            mavenPom()\n"
+        + "            artifact()\n"
+        + "            ignoreGradleMetadataRedirection()\n"
+        + "        }\n"
+        + "    }\n"
+        + "}\n";
+  }
+}
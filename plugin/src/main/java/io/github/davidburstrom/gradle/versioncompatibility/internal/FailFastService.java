@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import javax.annotation.Nonnull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+
+/**
+ * Keeps track of failing compatibility test tasks, so that the remaining ones can be skipped, and
+ * reports the skipped ones when the build finishes.
+ *
+ * <p>The failures are observed through task completion events, which are delivered asynchronously,
+ * so test tasks that start right after a failure may still run.
+ */
+public abstract class FailFastService
+    implements BuildService<BuildServiceParameters.None>,
+        OperationCompletionListener,
+        AutoCloseable {
+  private static final Logger LOGGER = Logging.getLogger(FailFastService.class);
+
+  private final Set<String> startedTasks = ConcurrentHashMap.newKeySet();
+  private final Set<String> failedTasks = new ConcurrentSkipListSet<>();
+  private final Set<String> skippedTasks = new ConcurrentSkipListSet<>();
+
+  /**
+   * Checks whether a compatibility test task should run, and records the decision.
+   *
+   * @param taskPath the path of the test task.
+   * @return false if any compatibility test task has failed.
+   */
+  public boolean shouldRun(@Nonnull String taskPath) {
+    if (failedTasks.isEmpty()) {
+      startedTasks.add(taskPath);
+      return true;
+    }
+    skippedTasks.add(taskPath);
+    return false;
+  }
+
+  @Override
+  public void onFinish(@Nonnull FinishEvent event) {
+    if (event instanceof TaskFinishEvent && event.getResult() instanceof TaskFailureResult) {
+      final String taskPath = ((TaskFinishEvent) event).getDescriptor().getTaskPath();
+      if (startedTasks.contains(taskPath)) {
+        failedTasks.add(taskPath);
+      }
+    }
+  }
+
+  @Nonnull
+  Set<String> getFailedTasks() {
+    return failedTasks;
+  }
+
+  @Nonnull
+  Set<String> getSkippedTasks() {
+    return skippedTasks;
+  }
+
+  @Override
+  public void close() {
+    if (!skippedTasks.isEmpty()) {
+      final String message =
+          "Skipped "
+              + skippedTasks.size()
+              + " compatibility test task(s) after "
+              + String.join(", ", failedTasks)
+              + " failed, so these combinations were never tested:\n  "
+              + String.join("\n  ", skippedTasks);
+      LOGGER.warn(message);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import javax.inject.Inject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.TaskAction;
+
+/** Generates the dispatcher class of an adapter namespace, see {@link AdapterDispatcherSource}. */
+@CacheableTask
+public abstract class GenerateAdapterDispatcher extends DefaultTask {
+  /**
+   * Gets the fully qualified name of the class to generate.
+   *
+   * @return the class name property.
+   */
+  @Input
+  public abstract Property<String> getClassName();
+
+  /**
+   * Gets the adapter versions of the namespace.
+   *
+   * @return the versions property.
+   */
+  @Input
+  public abstract SetProperty<String> getVersions();
+
+  /**
+   * Gets the source directory to generate the class into.
+   *
+   * @return the output directory property.
+   */
+  @OutputDirectory
+  public abstract DirectoryProperty getOutputDirectory();
+
+  @Inject
+  @SuppressWarnings("JavaxInjectOnAbstractMethod")
+  protected abstract FileSystemOperations getFileSystemOperations();
+
+  /** Generates the class, and removes any previously generated classes. */
+  @TaskAction
+  public void generate() {
+    final String className = getClassName().get();
+    final String source = AdapterDispatcherSource.generate(className, getVersions().get());
+    final File outputDirectory = getOutputDirectory().get().getAsFile();
+    getFileSystemOperations().delete(spec -> spec.delete(outputDirectory));
+    final File sourceFile = new File(outputDirectory, className.replace('.', '/') + ".java");
+    try {
+      Files.createDirectories(sourceFile.getParentFile().toPath());
+      Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write " + sourceFile, e);
+    }
+  }
+}
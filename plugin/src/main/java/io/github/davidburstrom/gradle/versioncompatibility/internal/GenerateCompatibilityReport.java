@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Collects the outcome and timings of the compatibility test tasks into a compact JSON file and an
+ * HTML heat map, see {@link CompatibilityReport}.
+ *
+ * <p>The durations are those measured in the current build, or else the last ones in the duration
+ * history, and the test results are the last ones written by each test task, so the report covers
+ * the latest execution of each tuple. What isn't spent in the tests, e.g. the JVM startup, is
+ * reported as overhead.
+ */
+@DisableCachingByDefault(because = "The report depends on the outcomes of other tasks")
+public abstract class GenerateCompatibilityReport extends DefaultTask {
+  private final List<CompatibilityReportTuple> tuples = new ArrayList<>();
+
+  /**
+   * Gets the compatibility test tasks to report, in report order.
+   *
+   * @return the mutable list of tuples.
+   */
+  @Nested
+  public List<CompatibilityReportTuple> getTuples() {
+    return tuples;
+  }
+
+  /**
+   * Gets the file that the classpath resolution times are read from, if it exists.
+   *
+   * @return the resolution times file property.
+   */
+  @Internal
+  public abstract RegularFileProperty getResolutionTimesFile();
+
+  /**
+   * Gets the file to write the JSON report to.
+   *
+   * @return the JSON file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getJsonFile();
+
+  /**
+   * Gets the file to write the HTML heat map to.
+   *
+   * @return the HTML file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getHtmlFile();
+
+  /** Collects the outcomes and timings, and writes the reports. */
+  @TaskAction
+  public void generate() {
+    final Map<String, Long> resolutionTimes =
+        readDurations(getResolutionTimesFile().getAsFile().getOrNull());
+    final Map<File, Map<String, Long>> histories = new HashMap<>();
+    final List<CompatibilityReport.Entry> entries = new ArrayList<>();
+    for (CompatibilityReportTuple tuple : tuples) {
+      final String taskName = tuple.getTaskName().get();
+      final List<String> dimensions = tuple.getDimensions().get();
+      final List<String> versions = tuple.getVersions().get();
+      final List<NamedVersion> combinedVersion = new ArrayList<>();
+      for (int index = 0; index < dimensions.size(); index++) {
+        combinedVersion.add(new NamedVersion(dimensions.get(index), versions.get(index)));
+      }
+      final File resultsDirectory = tuple.getResultsDirectory().get().getAsFile();
+      entries.add(
+          new CompatibilityReport.Entry(
+              tuple.getSuite().get(),
+              taskName,
+              combinedVersion,
+              resolutionTimes.get(taskName),
+              duration(tuple, taskName, histories),
+              CompatibilityReport.readJUnitResults(resultsDirectory)));
+    }
+    write(getJsonFile().get().getAsFile().toPath(), CompatibilityReport.formatJson(entries));
+    final Path htmlFile = getHtmlFile().get().getAsFile().toPath();
+    write(htmlFile, CompatibilityReport.formatHtml(entries));
+    getLogger().lifecycle("Compatibility report: " + htmlFile.toUri());
+  }
+
+  @Nullable
+  private static Long duration(
+      @Nonnull CompatibilityReportTuple tuple,
+      @Nonnull String taskName,
+      @Nonnull Map<File, Map<String, Long>> histories) {
+    final TestDurationService service = tuple.getDurationService().getOrNull();
+    if (service == null) {
+      return null;
+    }
+    final Long duration = service.getDurations().get(taskName);
+    if (duration != null) {
+      return duration;
+    }
+    final File historyFile = service.getParameters().getHistoryFile().get().getAsFile();
+    return histories
+        .computeIfAbsent(historyFile, GenerateCompatibilityReport::readDurations)
+        .get(taskName);
+  }
+
+  @Nonnull
+  private static Map<String, Long> readDurations(@Nullable File file) {
+    if (file == null || !file.exists()) {
+      return Collections.emptyMap();
+    }
+    final Path path = file.toPath();
+    try {
+      return DurationHistory.parse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read " + path, e);
+    }
+  }
+
+  private static void write(@Nonnull Path file, @Nonnull String text) {
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write " + file, e);
+    }
+  }
+}
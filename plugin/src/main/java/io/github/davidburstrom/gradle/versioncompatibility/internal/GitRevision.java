@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+
+/** Reads the current Git commit from the repository files, without running Git. */
+public final class GitRevision {
+  private static final String REF_PREFIX = "ref: ";
+  private static final String GIT_DIR_PREFIX = "gitdir: ";
+
+  private GitRevision() {}
+
+  /**
+   * Gets the commit that HEAD points at in the Git repository that contains the root of the build.
+   * The repository is looked up in the root directory and its parents, and a ".git" file, as in
+   * worktrees and submodules, is followed to the actual Git directory.
+   *
+   * <p>The files are read through the provider API, so that they are tracked as configuration
+   * inputs by the configuration cache.
+   *
+   * @param project the project.
+   * @return the commit hash, or an empty string if it cannot be determined.
+   */
+  @Nonnull
+  public static Provider<String> headCommit(@Nonnull Project project) {
+    final ProviderFactory providers = project.getProviders();
+    final ProjectLayout layout = project.getLayout();
+    final File rootDir = project.getRootDir();
+    return providers
+        .provider(() -> findGitDir(providers, layout, rootDir))
+        .flatMap(
+            gitDir -> {
+              /* The branches of a worktree are in the Git directory of the main worktree. */
+              final File commonDir =
+                  fileText(providers, layout, new File(gitDir, "commondir"))
+                      .map(path -> resolve(gitDir, path))
+                      .getOrElse(gitDir);
+              return fileText(providers, layout, new File(gitDir, "HEAD"))
+                  .flatMap(
+                      head -> {
+                        if (!head.startsWith(REF_PREFIX)) {
+                          return providers.provider(() -> head);
+                        }
+                        final String ref = head.substring(REF_PREFIX.length());
+                        return fileText(providers, layout, new File(gitDir, ref))
+                            .orElse(fileText(providers, layout, new File(commonDir, ref)))
+                            .orElse(
+                                fileText(providers, layout, new File(commonDir, "packed-refs"))
+                                    .map(packedRefs -> findPackedRef(packedRefs, ref)));
+                      });
+            })
+        .orElse("");
+  }
+
+  @Nullable
+  private static File findGitDir(
+      @Nonnull ProviderFactory providers, @Nonnull ProjectLayout layout, @Nonnull File directory) {
+    for (File parent = directory.getAbsoluteFile();
+        parent != null;
+        parent = parent.getParentFile()) {
+      final File dotGit = new File(parent, ".git");
+      if (dotGit.isDirectory()) {
+        return dotGit;
+      }
+      if (dotGit.isFile()) {
+        final String gitDirFile = fileText(providers, layout, dotGit).getOrElse("");
+        return gitDirFile.startsWith(GIT_DIR_PREFIX)
+            ? resolve(parent, gitDirFile.substring(GIT_DIR_PREFIX.length()))
+            : null;
+      }
+    }
+    return null;
+  }
+
+  /* Git writes the paths in these files either absolute or relative to the containing directory. */
+  @Nonnull
+  private static File resolve(@Nonnull File directory, @Nonnull String path) {
+    final File file = new File(path);
+    return file.isAbsolute() ? file : new File(directory, path);
+  }
+
+  @Nonnull
+  private static Provider<String> fileText(
+      @Nonnull ProviderFactory providers, @Nonnull ProjectLayout layout, @Nonnull File file) {
+    return providers
+        .fileContents(layout.file(providers.provider(() -> file)))
+        .getAsText()
+        .map(String::trim);
+  }
+
+  /* Finds the commit of a ref in the "packed-refs" file, where each line is "<commit> <ref>". */
+  @Nonnull
+  static String findPackedRef(@Nonnull String packedRefs, @Nonnull String ref) {
+    for (String line : packedRefs.split("\n", -1)) {
+      final String trimmedLine = line.trim();
+      if (trimmedLine.endsWith(" " + ref)) {
+        return trimmedLine.substring(0, trimmedLine.length() - ref.length() - 1);
+      }
+    }
+    return "";
+  }
+}
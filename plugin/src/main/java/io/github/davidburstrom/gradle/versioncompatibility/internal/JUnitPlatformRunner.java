@@ -0,0 +1,244 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Runs the tests in a set of test class directories on the JUnit Platform, in a fresh class loader
+ * that only contains the given classpath, so that multiple classpaths can be tested one after the
+ * other in the same JVM without interfering with each other.
+ *
+ * <p>The JUnit Platform is loaded from the classpath, so it is only accessed through reflection.
+ */
+public final class JUnitPlatformRunner {
+  private static final String LAUNCHER_PACKAGE = "org.junit.platform.launcher";
+
+  private JUnitPlatformRunner() {}
+
+  /**
+   * Discovers and runs all tests in the test class directories.
+   *
+   * @param classpath the classpath to run the tests with, which must contain the JUnit Platform
+   *     launcher and the test engines.
+   * @param testClassesDirs the directories to discover the test classes in.
+   * @return the result of each test.
+   */
+  @Nonnull
+  public static List<TestResult> run(
+      @Nonnull List<File> classpath, @Nonnull List<File> testClassesDirs) {
+    final Thread thread = Thread.currentThread();
+    final ClassLoader contextClassLoader = thread.getContextClassLoader();
+    try (URLClassLoader classLoader =
+        new URLClassLoader(toUrls(classpath), ClassLoader.getSystemClassLoader().getParent())) {
+      thread.setContextClassLoader(classLoader);
+      return run(classLoader, testClassesDirs);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(
+          "Could not find the JUnit Platform launcher on the test runtime classpath, add"
+              + " org.junit.platform:junit-platform-launcher to it",
+          e);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not run the tests on the JUnit Platform", e);
+    } finally {
+      thread.setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  @Nonnull
+  private static List<TestResult> run(
+      @Nonnull ClassLoader classLoader, @Nonnull List<File> testClassesDirs)
+      throws ReflectiveOperationException {
+    final Set<Path> roots = new LinkedHashSet<>();
+    for (File testClassesDir : testClassesDirs) {
+      roots.add(testClassesDir.toPath());
+    }
+    final Object selectors =
+        classLoader
+            .loadClass("org.junit.platform.engine.discovery.DiscoverySelectors")
+            .getMethod("selectClasspathRoots", Set.class)
+            .invoke(null, roots);
+    final Class<?> requestBuilderClass =
+        classLoader.loadClass(LAUNCHER_PACKAGE + ".core.LauncherDiscoveryRequestBuilder");
+    final Object requestBuilder = requestBuilderClass.getMethod("request").invoke(null);
+    requestBuilderClass.getMethod("selectors", List.class).invoke(requestBuilder, selectors);
+    final Object request = requestBuilderClass.getMethod("build").invoke(requestBuilder);
+
+    final Class<?> listenerClass =
+        classLoader.loadClass(LAUNCHER_PACKAGE + ".TestExecutionListener");
+    final ResultCollector collector = new ResultCollector();
+    final Object listeners = Array.newInstance(listenerClass, 1);
+    Array.set(
+        listeners,
+        0,
+        Proxy.newProxyInstance(classLoader, new Class<?>[] {listenerClass}, collector));
+
+    final Object launcher =
+        classLoader
+            .loadClass(LAUNCHER_PACKAGE + ".core.LauncherFactory")
+            .getMethod("create")
+            .invoke(null);
+    classLoader
+        .loadClass(LAUNCHER_PACKAGE + ".Launcher")
+        .getMethod(
+            "execute",
+            classLoader.loadClass(LAUNCHER_PACKAGE + ".LauncherDiscoveryRequest"),
+            listeners.getClass())
+        .invoke(launcher, request, listeners);
+    return collector.getResults();
+  }
+
+  @Nonnull
+  private static URL[] toUrls(@Nonnull List<File> files) {
+    final URL[] urls = new URL[files.size()];
+    for (int index = 0; index < files.size(); index++) {
+      try {
+        urls[index] = files.get(index).toURI().toURL();
+      } catch (MalformedURLException e) {
+        throw new IllegalArgumentException("Invalid classpath element " + files.get(index), e);
+      }
+    }
+    return urls;
+  }
+
+  /* Implements the TestExecutionListener interface of the JUnit Platform. */
+  private static final class ResultCollector implements InvocationHandler {
+    /* The test name of a container failure, as Gradle reports it. */
+    private static final String CONTAINER_TEST_NAME = "classMethod";
+
+    private final Map<Object, Long> startTimes = new ConcurrentHashMap<>();
+    private final List<TestResult> results = Collections.synchronizedList(new ArrayList<>());
+
+    @Nullable
+    @Override
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    public Object invoke(@Nonnull Object proxy, @Nonnull Method method, @Nullable Object[] args)
+        throws ReflectiveOperationException {
+      switch (method.getName()) {
+        case "executionStarted":
+          startTimes.put(invoke(args[0], "getUniqueId"), System.nanoTime());
+          return null;
+        case "executionSkipped":
+          record(args[0], TestResult.Status.SKIPPED, null);
+          return null;
+        case "executionFinished":
+          record(
+              args[0],
+              toStatus(invoke(args[1], "getStatus").toString()),
+              ((Optional<?>) invoke(args[1], "getThrowable"))
+                  .map(Throwable.class::cast)
+                  .orElse(null));
+          return null;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return ResultCollector.class.getName();
+        default:
+          return null;
+      }
+    }
+
+    @Nonnull
+    private static TestResult.Status toStatus(@Nonnull String status) {
+      switch (status) {
+        case "SUCCESSFUL":
+          return TestResult.Status.PASSED;
+        case "ABORTED":
+          return TestResult.Status.SKIPPED;
+        default:
+          return TestResult.Status.FAILED;
+      }
+    }
+
+    private void record(
+        @Nonnull Object testIdentifier,
+        @Nonnull TestResult.Status status,
+        @Nullable Throwable failure)
+        throws ReflectiveOperationException {
+      final boolean isTest = (Boolean) invoke(testIdentifier, "isTest");
+      final Long startTime = startTimes.remove(invoke(testIdentifier, "getUniqueId"));
+      /* A failing container, e.g. a class whose @BeforeAll method throws, fails all its tests. */
+      if (!isTest && status != TestResult.Status.FAILED) {
+        return;
+      }
+      final long durationMillis =
+          startTime == null ? 0 : (System.nanoTime() - startTime) / 1_000_000;
+      final Object source = ((Optional<?>) invoke(testIdentifier, "getSource")).orElse(null);
+      final String className =
+          source != null && hasMethod(source, "getClassName")
+              ? (String) invoke(source, "getClassName")
+              : "unknown";
+      results.add(
+          new TestResult(
+              className,
+              isTest
+                  ? (String) invoke(testIdentifier, "getLegacyReportingName")
+                  : CONTAINER_TEST_NAME,
+              durationMillis,
+              status,
+              failure));
+    }
+
+    @Nonnull
+    List<TestResult> getResults() {
+      return new ArrayList<>(results);
+    }
+
+    private static boolean hasMethod(@Nonnull Object object, @Nonnull String methodName) {
+      try {
+        object.getClass().getMethod(methodName);
+        return true;
+      } catch (NoSuchMethodException e) {
+        return false;
+      }
+    }
+
+    @Nonnull
+    private static Object invoke(@Nonnull Object object, @Nonnull String methodName)
+        throws ReflectiveOperationException {
+      try {
+        return object.getClass().getMethod(methodName).invoke(object);
+      } catch (InvocationTargetException e) {
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A minimal JSON reader and writer, for the reports of external tools such as JMH, and of the
+ * plugin itself.
+ *
+ * <p>Objects are read as maps that preserve the order of the members, arrays as lists, numbers as
+ * doubles, and the literals as booleans and null.
+ */
+public final class Json {
+  private final String text;
+  private int position;
+
+  private Json(@Nonnull String text) {
+    this.text = text;
+  }
+
+  /**
+   * Parses a JSON document.
+   *
+   * @param text the document.
+   * @return the value of the document.
+   * @throws IllegalArgumentException if the document is malformed.
+   */
+  @Nullable
+  public static Object parse(@Nonnull String text) {
+    final Json json = new Json(text);
+    final Object value = json.readValue();
+    json.skipWhitespace();
+    if (json.position != text.length()) {
+      throw json.error("Unexpected trailing content");
+    }
+    return value;
+  }
+
+  /**
+   * Formats a value as a compact JSON document.
+   *
+   * @param value a map with string keys, an iterable, a string, a number, a boolean or null, where
+   *     the maps and iterables contain such values in turn.
+   * @return the document.
+   * @throws IllegalArgumentException if the value, or any value it contains, is of another type, or
+   *     is a non-finite number.
+   */
+  @Nonnull
+  public static String format(@Nullable Object value) {
+    final StringBuilder json = new StringBuilder();
+    writeValue(value, json);
+    return json.toString();
+  }
+
+  private static void writeValue(@Nullable Object value, @Nonnull StringBuilder json) {
+    if (value == null || value instanceof Boolean) {
+      json.append(value);
+    } else if (value instanceof Number) {
+      if ((value instanceof Double && !Double.isFinite((Double) value))
+          || (value instanceof Float && !Float.isFinite((Float) value))) {
+        throw new IllegalArgumentException("Cannot format the non-finite number " + value);
+      }
+      json.append(value);
+    } else if (value instanceof CharSequence) {
+      writeString(value.toString(), json);
+    } else if (value instanceof Map) {
+      json.append('{');
+      String separator = "";
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        if (!(entry.getKey() instanceof String)) {
+          throw new IllegalArgumentException("Cannot format the object key " + entry.getKey());
+        }
+        json.append(separator);
+        writeString((String) entry.getKey(), json);
+        json.append(':');
+        writeValue(entry.getValue(), json);
+        separator = ",";
+      }
+      json.append('}');
+    } else if (value instanceof Iterable) {
+      json.append('[');
+      String separator = "";
+      for (Object element : (Iterable<?>) value) {
+        json.append(separator);
+        writeValue(element, json);
+        separator = ",";
+      }
+      json.append(']');
+    } else {
+      throw new IllegalArgumentException("Cannot format " + value.getClass().getName());
+    }
+  }
+
+  private static void writeString(@Nonnull String value, @Nonnull StringBuilder json) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char character = value.charAt(i);
+      if (character == '"' || character == '\\') {
+        json.append('\\').append(character);
+      } else if (character < ' ') {
+        json.append(String.format(Locale.ROOT, "\\u%04x", (int) character));
+      } else {
+        json.append(character);
+      }
+    }
+    json.append('"');
+  }
+
+  @Nullable
+  private Object readValue() {
+    skipWhitespace();
+    if (position == text.length()) {
+      throw error("Unexpected end of document");
+    }
+    final char first = text.charAt(position);
+    switch (first) {
+      case '{':
+        return readObject();
+      case '[':
+        return readArray();
+      case '"':
+        return readString();
+      default:
+        if (first == '-' || (first >= '0' && first <= '9')) {
+          return readNumber();
+        }
+        return readLiteral();
+    }
+  }
+
+  @Nonnull
+  private Map<String, Object> readObject() {
+    final Map<String, Object> members = new LinkedHashMap<>();
+    position++;
+    skipWhitespace();
+    if (consume('}')) {
+      return Collections.emptyMap();
+    }
+    do {
+      skipWhitespace();
+      if (position == text.length() || text.charAt(position) != '"') {
+        throw error("Expected a member name");
+      }
+      final String name = readString();
+      skipWhitespace();
+      expect(':');
+      members.put(name, readValue());
+      skipWhitespace();
+    } while (consume(','));
+    expect('}');
+    return Collections.unmodifiableMap(members);
+  }
+
+  @Nonnull
+  private List<Object> readArray() {
+    final List<Object> elements = new ArrayList<>();
+    position++;
+    skipWhitespace();
+    if (consume(']')) {
+      return Collections.emptyList();
+    }
+    do {
+      elements.add(readValue());
+      skipWhitespace();
+    } while (consume(','));
+    expect(']');
+    return Collections.unmodifiableList(elements);
+  }
+
+  @Nonnull
+  private String readString() {
+    final StringBuilder value = new StringBuilder();
+    position++;
+    while (position < text.length() && text.charAt(position) != '"') {
+      final char character = text.charAt(position);
+      if (character == '\\') {
+        value.append(readEscape());
+      } else {
+        value.append(character);
+        position++;
+      }
+    }
+    expect('"');
+    return value.toString();
+  }
+
+  private char readEscape() {
+    if (position + 1 >= text.length()) {
+      throw error("Unterminated escape");
+    }
+    final char escaped = text.charAt(position + 1);
+    position += 2;
+    switch (escaped) {
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        if (position + 4 > text.length()) {
+          throw error("Unterminated escape");
+        }
+        try {
+          final char unicode = (char) Integer.parseInt(text.substring(position, position + 4), 16);
+          position += 4;
+          return unicode;
+        } catch (NumberFormatException e) {
+          throw error("Invalid unicode escape", e);
+        }
+      case '"':
+      case '\\':
+      case '/':
+        return escaped;
+      default:
+        throw error("Invalid escape");
+    }
+  }
+
+  @Nonnull
+  private Double readNumber() {
+    final int start = position;
+    while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+      position++;
+    }
+    try {
+      return Double.valueOf(text.substring(start, position));
+    } catch (NumberFormatException e) {
+      throw error("Invalid number", e);
+    }
+  }
+
+  @Nullable
+  private Object readLiteral() {
+    for (String literal : new String[] {"true", "false", "null"}) {
+      if (text.startsWith(literal, position)) {
+        position += literal.length();
+        return "null".equals(literal) ? null : Boolean.valueOf(literal);
+      }
+    }
+    throw error("Unexpected character");
+  }
+
+  private void skipWhitespace() {
+    while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+      position++;
+    }
+  }
+
+  private boolean consume(char character) {
+    if (position < text.length() && text.charAt(position) == character) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(char character) {
+    if (!consume(character)) {
+      throw error("Expected '" + character + "'");
+    }
+  }
+
+  @Nonnull
+  private IllegalArgumentException error(@Nonnull String message) {
+    return new IllegalArgumentException(message + " at offset " + position);
+  }
+
+  @Nonnull
+  private IllegalArgumentException error(@Nonnull String message, @Nonnull Throwable cause) {
+    return new IllegalArgumentException(message + " at offset " + position, cause);
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Checks that the classes, fields and methods that a set of classes reference exist on a classpath,
+ * the way the JVM would resolve them, to find linkage errors such as {@code NoSuchMethodError}
+ * without running any code.
+ *
+ * <p>Members are looked up in the referenced class, its superclasses and its superinterfaces. If a
+ * class in that hierarchy is missing, the missing class is reported instead, once.
+ */
+public final class LinkageChecker {
+  private final Map<String, ClassFile> classes;
+  private final Function<String, ClassFile> platformClasses;
+  private final Map<String, ClassFile> loadedPlatformClasses = new HashMap<>();
+
+  /**
+   * Creates a checker that looks up the classes that are not on the classpath among the Java
+   * platform classes of the current JVM.
+   *
+   * @param classes the classes on the classpath, by name.
+   */
+  public LinkageChecker(@Nonnull Map<String, ClassFile> classes) {
+    this(classes, LinkageChecker::loadPlatformClass);
+  }
+
+  LinkageChecker(
+      @Nonnull Map<String, ClassFile> classes,
+      @Nonnull Function<String, ClassFile> platformClasses) {
+    this.classes = classes;
+    this.platformClasses = platformClasses;
+  }
+
+  /**
+   * Checks the references of classes.
+   *
+   * @param referencingClasses the classes to check the references of.
+   * @return a sorted description of each missing symbol.
+   */
+  @Nonnull
+  public Set<String> check(@Nonnull Collection<ClassFile> referencingClasses) {
+    final Set<String> problems = new TreeSet<>();
+    for (ClassFile referencingClass : referencingClasses) {
+      for (String referencedClass : referencingClass.getReferencedClasses()) {
+        if (find(referencedClass) == null) {
+          problems.add("Missing class " + referencedClass.replace('/', '.'));
+        }
+      }
+      for (ClassFile.MemberReference reference : referencingClass.getReferencedMembers()) {
+        if (!isPolymorphic(reference.getOwner())) {
+          final String problem = resolve(reference);
+          if (problem != null) {
+            problems.add(problem);
+          }
+        }
+      }
+    }
+    return problems;
+  }
+
+  /*
+   * Array types only have the members of Object, and the signature polymorphic methods of
+   * MethodHandle and VarHandle are invoked with descriptors that they don't declare.
+   */
+  private static boolean isPolymorphic(@Nonnull String owner) {
+    return owner.startsWith("[")
+        || "java/lang/invoke/MethodHandle".equals(owner)
+        || "java/lang/invoke/VarHandle".equals(owner);
+  }
+
+  /* Returns null if the member was found, or a description of what is missing. */
+  @Nullable
+  private String resolve(@Nonnull ClassFile.MemberReference reference) {
+    final Deque<String> pending = new ArrayDeque<>();
+    final Set<String> visited = new HashSet<>();
+    pending.add(reference.getOwner());
+    while (!pending.isEmpty()) {
+      final String className = pending.removeFirst();
+      if (!visited.add(className)) {
+        continue;
+      }
+      final ClassFile classFile = find(className);
+      if (classFile == null) {
+        return "Missing class " + className.replace('/', '.');
+      }
+      final Set<String> members =
+          reference.isField() ? classFile.getFields() : classFile.getMethods();
+      if (members.contains(reference.getMember())) {
+        return null;
+      }
+      if (classFile.getSuperName() != null) {
+        pending.add(classFile.getSuperName());
+      }
+      pending.addAll(classFile.getInterfaces());
+    }
+    return "Missing "
+        + (reference.isField() ? "field " : "method ")
+        + reference.toString().replace('/', '.');
+  }
+
+  @Nullable
+  private ClassFile find(@Nonnull String className) {
+    final ClassFile classFile = classes.get(className);
+    if (classFile != null) {
+      return classFile;
+    }
+    return loadedPlatformClasses.computeIfAbsent(className, platformClasses);
+  }
+
+  @Nullable
+  private static ClassFile loadPlatformClass(@Nonnull String className) {
+    /* The parent of the system class loader only sees the Java platform, not the Gradle classes. */
+    final ClassLoader platformClassLoader = ClassLoader.getSystemClassLoader().getParent();
+    try (InputStream inputStream = platformClassLoader.getResourceAsStream(className + ".class")) {
+      if (inputStream == null) {
+        return null;
+      }
+      return ClassFile.parse(SymbolIndex.readAllBytes(inputStream));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read the platform class " + className, e);
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ResolvableDependencies;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.gradle.api.artifacts.query.ArtifactResolutionQuery;
+import org.gradle.api.artifacts.result.ArtifactResult;
+import org.gradle.api.artifacts.result.ComponentArtifactsResult;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.UnresolvedArtifactResult;
+import org.gradle.api.component.Artifact;
+import org.gradle.maven.MavenModule;
+import org.gradle.maven.MavenPomArtifact;
+
+/** Collects the files of an offline Maven repository for a set of configurations. */
+public final class OfflineRepository {
+  private OfflineRepository() {}
+
+  /**
+   * Resolves the artifacts and POMs of all module components of the configurations, and the parent
+   * POMs and imported BOMs that the POMs need, transitively.
+   *
+   * @param dependencies the dependency handler to query the POMs with.
+   * @param configurations the configurations to resolve.
+   * @return the files, keyed by their path in the repository.
+   * @throws GradleException if a POM could not be resolved, as the repository would be incomplete.
+   */
+  @Nonnull
+  public static Map<String, File> resolveFiles(
+      @Nonnull DependencyHandler dependencies, @Nonnull List<Configuration> configurations) {
+    final Map<String, File> files = new TreeMap<>();
+    final Set<String> modules = new LinkedHashSet<>();
+    for (Configuration configuration : configurations) {
+      final ResolvableDependencies incoming = configuration.getIncoming();
+      for (ResolvedComponentResult component : incoming.getResolutionResult().getAllComponents()) {
+        if (component.getId() instanceof ModuleComponentIdentifier) {
+          final ModuleComponentIdentifier id = (ModuleComponentIdentifier) component.getId();
+          modules.add(id.getGroup() + ":" + id.getModule() + ":" + id.getVersion());
+        }
+      }
+      for (ResolvedArtifactResult artifact : incoming.getArtifacts()) {
+        final ComponentIdentifier id = artifact.getId().getComponentIdentifier();
+        if (id instanceof ModuleComponentIdentifier) {
+          files.put(
+              repositoryPath((ModuleComponentIdentifier) id, artifact.getFile().getName()),
+              artifact.getFile());
+        }
+      }
+    }
+
+    final Set<String> queriedModules = new HashSet<>(modules);
+    Set<String> pendingModules = modules;
+    while (!pendingModules.isEmpty()) {
+      final ArtifactResolutionQuery query = dependencies.createArtifactResolutionQuery();
+      for (String module : pendingModules) {
+        final String[] coordinates = module.split(":", -1);
+        query.forModule(coordinates[0], coordinates[1], coordinates[2]);
+      }
+      pendingModules = new LinkedHashSet<>();
+      for (ComponentArtifactsResult component :
+          query
+              .withArtifacts(
+                  MavenModule.class,
+                  Collections.<Class<? extends Artifact>>singletonList(MavenPomArtifact.class))
+              .execute()
+              .getResolvedComponents()) {
+        for (ArtifactResult pom : component.getArtifacts(MavenPomArtifact.class)) {
+          if (pom instanceof UnresolvedArtifactResult) {
+            throw new GradleException(
+                "Could not resolve the POM of " + component.getId(),
+                ((UnresolvedArtifactResult) pom).getFailure());
+          }
+          final File pomFile = ((ResolvedArtifactResult) pom).getFile();
+          files.put(
+              repositoryPath((ModuleComponentIdentifier) component.getId(), pomFile.getName()),
+              pomFile);
+          for (String reference : PomReferences.parse(readText(pomFile))) {
+            if (queriedModules.add(reference)) {
+              pendingModules.add(reference);
+            }
+          }
+        }
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Creates the path of a file in the Maven repository layout.
+   *
+   * @param id the component that the file belongs to.
+   * @param fileName the name of the file.
+   * @return the path, relative to the repository root.
+   */
+  @Nonnull
+  static String repositoryPath(@Nonnull ModuleComponentIdentifier id, @Nonnull String fileName) {
+    return id.getGroup().replace('.', '/')
+        + "/"
+        + id.getModule()
+        + "/"
+        + id.getVersion()
+        + "/"
+        + fileName;
+  }
+
+  @Nonnull
+  private static String readText(@Nonnull File file) {
+    try {
+      return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read " + file, e);
+    }
+  }
+}
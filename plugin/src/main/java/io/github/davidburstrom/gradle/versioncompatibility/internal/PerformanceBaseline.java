@@ -0,0 +1,191 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+
+/**
+ * Reads and writes the baseline of the compatibility benchmark scores, i.e. a properties file from
+ * the benchmark task name and benchmark, e.g. "jmhCompatibilityWithJava8 example.Bench.run (avgt)",
+ * to the score of the primary metric, and finds the benchmarks that regressed.
+ */
+public final class PerformanceBaseline {
+  private static final String THROUGHPUT_MODE = "thrpt";
+  private static final String SPECIAL_KEY_CHARACTERS = " :=#!\\";
+
+  private PerformanceBaseline() {}
+
+  /**
+   * Parses the baseline file contents.
+   *
+   * @param text the file contents.
+   * @return the scores, keyed by benchmark task name and benchmark.
+   * @throws IllegalArgumentException if the file contents are malformed.
+   */
+  @Nonnull
+  public static Map<String, Double> parse(@Nonnull String text) {
+    final Properties properties = new Properties();
+    try {
+      properties.load(new StringReader(text));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not read the performance baseline", e);
+    }
+    final Map<String, Double> scores = new TreeMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      final String value = properties.getProperty(key);
+      try {
+        scores.put(key, Double.parseDouble(value));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            "Malformed score '" + value + "' of '" + key + "' in the performance baseline", e);
+      }
+    }
+    return scores;
+  }
+
+  /**
+   * Formats the scores as baseline file contents, sorted by key for stable diffs.
+   *
+   * @param scores the scores, keyed by benchmark task name and benchmark.
+   * @return the file contents.
+   */
+  @Nonnull
+  public static String format(@Nonnull Map<String, Double> scores) {
+    final StringBuilder text = new StringBuilder("# Compatibility benchmark scores\n");
+    for (Map.Entry<String, Double> entry : new TreeMap<>(scores).entrySet()) {
+      final String key = entry.getKey();
+      for (int i = 0; i < key.length(); i++) {
+        final char c = key.charAt(i);
+        if (SPECIAL_KEY_CHARACTERS.indexOf(c) >= 0) {
+          text.append('\\');
+        }
+        text.append(c);
+      }
+      text.append('=').append(entry.getValue()).append('\n');
+    }
+    return text.toString();
+  }
+
+  /**
+   * Replaces the scores of the benchmarked tasks in the baseline with their latest results. The
+   * scores of the other tasks are kept, so that each shard can update its part of the baseline.
+   *
+   * @param baseline the previous scores, keyed by benchmark task name and benchmark.
+   * @param resultsByTask the JMH JSON results, by benchmark task name.
+   * @return the updated scores.
+   * @throws IllegalArgumentException if any results are malformed.
+   */
+  @Nonnull
+  public static Map<String, Double> update(
+      @Nonnull Map<String, Double> baseline, @Nonnull Map<String, String> resultsByTask) {
+    final Map<String, Double> scores = new TreeMap<>(baseline);
+    resultsByTask.forEach(
+        (taskName, results) -> {
+          scores.keySet().removeIf(key -> key.startsWith(taskName + " "));
+          for (Map<String, Object> benchmark : benchmarks(results)) {
+            final Object score = score(benchmark);
+            /* JMH writes the scores that could not be computed as the string "NaN". */
+            if (score instanceof Double) {
+              scores.put(key(taskName, benchmark), (Double) score);
+            }
+          }
+        });
+    return scores;
+  }
+
+  /**
+   * Finds the benchmarks whose scores are worse than the baseline by more than the threshold. The
+   * benchmarks that are not in the baseline, or could not be scored, are ignored.
+   *
+   * @param baseline the scores, keyed by benchmark task name and benchmark.
+   * @param resultsByTask the JMH JSON results, by benchmark task name.
+   * @param threshold the tolerated regression, as a fraction of the baseline score.
+   * @return descriptions of the regressions, by benchmark task name, only for the tasks that
+   *     regressed.
+   * @throws IllegalArgumentException if any results are malformed, or the threshold is negative.
+   */
+  @Nonnull
+  public static Map<String, List<String>> regressions(
+      @Nonnull Map<String, Double> baseline,
+      @Nonnull Map<String, String> resultsByTask,
+      double threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException(
+          "The performance regression threshold must not be negative, got " + threshold);
+    }
+    final Map<String, List<String>> regressions = new TreeMap<>();
+    resultsByTask.forEach(
+        (taskName, results) -> {
+          for (Map<String, Object> benchmark : benchmarks(results)) {
+            final Double baselineScore = baseline.get(key(taskName, benchmark));
+            final Object score = score(benchmark);
+            if (baselineScore == null || !(score instanceof Double)) {
+              continue;
+            }
+            final double currentScore = (Double) score;
+            final boolean regressed =
+                THROUGHPUT_MODE.equals(benchmark.get("mode"))
+                    ? currentScore < baselineScore * (1 - threshold)
+                    : currentScore > baselineScore * (1 + threshold);
+            if (regressed) {
+              regressions
+                  .computeIfAbsent(taskName, name -> new ArrayList<>())
+                  .add(
+                      String.format(
+                          Locale.ROOT,
+                          "%s: %.3f %s, baseline %.3f (%+.1f%%)",
+                          BenchmarkComparison.benchmarkName(benchmark),
+                          currentScore,
+                          primaryMetric(benchmark).get("scoreUnit"),
+                          baselineScore,
+                          (currentScore / baselineScore - 1) * 100));
+            }
+          }
+        });
+    return regressions;
+  }
+
+  @Nonnull
+  private static List<Map<String, Object>> benchmarks(@Nonnull String results) {
+    final List<Map<String, Object>> benchmarks = new ArrayList<>();
+    for (Object result : BenchmarkComparison.asList(Json.parse(results), "results")) {
+      benchmarks.add(BenchmarkComparison.asMap(result, "benchmark"));
+    }
+    return benchmarks;
+  }
+
+  @Nonnull
+  private static String key(@Nonnull String taskName, @Nonnull Map<String, Object> benchmark) {
+    return taskName + " " + BenchmarkComparison.benchmarkName(benchmark);
+  }
+
+  @Nonnull
+  private static Map<String, Object> primaryMetric(@Nonnull Map<String, Object> benchmark) {
+    return BenchmarkComparison.asMap(benchmark.get("primaryMetric"), "metric");
+  }
+
+  private static Object score(@Nonnull Map<String, Object> benchmark) {
+    return primaryMetric(benchmark).get("score");
+  }
+}
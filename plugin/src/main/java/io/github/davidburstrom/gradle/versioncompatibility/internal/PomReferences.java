@@ -0,0 +1,158 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Finds the other POMs that a Maven POM needs to be interpreted, i.e. its parent POM and the BOMs
+ * that it imports in its dependency management, so that they can be included in an offline
+ * repository.
+ */
+public final class PomReferences {
+  private static final Pattern PROPERTY_REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+  private static final String PROJECT_PATH = "project";
+  private static final String PARENT_PATH = "project/parent";
+  private static final String PROPERTIES_PATH = "project/properties";
+  private static final String DEPENDENCIES_PATH = "project/dependencyManagement/dependencies";
+  private static final String DEPENDENCY_PATH = DEPENDENCIES_PATH + "/dependency";
+  private static final Set<String> COORDINATE_NAMES =
+      new HashSet<>(Arrays.asList("groupId", "artifactId", "version", "scope", "type"));
+
+  private PomReferences() {}
+
+  /**
+   * Parses the references of a POM.
+   *
+   * <p>Property references are substituted with the properties of the POM itself, and its project
+   * coordinates. References that still contain property references after the substitution, e.g. to
+   * properties that are inherited from the parent POM, are ignored.
+   *
+   * @param pom the POM contents.
+   * @return the module coordinates of the parent POM and the imported BOMs, in the form
+   *     "group:name:version".
+   * @throws IllegalArgumentException if the POM is not well formed.
+   */
+  @Nonnull
+  public static List<String> parse(@Nonnull String pom) {
+    final Map<String, String> properties = new HashMap<>();
+    final Map<String, String> parent = new HashMap<>();
+    final List<Map<String, String>> dependencies = new ArrayList<>();
+    try {
+      final XMLInputFactory factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      final XMLStreamReader reader = factory.createXMLStreamReader(new StringReader(pom));
+      final Deque<String> path = new ArrayDeque<>();
+      while (reader.hasNext()) {
+        final int event = reader.next();
+        if (event == XMLStreamConstants.END_ELEMENT) {
+          path.removeLast();
+        } else if (event == XMLStreamConstants.START_ELEMENT) {
+          final String parentPath = String.join("/", path);
+          final String name = reader.getLocalName();
+          if (DEPENDENCIES_PATH.equals(parentPath) && "dependency".equals(name)) {
+            dependencies.add(new HashMap<>());
+            path.addLast(name);
+          } else if (PROPERTIES_PATH.equals(parentPath)) {
+            properties.put(name, reader.getElementText().trim());
+          } else if (!COORDINATE_NAMES.contains(name)) {
+            path.addLast(name);
+          } else if (PARENT_PATH.equals(parentPath)) {
+            parent.put(name, reader.getElementText().trim());
+          } else if (DEPENDENCY_PATH.equals(parentPath)) {
+            dependencies.get(dependencies.size() - 1).put(name, reader.getElementText().trim());
+          } else if (PROJECT_PATH.equals(parentPath)) {
+            properties.put("project." + name, reader.getElementText().trim());
+          } else {
+            path.addLast(name);
+          }
+        }
+      }
+    } catch (XMLStreamException e) {
+      throw new IllegalArgumentException("Could not parse the POM", e);
+    }
+
+    /* The project coordinates are inherited from the parent if they are not declared. */
+    if (parent.containsKey("groupId")) {
+      properties.putIfAbsent("project.groupId", parent.get("groupId"));
+    }
+    if (parent.containsKey("version")) {
+      properties.putIfAbsent("project.version", parent.get("version"));
+    }
+
+    final List<String> result = new ArrayList<>();
+    addCoordinates(parent, properties, result);
+    for (Map<String, String> dependency : dependencies) {
+      if ("import".equals(dependency.get("scope")) && "pom".equals(dependency.get("type"))) {
+        addCoordinates(dependency, properties, result);
+      }
+    }
+    return result;
+  }
+
+  private static void addCoordinates(
+      @Nonnull Map<String, String> reference,
+      @Nonnull Map<String, String> properties,
+      @Nonnull List<String> result) {
+    final String groupId = reference.get("groupId");
+    final String artifactId = reference.get("artifactId");
+    final String version = reference.get("version");
+    if (groupId == null || artifactId == null || version == null) {
+      return;
+    }
+    final String coordinates =
+        substitute(groupId, properties)
+            + ":"
+            + substitute(artifactId, properties)
+            + ":"
+            + substitute(version, properties);
+    if (!coordinates.contains("${")) {
+      result.add(coordinates);
+    }
+  }
+
+  @Nonnull
+  private static String substitute(@Nonnull String value, @Nonnull Map<String, String> properties) {
+    final Matcher matcher = PROPERTY_REFERENCE.matcher(value);
+    final StringBuilder result = new StringBuilder();
+    int end = 0;
+    while (matcher.find()) {
+      final String name = matcher.group(1).replaceFirst("^pom\\.", "project.");
+      result
+          .append(value, end, matcher.start())
+          .append(properties.getOrDefault(name, matcher.group()));
+      end = matcher.end();
+    }
+    return result.append(value, end, value.length()).toString();
+  }
+}
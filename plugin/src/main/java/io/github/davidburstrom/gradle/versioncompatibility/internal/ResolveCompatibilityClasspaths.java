@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.ArtifactCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Resolves the classpaths of the compatibility test tasks up front, so that dependency metadata and
+ * artifacts are downloaded before any tests run, and unresolvable version tuples fail the build
+ * early rather than when their test tasks are about to run.
+ *
+ * <p>The classpaths are resolved one after the other in the same build, so the metadata of the
+ * modules they have in common is only resolved once, and the artifacts of each classpath are
+ * downloaded in parallel by Gradle. The resolution time of each classpath is reported, and the
+ * failures of all classpaths are collected before the task fails.
+ *
+ * <p>The resolution times are also written to a properties file, for the {@link
+ * GenerateCompatibilityReport} task.
+ */
+@DisableCachingByDefault(because = "Resolving dependencies is not worth caching")
+public abstract class ResolveCompatibilityClasspaths extends DefaultTask {
+  private final Map<String, ArtifactCollection> classpaths = new LinkedHashMap<>();
+
+  /**
+   * Gets the lenient artifact collections of the classpaths to resolve, by the name of the
+   * corresponding compatibility test task.
+   *
+   * @return the mutable map of classpaths.
+   */
+  @Internal
+  public Map<String, ArtifactCollection> getClasspaths() {
+    return classpaths;
+  }
+
+  /**
+   * Gets the file to write the resolution times to, in milliseconds by the name of the
+   * corresponding compatibility test task. It is internal, so that the report doesn't make the
+   * resolution a dependency.
+   *
+   * @return the resolution times file property.
+   */
+  @Internal
+  public abstract RegularFileProperty getResolutionTimesFile();
+
+  /** Resolves the classpaths, and fails if any of them could not be resolved. */
+  @TaskAction
+  public void resolve() {
+    final List<String> failures = new ArrayList<>();
+    final Map<String, Long> resolutionTimes = new LinkedHashMap<>();
+    classpaths.forEach(
+        (name, classpath) -> {
+          final long startTime = System.nanoTime();
+          final int artifactCount = classpath.getArtifacts().size();
+          final Collection<Throwable> classpathFailures = classpath.getFailures();
+          final long durationMillis = (System.nanoTime() - startTime) / 1_000_000;
+          resolutionTimes.put(name, durationMillis);
+          if (classpathFailures.isEmpty()) {
+            getLogger()
+                .lifecycle(
+                    "Resolved "
+                        + artifactCount
+                        + " artifact(s) for "
+                        + name
+                        + " in "
+                        + durationMillis
+                        + " ms");
+          } else {
+            getLogger()
+                .lifecycle(
+                    "Could not resolve the classpath for "
+                        + name
+                        + " in "
+                        + durationMillis
+                        + " ms");
+            for (Throwable failure : classpathFailures) {
+              failures.add(name + ": " + failure.getMessage());
+            }
+          }
+        });
+    if (getResolutionTimesFile().isPresent()) {
+      writeResolutionTimes(getResolutionTimesFile().get().getAsFile().toPath(), resolutionTimes);
+    }
+    if (!failures.isEmpty()) {
+      throw new GradleException(
+          "Could not resolve the classpaths of the compatibility tests:\n  "
+              + String.join("\n  ", failures));
+    }
+  }
+
+  private static void writeResolutionTimes(
+      @Nonnull Path file, @Nonnull Map<String, Long> resolutionTimes) {
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Files.write(
+          file,
+          DurationHistory.format(
+                  resolutionTimes, "Compatibility classpath resolution times in milliseconds")
+              .getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write " + file, e);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Selects the test classes of a compatibility test task that may exercise the dependencies of its
+ * version tuple, see {@link TestSelection}, and writes the test include patterns for them, one per
+ * line, which {@link TestSelectionFilter} applies to the test task.
+ */
+@CacheableTask
+public abstract class SelectCompatibilityTests extends DefaultTask {
+  /** The pattern that includes all test classes. */
+  static final String ALL_TEST_CLASSES = "**";
+
+  /**
+   * Gets the test class directories to select test classes from.
+   *
+   * @return the test classes.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getTestClasses();
+
+  /**
+   * Gets the production class directories and jars that the test classes are followed through.
+   *
+   * @return the production classes.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getProductionClasses();
+
+  /**
+   * Gets the class directories and jars whose classes count as the dependencies, e.g. the adapter
+   * API classes.
+   *
+   * @return the dependency classes.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getDependencyClasses();
+
+  /**
+   * Gets the symbol indexes of the dependencies whose versions vary.
+   *
+   * @return the symbol index files.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getDependencySymbolIndexes();
+
+  /**
+   * Gets the file to write the test include patterns to.
+   *
+   * @return the selection file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getSelectionFile();
+
+  /** Selects the test classes. */
+  @TaskAction
+  public void select() {
+    final Set<String> dependencyClasses = new LinkedHashSet<>();
+    for (File symbolIndex : getDependencySymbolIndexes()) {
+      try {
+        final String text =
+            new String(Files.readAllBytes(symbolIndex.toPath()), StandardCharsets.UTF_8);
+        dependencyClasses.addAll(SymbolIndex.parse(text).keySet());
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not read the symbol index " + symbolIndex, e);
+      }
+    }
+
+    final StringBuilder selection = new StringBuilder();
+    /* Without any varying classes, e.g. for a Java version, all the tests are relevant. */
+    if (dependencyClasses.isEmpty()) {
+      selection.append(ALL_TEST_CLASSES).append('\n');
+    } else {
+      for (File file : getDependencyClasses()) {
+        for (ClassFile classFile : SymbolIndex.readClasses(file)) {
+          dependencyClasses.add(classFile.getName());
+        }
+      }
+      for (String testClass :
+          TestSelection.select(
+              readClasses(getTestClasses()),
+              readClasses(getProductionClasses()),
+              dependencyClasses)) {
+        selection.append(testClass).append(".class\n").append(testClass).append("$*.class\n");
+      }
+    }
+
+    final File selectionFile = getSelectionFile().get().getAsFile();
+    try {
+      Files.write(selectionFile.toPath(), selection.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write the test selection " + selectionFile, e);
+    }
+  }
+
+  private static List<ClassFile> readClasses(Iterable<File> files) {
+    final List<ClassFile> classes = new ArrayList<>();
+    for (File file : files) {
+      classes.addAll(SymbolIndex.readClasses(file));
+    }
+    return classes;
+  }
+}
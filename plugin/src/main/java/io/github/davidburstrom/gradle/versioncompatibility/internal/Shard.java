@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * One of several disjoint parts of the test matrix, e.g. to spread the compatibility tests over
+ * multiple CI machines.
+ *
+ * <p>If the durations of the test tasks are known from previous builds, the tuples are bin-packed
+ * into the shards by expected duration, so that the shards take about equally long. Otherwise, each
+ * version tuple is assigned to a shard by a hash of its dimension names and versions, so the
+ * assignment of a tuple only depends on the tuple itself and the number of shards.
+ */
+public final class Shard {
+  /** The single shard that contains all tuples. */
+  public static final Shard ALL = new Shard(1, 1);
+
+  private final int index;
+  private final int count;
+
+  private Shard(int index, int count) {
+    this.index = index;
+    this.count = count;
+  }
+
+  /**
+   * Parses a shard specification.
+   *
+   * @param specification the one-based shard index and the shard count, e.g. "3/8".
+   * @return the shard.
+   */
+  @Nonnull
+  public static Shard parse(@Nonnull String specification) {
+    final int separator = specification.indexOf('/');
+    try {
+      if (separator >= 0) {
+        final int index = Integer.parseInt(specification.substring(0, separator).trim());
+        final int count = Integer.parseInt(specification.substring(separator + 1).trim());
+        if (index >= 1 && index <= count) {
+          return new Shard(index, count);
+        }
+      }
+    } catch (NumberFormatException e) {
+      throw invalidShard(specification, e);
+    }
+    throw invalidShard(specification, null);
+  }
+
+  @Nonnull
+  private static IllegalArgumentException invalidShard(
+      @Nonnull String specification, @Nullable Throwable cause) {
+    return new IllegalArgumentException(
+        "Invalid shard "
+            + specification
+            + ", expected <index>/<count> where 1 <= index <= count, e.g. 3/8",
+        cause);
+  }
+
+  /**
+   * Checks whether a version tuple belongs to this shard.
+   *
+   * @param namedVersions the version tuple.
+   * @return true if the tuple belongs to this shard.
+   */
+  public boolean contains(@Nonnull List<NamedVersion> namedVersions) {
+    final StringBuilder key = new StringBuilder();
+    for (NamedVersion namedVersion : namedVersions) {
+      key.append(namedVersion.getName()).append('=').append(namedVersion.getVersion()).append('\n');
+    }
+    return Math.floorMod(TupleSampler.hash(key.toString()), (long) count) == index - 1;
+  }
+
+  /**
+   * Selects the tuples that belong to this shard.
+   *
+   * <p>If the duration of any tuple is known, the tuples are assigned longest first to the shard
+   * with the least total expected duration so far, where tuples without a known duration are
+   * expected to take the average known duration. Otherwise, the tuples are assigned as per {@link
+   * #contains(List)}.
+   *
+   * @param tuples the version tuples.
+   * @param keys the keys of the tuples in the durations, i.e. the test task names.
+   * @param durations the known durations in milliseconds.
+   * @return the indices of the tuples that belong to this shard.
+   */
+  @Nonnull
+  public BitSet select(
+      @Nonnull List<List<NamedVersion>> tuples,
+      @Nonnull List<String> keys,
+      @Nonnull Map<String, Long> durations) {
+    final BitSet selected = new BitSet(tuples.size());
+    final long[] expectedDurations = new long[tuples.size()];
+    long knownDuration = 0;
+    int knownCount = 0;
+    for (int tuple = 0; tuple < tuples.size(); tuple++) {
+      final Long duration = durations.get(keys.get(tuple));
+      if (duration == null) {
+        expectedDurations[tuple] = -1;
+      } else {
+        /* Each task has some overhead, and zero durations would all be packed into one shard. */
+        expectedDurations[tuple] = Math.max(1, duration);
+        knownDuration += expectedDurations[tuple];
+        knownCount++;
+      }
+    }
+
+    if (knownCount == 0) {
+      for (int tuple = 0; tuple < tuples.size(); tuple++) {
+        if (contains(tuples.get(tuple))) {
+          selected.set(tuple);
+        }
+      }
+      return selected;
+    }
+
+    final long averageDuration = knownDuration / knownCount;
+    final List<Integer> order = new ArrayList<>();
+    for (int tuple = 0; tuple < tuples.size(); tuple++) {
+      if (expectedDurations[tuple] < 0) {
+        expectedDurations[tuple] = averageDuration;
+      }
+      order.add(tuple);
+    }
+    order.sort(
+        (first, second) ->
+            expectedDurations[first] == expectedDurations[second]
+                ? Integer.compare(first, second)
+                : Long.compare(expectedDurations[second], expectedDurations[first]));
+
+    final long[] shardDurations = new long[count];
+    for (int tuple : order) {
+      int lightestShard = 0;
+      for (int shard = 1; shard < count; shard++) {
+        if (shardDurations[shard] < shardDurations[lightestShard]) {
+          lightestShard = shard;
+        }
+      }
+      shardDurations[lightestShard] += expectedDurations[tuple];
+      if (lightestShard == index - 1) {
+        selected.set(tuple);
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Gets the number of shards.
+   *
+   * @return the number of shards.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  @Override
+  public String toString() {
+    return index + "/" + count;
+  }
+}
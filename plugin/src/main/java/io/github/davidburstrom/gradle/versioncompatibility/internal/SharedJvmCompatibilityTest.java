@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.work.DisableCachingByDefault;
+import org.gradle.workers.WorkerExecutor;
+
+/**
+ * Runs the compatibility tests of several version tuples in shared worker JVMs, one tuple at a time
+ * per JVM, each in a fresh class loader. This avoids the startup and warm-up cost of a JVM per
+ * tuple, which dominates for fast test suites.
+ *
+ * <p>The worker JVMs are pooled by Gradle, keyed by the Java launcher, JVM arguments and heap
+ * sizes, and a tuple leases an idle compatible JVM if there is one. The pool is owned by the Gradle
+ * daemon rather than the build, so the JVMs stay warm between builds until the daemon stops or runs
+ * low on memory.
+ */
+@DisableCachingByDefault(because = "The environment of the worker JVMs is not tracked")
+public abstract class SharedJvmCompatibilityTest extends DefaultTask {
+  private final List<SharedJvmTuple> tuples = new ArrayList<>();
+
+  /**
+   * Gets the version tuples to test.
+   *
+   * @return the mutable list of tuples.
+   */
+  @Nested
+  public List<SharedJvmTuple> getTuples() {
+    return tuples;
+  }
+
+  /**
+   * Gets the worker executor to run the tests with.
+   *
+   * @return the worker executor.
+   */
+  @Inject
+  @SuppressWarnings("JavaxInjectOnAbstractMethod")
+  protected abstract WorkerExecutor getWorkerExecutor();
+
+  /** Submits the tests of each tuple to a worker JVM. */
+  @TaskAction
+  public void runTests() {
+    for (SharedJvmTuple tuple : tuples) {
+      getWorkerExecutor()
+          .processIsolation(
+              spec -> {
+                final JavaForkOptions forkOptions = spec.getForkOptions();
+                if (tuple.getJavaLauncher().isPresent()) {
+                  forkOptions.setExecutable(
+                      tuple.getJavaLauncher().get().getExecutablePath().getAsFile());
+                }
+                forkOptions.setJvmArgs(tuple.getJvmArgs().get());
+                forkOptions.setMinHeapSize(tuple.getMinHeapSize().getOrNull());
+                forkOptions.setMaxHeapSize(tuple.getMaxHeapSize().getOrNull());
+              })
+          .submit(
+              SharedJvmTestAction.class,
+              parameters -> {
+                parameters.getTupleName().set(tuple.getTupleName());
+                parameters.getClasspath().from(tuple.getClasspath());
+                parameters.getTestClassesDirs().from(tuple.getTestClassesDirs());
+                parameters.getSystemProperties().set(tuple.getSystemProperties());
+                parameters.getResultsDirectory().set(tuple.getResultsDirectory());
+              });
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+/** Runs the compatibility tests of one version tuple in a worker JVM. */
+public abstract class SharedJvmTestAction implements WorkAction<SharedJvmTestAction.Parameters> {
+
+  /** The parameters of the action. */
+  public interface Parameters extends WorkParameters {
+    /**
+     * Gets the name of the tuple.
+     *
+     * @return the name property.
+     */
+    Property<String> getTupleName();
+
+    /**
+     * Gets the classpath to run the tests with.
+     *
+     * @return the classpath.
+     */
+    ConfigurableFileCollection getClasspath();
+
+    /**
+     * Gets the directories to discover the test classes in.
+     *
+     * @return the test classes directories.
+     */
+    ConfigurableFileCollection getTestClassesDirs();
+
+    /**
+     * Gets the system properties to set while the tests run.
+     *
+     * @return the system properties property.
+     */
+    MapProperty<String, String> getSystemProperties();
+
+    /**
+     * Gets the directory to write the test results into.
+     *
+     * @return the results directory property.
+     */
+    DirectoryProperty getResultsDirectory();
+  }
+
+  @Override
+  public void execute() {
+    final Parameters parameters = getParameters();
+    final List<TestResult> results;
+    /* A worker JVM only runs one action at a time, so the system properties can be swapped. */
+    final Map<String, String> previousProperties = new HashMap<>();
+    parameters
+        .getSystemProperties()
+        .get()
+        .forEach((key, value) -> previousProperties.put(key, System.setProperty(key, value)));
+    try {
+      results =
+          JUnitPlatformRunner.run(
+              new ArrayList<>(parameters.getClasspath().getFiles()),
+              new ArrayList<>(parameters.getTestClassesDirs().getFiles()));
+    } finally {
+      previousProperties.forEach(
+          (key, value) -> {
+            if (value == null) {
+              System.clearProperty(key);
+            } else {
+              System.setProperty(key, value);
+            }
+          });
+    }
+
+    final File resultsDirectory = parameters.getResultsDirectory().get().getAsFile();
+    TestResultWriter.write(results, resultsDirectory);
+    final long failures =
+        results.stream().filter(result -> result.getStatus() == TestResult.Status.FAILED).count();
+    if (failures > 0) {
+      throw new GradleException(
+          failures
+              + " test(s) failed for "
+              + parameters.getTupleName().get()
+              + ", see the results in "
+              + resultsDirectory);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.jvm.toolchain.JavaLauncher;
+
+/** A version tuple to test in a {@link SharedJvmCompatibilityTest} task. */
+public abstract class SharedJvmTuple {
+
+  /**
+   * Gets the name of the tuple, i.e. the name of the corresponding compatibility test task.
+   *
+   * @return the name property.
+   */
+  @Input
+  public abstract Property<String> getTupleName();
+
+  /**
+   * Gets the classpath to run the tests with.
+   *
+   * @return the classpath.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getClasspath();
+
+  /**
+   * Gets the directories to discover the test classes in.
+   *
+   * @return the test classes directories.
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getTestClassesDirs();
+
+  /**
+   * Gets the Java launcher of the worker JVM. The tuples with the same launcher, JVM arguments and
+   * heap sizes share a JVM.
+   *
+   * @return the Java launcher property.
+   */
+  @Nested
+  @Optional
+  public abstract Property<JavaLauncher> getJavaLauncher();
+
+  /**
+   * Gets the JVM arguments of the worker JVM, excluding the system properties.
+   *
+   * @return the JVM arguments property.
+   */
+  @Input
+  public abstract ListProperty<String> getJvmArgs();
+
+  /**
+   * Gets the minimum heap size of the worker JVM.
+   *
+   * @return the minimum heap size property.
+   */
+  @Input
+  @Optional
+  public abstract Property<String> getMinHeapSize();
+
+  /**
+   * Gets the maximum heap size of the worker JVM.
+   *
+   * @return the maximum heap size property.
+   */
+  @Input
+  @Optional
+  public abstract Property<String> getMaxHeapSize();
+
+  /**
+   * Gets the system properties to set while the tests run.
+   *
+   * @return the system properties property.
+   */
+  @Input
+  public abstract MapProperty<String, String> getSystemProperties();
+
+  /**
+   * Gets the directory to write the JUnit XML test results into.
+   *
+   * @return the results directory property.
+   */
+  @OutputDirectory
+  public abstract DirectoryProperty getResultsDirectory();
+}
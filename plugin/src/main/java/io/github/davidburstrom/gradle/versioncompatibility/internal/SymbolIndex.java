@@ -0,0 +1,199 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the classes of jars and class directories, and stores their declared symbols in a compact
+ * text format, so that a jar only has to be read once to check the linkage of other classes against
+ * it.
+ *
+ * <p>The format has one line per class, "C name superName interface...", where the superclass is
+ * "-" if there is none, followed by one line per field, "F name:descriptor", and one line per
+ * method, "M nameDescriptor".
+ */
+public final class SymbolIndex {
+  private static final String NO_SUPERCLASS = "-";
+
+  private SymbolIndex() {}
+
+  /**
+   * Reads the classes of a jar or a class directory. Other files and directories that don't exist
+   * contain no classes.
+   *
+   * @param file the jar or directory.
+   * @return the classes, without their references.
+   */
+  @Nonnull
+  public static List<ClassFile> readClasses(@Nonnull File file) {
+    final List<ClassFile> classes = new ArrayList<>();
+    try {
+      if (file.isDirectory()) {
+        try (Stream<Path> paths = Files.walk(file.toPath())) {
+          for (Path path : paths.filter(SymbolIndex::isClassFile).collect(Collectors.toList())) {
+            classes.add(ClassFile.parse(Files.readAllBytes(path)));
+          }
+        }
+      } else if (file.isFile() && file.getName().endsWith(".jar")) {
+        try (ZipFile zipFile = new ZipFile(file)) {
+          final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+          while (entries.hasMoreElements()) {
+            final ZipEntry entry = entries.nextElement();
+            if (isClassFile(entry.getName())) {
+              try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                classes.add(ClassFile.parse(readAllBytes(inputStream)));
+              }
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read the classes of " + file, e);
+    }
+    return classes;
+  }
+
+  /* Versioned classes of multi-release jars are ignored, like on Java 8. */
+  private static boolean isClassFile(@Nonnull Path path) {
+    return isClassFile(path.getFileName().toString());
+  }
+
+  private static boolean isClassFile(@Nonnull String name) {
+    return name.endsWith(".class")
+        && !name.endsWith("module-info.class")
+        && !name.endsWith("package-info.class")
+        && !name.startsWith("META-INF/");
+  }
+
+  @Nonnull
+  static byte[] readAllBytes(@Nonnull InputStream inputStream) throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int length = inputStream.read(buffer);
+    while (length >= 0) {
+      outputStream.write(buffer, 0, length);
+      length = inputStream.read(buffer);
+    }
+    return outputStream.toByteArray();
+  }
+
+  /**
+   * Formats the declared symbols of classes.
+   *
+   * @param classes the classes.
+   * @return the index contents.
+   */
+  @Nonnull
+  public static String format(@Nonnull Collection<ClassFile> classes) {
+    final StringBuilder text = new StringBuilder();
+    for (ClassFile classFile : classes) {
+      text.append("C ")
+          .append(classFile.getName())
+          .append(' ')
+          .append(classFile.getSuperName() == null ? NO_SUPERCLASS : classFile.getSuperName());
+      for (String interfaceName : classFile.getInterfaces()) {
+        text.append(' ').append(interfaceName);
+      }
+      text.append('\n');
+      for (String field : classFile.getFields()) {
+        text.append("F ").append(field).append('\n');
+      }
+      for (String method : classFile.getMethods()) {
+        text.append("M ").append(method).append('\n');
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Parses the declared symbols of classes.
+   *
+   * @param text the index contents.
+   * @return the classes, by name.
+   * @throws IllegalArgumentException if the contents are malformed.
+   */
+  @Nonnull
+  public static Map<String, ClassFile> parse(@Nonnull String text) {
+    final Map<String, ClassFile> classes = new LinkedHashMap<>();
+    @Nullable String[] header = null;
+    Set<String> fields = new LinkedHashSet<>();
+    Set<String> methods = new LinkedHashSet<>();
+    for (String line : text.split("\n", -1)) {
+      if (line.startsWith("C ")) {
+        addClass(classes, header, fields, methods);
+        header = line.substring(2).split(" ", -1);
+        fields = new LinkedHashSet<>();
+        methods = new LinkedHashSet<>();
+      } else if (line.startsWith("F ") && header != null) {
+        fields.add(line.substring(2));
+      } else if (line.startsWith("M ") && header != null) {
+        methods.add(line.substring(2));
+      } else if (!line.isEmpty()) {
+        throw new IllegalArgumentException("Malformed symbol index line: " + line);
+      }
+    }
+    addClass(classes, header, fields, methods);
+    return classes;
+  }
+
+  private static void addClass(
+      @Nonnull Map<String, ClassFile> classes,
+      @Nullable String[] header,
+      @Nonnull Set<String> fields,
+      @Nonnull Set<String> methods) {
+    if (header == null) {
+      return;
+    }
+    if (header.length < 2) {
+      throw new IllegalArgumentException(
+          "Malformed symbol index class: " + String.join(" ", header));
+    }
+    classes.put(
+        header[0],
+        new ClassFile(
+            header[0],
+            NO_SUPERCLASS.equals(header[1]) ? null : header[1],
+            Collections.unmodifiableList(
+                new ArrayList<>(Arrays.asList(header).subList(2, header.length))),
+            Collections.unmodifiableSet(fields),
+            Collections.unmodifiableSet(methods),
+            Collections.emptySet(),
+            Collections.emptyList()));
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gradle.api.artifacts.transform.CacheableTransform;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Classpath;
+
+/**
+ * Transforms a jar or a class directory into a {@link SymbolIndex}. The transformed external
+ * dependencies are cached by Gradle, so each version of a library is only indexed once.
+ */
+@CacheableTransform
+public abstract class SymbolIndexTransform implements TransformAction<TransformParameters.None> {
+  /** The artifact type of the symbol indexes. */
+  public static final String ARTIFACT_TYPE = "version-compatibility-symbols";
+
+  /**
+   * Gets the jar or class directory to index.
+   *
+   * @return the input artifact provider.
+   */
+  @InputArtifact
+  @Classpath
+  public abstract Provider<FileSystemLocation> getInputArtifact();
+
+  @Override
+  public void transform(TransformOutputs outputs) {
+    final File input = getInputArtifact().get().getAsFile();
+    final File output = outputs.file(input.getName() + ".symbols");
+    try {
+      Files.write(
+          output.toPath(),
+          SymbolIndex.format(SymbolIndex.readClasses(input)).getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write the symbol index of " + input, e);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+/** Creates the names and descriptions of the tasks and source sets that the plugin registers. */
+public final class TaskNames {
+  private TaskNames() {}
+
+  /**
+   * Creates the name of a compatibility test task, e.g. "testCompatibilityWithGradle7Dot0AndJava8".
+   *
+   * @param testSourceSetName the name of the test source set.
+   * @param namedVersions the version tuple.
+   * @return the task name.
+   */
+  @Nonnull
+  public static String compatibilityTestTaskName(
+      @Nonnull final String testSourceSetName, @Nonnull List<NamedVersion> namedVersions) {
+    return testSourceSetName + "CompatibilityWith" + tupleName(namedVersions);
+  }
+
+  /**
+   * Creates the name of a linkage check task, e.g.
+   * "checkTestCompatibilityLinkageWithGradle7Dot0AndJava8".
+   *
+   * @param testSourceSetName the name of the test source set.
+   * @param namedVersions the version tuple.
+   * @return the task name.
+   */
+  @Nonnull
+  public static String linkageCheckTaskName(
+      @Nonnull final String testSourceSetName, @Nonnull List<NamedVersion> namedVersions) {
+    return "check"
+        + capitalize(testSourceSetName)
+        + "CompatibilityLinkageWith"
+        + tupleName(namedVersions);
+  }
+
+  /**
+   * Creates the name of a test selection task, e.g.
+   * "selectTestCompatibilityTestsWithGradle7Dot0AndJava8".
+   *
+   * @param testSourceSetName the name of the test source set.
+   * @param namedVersions the version tuple.
+   * @return the task name.
+   */
+  @Nonnull
+  public static String testSelectionTaskName(
+      @Nonnull final String testSourceSetName, @Nonnull List<NamedVersion> namedVersions) {
+    return "select"
+        + capitalize(testSourceSetName)
+        + "CompatibilityTestsWith"
+        + tupleName(namedVersions);
+  }
+
+  /**
+   * Creates the name of the task that checks the benchmark scores of a benchmark source set against
+   * its baseline, e.g. "checkJmhCompatibilityPerformance".
+   *
+   * @param benchmarkSourceSetName the name of the benchmark source set.
+   * @return the task name.
+   */
+  @Nonnull
+  public static String performanceCheckTaskName(@Nonnull final String benchmarkSourceSetName) {
+    return "check" + capitalize(benchmarkSourceSetName) + "CompatibilityPerformance";
+  }
+
+  /**
+   * Creates the name of the task that updates the baseline of a benchmark source set, e.g.
+   * "updateJmhCompatibilityBaseline".
+   *
+   * @param benchmarkSourceSetName the name of the benchmark source set.
+   * @return the task name.
+   */
+  @Nonnull
+  public static String performanceBaselineTaskName(@Nonnull final String benchmarkSourceSetName) {
+    return "update" + capitalize(benchmarkSourceSetName) + "CompatibilityBaseline";
+  }
+
+  @Nonnull
+  private static String tupleName(@Nonnull List<NamedVersion> namedVersions) {
+    return namedVersions.stream()
+        .map(
+            namedVersion ->
+                unpunctuate(capitalize(namedVersion.getName()))
+                    + unpunctuate(namedVersion.getVersion()))
+        .collect(Collectors.joining("And"));
+  }
+
+  /**
+   * Creates the name of the task that bisects a dimension, e.g.
+   * "bisectTestCompatibilityWithGradle".
+   *
+   * @param testSourceSetName the name of the test source set.
+   * @param dimensionName the name of the dimension.
+   * @return the task name.
+   */
+  @Nonnull
+  public static String bisectionTaskName(
+      @Nonnull final String testSourceSetName, @Nonnull String dimensionName) {
+    return "bisect"
+        + capitalize(testSourceSetName)
+        + "CompatibilityWith"
+        + unpunctuate(capitalize(dimensionName));
+  }
+
+  /**
+   * Creates the human readable description of a version tuple, e.g. "Gradle 7.0 and Java 8".
+   *
+   * @param namedVersions the version tuple.
+   * @return the description.
+   */
+  @Nonnull
+  public static String compatibilityTestTaskDescription(@Nonnull List<NamedVersion> namedVersions) {
+    return namedVersions.stream()
+        .map(namedVersion -> namedVersion.getName() + " " + namedVersion.getVersion())
+        .collect(Collectors.joining(" and "));
+  }
+
+  /**
+   * Replaces the characters that are illegal in task and source set names.
+   *
+   * @param string the string to convert.
+   * @return the string with '.' and '-' replaced by "Dot" and "Dash" respectively.
+   */
+  @Nonnull
+  public static String unpunctuate(@Nonnull String string) {
+    return string.replace(".", "Dot").replace("-", "Dash");
+  }
+
+  /**
+   * Upper cases the first character of a string, if it is a lower case character.
+   *
+   * @param string the string to capitalize.
+   * @return the capitalized string.
+   */
+  @Nonnull
+  public static String capitalize(@Nonnull String string) {
+    if (!string.isEmpty() && Character.isLowerCase(string.charAt(0))) {
+      string = Character.toUpperCase(string.charAt(0)) + string.substring(1);
+    }
+    return string;
+  }
+}
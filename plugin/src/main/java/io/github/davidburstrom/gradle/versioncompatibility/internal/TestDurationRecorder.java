@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import javax.annotation.Nonnull;
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+
+/**
+ * Reports the start of a compatibility test task to the {@link TestDurationService}, which observes
+ * the end of the task through its task completion event.
+ *
+ * <p>This is a class rather than a lambda, so that it can be stored in the configuration cache.
+ */
+public final class TestDurationRecorder implements Action<Task> {
+  private final Provider<TestDurationService> service;
+
+  private TestDurationRecorder(@Nonnull Provider<TestDurationService> service) {
+    this.service = service;
+  }
+
+  /**
+   * Creates an action to add with {@link Task#doFirst(Action)}.
+   *
+   * @param service the service to report to.
+   * @return the action.
+   */
+  @Nonnull
+  public static TestDurationRecorder start(@Nonnull Provider<TestDurationService> service) {
+    return new TestDurationRecorder(service);
+  }
+
+  @Override
+  public void execute(@Nonnull Task task) {
+    service.get().started(task.getName());
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+
+/**
+ * Measures the wall time of the compatibility test tasks during a build, and merges the durations
+ * into the history file when the build finishes.
+ *
+ * <p>The end of a task is observed through its task completion event, so that the durations of
+ * failed tasks are recorded as well.
+ */
+public abstract class TestDurationService
+    implements BuildService<TestDurationService.Parameters>,
+        OperationCompletionListener,
+        AutoCloseable {
+
+  /** The parameters of the service. */
+  @SuppressWarnings("PMD.ImplicitFunctionalInterface")
+  public interface Parameters extends BuildServiceParameters {
+    /**
+     * Gets the history file to merge the durations into.
+     *
+     * @return the history file property.
+     */
+    RegularFileProperty getHistoryFile();
+  }
+
+  private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+  private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+  /**
+   * Records that a test task has started.
+   *
+   * @param taskName the name of the test task.
+   */
+  public void started(@Nonnull String taskName) {
+    startTimes.put(taskName, System.nanoTime());
+  }
+
+  /**
+   * Records that a test task has finished, if it has been started.
+   *
+   * @param taskName the name of the test task.
+   */
+  public void finished(@Nonnull String taskName) {
+    final Long startTime = startTimes.remove(taskName);
+    if (startTime != null) {
+      durations.put(taskName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+  }
+
+  @Override
+  public void onFinish(@Nonnull FinishEvent event) {
+    if (event instanceof TaskFinishEvent) {
+      final String taskPath = ((TaskFinishEvent) event).getDescriptor().getTaskPath();
+      finished(taskPath.substring(taskPath.lastIndexOf(':') + 1));
+    }
+  }
+
+  @Nonnull
+  Map<String, Long> getDurations() {
+    return durations;
+  }
+
+  @Override
+  public void close() {
+    if (durations.isEmpty()) {
+      return;
+    }
+    final Path historyFile = getParameters().getHistoryFile().get().getAsFile().toPath();
+    try {
+      final Map<String, Long> history =
+          Files.exists(historyFile)
+              ? DurationHistory.parse(
+                  new String(Files.readAllBytes(historyFile), StandardCharsets.UTF_8))
+              : new TreeMap<>();
+      history.putAll(durations);
+      Files.createDirectories(historyFile.toAbsolutePath().getParent());
+      Files.write(historyFile, DurationHistory.format(history).getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write " + historyFile, e);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/** The outcome of a single test, as reported by the JUnit Platform. */
+public final class TestResult {
+  /** The status of a test. */
+  public enum Status {
+    PASSED,
+    SKIPPED,
+    FAILED
+  }
+
+  private final String className;
+  private final String name;
+  private final long durationMillis;
+  private final Status status;
+  @Nullable private final Throwable failure;
+
+  public TestResult(
+      @Nonnull String className,
+      @Nonnull String name,
+      long durationMillis,
+      @Nonnull Status status,
+      @Nullable Throwable failure) {
+    this.className = className;
+    this.name = name;
+    this.durationMillis = durationMillis;
+    this.status = status;
+    this.failure = failure;
+  }
+
+  @Nonnull
+  public String getClassName() {
+    return className;
+  }
+
+  @Nonnull
+  public String getName() {
+    return name;
+  }
+
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+
+  @Nonnull
+  public Status getStatus() {
+    return status;
+  }
+
+  @Nullable
+  public Throwable getFailure() {
+    return failure;
+  }
+}
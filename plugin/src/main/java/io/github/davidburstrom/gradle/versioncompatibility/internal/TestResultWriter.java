@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes test results in the JUnit XML format, one file per test class, like the Gradle {@code
+ * Test} task does, so that CI servers can pick them up.
+ */
+public final class TestResultWriter {
+  private TestResultWriter() {}
+
+  /**
+   * Writes the test results into a directory, replacing any previous results.
+   *
+   * @param results the test results.
+   * @param directory the directory to write the results into.
+   */
+  public static void write(@Nonnull List<TestResult> results, @Nonnull File directory) {
+    final Map<String, List<TestResult>> resultsByClass = new TreeMap<>();
+    for (TestResult result : results) {
+      resultsByClass.computeIfAbsent(result.getClassName(), c -> new ArrayList<>()).add(result);
+    }
+    try {
+      Files.createDirectories(directory.toPath());
+      final File[] previousFiles = directory.listFiles((dir, name) -> name.startsWith("TEST-"));
+      if (previousFiles != null) {
+        for (File previousFile : previousFiles) {
+          Files.delete(previousFile.toPath());
+        }
+      }
+      for (Map.Entry<String, List<TestResult>> entry : resultsByClass.entrySet()) {
+        final File file = new File(directory, "TEST-" + entry.getKey() + ".xml");
+        try (OutputStream outputStream = Files.newOutputStream(file.toPath())) {
+          writeTestSuite(entry.getKey(), entry.getValue(), outputStream);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write the test results to " + directory, e);
+    } catch (XMLStreamException e) {
+      throw new IllegalStateException("Could not write the test results to " + directory, e);
+    }
+  }
+
+  private static void writeTestSuite(
+      @Nonnull String className, @Nonnull List<TestResult> results, @Nonnull OutputStream output)
+      throws XMLStreamException {
+    final XMLStreamWriter writer =
+        XMLOutputFactory.newInstance().createXMLStreamWriter(output, "UTF-8");
+    writer.writeStartDocument("UTF-8", "1.0");
+    writer.writeStartElement("testsuite");
+    writer.writeAttribute("name", className);
+    writer.writeAttribute("tests", String.valueOf(results.size()));
+    writer.writeAttribute("skipped", String.valueOf(count(results, TestResult.Status.SKIPPED)));
+    writer.writeAttribute("failures", String.valueOf(count(results, TestResult.Status.FAILED)));
+    writer.writeAttribute("errors", "0");
+    writer.writeAttribute(
+        "time", seconds(results.stream().mapToLong(TestResult::getDurationMillis).sum()));
+    for (TestResult result : results) {
+      writer.writeStartElement("testcase");
+      writer.writeAttribute("name", result.getName());
+      writer.writeAttribute("classname", className);
+      writer.writeAttribute("time", seconds(result.getDurationMillis()));
+      if (result.getStatus() == TestResult.Status.SKIPPED) {
+        writer.writeEmptyElement("skipped");
+      } else if (result.getStatus() == TestResult.Status.FAILED) {
+        final Throwable failure = result.getFailure();
+        writer.writeStartElement("failure");
+        if (failure != null) {
+          writer.writeAttribute("message", String.valueOf(failure.getMessage()));
+          writer.writeAttribute("type", failure.getClass().getName());
+          final StringWriter stackTrace = new StringWriter();
+          failure.printStackTrace(new PrintWriter(stackTrace));
+          writer.writeCharacters(stackTrace.toString());
+        }
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+    }
+    writer.writeEndElement();
+    writer.writeEndDocument();
+    writer.close();
+  }
+
+  private static long count(@Nonnull List<TestResult> results, @Nonnull TestResult.Status status) {
+    return results.stream().filter(result -> result.getStatus() == status).count();
+  }
+
+  @Nonnull
+  private static String seconds(long millis) {
+    return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+  }
+}
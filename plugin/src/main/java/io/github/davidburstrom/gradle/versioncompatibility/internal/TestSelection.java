@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+
+/**
+ * Selects the test classes that may exercise a set of dependency classes, by following the class
+ * references of the test classes, and of the test and production classes that they reference, in
+ * the bytecode.
+ *
+ * <p>A class reaches the dependency if it references a class that is neither a test nor a
+ * production class, but is in one of the packages of the dependency classes, so that references to
+ * classes that only exist in some versions of the dependency are found too. Nested classes are
+ * selected through their top level class, since test frameworks run them together.
+ */
+public final class TestSelection {
+  private TestSelection() {}
+
+  /**
+   * Selects the test classes that reach the dependency classes.
+   *
+   * @param testClasses the test classes.
+   * @param productionClasses the production classes.
+   * @param dependencyClasses the names of the dependency classes.
+   * @return the sorted names of the selected top level test classes.
+   */
+  @Nonnull
+  public static Set<String> select(
+      @Nonnull Collection<ClassFile> testClasses,
+      @Nonnull Collection<ClassFile> productionClasses,
+      @Nonnull Collection<String> dependencyClasses) {
+    final Set<String> dependencyPackages = new HashSet<>();
+    for (String dependencyClass : dependencyClasses) {
+      dependencyPackages.add(packageName(dependencyClass));
+    }
+    final Map<String, ClassFile> classes = new HashMap<>();
+    for (ClassFile classFile : productionClasses) {
+      classes.put(classFile.getName(), classFile);
+    }
+    for (ClassFile classFile : testClasses) {
+      classes.put(classFile.getName(), classFile);
+    }
+
+    /* The reaching classes are found by walking the references backwards from the dependency. */
+    final Map<String, List<String>> referrers = new HashMap<>();
+    final Set<String> reachingClasses = new HashSet<>();
+    final Deque<String> pending = new ArrayDeque<>();
+    for (ClassFile classFile : classes.values()) {
+      for (String referencedClass : classFile.getReferencedClasses()) {
+        if (classes.containsKey(referencedClass)) {
+          referrers
+              .computeIfAbsent(referencedClass, name -> new ArrayList<>())
+              .add(classFile.getName());
+        } else if (dependencyPackages.contains(packageName(referencedClass))
+            && reachingClasses.add(classFile.getName())) {
+          pending.add(classFile.getName());
+        }
+      }
+    }
+    while (!pending.isEmpty()) {
+      for (String referrer :
+          referrers.getOrDefault(pending.removeFirst(), Collections.emptyList())) {
+        if (reachingClasses.add(referrer)) {
+          pending.add(referrer);
+        }
+      }
+    }
+
+    final Set<String> selectedClasses = new TreeSet<>();
+    for (ClassFile classFile : testClasses) {
+      if (reachingClasses.contains(classFile.getName())) {
+        selectedClasses.add(topLevelClassName(classFile.getName()));
+      }
+    }
+    return selectedClasses;
+  }
+
+  @Nonnull
+  private static String packageName(@Nonnull String className) {
+    return className.substring(0, Math.max(className.lastIndexOf('/'), 0));
+  }
+
+  @Nonnull
+  static String topLevelClassName(@Nonnull String className) {
+    final int nestedIndex = className.indexOf('$', className.lastIndexOf('/') + 1);
+    return nestedIndex == -1 ? className : className.substring(0, nestedIndex);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.testing.Test;
+
+/**
+ * Restricts a compatibility test task to the test classes selected by {@link
+ * SelectCompatibilityTests}, and skips it if none were selected.
+ *
+ * <p>This is a class rather than a lambda, so that it can be stored in the configuration cache.
+ */
+public final class TestSelectionFilter implements Action<Task>, Spec<Task> {
+  private final File selectionFile;
+
+  public TestSelectionFilter(@Nonnull File selectionFile) {
+    this.selectionFile = selectionFile;
+  }
+
+  /* Adds the include patterns, to be run with Task.doFirst. */
+  @Override
+  public void execute(@Nonnull Task task) {
+    ((Test) task).include(readPatterns());
+  }
+
+  /* Whether any test classes were selected, to be used with Task.onlyIf. */
+  @Override
+  public boolean isSatisfiedBy(@Nonnull Task task) {
+    return !readPatterns().isEmpty();
+  }
+
+  @Nonnull
+  private List<String> readPatterns() {
+    try {
+      return Files.readAllLines(selectionFile.toPath(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read the test selection " + selectionFile, e);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.tasks.testing.Test;
+
+/**
+ * Fingerprints the runtime of a test task, i.e. everything that decides the outcome of the tests
+ * apart from the test classes themselves, so that test tasks that would run the same tests on the
+ * same classpath in the same kind of JVM can be detected.
+ *
+ * <p>The classpath is fingerprinted by the paths of its elements, since two resolved dependencies
+ * with the same path in the same build are the same file. System properties can be ignored, e.g.
+ * those that only pass the versions of the tuple to the tests.
+ */
+public final class TestTaskFingerprint {
+  private TestTaskFingerprint() {}
+
+  /**
+   * Fingerprints a test task, which resolves its classpath.
+   *
+   * @param test the test task.
+   * @param ignoredSystemProperties the names of the system properties to leave out.
+   * @return the fingerprint, as a hexadecimal SHA-256 hash.
+   */
+  @Nonnull
+  public static String of(@Nonnull Test test, @Nonnull Set<String> ignoredSystemProperties) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+    update(digest, "classpath");
+    for (File file : test.getClasspath()) {
+      update(digest, file.getAbsolutePath());
+    }
+    update(digest, "testClassesDirs");
+    for (File file : test.getTestClassesDirs()) {
+      update(digest, file.getAbsolutePath());
+    }
+    update(digest, "executable");
+    update(
+        digest,
+        test.getJavaLauncher()
+            .map(launcher -> launcher.getExecutablePath().getAsFile().getAbsolutePath())
+            .getOrElse(String.valueOf(test.getExecutable())));
+    update(digest, "jvmArgs");
+    for (String jvmArg : test.getAllJvmArgs()) {
+      if (!ignoredSystemProperties.contains(systemPropertyName(jvmArg))) {
+        update(digest, jvmArg);
+      }
+    }
+    update(digest, "environment");
+    for (Map.Entry<String, Object> entry : new TreeMap<>(test.getEnvironment()).entrySet()) {
+      update(digest, entry.getKey() + "=" + entry.getValue());
+    }
+    update(digest, "includes");
+    for (String pattern : test.getIncludes()) {
+      update(digest, pattern);
+    }
+    update(digest, "excludes");
+    for (String pattern : test.getExcludes()) {
+      update(digest, pattern);
+    }
+    update(digest, "filter");
+    for (String pattern : test.getFilter().getIncludePatterns()) {
+      update(digest, pattern);
+    }
+
+    final StringBuilder fingerprint = new StringBuilder();
+    for (byte b : digest.digest()) {
+      fingerprint.append(String.format("%02x", b));
+    }
+    return fingerprint.toString();
+  }
+
+  /* Gets the name of a system property argument such as "-Dname=value", or null for other arguments. */
+  @Nullable
+  private static String systemPropertyName(@Nonnull String jvmArg) {
+    if (!jvmArg.startsWith("-D")) {
+      return null;
+    }
+    final int separator = jvmArg.indexOf('=');
+    return separator == -1 ? jvmArg.substring(2) : jvmArg.substring(2, separator);
+  }
+
+  /* The terminator keeps e.g. ["ab", "c"] and ["a", "bc"] apart. */
+  private static void update(@Nonnull MessageDigest digest, @Nonnull String string) {
+    digest.update(string.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+}
@@ -20,20 +20,47 @@ import io.github.davidburstrom.gradle.versioncompatibility.TestTaskConfig;
 import io.github.davidburstrom.gradle.versioncompatibility.TestsConfig;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import org.gradle.api.Action;
 
 public abstract class TestsConfigImpl implements TestsConfig {
   private final List<Predicate<List<String>>> filterPredicates = new ArrayList<>();
+  private final List<VersionRule> exclusionRules = new ArrayList<>();
+  private final List<VersionRule> inclusionRules = new ArrayList<>();
   private final List<Action<TestRuntimeOnlyConfig>> testRuntimeOnlyAction = new ArrayList<>();
   private final List<Action<TestTaskConfig>> eachTestTaskAction = new ArrayList<>();
+  private int coverageStrength;
 
   @Override
   public void filter(final Predicate<List<String>> versionTuplePredicate) {
     filterPredicates.add(versionTuplePredicate);
   }
 
+  @Override
+  public void exclude(@Nonnull Map<String, ?> dimensionPatterns) {
+    exclusionRules.add(VersionRule.of(dimensionPatterns));
+  }
+
+  @Override
+  public void include(@Nonnull Map<String, ?> dimensionPatterns) {
+    inclusionRules.add(VersionRule.of(dimensionPatterns));
+  }
+
+  @Override
+  public void pairwise() {
+    nWise(2);
+  }
+
+  @Override
+  public void nWise(int strength) {
+    if (strength < 1) {
+      throw new IllegalArgumentException("The coverage strength must be positive, got " + strength);
+    }
+    coverageStrength = strength;
+  }
+
   @Override
   public void eachTestRuntimeOnly(@Nonnull Action<TestRuntimeOnlyConfig> action) {
     testRuntimeOnlyAction.add(action);
@@ -48,6 +75,25 @@ public abstract class TestsConfigImpl implements TestsConfig {
     return filterPredicates;
   }
 
+  @Nonnull
+  public List<VersionRule> getExclusionRules() {
+    return exclusionRules;
+  }
+
+  @Nonnull
+  public List<VersionRule> getInclusionRules() {
+    return inclusionRules;
+  }
+
+  /**
+   * Gets the strength of the covering array to reduce the test matrix to.
+   *
+   * @return the strength, or 0 if all combinations should be retained.
+   */
+  public int getCoverageStrength() {
+    return coverageStrength;
+  }
+
   @Nonnull
   public List<Action<TestRuntimeOnlyConfig>> getTestRuntimeOnlyAction() {
     return testRuntimeOnlyAction;
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Random;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Draws reproducible samples of the version tuples, so that e.g. each pull request build runs a
+ * different part of the test matrix, while a rerun of the same build runs the same part.
+ */
+public final class TupleSampler {
+  private TupleSampler() {}
+
+  /**
+   * Computes the number of tuples to sample, given either an absolute size or a ratio.
+   *
+   * @param populationSize the number of tuples to sample from.
+   * @param sampleSize the number of tuples to sample, or null if the ratio is given.
+   * @param sampleRatio the ratio of tuples to sample, in (0, 1], or null if the size is given.
+   * @return the sample size, which is at least one unless the population is empty.
+   */
+  public static int sampleSize(
+      int populationSize, @Nullable Integer sampleSize, @Nullable Double sampleRatio) {
+    if (sampleSize != null && sampleRatio != null) {
+      throw new IllegalArgumentException("Only one of sampleSize and sampleRatio can be set");
+    } else if (sampleSize != null) {
+      if (sampleSize < 1) {
+        throw new IllegalArgumentException("The sample size must be positive, got " + sampleSize);
+      }
+      return Math.min(sampleSize, populationSize);
+    } else if (sampleRatio != null) {
+      if (!(sampleRatio > 0.0 && sampleRatio <= 1.0)) {
+        throw new IllegalArgumentException(
+            "The sample ratio must be greater than 0 and at most 1, got " + sampleRatio);
+      }
+      return Math.min((int) Math.ceil(sampleRatio * populationSize), populationSize);
+    }
+    return populationSize;
+  }
+
+  /**
+   * Selects a uniformly random subset of the indices {@code [0, populationSize)}.
+   *
+   * <p>The selection only depends on the arguments, and is stable across JVMs since the algorithm
+   * of {@link Random} is fully specified.
+   *
+   * @param populationSize the number of tuples to sample from.
+   * @param sampleSize the number of tuples to sample.
+   * @param seed the seed, e.g. the hash of the current commit.
+   * @return the selected indices.
+   */
+  @Nonnull
+  public static BitSet sample(int populationSize, int sampleSize, @Nonnull String seed) {
+    final int[] indices = new int[populationSize];
+    for (int index = 0; index < populationSize; index++) {
+      indices[index] = index;
+    }
+    /* A partial Fisher-Yates shuffle, where the first sampleSize indices are the sample. */
+    final Random random = new Random(hash(seed));
+    final BitSet selected = new BitSet(populationSize);
+    for (int index = 0; index < sampleSize; index++) {
+      final int swap = index + random.nextInt(populationSize - index);
+      final int value = indices[swap];
+      indices[swap] = indices[index];
+      indices[index] = value;
+      selected.set(value);
+    }
+    return selected;
+  }
+
+  /* The 64-bit FNV-1a hash, which unlike String.hashCode() spreads short seeds over all bits. */
+  static long hash(@Nonnull String seed) {
+    long hash = 0xcbf2_9ce4_8422_2325L;
+    for (byte b : seed.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x0000_0100_0000_01b3L;
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Updates the performance baseline with the JMH results of the compatibility benchmark tasks, see
+ * {@link PerformanceBaseline#update(Map, Map)}.
+ */
+@DisableCachingByDefault(because = "The baseline is a source file")
+public abstract class UpdateCompatibilityBaseline extends DefaultTask {
+
+  /**
+   * Gets the JMH JSON result files, named by the benchmark task name with a ".json" extension.
+   *
+   * @return the result files.
+   */
+  @InputFiles
+  @PathSensitive(PathSensitivity.NAME_ONLY)
+  public abstract ConfigurableFileCollection getResultFiles();
+
+  /**
+   * Gets the baseline file to update.
+   *
+   * @return the baseline file property.
+   */
+  @OutputFile
+  public abstract RegularFileProperty getBaselineFile();
+
+  /** Updates the baseline. */
+  @TaskAction
+  public void update() {
+    final File baselineFile = getBaselineFile().get().getAsFile();
+    try {
+      final Map<String, Double> baseline =
+          baselineFile.isFile()
+              ? PerformanceBaseline.parse(
+                  new String(Files.readAllBytes(baselineFile.toPath()), StandardCharsets.UTF_8))
+              : Collections.emptyMap();
+      final String text =
+          PerformanceBaseline.format(
+              PerformanceBaseline.update(
+                  baseline, CheckCompatibilityPerformance.readResults(getResultFiles())));
+      Files.write(baselineFile.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not update the performance baseline", e);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Orders version strings segment by segment, where the segments are separated by any of the
+ * characters ".-_+".
+ *
+ * <p>Numeric segments are compared numerically, other segments lexicographically, and a numeric
+ * segment is considered newer than a non-numeric one, e.g. "1.0-rc1" &lt; "1.0". Missing segments
+ * are treated as "0", so "9" and "9.0.0" are equal.
+ */
+public final class VersionComparator implements Comparator<String>, Serializable {
+  private static final long serialVersionUID = 1L;
+
+  @Override
+  public int compare(@Nonnull String first, @Nonnull String second) {
+    final List<String> firstSegments = segments(first);
+    final List<String> secondSegments = segments(second);
+    final int segmentCount = Math.max(firstSegments.size(), secondSegments.size());
+    for (int index = 0; index < segmentCount; index++) {
+      final int result =
+          compareSegments(segment(firstSegments, index), segment(secondSegments, index));
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  @Nonnull
+  private static String segment(@Nonnull List<String> segments, int index) {
+    return index < segments.size() ? segments.get(index) : "0";
+  }
+
+  @Nonnull
+  private static List<String> segments(@Nonnull String version) {
+    final List<String> segments = new ArrayList<>();
+    int start = 0;
+    for (int index = 0; index < version.length(); index++) {
+      if (".-_+".indexOf(version.charAt(index)) >= 0) {
+        segments.add(version.substring(start, index));
+        start = index + 1;
+      }
+    }
+    segments.add(version.substring(start));
+    return segments;
+  }
+
+  private static int compareSegments(@Nonnull String first, @Nonnull String second) {
+    final boolean firstIsNumeric = isNumeric(first);
+    final boolean secondIsNumeric = isNumeric(second);
+    if (firstIsNumeric && secondIsNumeric) {
+      final String firstNumber = stripLeadingZeros(first);
+      final String secondNumber = stripLeadingZeros(second);
+      if (firstNumber.length() != secondNumber.length()) {
+        return Integer.compare(firstNumber.length(), secondNumber.length());
+      }
+      return firstNumber.compareTo(secondNumber);
+    } else if (firstIsNumeric) {
+      return 1;
+    } else if (secondIsNumeric) {
+      return -1;
+    }
+    return first.compareTo(second);
+  }
+
+  private static boolean isNumeric(@Nonnull String segment) {
+    if (segment.isEmpty()) {
+      return false;
+    }
+    for (int index = 0; index < segment.length(); index++) {
+      if (!Character.isDigit(segment.charAt(index))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Nonnull
+  private static String stripLeadingZeros(@Nonnull String number) {
+    int start = 0;
+    while (start < number.length() - 1 && number.charAt(start) == '0') {
+      start++;
+    }
+    return number.substring(start);
+  }
+}
@@ -15,27 +15,61 @@
  */
 package io.github.davidburstrom.gradle.versioncompatibility.internal;
 
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.bisectionTaskName;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.capitalize;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.compatibilityTestTaskDescription;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.compatibilityTestTaskName;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.linkageCheckTaskName;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.performanceBaselineTaskName;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.performanceCheckTaskName;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.testSelectionTaskName;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.TaskNames.unpunctuate;
+
 import io.github.davidburstrom.gradle.versioncompatibility.AdaptersConfig;
+import io.github.davidburstrom.gradle.versioncompatibility.TestRuntimeOnlyConfig;
 import io.github.davidburstrom.gradle.versioncompatibility.TestTaskConfig;
 import io.github.davidburstrom.gradle.versioncompatibility.TestsConfig;
 import io.github.davidburstrom.gradle.versioncompatibility.VersionCompatibilityExtension;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.gradle.api.Action;
+import org.gradle.api.GradleException;
 import org.gradle.api.NamedDomainObjectProvider;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.artifacts.DependencyConstraint;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
 import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.Directory;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.SetProperty;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskContainer;
@@ -46,16 +80,106 @@ import org.gradle.api.tasks.testing.Test;
 public class VersionCompatibilityExtensionImpl implements VersionCompatibilityExtension {
 
   private static final String COMPATIBILITY_TEST_TASK_NAME = "testCompatibility";
+  private static final String COMPATIBILITY_TEST_ALL_TASK_NAME = "testCompatibilityAll";
+  private static final String RESOLVE_CLASSPATHS_TASK_NAME = "resolveCompatibilityClasspaths";
+  private static final String EXPORT_REPOSITORY_TASK_NAME = "exportCompatibilityRepository";
+  private static final String EXPORT_REPOSITORY_DIRECTORY_NAME =
+      "version-compatibility/offline-repository";
+  private static final String JMH_COMPATIBILITY_ADAPTERS_TASK_NAME = "jmhCompatibilityAdapters";
+  private static final String JMH_COMMON_IMPLEMENTATION_CONFIGURATION_NAME =
+      "jmhCommonImplementation";
+  private static final String JMH_COMMON_ANNOTATION_PROCESSOR_CONFIGURATION_NAME =
+      "jmhCommonAnnotationProcessor";
+  private static final String ADAPTER_BENCHMARK_REPORTS_DIRECTORY_NAME = "reports/jmh-compat/";
+  private static final String COLD_START_COMPATIBILITY_ADAPTERS_TASK_NAME =
+      "coldStartCompatibilityAdapters";
+  private static final String COLD_START_REPORTS_DIRECTORY_NAME = "reports/cold-start-compat/";
+  private static final int DEFAULT_COLD_START_FORKS = 50;
+  private static final String PERFORMANCE_CHECK_TASK_NAME = "checkCompatibilityPerformance";
+  private static final String PERFORMANCE_REPORTS_DIRECTORY_NAME =
+      "reports/compatibility-performance/";
+  private static final String PERFORMANCE_BASELINE_FILE_SUFFIX =
+      "-compatibility-baseline.properties";
+  private static final String LINKAGE_CHECK_TASK_NAME = "checkCompatibilityLinkage";
+  private static final String LINKAGE_REPORTS_DIRECTORY_NAME = "reports/compatibility-linkage/";
+  private static final String TEST_SELECTIONS_DIRECTORY_NAME =
+      "version-compatibility/test-selections/";
+  private static final String SHARD_PROPERTY_NAME = "versionCompatibility.shard";
+  private static final String FAIL_FAST_PROPERTY_NAME = "versionCompatibility.failFast";
+  private static final String DURATION_HISTORY_FILE_NAME =
+      "version-compatibility/test-durations.properties";
+  private static final String RESOLUTION_TIMES_FILE_NAME =
+      "version-compatibility/resolution-times.properties";
+  private static final String COMPATIBILITY_REPORT_TASK_NAME = "compatibilityReport";
+  private static final String COMPATIBILITY_REPORT_DIRECTORY_NAME = "reports/compatibility/";
+  private static final String AGGREGATE_RESULTS_TASK_NAME = "aggregateCompatibilityResults";
+  private static final String AGGREGATE_RESULTS_DIRECTORY_NAME = "reports/compatibility-results/";
+  private static final String PROFILE_CONFIGURATION_PROPERTY_NAME =
+      "versionCompatibility.profileConfiguration";
+  private static final String CONFIGURATION_PROFILE_FILE_NAME =
+      "version-compatibility/configuration-profile.json";
+  private static final String TUPLE_GENERATION_PHASE = "tuple generation";
+  private static final String FILTERING_PHASE = "filtering";
+  private static final String CONFIGURATION_CREATION_PHASE = "configuration creation";
+  private static final String TEST_RUNTIME_ONLY_ACTIONS_PHASE = "eachTestRuntimeOnly actions";
+  private static final String TASK_REGISTRATION_PHASE = "task registration";
   private static final String TEST_COMPATIBILITY_ADAPTERS_TASK_NAME = "testCompatibilityAdapters";
   private final Project project;
 
   private final TaskProvider<Task> compatibilityTestLifecycleTask;
+  private final TaskProvider<Task> compatibilityTestAllLifecycleTask;
   private final TaskProvider<Task> compatibilityAdapterTestLifecycleTask;
+  private final TaskProvider<ResolveCompatibilityClasspaths> resolveClasspathsTask;
+  private final TaskProvider<GenerateCompatibilityReport> compatibilityReportTask;
+  private final TaskProvider<AggregateCompatibilityResults> aggregateResultsTask;
+  private final List<Provider<Configuration>> exportedConfigurations = new ArrayList<>();
+  private final TaskProvider<Task> linkageCheckLifecycleTask;
+  private final ConfigurableFileCollection productionClasses;
+  private final ConfigurableFileCollection adapterApiClasses;
+  private final ConfigurableFileCollection linkageCheckedClasses;
+  private final Property<Boolean> profileConfiguration;
+  @Nullable private ConfigurationProfiler configurationProfiler;
+  private boolean symbolIndexTransformRegistered;
+  @Nullable private Provider<FailFastService> failFastService;
+  @Nullable private Provider<DuplicateTestService> duplicateTestService;
 
   public VersionCompatibilityExtensionImpl(@Nonnull Project project) {
     this.project = project;
     compatibilityAdapterTestLifecycleTask = registerCompatibilityAdapterTestLifecycleTask();
     compatibilityTestLifecycleTask = registerCompatibilityTestLifecycleTask();
+    compatibilityTestAllLifecycleTask = registerCompatibilityTestAllLifecycleTask();
+    resolveClasspathsTask = registerResolveClasspathsTask();
+    compatibilityReportTask = registerCompatibilityReportTask();
+    aggregateResultsTask = registerAggregateResultsTask();
+    registerExportRepositoryTask();
+    linkageCheckLifecycleTask = registerLinkageCheckLifecycleTask();
+    productionClasses =
+        project.files(
+            (Callable<FileCollection>)
+                () ->
+                    project
+                        .getExtensions()
+                        .getByType(SourceSetContainer.class)
+                        .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+                        .getOutput()
+                        .getClassesDirs());
+    adapterApiClasses = project.files();
+    linkageCheckedClasses = project.files(productionClasses, adapterApiClasses);
+    profileConfiguration =
+        project
+            .getObjects()
+            .property(Boolean.class)
+            .convention(
+                project
+                    .getProviders()
+                    .gradleProperty(PROFILE_CONFIGURATION_PROPERTY_NAME)
+                    .map(Boolean::parseBoolean)
+                    .orElse(false));
+  }
+
+  @Override
+  public Property<Boolean> getProfileConfiguration() {
+    return profileConfiguration;
   }
 
   @Override
@@ -74,6 +198,7 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
                     "No versions specified for " + namespace.getName());
               }
 
+              startConfigurationPhase(CONFIGURATION_CREATION_PHASE);
               final TaskContainer taskContainer = project.getTasks();
               final ConfigurationContainer configurationContainer = project.getConfigurations();
               final DependencyHandler dependencyHandler = project.getDependencies();
@@ -124,6 +249,10 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
               final NamedDomainObjectProvider<SourceSet> compatApiSourceSetProvider =
                   sourceSetContainer.register(compatApiSourceSetName);
 
+              adapterApiClasses.from(
+                  compatApiSourceSetProvider.map(
+                      sourceSet -> sourceSet.getOutput().getClassesDirs()));
+
               extendSourceSetFromCommonConfigurations(
                   configurationContainer,
                   compatApiSourceSetProvider,
@@ -134,11 +263,36 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
                   dependencyHandler, compatApiSourceSetProvider, targetSourceSetProvider);
 
               addOutputToJarTask(jarTask, compatApiSourceSetProvider);
+              stopConfigurationPhase();
+
+              startConfigurationPhase(TASK_REGISTRATION_PHASE);
+              final TaskProvider<CompareAdapterBenchmarks> compareBenchmarksTask =
+                  namespace.getBenchmarks().getOrElse(false)
+                      ? registerAdapterBenchmarkComparison(capitalizedNamespace)
+                      : null;
+
+              final TaskProvider<ColdStartBenchmark> coldStartTask =
+                  namespace.getColdStartClassName().isPresent()
+                      ? registerColdStartBenchmark(
+                          capitalizedNamespace,
+                          namespace.getColdStartClassName().get(),
+                          targetSourceSetProvider)
+                      : null;
+
+              if (namespace.getDispatcherClassName().isPresent()) {
+                registerDispatcherGeneration(
+                    capitalizedNamespace,
+                    namespace.getDispatcherClassName().get(),
+                    versions.get(),
+                    compatApiSourceSetProvider);
+              }
+              stopConfigurationPhase();
 
               versions
                   .get()
                   .forEach(
                       version -> {
+                        startConfigurationPhase(CONFIGURATION_CREATION_PHASE);
                         String unpunctuatedVersion = unpunctuate(version);
                         String compatProductionSourceSetName =
                             "compat" + capitalizedNamespace + unpunctuatedVersion;
@@ -154,6 +308,16 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
                         final Configuration compileAndTestOnlyConfiguration =
                             configurationContainer.create(
                                 compatProductionSourceSetName + "CompileAndTestOnly");
+                        exportedConfigurations.add(
+                            compatProductionSourceSetProvider.map(
+                                sourceSet ->
+                                    configurationContainer.getByName(
+                                        sourceSet.getCompileClasspathConfigurationName())));
+                        exportedConfigurations.add(
+                            compatTestSourceSetProvider.map(
+                                sourceSet ->
+                                    configurationContainer.getByName(
+                                        sourceSet.getRuntimeClasspathConfigurationName())));
 
                         compatProductionSourceSetProvider.configure(
                             sourceSet ->
@@ -208,7 +372,9 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
                                   .getByName(sourceSet.getImplementationConfigurationName())
                                   .extendsFrom(testCommonImplementation);
                             });
+                        stopConfigurationPhase();
 
+                        startConfigurationPhase(TASK_REGISTRATION_PHASE);
                         final TaskProvider<Test> specificCompatibilityTest =
                             taskContainer.register(
                                 compatTestSourceSetName,
@@ -227,7 +393,22 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
                         compatibilityAdapterTestLifecycleTask.configure(
                             t -> t.dependsOn(specificCompatibilityTest));
 
+                        if (compareBenchmarksTask != null) {
+                          registerAdapterBenchmark(
+                              capitalizedNamespace,
+                              version,
+                              compatProductionSourceSetProvider,
+                              compileAndTestOnlyConfiguration,
+                              compareBenchmarksTask);
+                        }
+
+                        if (coldStartTask != null) {
+                          addColdStartTarget(
+                              coldStartTask, version, compileAndTestOnlyConfiguration);
+                        }
+
                         addOutputToJarTask(jarTask, compatProductionSourceSetProvider);
+                        stopConfigurationPhase();
                       });
             });
   }
@@ -284,6 +465,33 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
     final TestsConfigImpl testConfigHandler =
         project.getObjects().newInstance(TestsConfigImpl.class);
     testConfigHandler.getTestSourceSetName().convention(SourceSet.TEST_SOURCE_SET_NAME);
+    testConfigHandler.getSampleSeed().convention(GitRevision.headCommit(project));
+    testConfigHandler
+        .getShard()
+        .convention(project.getProviders().gradleProperty(SHARD_PROPERTY_NAME));
+    testConfigHandler
+        .getFailFast()
+        .convention(
+            project
+                .getProviders()
+                .gradleProperty(FAIL_FAST_PROPERTY_NAME)
+                .map(Boolean::parseBoolean)
+                .orElse(false));
+    testConfigHandler.getSkipDuplicateTests().convention(false);
+    testConfigHandler.getSharedJvm().convention(false);
+    testConfigHandler.getResolveClasspathsFirst().convention(false);
+    testConfigHandler.getSelectTestsByReference().convention(false);
+    testConfigHandler
+        .getPerformanceBaselineFile()
+        .convention(
+            project
+                .getLayout()
+                .getProjectDirectory()
+                .file(
+                    testConfigHandler
+                        .getBenchmarkSourceSetName()
+                        .map(name -> name + PERFORMANCE_BASELINE_FILE_SUFFIX)));
+    testConfigHandler.getPerformanceRegressionThreshold().convention(0.1);
 
     List<String> dimensionNameOrder = new ArrayList<>();
     testConfigHandler
@@ -291,65 +499,113 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
         .whenObjectAdded(dimensionConfig -> dimensionNameOrder.add(dimensionConfig.getName()));
     action.execute(testConfigHandler);
 
-    final ConfigurationContainer configurationContainer = project.getConfigurations();
-
     final SourceSetContainer sourceSetContainer =
         project.getExtensions().getByType(SourceSetContainer.class);
 
-    final List<List<NamedVersion>> dimensionedNamedVersions =
+    startConfigurationPhase(TUPLE_GENERATION_PHASE);
+    final List<List<String>> dimensionedVersions =
         dimensionNameOrder.stream()
-            .map(name -> testConfigHandler.getDimensions().getByName(name))
-            .map(
-                d ->
-                    d.getVersions().get().stream()
-                        .map(v -> new NamedVersion(d.getName(), v))
-                        .collect(Collectors.toList()))
+            .<List<String>>map(
+                name ->
+                    new ArrayList<>(
+                        testConfigHandler.getDimensions().getByName(name).getVersions().get()))
             .collect(Collectors.toList());
 
-    List<Predicate<List<String>>> filterPredicates = testConfigHandler.getFilterPredicates();
+    List<List<NamedVersion>> combinedVersions =
+        new VersionTupleGenerator(dimensionNameOrder, dimensionedVersions)
+            .generate(
+                new VersionRules(
+                    dimensionNameOrder,
+                    testConfigHandler.getExclusionRules(),
+                    testConfigHandler.getInclusionRules()),
+                testConfigHandler.getFilterPredicates());
+    stopConfigurationPhase();
+
+    startConfigurationPhase(FILTERING_PHASE);
+    if (testConfigHandler.getCoverageStrength() > 0) {
+      combinedVersions =
+          CoveringArray.select(combinedVersions, testConfigHandler.getCoverageStrength());
+    }
 
-    final List<List<NamedVersion>> allCombinedVersions = cartesianProduct(dimensionedNamedVersions);
+    final int sampleSize =
+        TupleSampler.sampleSize(
+            combinedVersions.size(),
+            testConfigHandler.getSampleSize().getOrNull(),
+            testConfigHandler.getSampleRatio().getOrNull());
+    final BitSet sampledVersions;
+    if (sampleSize < combinedVersions.size()) {
+      /* The seed is only queried when sampling, as it makes the Git HEAD a configuration input. */
+      final String sampleSeed = testConfigHandler.getSampleSeed().get();
+      if (sampleSeed.isEmpty()) {
+        project
+            .getLogger()
+            .warn(
+                "No Git revision was found to seed the sample with, so every build samples the"
+                    + " same combinations. Set sampleSeed to vary them.");
+      }
+      sampledVersions = TupleSampler.sample(combinedVersions.size(), sampleSize, sampleSeed);
+    } else {
+      sampledVersions = new BitSet(combinedVersions.size());
+      sampledVersions.set(0, combinedVersions.size());
+    }
 
-    final List<List<NamedVersion>> combinedVersions =
-        allCombinedVersions.stream()
-            .filter(
-                it -> {
-                  List<String> versionTuple =
-                      it.stream().map(NamedVersion::getVersion).collect(Collectors.toList());
-                  return filterPredicates.stream().allMatch(filter -> filter.test(versionTuple));
-                })
+    final List<String> fullNames =
+        combinedVersions.stream()
+            .map(
+                combinedVersion ->
+                    compatibilityTestTaskName(
+                        testConfigHandler.getTestSourceSetName().get(), combinedVersion))
             .collect(Collectors.toList());
 
-    for (List<NamedVersion> combinedVersion : combinedVersions) {
-      String fullName =
-          createFullCompatibilityTestTaskName(
-              testConfigHandler.getTestSourceSetName().get(), combinedVersion);
-
-      final Configuration specificCompatibilityTestRuntimeOnlyConfiguration =
-          configurationContainer.create(fullName + "RuntimeOnly");
-      final Configuration specificCompatibilityTestRuntimeClasspath =
-          configurationContainer.create(fullName + "Classpath");
-      specificCompatibilityTestRuntimeOnlyConfiguration.setCanBeResolved(false);
-      specificCompatibilityTestRuntimeOnlyConfiguration.extendsFrom(
-          configurationContainer.getByName(
-              sourceSetContainer
-                  .getByName(testConfigHandler.getTestSourceSetName().get())
-                  .getRuntimeClasspathConfigurationName()));
-      specificCompatibilityTestRuntimeClasspath.extendsFrom(
-          specificCompatibilityTestRuntimeOnlyConfiguration);
+    final Shard shard = testConfigHandler.getShard().map(Shard::parse).getOrElse(Shard.ALL);
+    final BitSet shardedVersions =
+        shard.select(
+            combinedVersions,
+            fullNames,
+            shard.getCount() > 1 && testConfigHandler.getDurationHistoryFile().isPresent()
+                ? readDurationHistory(testConfigHandler.getDurationHistoryFile().get())
+                : Collections.emptyMap());
+    stopConfigurationPhase();
+
+    startConfigurationPhase(TASK_REGISTRATION_PHASE);
+    final Provider<TestDurationService> testDurationService =
+        registerTestDurationService(
+            testConfigHandler
+                .getDurationHistoryFile()
+                .orElse(project.getLayout().getBuildDirectory().file(DURATION_HISTORY_FILE_NAME))
+                .get());
+
+    @Nullable
+    final Provider<FailFastService> testFailFastService =
+        testConfigHandler.getFailFast().get() ? getFailFastService() : null;
+
+    final List<TaskProvider<Test>> specificCompatibilityTests = new ArrayList<>();
+    final List<TaskProvider<Test>> sampledCompatibilityTests = new ArrayList<>();
+    final List<TaskProvider<Test>> shardedCompatibilityTests = new ArrayList<>();
+    @Nullable
+    final String benchmarkSourceSetName = testConfigHandler.getBenchmarkSourceSetName().getOrNull();
+    final List<TaskProvider<JavaExec>> sampledCompatibilityBenchmarks = new ArrayList<>();
+    for (int index = 0; index < combinedVersions.size(); index++) {
+      final List<NamedVersion> combinedVersion = combinedVersions.get(index);
+      final String fullName = fullNames.get(index);
 
       final List<String> versionList =
           combinedVersion.stream().map(NamedVersion::getVersion).collect(Collectors.toList());
 
-      testConfigHandler
-          .getTestRuntimeOnlyAction()
-          .forEach(
-              a ->
-                  a.execute(
-                      new TestRuntimeOnlyConfigImpl(
-                          versionList,
-                          project.getDependencies(),
-                          specificCompatibilityTestRuntimeOnlyConfiguration)));
+      final NamedDomainObjectProvider<Configuration> specificCompatibilityTestRuntimeClasspath =
+          registerTupleRuntimeClasspath(
+              sourceSetContainer,
+              testConfigHandler.getTestSourceSetName().get(),
+              fullName,
+              versionList,
+              testConfigHandler.getTestRuntimeOnlyAction());
+
+      final TaskProvider<CheckCompatibilityLinkage> linkageCheck =
+          registerLinkageCheck(
+              sourceSetContainer,
+              testConfigHandler.getTestSourceSetName().get(),
+              combinedVersion,
+              specificCompatibilityTestRuntimeClasspath);
 
       TaskProvider<Test> specificCompatibilityTest =
           registerSpecificCompatibilityTest(
@@ -359,21 +615,437 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
               fullName,
               specificCompatibilityTestRuntimeClasspath,
               versionList,
-              testConfigHandler.getEachTestTaskAction());
+              testConfigHandler.getEachTestTaskAction(),
+              testFailFastService);
+
+      if (testConfigHandler.getSelectTestsByReference().get()) {
+        selectTests(
+            sourceSetContainer,
+            testConfigHandler.getTestSourceSetName().get(),
+            combinedVersion,
+            fullName,
+            specificCompatibilityTestRuntimeClasspath,
+            specificCompatibilityTest);
+      }
+
+      if (benchmarkSourceSetName != null) {
+        final TaskProvider<JavaExec> specificCompatibilityBenchmark =
+            registerSpecificCompatibilityBenchmark(
+                sourceSetContainer,
+                benchmarkSourceSetName,
+                combinedVersion,
+                versionList,
+                testConfigHandler.getTestRuntimeOnlyAction(),
+                specificCompatibilityTest);
+        if (shardedVersions.get(index) && sampledVersions.get(index)) {
+          sampledCompatibilityBenchmarks.add(specificCompatibilityBenchmark);
+        }
+      }
 
-      compatibilityTestLifecycleTask.configure(t -> t.dependsOn(specificCompatibilityTest));
+      if (shardedVersions.get(index)) {
+        linkageCheckLifecycleTask.configure(t -> t.dependsOn(linkageCheck));
+        /* The artifact view is lenient, so that the task can report all failures at once. */
+        resolveClasspathsTask.configure(
+            task ->
+                task.getClasspaths()
+                    .put(
+                        fullName,
+                        specificCompatibilityTestRuntimeClasspath
+                            .get()
+                            .getIncoming()
+                            .artifactView(view -> view.setLenient(true))
+                            .getArtifacts()));
+        if (sampledVersions.get(index)) {
+          sampledCompatibilityTests.add(specificCompatibilityTest);
+        }
+        shardedCompatibilityTests.add(specificCompatibilityTest);
+      }
+      specificCompatibilityTests.add(specificCompatibilityTest);
+      addCompatibilityReportTuple(
+          testConfigHandler.getTestSourceSetName().get(),
+          combinedVersion,
+          specificCompatibilityTest,
+          testDurationService);
+    }
+    aggregateResultsTask.configure(
+        task -> task.getShardResults().from(testConfigHandler.getShardResults()));
+    recordDurations(
+        specificCompatibilityTests,
+        testDurationService,
+        testConfigHandler.getDurationHistoryFile().isPresent());
+
+    if (benchmarkSourceSetName != null) {
+      registerPerformanceCheck(
+          benchmarkSourceSetName, sampledCompatibilityBenchmarks, testConfigHandler);
+    }
+
+    if (testConfigHandler.getSharedJvm().get()) {
+      final String testSourceSetName = testConfigHandler.getTestSourceSetName().get();
+      final TaskProvider<SharedJvmCompatibilityTest> sampledSharedJvmTest =
+          registerSharedJvmCompatibilityTest(
+              testSourceSetName + "CompatibilityInSharedJvm", sampledCompatibilityTests);
+      compatibilityTestLifecycleTask.configure(t -> t.dependsOn(sampledSharedJvmTest));
+      final TaskProvider<SharedJvmCompatibilityTest> shardedSharedJvmTest =
+          sampledCompatibilityTests.size() == shardedCompatibilityTests.size()
+              ? sampledSharedJvmTest
+              : registerSharedJvmCompatibilityTest(
+                  testSourceSetName + "CompatibilityAllInSharedJvm", shardedCompatibilityTests);
+      compatibilityTestAllLifecycleTask.configure(t -> t.dependsOn(shardedSharedJvmTest));
+      readSharedJvmResults(
+          sampledSharedJvmTest,
+          sampledCompatibilityTests,
+          shardedSharedJvmTest,
+          shardedCompatibilityTests);
+    } else {
+      compatibilityTestLifecycleTask.configure(t -> t.dependsOn(sampledCompatibilityTests));
+      compatibilityTestAllLifecycleTask.configure(t -> t.dependsOn(shardedCompatibilityTests));
+    }
+
+    if (testConfigHandler.getResolveClasspathsFirst().get()) {
+      compatibilityTestLifecycleTask.configure(t -> t.dependsOn(resolveClasspathsTask));
+      compatibilityTestAllLifecycleTask.configure(t -> t.dependsOn(resolveClasspathsTask));
+      for (TaskProvider<Test> specificCompatibilityTest : specificCompatibilityTests) {
+        specificCompatibilityTest.configure(test -> test.mustRunAfter(resolveClasspathsTask));
+      }
+      project
+          .getTasks()
+          .withType(SharedJvmCompatibilityTest.class)
+          .configureEach(task -> task.mustRunAfter(resolveClasspathsTask));
+    }
+
+    for (int dimension = 0; dimension < dimensionNameOrder.size(); dimension++) {
+      registerBisectionTask(
+          testConfigHandler.getTestSourceSetName().get(),
+          dimensionNameOrder.get(dimension),
+          dimensionedVersions.get(dimension),
+          dimension,
+          combinedVersions,
+          specificCompatibilityTests);
+    }
+
+    /* This is added last, so that a test task only claims its fingerprint if it is to run. */
+    if (testConfigHandler.getSkipDuplicateTests().get()) {
+      final Provider<DuplicateTestService> service = getDuplicateTestService();
+      final Set<String> ignoredSystemProperties =
+          new HashSet<>(testConfigHandler.getDuplicateTestsIgnoredSystemProperties().get());
+      for (TaskProvider<Test> specificCompatibilityTest : specificCompatibilityTests) {
+        specificCompatibilityTest.configure(
+            test -> {
+              test.usesService(service);
+              test.onlyIf(new DuplicateTestSpec(service, ignoredSystemProperties));
+            });
+      }
+    }
+    stopConfigurationPhase();
+  }
+
+  /*
+   * The test tasks of each version are ordered so that every version that the bisection may need
+   * is tested after the versions it depends on, and all test tasks are in the task graph. Whether
+   * a version is actually tested is decided by an onlyIf spec, once the earlier outcomes are known.
+   */
+  private void registerBisectionTask(
+      @Nonnull String testSourceSetName,
+      @Nonnull String dimensionName,
+      @Nonnull List<String> dimensionVersions,
+      int dimension,
+      @Nonnull List<List<NamedVersion>> combinedVersions,
+      @Nonnull List<TaskProvider<Test>> specificCompatibilityTests) {
+    final Map<String, List<TaskProvider<Test>>> testsByVersion = new LinkedHashMap<>();
+    for (String version : dimensionVersions) {
+      testsByVersion.put(version, new ArrayList<>());
+    }
+    for (int index = 0; index < combinedVersions.size(); index++) {
+      testsByVersion
+          .get(combinedVersions.get(index).get(dimension).getVersion())
+          .add(specificCompatibilityTests.get(index));
+    }
+    testsByVersion.values().removeIf(List::isEmpty);
+    final List<String> versions = new ArrayList<>(testsByVersion.keySet());
+
+    final String taskName = bisectionTaskName(testSourceSetName, dimensionName);
+    project
+        .getTasks()
+        .register(
+            taskName,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription(
+                  "Bisects the versions of "
+                      + dimensionName
+                      + " to find the first one that fails the compatibility tests.");
+              task.dependsOn(testsByVersion.values());
+            });
+
+    if (!isRequested(taskName)) {
+      failIfScheduled(taskName);
+      return;
+    }
+    final Provider<BisectionService> service =
+        project
+            .getGradle()
+            .getSharedServices()
+            .registerIfAbsent(
+                "versionCompatibilityBisection" + project.absoluteProjectPath(taskName),
+                BisectionService.class,
+                spec -> {
+                  spec.getParameters().getDimension().set(dimensionName);
+                  spec.getParameters().getVersions().set(versions);
+                });
+    List<TaskProvider<Test>> previousTests = Collections.emptyList();
+    for (int index : Bisection.probeOrder(versions.size())) {
+      final String version = versions.get(index);
+      final List<TaskProvider<Test>> mustRunAfter = previousTests;
+      for (TaskProvider<Test> specificCompatibilityTest : testsByVersion.get(version)) {
+        specificCompatibilityTest.configure(
+            test -> {
+              test.usesService(service);
+              test.onlyIf(new BisectionSpec(service, version));
+              test.doFirst(BisectionRecorder.start(service, version));
+              test.doLast(BisectionRecorder.finish(service, version));
+              test.mustRunAfter(mustRunAfter);
+            });
+      }
+      previousTests = testsByVersion.get(version);
     }
   }
 
+  /*
+   * The tuples are read from the test tasks, so that the eachTestTask actions apply, but through
+   * callables rather than task outputs, so that the test tasks themselves don't have to run.
+   */
+  @Nonnull
+  private TaskProvider<SharedJvmCompatibilityTest> registerSharedJvmCompatibilityTest(
+      @Nonnull String taskName, @Nonnull List<TaskProvider<Test>> specificCompatibilityTests) {
+    return project
+        .getTasks()
+        .register(
+            taskName,
+            SharedJvmCompatibilityTest.class,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription("Runs the compatibility tests in shared JVMs.");
+              for (TaskProvider<Test> specificCompatibilityTest : specificCompatibilityTests) {
+                final Provider<Test> test = project.provider(specificCompatibilityTest::get);
+                final SharedJvmTuple tuple = project.getObjects().newInstance(SharedJvmTuple.class);
+                tuple.getTupleName().set(specificCompatibilityTest.getName());
+                tuple
+                    .getClasspath()
+                    .from((Callable<FileCollection>) () -> test.get().getClasspath());
+                tuple
+                    .getTestClassesDirs()
+                    .from((Callable<FileCollection>) () -> test.get().getTestClassesDirs());
+                tuple.getJavaLauncher().set(test.flatMap(Test::getJavaLauncher));
+                tuple.getJvmArgs().set(test.map(t -> nonNull(t.getJvmArgs())));
+                tuple.getMinHeapSize().set(test.map(Test::getMinHeapSize));
+                tuple.getMaxHeapSize().set(test.map(Test::getMaxHeapSize));
+                tuple
+                    .getSystemProperties()
+                    .set(test.map(t -> toStringValues(t.getSystemProperties())));
+                tuple
+                    .getResultsDirectory()
+                    .set(sharedJvmResultsDirectory(taskName, specificCompatibilityTest.getName()));
+                task.getTuples().add(tuple);
+              }
+            });
+  }
+
+  @Nonnull
+  private Provider<Directory> sharedJvmResultsDirectory(
+      @Nonnull String sharedJvmTaskName, @Nonnull String tupleName) {
+    return project
+        .getLayout()
+        .getBuildDirectory()
+        .dir("test-results/" + sharedJvmTaskName + "/" + tupleName);
+  }
+
+  /*
+   * In shared JVMs, the results of a tuple are written by the shared JVM task instead of its test
+   * task. The sampled tuples are also run by the task of all the sharded tuples, if there is one, so
+   * its results take precedence if it is scheduled, which is only known once the task graph is
+   * ready.
+   */
+  private void readSharedJvmResults(
+      @Nonnull TaskProvider<SharedJvmCompatibilityTest> sampledSharedJvmTest,
+      @Nonnull List<TaskProvider<Test>> sampledCompatibilityTests,
+      @Nonnull TaskProvider<SharedJvmCompatibilityTest> shardedSharedJvmTest,
+      @Nonnull List<TaskProvider<Test>> shardedCompatibilityTests) {
+    compatibilityReportTask.configure(
+        task -> task.mustRunAfter(sampledSharedJvmTest, shardedSharedJvmTest));
+    aggregateResultsTask.configure(
+        task -> task.mustRunAfter(sampledSharedJvmTest, shardedSharedJvmTest));
+    readSharedJvmResults(shardedSharedJvmTest.getName(), shardedCompatibilityTests);
+    if (shardedSharedJvmTest.getName().equals(sampledSharedJvmTest.getName())) {
+      return;
+    }
+    readSharedJvmResults(sampledSharedJvmTest.getName(), sampledCompatibilityTests);
+    final String shardedTaskPath = project.absoluteProjectPath(shardedSharedJvmTest.getName());
+    project
+        .getGradle()
+        .getTaskGraph()
+        .whenReady(
+            graph -> {
+              if (graph.hasTask(shardedTaskPath)) {
+                readSharedJvmResults(shardedSharedJvmTest.getName(), shardedCompatibilityTests);
+              }
+            });
+  }
+
+  private void readSharedJvmResults(
+      @Nonnull String sharedJvmTaskName,
+      @Nonnull List<TaskProvider<Test>> specificCompatibilityTests) {
+    final Set<String> tupleNames =
+        specificCompatibilityTests.stream().map(TaskProvider::getName).collect(Collectors.toSet());
+    final Action<List<CompatibilityReportTuple>> redirect =
+        tuples -> {
+          for (CompatibilityReportTuple tuple : tuples) {
+            final String tupleName = tuple.getTaskName().get();
+            if (tupleNames.contains(tupleName)) {
+              tuple
+                  .getResultsDirectory()
+                  .set(sharedJvmResultsDirectory(sharedJvmTaskName, tupleName));
+            }
+          }
+        };
+    compatibilityReportTask.configure(task -> redirect.execute(task.getTuples()));
+    aggregateResultsTask.configure(task -> redirect.execute(task.getTuples()));
+  }
+
+  @Nonnull
+  private static List<String> nonNull(@Nullable List<String> list) {
+    return list == null ? Collections.emptyList() : list;
+  }
+
+  @Nonnull
+  private static Map<String, String> toStringValues(@Nonnull Map<String, Object> map) {
+    final Map<String, String> result = new LinkedHashMap<>();
+    map.forEach((key, value) -> result.put(key, String.valueOf(value)));
+    return result;
+  }
+
+  /*
+   * The configurations are only registered, so that they (and the eachTestRuntimeOnly actions) are
+   * realized when the corresponding task is, e.g. when it's part of the task graph.
+   */
+  @Nonnull
+  private NamedDomainObjectProvider<Configuration> registerTupleRuntimeClasspath(
+      @Nonnull SourceSetContainer sourceSetContainer,
+      @Nonnull String sourceSetName,
+      @Nonnull String fullName,
+      @Nonnull List<String> versionList,
+      @Nonnull List<Action<TestRuntimeOnlyConfig>> testRuntimeOnlyActions) {
+    startConfigurationPhase(CONFIGURATION_CREATION_PHASE);
+    final ConfigurationContainer configurationContainer = project.getConfigurations();
+    final NamedDomainObjectProvider<Configuration> runtimeOnlyConfiguration =
+        configurationContainer.register(
+            fullName + "RuntimeOnly",
+            configuration -> {
+              configuration.setCanBeResolved(false);
+              configuration.extendsFrom(
+                  configurationContainer.getByName(
+                      sourceSetContainer
+                          .getByName(sourceSetName)
+                          .getRuntimeClasspathConfigurationName()));
+              startConfigurationPhase(TEST_RUNTIME_ONLY_ACTIONS_PHASE);
+              testRuntimeOnlyActions.forEach(
+                  a ->
+                      a.execute(
+                          new TestRuntimeOnlyConfigImpl(
+                              versionList, project.getDependencies(), configuration)));
+              stopConfigurationPhase();
+            });
+    final NamedDomainObjectProvider<Configuration> runtimeClasspath =
+        configurationContainer.register(
+            fullName + "Classpath",
+            configuration -> configuration.extendsFrom(runtimeOnlyConfiguration.get()));
+
+    exportedConfigurations.add(runtimeClasspath);
+    stopConfigurationPhase();
+    return runtimeClasspath;
+  }
+
+  /*
+   * The profiler is created by the first phase that is started while profiling is enabled, and
+   * stays enabled, so that the lazily executed phases are measured too.
+   */
+  private void startConfigurationPhase(@Nonnull String phase) {
+    if (configurationProfiler == null && profileConfiguration.get()) {
+      configurationProfiler =
+          new ConfigurationProfiler(
+              System::nanoTime,
+              ConfigurationProfiler.currentThreadAllocatedBytes(),
+              () -> project.getExtensions().getByType(SourceSetContainer.class).getNames().size(),
+              () -> project.getConfigurations().getNames().size(),
+              () -> project.getTasks().getNames().size());
+      project
+          .getGradle()
+          .getSharedServices()
+          .registerIfAbsent(
+              "versionCompatibilityConfigurationProfile",
+              ConfigurationProfileService.class,
+              spec -> {})
+          .get()
+          .add(
+              project.getPath(),
+              configurationProfiler,
+              project
+                  .getLayout()
+                  .getBuildDirectory()
+                  .file(CONFIGURATION_PROFILE_FILE_NAME)
+                  .get()
+                  .getAsFile());
+    }
+    if (configurationProfiler != null) {
+      configurationProfiler.start(phase);
+    }
+  }
+
+  private void stopConfigurationPhase() {
+    if (configurationProfiler != null) {
+      configurationProfiler.stop();
+    }
+  }
+
+  /*
+   * A bisection is only wired when it is requested by its name, as the task graph is not known when
+   * the test tasks are ordered. If it gets into the task graph in any other way, e.g. by an
+   * abbreviated name or as a dependency, it would run all the versions, so the build fails instead.
+   */
+  private void failIfScheduled(@Nonnull String taskName) {
+    final String taskPath = project.absoluteProjectPath(taskName);
+    project
+        .getGradle()
+        .getTaskGraph()
+        .whenReady(
+            graph -> {
+              if (graph.hasTask(taskPath)) {
+                throw new GradleException(
+                    "The "
+                        + taskPath
+                        + " task must be requested by its full name or path, e.g. \"gradle "
+                        + taskName
+                        + " --continue\"");
+              }
+            });
+  }
+
+  /* The task names are part of the configuration cache key, so they are safe to depend on. */
+  private boolean isRequested(@Nonnull String taskName) {
+    final List<String> requestedTaskNames = project.getGradle().getStartParameter().getTaskNames();
+    return requestedTaskNames.contains(taskName)
+        || requestedTaskNames.contains(project.absoluteProjectPath(taskName));
+  }
+
   @Nonnull
   private TaskProvider<Test> registerSpecificCompatibilityTest(
       @Nonnull SourceSetContainer sourceSetContainer,
       @Nonnull final String testSourceSetName,
       @Nonnull List<NamedVersion> combinedVersion,
       @Nonnull String fullName,
-      @Nonnull Configuration specificCompatibilityTestRuntimeClasspath,
+      @Nonnull NamedDomainObjectProvider<Configuration> specificCompatibilityTestRuntimeClasspath,
       @Nonnull List<String> versionList,
-      @Nonnull List<Action<TestTaskConfig>> extraTestConfigurationAction) {
+      @Nonnull List<Action<TestTaskConfig>> extraTestConfigurationAction,
+      @Nullable Provider<FailFastService> testFailFastService) {
     return project
         .getTasks()
         .register(
@@ -385,7 +1057,7 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
                   "Runs compatibility "
                       + testSourceSetName
                       + " with "
-                      + createFullCompatibilityTestTaskDescription(combinedVersion)
+                      + compatibilityTestTaskDescription(combinedVersion)
                       + ".");
 
               final FileCollection testClassesDirs =
@@ -414,55 +1086,428 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
               test.setClasspath(
                   testClassesDirs
                       .plus(testResourcesDir)
-                      .plus(specificCompatibilityTestRuntimeClasspath)
+                      .plus(specificCompatibilityTestRuntimeClasspath.get())
                       .plus(mainRuntimeClasspath));
 
+              if (testFailFastService != null) {
+                test.usesService(testFailFastService);
+                test.onlyIf(new FailFastSpec(testFailFastService));
+              }
+
               extraTestConfigurationAction.forEach(
                   a -> a.execute(new TestTaskConfigImpl(test, versionList)));
             });
   }
 
-  /* From https://stackoverflow.com/a/9496234/643007 */
+  /*
+   * The benchmarks are run with the tuple classpath before the production runtime classpath, like
+   * the compatibility tests, and with the Java launcher of the corresponding test task, so that
+   * e.g. a Java version dimension applies to both.
+   */
   @Nonnull
-  private static <T> List<List<T>> cartesianProduct(@Nonnull List<List<T>> lists) {
-    List<List<T>> resultLists = new ArrayList<>();
-    if (lists.isEmpty()) {
-      resultLists.add(new ArrayList<>());
-      return resultLists;
+  private TaskProvider<JavaExec> registerSpecificCompatibilityBenchmark(
+      @Nonnull SourceSetContainer sourceSetContainer,
+      @Nonnull String benchmarkSourceSetName,
+      @Nonnull List<NamedVersion> combinedVersion,
+      @Nonnull List<String> versionList,
+      @Nonnull List<Action<TestRuntimeOnlyConfig>> testRuntimeOnlyActions,
+      @Nonnull TaskProvider<Test> specificCompatibilityTest) {
+    final String taskName = compatibilityTestTaskName(benchmarkSourceSetName, combinedVersion);
+    final NamedDomainObjectProvider<Configuration> runtimeClasspath =
+        registerTupleRuntimeClasspath(
+            sourceSetContainer,
+            benchmarkSourceSetName,
+            taskName,
+            versionList,
+            testRuntimeOnlyActions);
+    return project
+        .getTasks()
+        .register(
+            taskName,
+            JavaExec.class,
+            task -> {
+              task.setGroup("benchmark");
+              task.setDescription(
+                  "Runs the "
+                      + benchmarkSourceSetName
+                      + " benchmarks with "
+                      + compatibilityTestTaskDescription(combinedVersion)
+                      + ".");
+              task.setClasspath(
+                  sourceSetContainer
+                      .getByName(benchmarkSourceSetName)
+                      .getOutput()
+                      .plus(runtimeClasspath.get())
+                      .plus(
+                          sourceSetContainer
+                              .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+                              .getRuntimeClasspath()));
+              task.getMainClass().set("org.openjdk.jmh.Main");
+              task.getJavaLauncher().set(specificCompatibilityTest.flatMap(Test::getJavaLauncher));
+              final File resultFile =
+                  project
+                      .getLayout()
+                      .getBuildDirectory()
+                      .file(
+                          PERFORMANCE_REPORTS_DIRECTORY_NAME
+                              + taskName
+                              + CheckCompatibilityPerformance.RESULT_FILE_EXTENSION)
+                      .get()
+                      .getAsFile();
+              task.getOutputs().file(resultFile);
+              /* Benchmark results are only meaningful when they are measured. */
+              task.getOutputs().upToDateWhen(Specs.satisfyNone());
+              task.args("-rf", "json", "-rff", resultFile.getAbsolutePath());
+            });
+  }
+
+  private void registerPerformanceCheck(
+      @Nonnull String benchmarkSourceSetName,
+      @Nonnull List<TaskProvider<JavaExec>> benchmarks,
+      @Nonnull TestsConfigImpl testConfigHandler) {
+    final TaskContainer taskContainer = project.getTasks();
+    final String baselineTaskName = performanceBaselineTaskName(benchmarkSourceSetName);
+    taskContainer.register(
+        baselineTaskName,
+        UpdateCompatibilityBaseline.class,
+        task -> {
+          task.setGroup("benchmark");
+          task.setDescription(
+              "Updates the performance baseline with the "
+                  + benchmarkSourceSetName
+                  + " compatibility benchmark results.");
+          task.getResultFiles().from(benchmarks);
+          task.getBaselineFile().set(testConfigHandler.getPerformanceBaselineFile());
+        });
+    final String checkTaskName = performanceCheckTaskName(benchmarkSourceSetName);
+    final TaskProvider<CheckCompatibilityPerformance> checkTask =
+        taskContainer.register(
+            checkTaskName,
+            CheckCompatibilityPerformance.class,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription(
+                  "Checks the "
+                      + benchmarkSourceSetName
+                      + " compatibility benchmark results against the performance baseline.");
+              task.getResultFiles().from(benchmarks);
+              task.getBaselineFile().set(testConfigHandler.getPerformanceBaselineFile());
+              task.getThreshold().set(testConfigHandler.getPerformanceRegressionThreshold());
+              task.getBaselineTaskName().set(baselineTaskName);
+              task.getReportFile()
+                  .set(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file(PERFORMANCE_REPORTS_DIRECTORY_NAME + checkTaskName + ".txt"));
+            });
+    registerOrExtendLifecycleTask(
+        PERFORMANCE_CHECK_TASK_NAME,
+        "verification",
+        "Checks the compatibility benchmark results against the performance baselines.",
+        checkTask);
+  }
+
+  /* The lifecycle tasks that are opted into per namespace or test suite are shared by them all. */
+  private void registerOrExtendLifecycleTask(
+      @Nonnull String taskName,
+      @Nonnull String group,
+      @Nonnull String description,
+      @Nonnull TaskProvider<?> dependency) {
+    final TaskContainer taskContainer = project.getTasks();
+    if (taskContainer.getNames().contains(taskName)) {
+      taskContainer.named(taskName).configure(task -> task.dependsOn(dependency));
     } else {
-      List<T> firstList = lists.get(0);
-      List<List<T>> remainingLists = cartesianProduct(lists.subList(1, lists.size()));
-      for (T condition : firstList) {
-        for (List<T> remainingList : remainingLists) {
-          List<T> resultList = new ArrayList<>();
-          resultList.add(condition);
-          resultList.addAll(remainingList);
-          resultLists.add(resultList);
-        }
+      taskContainer.register(
+          taskName,
+          task -> {
+            task.setGroup(group);
+            task.setDescription(description);
+            task.dependsOn(dependency);
+          });
+    }
+  }
+
+  /*
+   * The classes are checked against the tuple classpath first, and then against the production
+   * runtime classpath, like in the compatibility test task. Only the module and project components
+   * are indexed, as the file dependencies are source set outputs, e.g. version specific adapters.
+   */
+  @Nonnull
+  private TaskProvider<CheckCompatibilityLinkage> registerLinkageCheck(
+      @Nonnull SourceSetContainer sourceSetContainer,
+      @Nonnull String testSourceSetName,
+      @Nonnull List<NamedVersion> combinedVersion,
+      @Nonnull NamedDomainObjectProvider<Configuration> specificCompatibilityTestRuntimeClasspath) {
+    registerSymbolIndexTransform();
+    final String taskName = linkageCheckTaskName(testSourceSetName, combinedVersion);
+    return project
+        .getTasks()
+        .register(
+            taskName,
+            CheckCompatibilityLinkage.class,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription(
+                  "Checks the linkage of the production classes with "
+                      + compatibilityTestTaskDescription(combinedVersion)
+                      + ".");
+              task.getClasses().from(linkageCheckedClasses);
+              task.getSymbolIndexes()
+                  .from(symbolIndexes(specificCompatibilityTestRuntimeClasspath.get()));
+              task.getSymbolIndexes()
+                  .from(
+                      symbolIndexes(
+                          project
+                              .getConfigurations()
+                              .getByName(
+                                  sourceSetContainer
+                                      .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+                                      .getRuntimeClasspathConfigurationName())));
+              task.getReportFile()
+                  .set(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file(LINKAGE_REPORTS_DIRECTORY_NAME + taskName + ".txt"));
+            });
+  }
+
+  @Nonnull
+  private static FileCollection symbolIndexes(@Nonnull Configuration configuration) {
+    return symbolIndexes(
+        configuration,
+        id -> id instanceof ModuleComponentIdentifier || id instanceof ProjectComponentIdentifier);
+  }
+
+  @Nonnull
+  private static FileCollection symbolIndexes(
+      @Nonnull Configuration configuration, @Nonnull Spec<ComponentIdentifier> componentFilter) {
+    return configuration
+        .getIncoming()
+        .artifactView(
+            view -> {
+              view.getAttributes()
+                  .attribute(
+                      ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE,
+                      SymbolIndexTransform.ARTIFACT_TYPE);
+              view.componentFilter(componentFilter);
+            })
+        .getFiles();
+  }
+
+  /*
+   * The varying dependencies of a tuple are the modules that its eachTestRuntimeOnly actions add
+   * constraints for, which are only known once the tuple runtime classpath has been realized.
+   */
+  private void selectTests(
+      @Nonnull SourceSetContainer sourceSetContainer,
+      @Nonnull String testSourceSetName,
+      @Nonnull List<NamedVersion> combinedVersion,
+      @Nonnull String fullName,
+      @Nonnull NamedDomainObjectProvider<Configuration> specificCompatibilityTestRuntimeClasspath,
+      @Nonnull TaskProvider<Test> specificCompatibilityTest) {
+    registerSymbolIndexTransform();
+    final String taskName = testSelectionTaskName(testSourceSetName, combinedVersion);
+    final Provider<RegularFile> selectionFile =
+        project
+            .getLayout()
+            .getBuildDirectory()
+            .file(TEST_SELECTIONS_DIRECTORY_NAME + taskName + ".txt");
+    final TaskProvider<SelectCompatibilityTests> testSelection =
+        project
+            .getTasks()
+            .register(
+                taskName,
+                SelectCompatibilityTests.class,
+                task -> {
+                  task.setDescription(
+                      "Selects the "
+                          + testSourceSetName
+                          + " classes that reference the dependencies of "
+                          + compatibilityTestTaskDescription(combinedVersion)
+                          + ".");
+                  task.getTestClasses()
+                      .from(
+                          sourceSetContainer
+                              .getByName(testSourceSetName)
+                              .getOutput()
+                              .getClassesDirs());
+                  task.getProductionClasses().from(productionClasses);
+                  task.getDependencyClasses().from(adapterApiClasses);
+                  final Configuration classpath = specificCompatibilityTestRuntimeClasspath.get();
+                  final Set<String> constrainedModules = new HashSet<>();
+                  for (DependencyConstraint constraint :
+                      project
+                          .getConfigurations()
+                          .getByName(fullName + "RuntimeOnly")
+                          .getDependencyConstraints()) {
+                    constrainedModules.add(constraint.getGroup() + ":" + constraint.getName());
+                  }
+                  task.getDependencySymbolIndexes()
+                      .from(
+                          symbolIndexes(
+                              classpath,
+                              id ->
+                                  id instanceof ModuleComponentIdentifier
+                                      && constrainedModules.contains(
+                                          ((ModuleComponentIdentifier) id).getGroup()
+                                              + ":"
+                                              + ((ModuleComponentIdentifier) id).getModule())));
+                  task.getSelectionFile().set(selectionFile);
+                });
+    specificCompatibilityTest.configure(
+        test -> {
+          test.getInputs()
+              .files(testSelection.flatMap(SelectCompatibilityTests::getSelectionFile))
+              .withPropertyName("testSelection")
+              .withPathSensitivity(PathSensitivity.NONE);
+          final TestSelectionFilter filter =
+              new TestSelectionFilter(selectionFile.get().getAsFile());
+          test.onlyIf(filter);
+          test.doFirst(filter);
+        });
+  }
+
+  private void registerSymbolIndexTransform() {
+    if (symbolIndexTransformRegistered) {
+      return;
+    }
+    symbolIndexTransformRegistered = true;
+    for (String artifactType :
+        Arrays.asList(
+            ArtifactTypeDefinition.JAR_TYPE, ArtifactTypeDefinition.JVM_CLASS_DIRECTORY)) {
+      project
+          .getDependencies()
+          .registerTransform(
+              SymbolIndexTransform.class,
+              spec -> {
+                spec.getFrom()
+                    .attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, artifactType);
+                spec.getTo()
+                    .attribute(
+                        ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE,
+                        SymbolIndexTransform.ARTIFACT_TYPE);
+              });
+    }
+  }
+
+  /* One service per project, so that a failure in any test suite skips the remaining ones. */
+  @Nonnull
+  private Provider<FailFastService> getFailFastService() {
+    if (failFastService == null) {
+      failFastService =
+          project
+              .getGradle()
+              .getSharedServices()
+              .registerIfAbsent(
+                  "versionCompatibilityFailFast" + project.getPath(),
+                  FailFastService.class,
+                  spec -> {});
+      project
+          .getObjects()
+          .newInstance(BuildEvents.class)
+          .getListenerRegistry()
+          .onTaskCompletion(failFastService);
+    }
+    return failFastService;
+  }
+
+  @Nonnull
+  private Provider<DuplicateTestService> getDuplicateTestService() {
+    if (duplicateTestService == null) {
+      duplicateTestService =
+          project
+              .getGradle()
+              .getSharedServices()
+              .registerIfAbsent(
+                  "versionCompatibilityDuplicateTests" + project.getPath(),
+                  DuplicateTestService.class,
+                  spec -> {});
+    }
+    return duplicateTestService;
+  }
+
+  /*
+   * The durations are always recorded for a configured history, so that it balances the shards of
+   * later builds. Otherwise, they are only recorded for the compatibility report, which is known to
+   * run once the task graph is ready.
+   */
+  private void recordDurations(
+      @Nonnull List<TaskProvider<Test>> specificCompatibilityTests,
+      @Nonnull Provider<TestDurationService> testDurationService,
+      boolean historyConfigured) {
+    if (historyConfigured) {
+      for (TaskProvider<Test> specificCompatibilityTest : specificCompatibilityTests) {
+        specificCompatibilityTest.configure(test -> recordDuration(test, testDurationService));
       }
+      return;
     }
-    return resultLists;
+    final String reportTaskPath = project.absoluteProjectPath(COMPATIBILITY_REPORT_TASK_NAME);
+    project
+        .getGradle()
+        .getTaskGraph()
+        .whenReady(
+            graph -> {
+              if (!graph.hasTask(reportTaskPath)) {
+                return;
+              }
+              for (TaskProvider<Test> specificCompatibilityTest : specificCompatibilityTests) {
+                if (graph.hasTask(
+                    project.absoluteProjectPath(specificCompatibilityTest.getName()))) {
+                  specificCompatibilityTest.configure(
+                      test -> recordDuration(test, testDurationService));
+                }
+              }
+            });
+  }
+
+  private static void recordDuration(
+      @Nonnull Test test, @Nonnull Provider<TestDurationService> testDurationService) {
+    test.usesService(testDurationService);
+    test.doFirst(TestDurationRecorder.start(testDurationService));
   }
 
+  /*
+   * A missing history falls back to the hash assignment, which all machines without it agree on,
+   * but it is warned about, as a machine with the history would disagree with them on the shards.
+   */
   @Nonnull
-  private static String createFullCompatibilityTestTaskName(
-      final String testSourceSetName, @Nonnull List<NamedVersion> namedVersions) {
-    return testSourceSetName
-        + "CompatibilityWith"
-        + namedVersions.stream()
-            .map(
-                namedVersion ->
-                    unpunctuate(capitalize(namedVersion.getName()))
-                        + unpunctuate(namedVersion.getVersion()))
-            .collect(Collectors.joining("And"));
+  private Map<String, Long> readDurationHistory(@Nonnull RegularFile historyFile) {
+    final String history = project.getProviders().fileContents(historyFile).getAsText().getOrNull();
+    if (history == null) {
+      final File file = historyFile.getAsFile();
+      project
+          .getLogger()
+          .warn(
+              "The duration history file {} does not exist, so the shards are assigned by hash",
+              file);
+      return Collections.emptyMap();
+    }
+    return DurationHistory.parse(history);
   }
 
+  /*
+   * One service per history file, so that multiple test suites can share it. Each suite registers
+   * it for the task completion events, which is harmless, as a task is only recorded once.
+   */
   @Nonnull
-  private static String createFullCompatibilityTestTaskDescription(
-      @Nonnull List<NamedVersion> namedVersions) {
-    return namedVersions.stream()
-        .map(namedVersion -> namedVersion.getName() + " " + namedVersion.getVersion())
-        .collect(Collectors.joining(" and "));
+  private Provider<TestDurationService> registerTestDurationService(
+      @Nonnull RegularFile historyFile) {
+    final Provider<TestDurationService> testDurationService =
+        project
+            .getGradle()
+            .getSharedServices()
+            .registerIfAbsent(
+                "versionCompatibilityTestDurations:" + historyFile.getAsFile().getAbsolutePath(),
+                TestDurationService.class,
+                spec -> spec.getParameters().getHistoryFile().set(historyFile));
+    project
+        .getObjects()
+        .newInstance(BuildEvents.class)
+        .getListenerRegistry()
+        .onTaskCompletion(testDurationService);
+    return testDurationService;
   }
 
   @Nonnull
@@ -477,27 +1522,441 @@ public class VersionCompatibilityExtensionImpl implements VersionCompatibilityEx
             });
   }
 
-  private TaskProvider<Task> registerCompatibilityAdapterTestLifecycleTask() {
+  @Nonnull
+  private TaskProvider<Task> registerCompatibilityTestAllLifecycleTask() {
     return project
         .getTasks()
         .register(
-            TEST_COMPATIBILITY_ADAPTERS_TASK_NAME,
+            COMPATIBILITY_TEST_ALL_TASK_NAME,
             task -> {
               task.setGroup("verification");
-              task.setDescription("Runs all compatibility adapter tests.");
+              task.setDescription("Runs all compatibility tests, regardless of sampling.");
+            });
+  }
+
+  @Nonnull
+  private TaskProvider<ResolveCompatibilityClasspaths> registerResolveClasspathsTask() {
+    return project
+        .getTasks()
+        .register(
+            RESOLVE_CLASSPATHS_TASK_NAME,
+            ResolveCompatibilityClasspaths.class,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription("Resolves the classpaths of all compatibility tests.");
+              task.getResolutionTimesFile()
+                  .set(project.getLayout().getBuildDirectory().file(RESOLUTION_TIMES_FILE_NAME));
             });
   }
 
   @Nonnull
-  private static String unpunctuate(@Nonnull String string) {
-    return string.replace(".", "Dot").replace("-", "Dash");
+  private TaskProvider<GenerateCompatibilityReport> registerCompatibilityReportTask() {
+    return project
+        .getTasks()
+        .register(
+            COMPATIBILITY_REPORT_TASK_NAME,
+            GenerateCompatibilityReport.class,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription(
+                  "Reports the outcome and timings of the compatibility tests, as JSON and as an"
+                      + " HTML heat map.");
+              task.getResolutionTimesFile()
+                  .set(project.getLayout().getBuildDirectory().file(RESOLUTION_TIMES_FILE_NAME));
+              task.getJsonFile()
+                  .set(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file(COMPATIBILITY_REPORT_DIRECTORY_NAME + "compatibility-report.json"));
+              task.getHtmlFile()
+                  .set(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file(COMPATIBILITY_REPORT_DIRECTORY_NAME + "index.html"));
+              task.mustRunAfter(resolveClasspathsTask);
+              task.getOutputs().upToDateWhen(Specs.satisfyNone());
+            });
+  }
+
+  @Nonnull
+  private TaskProvider<AggregateCompatibilityResults> registerAggregateResultsTask() {
+    return project
+        .getTasks()
+        .register(
+            AGGREGATE_RESULTS_TASK_NAME,
+            AggregateCompatibilityResults.class,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription(
+                  "Merges the results of the compatibility tests into a single JUnit XML file, and"
+                      + " lists the distinct failures.");
+              task.getResultsFile()
+                  .set(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file(AGGREGATE_RESULTS_DIRECTORY_NAME + "TEST-compatibility.xml"));
+              task.getFailuresFile()
+                  .set(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file(AGGREGATE_RESULTS_DIRECTORY_NAME + "failures.txt"));
+              task.getOutputs().upToDateWhen(Specs.satisfyNone());
+            });
+  }
+
+  /*
+   * The results directory is queried through a plain provider, so that neither the report nor the
+   * aggregated results make the test task a dependency, but only run after it if both are
+   * scheduled.
+   */
+  private void addCompatibilityReportTuple(
+      @Nonnull String testSourceSetName,
+      @Nonnull List<NamedVersion> combinedVersion,
+      @Nonnull TaskProvider<Test> specificCompatibilityTest,
+      @Nonnull Provider<TestDurationService> testDurationService) {
+    compatibilityReportTask.configure(
+        task -> {
+          final CompatibilityReportTuple tuple =
+              newCompatibilityReportTuple(
+                  testSourceSetName, combinedVersion, specificCompatibilityTest);
+          tuple.getDurationService().set(testDurationService);
+          task.usesService(testDurationService);
+          task.mustRunAfter(specificCompatibilityTest);
+          task.getTuples().add(tuple);
+        });
+    aggregateResultsTask.configure(
+        task -> {
+          task.mustRunAfter(specificCompatibilityTest);
+          task.getTuples()
+              .add(
+                  newCompatibilityReportTuple(
+                      testSourceSetName, combinedVersion, specificCompatibilityTest));
+        });
   }
 
   @Nonnull
-  private static String capitalize(@Nonnull String string) {
-    if (!string.isEmpty() && Character.isLowerCase(string.charAt(0))) {
-      string = Character.toUpperCase(string.charAt(0)) + string.substring(1);
+  private CompatibilityReportTuple newCompatibilityReportTuple(
+      @Nonnull String testSourceSetName,
+      @Nonnull List<NamedVersion> combinedVersion,
+      @Nonnull TaskProvider<Test> specificCompatibilityTest) {
+    final CompatibilityReportTuple tuple =
+        project.getObjects().newInstance(CompatibilityReportTuple.class);
+    tuple.getSuite().set(testSourceSetName);
+    tuple.getTaskName().set(specificCompatibilityTest.getName());
+    for (NamedVersion namedVersion : combinedVersion) {
+      tuple.getDimensions().add(namedVersion.getName());
+      tuple.getVersions().add(namedVersion.getVersion());
     }
-    return string;
+    tuple
+        .getResultsDirectory()
+        .set(
+            project
+                .getLayout()
+                .dir(
+                    project.provider(
+                        () ->
+                            specificCompatibilityTest
+                                .get()
+                                .getReports()
+                                .getJunitXml()
+                                .getOutputLocation()
+                                .get()
+                                .getAsFile())));
+    return tuple;
+  }
+
+  private void registerExportRepositoryTask() {
+    project
+        .getTasks()
+        .register(
+            EXPORT_REPOSITORY_TASK_NAME,
+            ExportCompatibilityRepository.class,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription(
+                  "Exports the dependencies of the compatibility tests and adapters into an offline"
+                      + " Maven repository.");
+              task.getRepositoryPaths()
+                  .set(
+                      project.provider(
+                          () -> {
+                            final Map<String, String> repositoryPaths = new TreeMap<>();
+                            OfflineRepository.resolveFiles(
+                                    project.getDependencies(),
+                                    exportedConfigurations.stream()
+                                        .map(Provider::get)
+                                        .collect(Collectors.toList()))
+                                .forEach(
+                                    (path, file) ->
+                                        repositoryPaths.put(path, file.getAbsolutePath()));
+                            return repositoryPaths;
+                          }));
+              /* The files are derived from the paths, so they must only be resolved once. */
+              task.getRepositoryPaths().finalizeValueOnRead();
+              task.getFiles().from(task.getRepositoryPaths().map(Map::values));
+              task.getRepositoryDirectory()
+                  .convention(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .dir(EXPORT_REPOSITORY_DIRECTORY_NAME));
+            });
+  }
+
+  @Nonnull
+  private TaskProvider<CompareAdapterBenchmarks> registerAdapterBenchmarkComparison(
+      @Nonnull String capitalizedNamespace) {
+    final ConfigurationContainer configurationContainer = project.getConfigurations();
+    createIfNecessary(configurationContainer, JMH_COMMON_IMPLEMENTATION_CONFIGURATION_NAME, null);
+    createIfNecessary(
+        configurationContainer, JMH_COMMON_ANNOTATION_PROCESSOR_CONFIGURATION_NAME, null);
+    final TaskContainer taskContainer = project.getTasks();
+    final TaskProvider<CompareAdapterBenchmarks> compareTask =
+        taskContainer.register(
+            "compareCompat" + capitalizedNamespace + "Benchmarks",
+            CompareAdapterBenchmarks.class,
+            task -> {
+              task.setGroup("benchmark");
+              task.setDescription(
+                  "Compares the JMH results of the " + capitalizedNamespace + " adapters.");
+              task.getReportFile()
+                  .set(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file(
+                              ADAPTER_BENCHMARK_REPORTS_DIRECTORY_NAME
+                                  + capitalizedNamespace
+                                  + ".md"));
+            });
+    registerOrExtendLifecycleTask(
+        JMH_COMPATIBILITY_ADAPTERS_TASK_NAME,
+        "benchmark",
+        "Runs and compares the JMH benchmarks of all adapters.",
+        compareTask);
+    return compareTask;
+  }
+
+  private void registerAdapterBenchmark(
+      @Nonnull String capitalizedNamespace,
+      @Nonnull String version,
+      @Nonnull NamedDomainObjectProvider<SourceSet> compatProductionSourceSetProvider,
+      @Nonnull Configuration compileAndTestOnlyConfiguration,
+      @Nonnull TaskProvider<CompareAdapterBenchmarks> compareTask) {
+    final ConfigurationContainer configurationContainer = project.getConfigurations();
+    final String benchmarkSourceSetName = "jmhCompat" + capitalizedNamespace + unpunctuate(version);
+    final NamedDomainObjectProvider<SourceSet> benchmarkSourceSetProvider =
+        project
+            .getExtensions()
+            .getByType(SourceSetContainer.class)
+            .register(benchmarkSourceSetName);
+
+    addOutputToImplementationConfiguration(
+        project.getDependencies(), compatProductionSourceSetProvider, benchmarkSourceSetProvider);
+    benchmarkSourceSetProvider.configure(
+        sourceSet -> {
+          configurationContainer
+              .getByName(sourceSet.getImplementationConfigurationName())
+              .extendsFrom(
+                  configurationContainer.getByName(
+                      compatProductionSourceSetProvider.get().getImplementationConfigurationName()),
+                  compileAndTestOnlyConfiguration,
+                  configurationContainer.getByName(JMH_COMMON_IMPLEMENTATION_CONFIGURATION_NAME));
+          configurationContainer
+              .getByName(sourceSet.getAnnotationProcessorConfigurationName())
+              .extendsFrom(
+                  configurationContainer.getByName(
+                      JMH_COMMON_ANNOTATION_PROCESSOR_CONFIGURATION_NAME));
+        });
+
+    final TaskProvider<JavaExec> benchmarkTask =
+        project
+            .getTasks()
+            .register(
+                benchmarkSourceSetName,
+                JavaExec.class,
+                task -> {
+                  task.setGroup("benchmark");
+                  task.setDescription(
+                      "Runs the JMH benchmarks for the compat"
+                          + capitalizedNamespace
+                          + unpunctuate(version)
+                          + " adapter.");
+                  task.setClasspath(benchmarkSourceSetProvider.get().getRuntimeClasspath());
+                  task.getMainClass().set("org.openjdk.jmh.Main");
+                  final File resultFile =
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file(
+                              ADAPTER_BENCHMARK_REPORTS_DIRECTORY_NAME
+                                  + capitalizedNamespace
+                                  + "/"
+                                  + version
+                                  + CompareAdapterBenchmarks.RESULT_FILE_EXTENSION)
+                          .get()
+                          .getAsFile();
+                  task.getOutputs().file(resultFile);
+                  /* Benchmark results are only meaningful when they are measured. */
+                  task.getOutputs().upToDateWhen(Specs.satisfyNone());
+                  task.args("-prof", "gc", "-rf", "json", "-rff", resultFile.getAbsolutePath());
+                });
+    compareTask.configure(task -> task.getResultFiles().from(benchmarkTask));
+  }
+
+  @Nonnull
+  private TaskProvider<ColdStartBenchmark> registerColdStartBenchmark(
+      @Nonnull String capitalizedNamespace,
+      @Nonnull String className,
+      @Nonnull NamedDomainObjectProvider<SourceSet> targetSourceSetProvider) {
+    final ConfigurationContainer configurationContainer = project.getConfigurations();
+    final String coldStartSourceSetName = "coldStartCompat" + capitalizedNamespace;
+    final NamedDomainObjectProvider<SourceSet> coldStartSourceSetProvider =
+        project
+            .getExtensions()
+            .getByType(SourceSetContainer.class)
+            .register(coldStartSourceSetName);
+
+    addOutputToImplementationConfiguration(
+        project.getDependencies(), targetSourceSetProvider, coldStartSourceSetProvider);
+    coldStartSourceSetProvider.configure(
+        sourceSet -> {
+          configurationContainer
+              .getByName(sourceSet.getImplementationConfigurationName())
+              .extendsFrom(
+                  configurationContainer.getByName(
+                      targetSourceSetProvider.get().getImplementationConfigurationName()));
+          configurationContainer
+              .getByName(sourceSet.getRuntimeOnlyConfigurationName())
+              .extendsFrom(
+                  configurationContainer.getByName(
+                      targetSourceSetProvider.get().getRuntimeOnlyConfigurationName()));
+        });
+
+    final TaskProvider<ColdStartBenchmark> coldStartTask =
+        project
+            .getTasks()
+            .register(
+                coldStartSourceSetName,
+                ColdStartBenchmark.class,
+                task -> {
+                  task.setGroup("benchmark");
+                  task.setDescription(
+                      "Measures the cold start of "
+                          + className
+                          + " with each "
+                          + capitalizedNamespace
+                          + " adapter.");
+                  task.getClassName().set(className);
+                  task.getForks().convention(DEFAULT_COLD_START_FORKS);
+                  task.getReportFile()
+                      .set(
+                          project
+                              .getLayout()
+                              .getBuildDirectory()
+                              .file(
+                                  COLD_START_REPORTS_DIRECTORY_NAME
+                                      + capitalizedNamespace
+                                      + ".md"));
+                  /* Cold start measurements are only meaningful when they are measured. */
+                  task.getOutputs().upToDateWhen(Specs.satisfyNone());
+                });
+    registerOrExtendLifecycleTask(
+        COLD_START_COMPATIBILITY_ADAPTERS_TASK_NAME,
+        "benchmark",
+        "Measures the cold start with the adapters of all namespaces.",
+        coldStartTask);
+    return coldStartTask;
+  }
+
+  /*
+   * The library version comes first, so that it takes precedence over any version on the runtime
+   * classpath of the target source set.
+   */
+  private void addColdStartTarget(
+      @Nonnull TaskProvider<ColdStartBenchmark> coldStartTask,
+      @Nonnull String version,
+      @Nonnull Configuration compileAndTestOnlyConfiguration) {
+    coldStartTask.configure(
+        task -> {
+          final ColdStartTarget target = project.getObjects().newInstance(ColdStartTarget.class);
+          target.getVersion().set(version);
+          target
+              .getClasspath()
+              .from(
+                  compileAndTestOnlyConfiguration,
+                  project
+                      .getExtensions()
+                      .getByType(SourceSetContainer.class)
+                      .getByName(task.getName())
+                      .getRuntimeClasspath());
+          task.getTargets().add(target);
+        });
+  }
+
+  private void registerDispatcherGeneration(
+      @Nonnull String capitalizedNamespace,
+      @Nonnull String dispatcherClassName,
+      @Nonnull Set<String> versions,
+      @Nonnull NamedDomainObjectProvider<SourceSet> compatApiSourceSetProvider) {
+    /* Validates the class name while configuring, rather than when the task is executed. */
+    AdapterDispatcherSource.generate(dispatcherClassName, versions);
+    final TaskProvider<GenerateAdapterDispatcher> generateTask =
+        project
+            .getTasks()
+            .register(
+                "generateCompat" + capitalizedNamespace + "Dispatcher",
+                GenerateAdapterDispatcher.class,
+                task -> {
+                  task.setDescription(
+                      "Generates the class that instantiates the "
+                          + capitalizedNamespace
+                          + " adapter matching a runtime version.");
+                  task.getClassName().set(dispatcherClassName);
+                  task.getVersions().set(versions);
+                  task.getOutputDirectory()
+                      .set(
+                          project
+                              .getLayout()
+                              .getBuildDirectory()
+                              .dir(
+                                  "generated/sources/version-compatibility/compat"
+                                      + capitalizedNamespace
+                                      + "Api/java"));
+                });
+    compatApiSourceSetProvider.configure(
+        sourceSet ->
+            sourceSet
+                .getJava()
+                .srcDir(generateTask.flatMap(GenerateAdapterDispatcher::getOutputDirectory)));
+  }
+
+  @Nonnull
+  private TaskProvider<Task> registerLinkageCheckLifecycleTask() {
+    return project
+        .getTasks()
+        .register(
+            LINKAGE_CHECK_TASK_NAME,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription(
+                  "Checks the linkage of the production classes with all compatibility test"
+                      + " classpaths.");
+            });
+  }
+
+  private TaskProvider<Task> registerCompatibilityAdapterTestLifecycleTask() {
+    return project
+        .getTasks()
+        .register(
+            TEST_COMPATIBILITY_ADAPTERS_TASK_NAME,
+            task -> {
+              task.setGroup("verification");
+              task.setDescription("Runs all compatibility adapter tests.");
+            });
   }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.Serializable;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Matches a single version of a dimension. The pattern is either
+ *
+ * <ul>
+ *   <li>a version range such as "[8.0,8.3)" or "[9,)", where brackets are inclusive and parentheses
+ *       are exclusive, and the versions are ordered by {@link VersionComparator},
+ *   <li>a glob such as "9.*", where "*" matches any sequence of characters, or
+ *   <li>an exact version.
+ * </ul>
+ */
+public final class VersionPattern implements Serializable {
+  private static final long serialVersionUID = 1L;
+  private static final VersionComparator COMPARATOR = new VersionComparator();
+
+  private enum Kind {
+    EXACT,
+    GLOB,
+    RANGE
+  }
+
+  private final String pattern;
+  private final Kind kind;
+  @Nullable private final String lowerBound;
+  private final boolean lowerInclusive;
+  @Nullable private final String upperBound;
+  private final boolean upperInclusive;
+
+  private VersionPattern(
+      @Nonnull String pattern,
+      @Nonnull Kind kind,
+      @Nullable String lowerBound,
+      boolean lowerInclusive,
+      @Nullable String upperBound,
+      boolean upperInclusive) {
+    this.pattern = pattern;
+    this.kind = kind;
+    this.lowerBound = lowerBound;
+    this.lowerInclusive = lowerInclusive;
+    this.upperBound = upperBound;
+    this.upperInclusive = upperInclusive;
+  }
+
+  /**
+   * Parses a version pattern.
+   *
+   * @param pattern the pattern.
+   * @return the parsed pattern.
+   */
+  @Nonnull
+  public static VersionPattern parse(@Nonnull String pattern) {
+    if (pattern.startsWith("[") || pattern.startsWith("(")) {
+      return parseRange(pattern);
+    } else if (pattern.indexOf('*') >= 0) {
+      return new VersionPattern(pattern, Kind.GLOB, null, false, null, false);
+    }
+    return new VersionPattern(pattern, Kind.EXACT, null, false, null, false);
+  }
+
+  @Nonnull
+  private static VersionPattern parseRange(@Nonnull String pattern) {
+    final int separator = pattern.indexOf(',');
+    if (separator < 0 || !(pattern.endsWith("]") || pattern.endsWith(")"))) {
+      throw new IllegalArgumentException("Invalid version range " + pattern);
+    }
+    final String lower = pattern.substring(1, separator).trim();
+    final String upper = pattern.substring(separator + 1, pattern.length() - 1).trim();
+    return new VersionPattern(
+        pattern,
+        Kind.RANGE,
+        lower.isEmpty() ? null : lower,
+        pattern.charAt(0) == '[',
+        upper.isEmpty() ? null : upper,
+        pattern.charAt(pattern.length() - 1) == ']');
+  }
+
+  /**
+   * Checks whether a version matches the pattern.
+   *
+   * @param version the version.
+   * @return true if the version matches.
+   */
+  public boolean matches(@Nonnull String version) {
+    switch (kind) {
+      case RANGE:
+        return isAboveLowerBound(version) && isBelowUpperBound(version);
+      case GLOB:
+        return globMatches(pattern, version);
+      default:
+        return pattern.equals(version);
+    }
+  }
+
+  private boolean isAboveLowerBound(@Nonnull String version) {
+    if (lowerBound == null) {
+      return true;
+    }
+    final int comparison = COMPARATOR.compare(version, lowerBound);
+    return comparison > 0 || (lowerInclusive && comparison == 0);
+  }
+
+  private boolean isBelowUpperBound(@Nonnull String version) {
+    if (upperBound == null) {
+      return true;
+    }
+    final int comparison = COMPARATOR.compare(version, upperBound);
+    return comparison < 0 || (upperInclusive && comparison == 0);
+  }
+
+  /* Greedy wildcard matching, backtracking to the most recent '*' on mismatch. */
+  private static boolean globMatches(@Nonnull String glob, @Nonnull String version) {
+    int globIndex = 0;
+    int versionIndex = 0;
+    int starIndex = -1;
+    int starVersionIndex = 0;
+    while (versionIndex < version.length()) {
+      if (globIndex < glob.length() && glob.charAt(globIndex) == '*') {
+        starIndex = globIndex;
+        starVersionIndex = versionIndex;
+        globIndex++;
+      } else if (globIndex < glob.length()
+          && glob.charAt(globIndex) == version.charAt(versionIndex)) {
+        globIndex++;
+        versionIndex++;
+      } else if (starIndex >= 0) {
+        globIndex = starIndex + 1;
+        starVersionIndex++;
+        versionIndex = starVersionIndex;
+      } else {
+        return false;
+      }
+    }
+    while (globIndex < glob.length() && glob.charAt(globIndex) == '*') {
+      globIndex++;
+    }
+    return globIndex == glob.length();
+  }
+
+  @Override
+  public String toString() {
+    return pattern;
+  }
+}
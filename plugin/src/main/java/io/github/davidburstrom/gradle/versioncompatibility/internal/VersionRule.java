@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * A declarative rule that matches the version tuples where each of the given dimensions matches at
+ * least one of its {@link VersionPattern}s. Dimensions that aren't mentioned match any version.
+ */
+public final class VersionRule implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final String[] dimensionNames;
+  private final VersionPattern[][] patterns;
+
+  private VersionRule(@Nonnull String[] dimensionNames, @Nonnull VersionPattern[]... patterns) {
+    this.dimensionNames = dimensionNames;
+    this.patterns = patterns;
+  }
+
+  /**
+   * Creates a rule from version patterns keyed by dimension name. Each value is either a pattern
+   * string or an {@link Iterable} of alternative pattern strings.
+   *
+   * @param dimensionPatterns the patterns.
+   * @return the rule.
+   */
+  @Nonnull
+  public static VersionRule of(@Nonnull Map<String, ?> dimensionPatterns) {
+    if (dimensionPatterns.isEmpty()) {
+      throw new IllegalArgumentException("At least one dimension must be given");
+    }
+    final String[] dimensionNames = new String[dimensionPatterns.size()];
+    final VersionPattern[][] patterns = new VersionPattern[dimensionPatterns.size()][];
+    int index = 0;
+    for (Map.Entry<String, ?> entry : dimensionPatterns.entrySet()) {
+      dimensionNames[index] = entry.getKey();
+      patterns[index] = parsePatterns(entry.getKey(), entry.getValue());
+      index++;
+    }
+    return new VersionRule(dimensionNames, patterns);
+  }
+
+  @Nonnull
+  private static VersionPattern[] parsePatterns(@Nonnull String dimensionName, Object value) {
+    final List<VersionPattern> result = new ArrayList<>();
+    if (value instanceof CharSequence) {
+      result.add(VersionPattern.parse(value.toString()));
+    } else if (value instanceof Iterable) {
+      for (Object pattern : (Iterable<?>) value) {
+        if (!(pattern instanceof CharSequence)) {
+          throw new IllegalArgumentException(
+              "Expected a version pattern for " + dimensionName + ", got " + pattern);
+        }
+        result.add(VersionPattern.parse(pattern.toString()));
+      }
+    } else {
+      throw new IllegalArgumentException(
+          "Expected a version pattern for " + dimensionName + ", got " + value);
+    }
+    if (result.isEmpty()) {
+      throw new IllegalArgumentException("No version patterns given for " + dimensionName);
+    }
+    return result.toArray(new VersionPattern[0]);
+  }
+
+  int getDimensionCount() {
+    return dimensionNames.length;
+  }
+
+  @Nonnull
+  String getDimensionName(int index) {
+    return dimensionNames[index];
+  }
+
+  boolean matches(int index, @Nonnull String version) {
+    for (VersionPattern pattern : patterns[index]) {
+      if (pattern.matches(version)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
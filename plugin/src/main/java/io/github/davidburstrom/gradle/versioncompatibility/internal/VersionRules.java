@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+
+/**
+ * Evaluates exclusion and inclusion rules against tuple prefixes, i.e. the versions of the first n
+ * dimensions, so that whole branches of the Cartesian product can be skipped.
+ *
+ * <p>A prefix is rejected if an exclusion rule matches it completely, or if there are inclusion
+ * rules and none of them can match any tuple that starts with the prefix.
+ */
+public final class VersionRules implements Predicate<List<String>> {
+  private final List<BoundRule> exclusions;
+  private final List<BoundRule> inclusions;
+
+  public VersionRules(
+      @Nonnull List<String> dimensionNames,
+      @Nonnull List<VersionRule> exclusionRules,
+      @Nonnull List<VersionRule> inclusionRules) {
+    exclusions = bind(dimensionNames, exclusionRules);
+    inclusions = bind(dimensionNames, inclusionRules);
+  }
+
+  @Nonnull
+  private static List<BoundRule> bind(
+      @Nonnull List<String> dimensionNames, @Nonnull List<VersionRule> rules) {
+    final List<BoundRule> result = new ArrayList<>();
+    for (VersionRule rule : rules) {
+      final int[] patternIndices = new int[dimensionNames.size()];
+      Arrays.fill(patternIndices, -1);
+      int lastDimension = -1;
+      for (int index = 0; index < rule.getDimensionCount(); index++) {
+        final int dimension = dimensionNames.indexOf(rule.getDimensionName(index));
+        if (dimension < 0) {
+          throw new IllegalArgumentException(
+              "Unknown dimension " + rule.getDimensionName(index) + " in version rule");
+        }
+        patternIndices[dimension] = index;
+        lastDimension = Math.max(lastDimension, dimension);
+      }
+      result.add(new BoundRule(rule, patternIndices, lastDimension));
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether any tuple starting with the given prefix may be retained.
+   *
+   * @param prefix the versions of the first {@code prefix.size()} dimensions.
+   * @return false if all tuples starting with the prefix are rejected.
+   */
+  @Override
+  public boolean test(@Nonnull List<String> prefix) {
+    final int depth = prefix.size() - 1;
+    for (BoundRule exclusion : exclusions) {
+      if (exclusion.lastDimension == depth && exclusion.matches(prefix)) {
+        return false;
+      }
+    }
+    if (inclusions.isEmpty()) {
+      return true;
+    }
+    for (BoundRule inclusion : inclusions) {
+      if (inclusion.matches(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+  private static final class BoundRule {
+    private final VersionRule rule;
+    private final int[] patternIndices;
+    final int lastDimension;
+
+    BoundRule(@Nonnull VersionRule rule, @Nonnull int[] patternIndices, int lastDimension) {
+      this.rule = rule;
+      this.patternIndices = patternIndices;
+      this.lastDimension = lastDimension;
+    }
+
+    /* Only the dimensions that are part of the prefix are considered. */
+    boolean matches(@Nonnull List<String> prefix) {
+      for (int dimension = 0; dimension < prefix.size(); dimension++) {
+        final int patternIndex = patternIndices[dimension];
+        if (patternIndex >= 0 && !rule.matches(patternIndex, prefix.get(dimension))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
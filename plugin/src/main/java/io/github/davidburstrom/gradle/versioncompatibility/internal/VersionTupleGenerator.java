@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+
+/**
+ * Enumerates the Cartesian product of the version dimensions like an odometer, i.e. the last
+ * dimension varies the fastest.
+ *
+ * <p>Each candidate tuple is presented to the filters through a single reusable, read-only view, so
+ * only the tuples that are retained are allocated. The enumeration is depth first, so that rejected
+ * prefixes prune all tuples that start with them.
+ */
+public class VersionTupleGenerator {
+  private final NamedVersion[][] namedVersions;
+  private final String[][] versions;
+
+  public VersionTupleGenerator(
+      @Nonnull List<String> dimensionNames, @Nonnull List<List<String>> dimensionVersions) {
+    if (dimensionNames.size() != dimensionVersions.size()) {
+      throw new IllegalArgumentException(
+          "Expected one list of versions per dimension, got "
+              + dimensionVersions.size()
+              + " for "
+              + dimensionNames.size()
+              + " dimensions");
+    }
+    final int dimensionCount = dimensionNames.size();
+    namedVersions = new NamedVersion[dimensionCount][];
+    versions = new String[dimensionCount][];
+    for (int dimension = 0; dimension < dimensionCount; dimension++) {
+      final List<String> dimensionVersionList = dimensionVersions.get(dimension);
+      versions[dimension] = dimensionVersionList.toArray(new String[0]);
+      namedVersions[dimension] = new NamedVersion[versions[dimension].length];
+      for (int index = 0; index < versions[dimension].length; index++) {
+        namedVersions[dimension][index] =
+            new NamedVersion(dimensionNames.get(dimension), versions[dimension][index]);
+      }
+    }
+  }
+
+  /**
+   * Generates the tuples that all the filters retain, in odometer order.
+   *
+   * <p>The prefix filter is given the versions of the first n dimensions, for n = 1, 2, ..., and if
+   * it returns false, all tuples starting with that prefix are skipped without being enumerated.
+   * The filters are then given the complete tuples.
+   *
+   * <p>Both kinds of filters are given a read-only view of the current tuple (prefix), which is
+   * only valid during the invocation and must not be retained.
+   *
+   * @param prefixFilter the filter to apply to each tuple prefix.
+   * @param filters the filters to apply to each complete tuple, in order.
+   * @return the retained tuples.
+   */
+  @Nonnull
+  @SuppressWarnings("PMD.LooseCoupling")
+  public List<List<NamedVersion>> generate(
+      @Nonnull Predicate<List<String>> prefixFilter,
+      @Nonnull List<Predicate<List<String>>> filters) {
+    final List<List<NamedVersion>> result = new ArrayList<>();
+    final int[] indices = new int[versions.length];
+    final TupleView view = new TupleView(versions, indices);
+    if (versions.length == 0) {
+      if (allMatch(filters, view)) {
+        result.add(Collections.emptyList());
+      }
+      return result;
+    }
+
+    int depth = 0;
+    while (depth >= 0) {
+      if (indices[depth] == versions[depth].length) {
+        /* All versions of this dimension are exhausted, so backtrack. */
+        indices[depth] = 0;
+        depth--;
+        if (depth >= 0) {
+          indices[depth]++;
+        }
+      } else {
+        view.setSize(depth + 1);
+        if (!prefixFilter.test(view)) {
+          indices[depth]++;
+        } else if (depth == versions.length - 1) {
+          if (allMatch(filters, view)) {
+            result.add(materialize(indices));
+          }
+          indices[depth]++;
+        } else {
+          depth++;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static boolean allMatch(
+      @Nonnull List<Predicate<List<String>>> filters, @Nonnull List<String> tuple) {
+    for (Predicate<List<String>> filter : filters) {
+      if (!filter.test(tuple)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Nonnull
+  private List<NamedVersion> materialize(@Nonnull int... indices) {
+    final NamedVersion[] tuple = new NamedVersion[indices.length];
+    for (int dimension = 0; dimension < indices.length; dimension++) {
+      tuple[dimension] = namedVersions[dimension][indices[dimension]];
+    }
+    return Collections.unmodifiableList(Arrays.asList(tuple));
+  }
+
+  @SuppressWarnings({"PMD.ArrayIsStoredDirectly", "PMD.UseVarargs"})
+  private static final class TupleView extends AbstractList<String> implements RandomAccess {
+    private final String[][] versions;
+    private final int[] indices;
+    private int length;
+
+    TupleView(@Nonnull String[][] versions, @Nonnull int[] indices) {
+      this.versions = versions;
+      this.indices = indices;
+      this.length = indices.length;
+    }
+
+    void setSize(int size) {
+      this.length = size;
+    }
+
+    @Override
+    public String get(int index) {
+      return versions[index][indices[index]];
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
+  }
+}
@@ -20,11 +20,39 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.truth.Correspondence;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.AggregateCompatibilityResults;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.CheckCompatibilityLinkage;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.CheckCompatibilityPerformance;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.ColdStartBenchmark;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.ColdStartTarget;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.CompareAdapterBenchmarks;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.CompatibilityReportTuple;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.ConfigurationProfileService;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.ExportCompatibilityRepository;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.FailFastService;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.GenerateAdapterDispatcher;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.GenerateCompatibilityReport;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.ResolveCompatibilityClasspaths;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.SelectCompatibilityTests;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.SharedJvmCompatibilityTest;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.SharedJvmTuple;
+import io.github.davidburstrom.gradle.versioncompatibility.internal.UpdateCompatibilityBaseline;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
@@ -33,7 +61,9 @@ import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.DependencySet;
 import org.gradle.api.artifacts.FileCollectionDependency;
+import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.JavaExec;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.SourceSetOutput;
@@ -85,6 +115,197 @@ class VersionCompatibilityPluginTest {
     assertThat(sourceSetContainer.getByName("testCompatDummy1Dot0")).isNotNull();
   }
 
+  @Test
+  void generatesAdapterDispatcher() throws IOException {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(
+        ac ->
+            ac.getNamespaces()
+                .register(
+                    "dummy",
+                    ns -> {
+                      ns.getVersions().addAll("1.0", "1.10", "1.5");
+                      ns.getDispatcherClassName().set("a.DummyAdapters");
+                    }));
+
+    final GenerateAdapterDispatcher task =
+        (GenerateAdapterDispatcher) project.getTasks().getByName("generateCompatDummyDispatcher");
+    final File outputDirectory = task.getOutputDirectory().get().getAsFile();
+    assertThat(
+            project
+                .getExtensions()
+                .getByType(SourceSetContainer.class)
+                .getByName("compatDummyApi")
+                .getJava()
+                .getSrcDirs())
+        .contains(outputDirectory);
+    final File staleFile = new File(outputDirectory, "a/Stale.java");
+    Files.createDirectories(staleFile.getParentFile().toPath());
+    Files.write(staleFile.toPath(), new byte[0]);
+
+    task.generate();
+
+    assertThat(staleFile.exists()).isFalse();
+    assertThat(
+            new String(
+                Files.readAllBytes(new File(outputDirectory, "a/DummyAdapters.java").toPath()),
+                StandardCharsets.UTF_8))
+        .contains("VERSIONS = {\"1.10\", \"1.5\", \"1.0\"};");
+  }
+
+  @Test
+  void rejectsInvalidDispatcherClassName() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    final IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                extension.adapters(
+                    ac ->
+                        ac.getNamespaces()
+                            .register(
+                                "dummy",
+                                ns -> {
+                                  ns.getVersions().add("1.0");
+                                  ns.getDispatcherClassName().set("a.1Adapters");
+                                })));
+    assertThat(exception.getMessage()).isEqualTo("Invalid dispatcher class name: a.1Adapters");
+  }
+
+  @Test
+  void registersAdapterBenchmarks() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(
+        ac -> {
+          ac.getNamespaces()
+              .register(
+                  "dummy",
+                  ns -> {
+                    ns.getVersions().addAll("1.0", "2.0");
+                    ns.getBenchmarks().set(true);
+                  });
+          ac.getNamespaces()
+              .register(
+                  "other",
+                  ns -> {
+                    ns.getVersions().add("1.0");
+                    ns.getBenchmarks().set(true);
+                  });
+          ac.getNamespaces().register("plain", ns -> ns.getVersions().add("1.0"));
+        });
+
+    final SourceSetContainer sourceSetContainer =
+        project.getExtensions().getByType(SourceSetContainer.class);
+    final SourceSet benchmarkSourceSet = sourceSetContainer.getByName("jmhCompatDummy1Dot0");
+    final ConfigurationContainer configurations = project.getConfigurations();
+    assertThat(
+            configurations
+                .getByName(benchmarkSourceSet.getImplementationConfigurationName())
+                .getExtendsFrom())
+        .containsAtLeast(
+            configurations.getByName("compatDummy1Dot0CompileAndTestOnly"),
+            configurations.getByName("jmhCommonImplementation"));
+    assertThat(
+            configurations
+                .getByName(benchmarkSourceSet.getAnnotationProcessorConfigurationName())
+                .getExtendsFrom())
+        .contains(configurations.getByName("jmhCommonAnnotationProcessor"));
+    assertThat(sourceSetContainer.findByName("jmhCompatPlain1Dot0")).isNull();
+
+    final JavaExec benchmarkTask = (JavaExec) project.getTasks().getByName("jmhCompatDummy1Dot0");
+    final File resultFile =
+        new File(
+            project.getLayout().getBuildDirectory().get().getAsFile(),
+            "reports/jmh-compat/Dummy/1.0.json");
+    assertThat(benchmarkTask.getMainClass().get()).isEqualTo("org.openjdk.jmh.Main");
+    assertThat(benchmarkTask.getArgs())
+        .containsExactly("-prof", "gc", "-rf", "json", "-rff", resultFile.getAbsolutePath())
+        .inOrder();
+    assertThat(benchmarkTask.getOutputs().getFiles().getFiles()).containsExactly(resultFile);
+
+    final CompareAdapterBenchmarks compareTask =
+        (CompareAdapterBenchmarks) project.getTasks().getByName("compareCompatDummyBenchmarks");
+    assertThat(compareTask.getResultFiles().getFiles())
+        .containsExactly(resultFile, new File(resultFile.getParentFile(), "2.0.json"))
+        .inOrder();
+    assertThat(
+            project
+                .getTasks()
+                .getByName("jmhCompatibilityAdapters")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .containsExactly(compareTask, project.getTasks().getByName("compareCompatOtherBenchmarks"));
+  }
+
+  @Test
+  void registersColdStartBenchmark() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(
+        ac -> {
+          ac.getNamespaces()
+              .register(
+                  "dummy",
+                  ns -> {
+                    ns.getVersions().addAll("1.0", "2.0");
+                    ns.getColdStartClassName().set("example.ColdStart");
+                  });
+          ac.getNamespaces().register("plain", ns -> ns.getVersions().add("1.0"));
+        });
+
+    final SourceSetContainer sourceSetContainer =
+        project.getExtensions().getByType(SourceSetContainer.class);
+    final SourceSet coldStartSourceSet = sourceSetContainer.getByName("coldStartCompatDummy");
+    final ConfigurationContainer configurations = project.getConfigurations();
+    assertThat(
+            configurations
+                .getByName(coldStartSourceSet.getImplementationConfigurationName())
+                .getExtendsFrom())
+        .contains(configurations.getByName("implementation"));
+    assertThat(sourceSetContainer.findByName("coldStartCompatPlain")).isNull();
+
+    final ColdStartBenchmark coldStartTask =
+        (ColdStartBenchmark) project.getTasks().getByName("coldStartCompatDummy");
+    assertThat(coldStartTask.getClassName().get()).isEqualTo("example.ColdStart");
+    assertThat(coldStartTask.getForks().get()).isEqualTo(50);
+    assertThat(coldStartTask.getReportFile().get().getAsFile())
+        .isEqualTo(
+            new File(
+                project.getLayout().getBuildDirectory().get().getAsFile(),
+                "reports/cold-start-compat/Dummy.md"));
+    assertThat(coldStartTask.getTargets()).hasSize(2);
+    final ColdStartTarget target = coldStartTask.getTargets().get(0);
+    assertThat(target.getVersion().get()).isEqualTo("1.0");
+    assertThat(target.getClasspath().getFrom())
+        .contains(configurations.getByName("compatDummy1Dot0CompileAndTestOnly"));
+    assertThat(
+            project
+                .getTasks()
+                .getByName("coldStartCompatibilityAdapters")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .containsExactly(coldStartTask);
+  }
+
   @Test
   void canRegisterMultipleAdaptersWithUniqueNamespaces() {
     Project project = ProjectBuilder.builder().build();
@@ -161,183 +382,1294 @@ class VersionCompatibilityPluginTest {
   }
 
   @Test
-  void mainImplementationDependsOnVersionSourceSetOutput() {
+  void mainImplementationDependsOnVersionSourceSetOutput() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+
+    final DependencySet implementation =
+        project.getConfigurations().getByName("implementation").getDependencies();
+    assertThat(implementation)
+        .comparingElementsUsing(
+            Correspondence.from(
+                (Dependency d, Class<?> c) ->
+                    c.isAssignableFrom(((FileCollectionDependency) d).getFiles().getClass()),
+                "is subtype of"))
+        .contains(SourceSetOutput.class);
+  }
+
+  @Test
+  void commonConfigurationsAreDefined() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+
+    assertThat(project.getConfigurations().findByName("commonImplementation")).isNotNull();
+    assertThat(project.getConfigurations().findByName("commonCompileOnly")).isNotNull();
+    assertThat(project.getConfigurations().findByName("testCommonImplementation")).isNotNull();
+    assertThat(project.getConfigurations().findByName("testCommonRuntimeOnly")).isNotNull();
+  }
+
+  @Test
+  void commonConfigurationsExtendsFromApiIfAvailable() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+
+    final Set<Configuration> extendsFrom =
+        project.getConfigurations().getByName("commonImplementation").getExtendsFrom();
+    assertThat(extendsFrom)
+        .comparingElementsUsing(
+            Correspondence.transforming(Configuration::getName, "has a name of"))
+        .containsExactly(JavaPlugin.API_CONFIGURATION_NAME);
+  }
+
+  @Test
+  void customSourceSetHasCompatAdaptersOnImplementationClasspath() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final SourceSetContainer sourceSetContainer =
+        project.getExtensions().getByType(SourceSetContainer.class);
+    sourceSetContainer.create("custom");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(
+        ac ->
+            ac.getNamespaces()
+                .register(
+                    "",
+                    ns -> {
+                      ns.getVersions().add("1.0");
+                      ns.getTargetSourceSetName().set("custom");
+                    }));
+
+    final DependencySet implementation =
+        project.getConfigurations().getByName("customImplementation").getDependencies();
+    assertThat(implementation)
+        .comparingElementsUsing(
+            Correspondence.from(
+                (Dependency d, Class<?> c) ->
+                    c.isAssignableFrom(((FileCollectionDependency) d).getFiles().getClass()),
+                "is subtype of"))
+        .contains(SourceSetOutput.class);
+  }
+
+  @Test
+  void versionSourceSetsExtendsFromCommon() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+
+    final Set<Configuration> extendsFrom =
+        project.getConfigurations().getByName("compat1Dot0CompileOnly").getExtendsFrom();
+    assertThat(extendsFrom)
+        .comparingElementsUsing(
+            Correspondence.transforming(Configuration::getName, "has a name of"))
+        .contains("commonCompileOnly");
+  }
+
+  @Test
+  void versionSourceSetsExtendsFromCompileAndTestOnlyConfiguration() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+
+    final Set<Configuration> extendsFrom =
+        project.getConfigurations().getByName("compat1Dot0CompileOnly").getExtendsFrom();
+    assertThat(extendsFrom)
+        .comparingElementsUsing(
+            Correspondence.transforming(Configuration::getName, "has a name of"))
+        .contains("compat1Dot0CompileAndTestOnly");
+  }
+
+  @Test
+  void versionTestSourceSetsExtendsFromCompileAndTestOnlyConfiguration() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+
+    final Set<Configuration> extendsFrom =
+        project.getConfigurations().getByName("testCompat1Dot0Implementation").getExtendsFrom();
+    assertThat(extendsFrom)
+        .comparingElementsUsing(
+            Correspondence.transforming(Configuration::getName, "has a name of"))
+        .contains("compat1Dot0CompileAndTestOnly");
+  }
+
+  @Test
+  void compatibilityTestTaskIsCreated() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("dim", dc -> dc.getVersions().add("1.0")));
+    final org.gradle.api.tasks.testing.Test compatibilityTestWithDim1Dot0Task =
+        (org.gradle.api.tasks.testing.Test)
+            project.getTasks().findByName("testCompatibilityWithDim1Dot0");
+    assertThat(compatibilityTestWithDim1Dot0Task).isNotNull();
+    assertThat(compatibilityTestWithDim1Dot0Task.getGroup()).isEqualTo("verification");
+    assertThat(compatibilityTestWithDim1Dot0Task.getDescription())
+        .isEqualTo("Runs compatibility test with dim 1.0.");
+
+    // Uses the project classes from the test source set
+    project
+        .getConfigurations()
+        .getByName("testCompatibilityWithDim1Dot0RuntimeOnly")
+        .getDependencies()
+        .add(project.getDependencies().create(project.files("dummy")));
+    final SourceSetContainer sourceSetContainer =
+        project.getExtensions().getByType(SourceSetContainer.class);
+    assertThat(compatibilityTestWithDim1Dot0Task.getTestClassesDirs())
+        .isEqualTo(sourceSetContainer.getByName("test").getOutput().getClassesDirs());
+    assertThat(compatibilityTestWithDim1Dot0Task.getClasspath().getFiles()).hasSize(5);
+  }
+
+  @Test
+  void compatibilityTestTaskIsCreatedWithDimensionOrderBasedOnAdditionOrder() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().add("1.0"));
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimB", dc -> dc.getVersions().add("1.0"));
+        });
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB1Dot0"))
+        .isNotNull();
+
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dim2B", dc -> dc.getVersions().add("1.0"));
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dim2A", dc -> dc.getVersions().add("1.0"));
+        });
+    assertThat(project.getTasks().findByName("testCompatibilityWithDim2B1Dot0AndDim2A1Dot0"))
+        .isNotNull();
+  }
+
+  @Test
+  void versionsCanBeFiltered() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimB", dc -> dc.getVersions().addAll("3.0", "4.0"));
+          compatibilityTestConfig.filter(versionTuple -> versionTuple.get(0).equals("2.0"));
+        });
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB3Dot0"))
+        .isNull();
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB4Dot0"))
+        .isNull();
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA2Dot0AndDimB3Dot0"))
+        .isNotNull();
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA2Dot0AndDimB4Dot0"))
+        .isNotNull();
+  }
+
+  @Test
+  void versionsCanBeExcludedByRules() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimB", dc -> dc.getVersions().addAll("3.0", "4.0"));
+          compatibilityTestConfig.exclude(
+              ImmutableMap.of("dimA", "1.0", "dimB", Arrays.asList("3.*", "[4.0,5.0)")));
+          compatibilityTestConfig.exclude(ImmutableMap.of("dimB", "(,4.0)", "dimA", "2.0"));
+        });
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB3Dot0"))
+        .isNull();
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB4Dot0"))
+        .isNull();
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA2Dot0AndDimB3Dot0"))
+        .isNull();
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA2Dot0AndDimB4Dot0"))
+        .isNotNull();
+  }
+
+  @Test
+  void versionsCanBeIncludedByRules() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimB", dc -> dc.getVersions().addAll("3.0", "4.0"));
+          compatibilityTestConfig.include(ImmutableMap.of("dimA", "1.0", "dimB", "3.0"));
+          compatibilityTestConfig.include(ImmutableMap.of("dimA", "[2,)"));
+          compatibilityTestConfig.filter(versionTuple -> versionTuple.get(1).equals("4.0"));
+        });
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB3Dot0"))
+        .isNull();
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB4Dot0"))
+        .isNull();
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA2Dot0AndDimB3Dot0"))
+        .isNull();
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA2Dot0AndDimB4Dot0"))
+        .isNotNull();
+  }
+
+  @Test
+  void cannotReferToUnknownDimensionsInRules() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    final IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                extension.tests(
+                    compatibilityTestConfig -> {
+                      compatibilityTestConfig
+                          .getDimensions()
+                          .register("dimA", dc -> dc.getVersions().add("1.0"));
+                      compatibilityTestConfig.exclude(ImmutableMap.of("dimC", "1.0"));
+                    }));
+    assertThat(exception.getMessage()).isEqualTo("Unknown dimension dimC in version rule");
+  }
+
+  @Test
+  void versionsCanBeReducedToPairwiseCoverage() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimB", dc -> dc.getVersions().addAll("3.0", "4.0"));
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimC", dc -> dc.getVersions().addAll("5.0", "6.0"));
+          compatibilityTestConfig.pairwise();
+        });
+    assertThat(
+            project.getTasks().getNames().stream()
+                .filter(name -> name.startsWith("testCompatibilityWith"))
+                .count())
+        .isEqualTo(4L);
+    assertThat(
+            project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB3Dot0AndDimC5Dot0"))
+        .isNotNull();
+    assertThat(
+            project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB3Dot0AndDimC6Dot0"))
+        .isNull();
+  }
+
+  @Test
+  void coverageStrengthMustBePositive() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    final IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> extension.tests(compatibilityTestConfig -> compatibilityTestConfig.nWise(0)));
+    assertThat(exception.getMessage()).isEqualTo("The coverage strength must be positive, got 0");
+  }
+
+  @Test
+  void sampledVersionsAreWiredToLifecycleTask() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0", "3.0", "4.0"));
+          compatibilityTestConfig.getSampleSize().set(2);
+          compatibilityTestConfig.getSampleSeed().set("seed");
+        });
+    final Set<? extends Task> sampledTasks =
+        project
+            .getTasks()
+            .getByName("testCompatibility")
+            .getTaskDependencies()
+            .getDependencies(null);
+    final Task lifecycleCompatibilityTestAll = project.getTasks().getByName("testCompatibilityAll");
+    assertThat(lifecycleCompatibilityTestAll.getGroup()).isEqualTo("verification");
+    assertThat(lifecycleCompatibilityTestAll.getDescription())
+        .isEqualTo("Runs all compatibility tests, regardless of sampling.");
+    final Set<? extends Task> allTasks =
+        lifecycleCompatibilityTestAll.getTaskDependencies().getDependencies(null);
+    assertThat(sampledTasks).hasSize(2);
+    assertThat(allTasks).hasSize(4);
+    assertThat(allTasks).containsAtLeastElementsIn(sampledTasks);
+  }
+
+  @Test
+  void sampleSeedIsOnlyQueriedWhenSampling() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    assertDoesNotThrow(
+        () ->
+            extension.tests(
+                compatibilityTestConfig -> {
+                  compatibilityTestConfig
+                      .getDimensions()
+                      .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+                  compatibilityTestConfig.getSampleRatio().set(1.0);
+                  compatibilityTestConfig
+                      .getSampleSeed()
+                      .set(
+                          project.provider(
+                              () -> {
+                                throw new IllegalStateException("Unexpected query");
+                              }));
+                }));
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibility")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .hasSize(2);
+  }
+
+  @Test
+  void shardedVersionsAreWiredToLifecycleTasks() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0", "3.0", "4.0"));
+          compatibilityTestConfig.getShard().set("2/2");
+        });
+    final Set<? extends Task> shardTasks =
+        project
+            .getTasks()
+            .getByName("testCompatibility")
+            .getTaskDependencies()
+            .getDependencies(null);
+    assertThat(shardTasks)
+        .comparingElementsUsing(Correspondence.transforming(Task::getName, "has name"))
+        .containsExactly("testCompatibilityWithDimA2Dot0", "testCompatibilityWithDimA4Dot0");
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibilityAll")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .isEqualTo(shardTasks);
+    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0")).isNotNull();
+  }
+
+  @Test
+  void shardsAreBalancedByDurationHistory() throws IOException {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final File historyFile = new File(project.getProjectDir(), "durations.properties");
+    Files.write(
+        historyFile.toPath(),
+        ("testCompatibilityWithDimA1Dot0=100\n"
+                + "testCompatibilityWithDimA2Dot0=60\n"
+                + "testCompatibilityWithDimA3Dot0=50\n")
+            .getBytes(StandardCharsets.UTF_8));
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0", "3.0"));
+          compatibilityTestConfig.getShard().set("2/2");
+          compatibilityTestConfig.getDurationHistoryFile().set(historyFile);
+        });
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibility")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .comparingElementsUsing(Correspondence.transforming(Task::getName, "has name"))
+        .containsExactly("testCompatibilityWithDimA2Dot0", "testCompatibilityWithDimA3Dot0");
+
+    /* The start is recorded by an action, and the end by the task completion event. */
+    assertThat(project.getTasks().getByName("testCompatibilityWithDimA1Dot0").getActions())
+        .hasSize(2);
+  }
+
+  @Test
+  void shardsIgnoreUnconfiguredDurationHistory() throws IOException {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final File historyFile =
+        project
+            .getLayout()
+            .getBuildDirectory()
+            .file("version-compatibility/test-durations.properties")
+            .get()
+            .getAsFile();
+    Files.createDirectories(historyFile.getParentFile().toPath());
+    Files.write(
+        historyFile.toPath(),
+        ("testCompatibilityWithDimA1Dot0=60\n"
+                + "testCompatibilityWithDimA2Dot0=100\n"
+                + "testCompatibilityWithDimA3Dot0=50\n")
+            .getBytes(StandardCharsets.UTF_8));
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0", "3.0", "4.0"));
+          compatibilityTestConfig.getShard().set("2/2");
+        });
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibility")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .comparingElementsUsing(Correspondence.transforming(Task::getName, "has name"))
+        .containsExactly("testCompatibilityWithDimA2Dot0", "testCompatibilityWithDimA4Dot0");
+  }
+
+  @Test
+  void missingDurationHistoryFallsBackToHashAssignment() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0", "3.0", "4.0"));
+          compatibilityTestConfig.getShard().set("2/2");
+          compatibilityTestConfig
+              .getDurationHistoryFile()
+              .set(new File(project.getProjectDir(), "durations.properties"));
+        });
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibility")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .comparingElementsUsing(Correspondence.transforming(Task::getName, "has name"))
+        .containsExactly("testCompatibilityWithDimA2Dot0", "testCompatibilityWithDimA4Dot0");
+  }
+
+  @Test
+  void invalidShardIsRejected() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    final IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                extension.tests(
+                    compatibilityTestConfig -> compatibilityTestConfig.getShard().set("3/2")));
+    assertThat(exception.getMessage())
+        .isEqualTo(
+            "Invalid shard 3/2, expected <index>/<count> where 1 <= index <= count, e.g. 3/8");
+  }
+
+  @Test
+  void failFastTestTasksAreGuardedByService() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig.getFailFast().set(true);
+        });
+    final TaskInternal task =
+        (TaskInternal) project.getTasks().getByName("testCompatibilityWithDimA1Dot0");
+    final FailFastService service =
+        (FailFastService)
+            project
+                .getGradle()
+                .getSharedServices()
+                .getRegistrations()
+                .getByName("versionCompatibilityFailFast:")
+                .getService()
+                .get();
+
+    /* The task is recorded as started, so its failure makes the service skip the rest. */
+    assertThat(task.getOnlyIf().isSatisfiedBy(task)).isTrue();
+    assertThat(service.shouldRun(":testCompatibilityWithDimA2Dot0")).isTrue();
+  }
+
+  @Test
+  void failFastIsDisabledByDefault() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0")));
+
+    assertThat(project.getGradle().getSharedServices().getRegistrations().getNames())
+        .doesNotContain("versionCompatibilityFailFast:");
+  }
+
+  @Test
+  void duplicateTestTasksAreSkipped() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0", "3.0"));
+          compatibilityTestConfig.getSkipDuplicateTests().set(true);
+          compatibilityTestConfig.eachTestTask(
+              testTaskConfig -> {
+                if (!"3.0".equals(testTaskConfig.getVersions().get(0))) {
+                  testTaskConfig.getTestTask().systemProperty("SOME_PROPERTY", "value");
+                }
+              });
+        });
+    final Function<String, TaskInternal> getTask =
+        version ->
+            (TaskInternal)
+                project.getTasks().getByName("testCompatibilityWithDimA" + version + "Dot0");
+
+    /* Without any dependencies, only the system property tells the test tasks apart. */
+    assertThat(getTask.apply("1").getOnlyIf().isSatisfiedBy(getTask.apply("1"))).isTrue();
+    assertThat(getTask.apply("2").getOnlyIf().isSatisfiedBy(getTask.apply("2"))).isFalse();
+    assertThat(getTask.apply("3").getOnlyIf().isSatisfiedBy(getTask.apply("3"))).isTrue();
+  }
+
+  @Test
+  void ignoredSystemPropertiesDoNotTellDuplicateTestTasksApart() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig.getSkipDuplicateTests().set(true);
+          compatibilityTestConfig.getDuplicateTestsIgnoredSystemProperties().add("DIM_A_VERSION");
+          compatibilityTestConfig.eachTestTask(
+              testTaskConfig ->
+                  testTaskConfig
+                      .getTestTask()
+                      .systemProperty("DIM_A_VERSION", testTaskConfig.getVersions().get(0)));
+        });
+    final Function<String, TaskInternal> getTask =
+        version ->
+            (TaskInternal)
+                project.getTasks().getByName("testCompatibilityWithDimA" + version + "Dot0");
+
+    assertThat(getTask.apply("1").getOnlyIf().isSatisfiedBy(getTask.apply("1"))).isTrue();
+    assertThat(getTask.apply("2").getOnlyIf().isSatisfiedBy(getTask.apply("2"))).isFalse();
+  }
+
+  @Test
+  void duplicateTestTasksAreNotSkippedByDefault() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0")));
+    final TaskInternal task =
+        (TaskInternal) project.getTasks().getByName("testCompatibilityWithDimA2Dot0");
+
+    assertThat(task.getOnlyIf().isSatisfiedBy(task)).isTrue();
+    assertThat(project.getGradle().getSharedServices().getRegistrations().getNames())
+        .doesNotContain("versionCompatibilityDuplicateTests:");
+  }
+
+  @Test
+  void sharedJvmTestTaskRunsTuplesOfTestTasks() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig.getSharedJvm().set(true);
+          compatibilityTestConfig.eachTestTask(
+              testTaskConfig -> {
+                testTaskConfig
+                    .getTestTask()
+                    .systemProperty("VERSION", testTaskConfig.getVersions().get(0));
+                testTaskConfig.getTestTask().jvmArgs("-XX:+UseSerialGC");
+                testTaskConfig.getTestTask().setMaxHeapSize("256m");
+              });
+        });
+
+    final SharedJvmCompatibilityTest sharedJvmTest =
+        (SharedJvmCompatibilityTest) project.getTasks().getByName("testCompatibilityInSharedJvm");
+    assertThat(sharedJvmTest.getGroup()).isEqualTo("verification");
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibility")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .containsExactly(sharedJvmTest);
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibilityAll")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .containsExactly(sharedJvmTest);
+    assertThat(project.getTasks().findByName("testCompatibilityAllInSharedJvm")).isNull();
+
+    final List<SharedJvmTuple> tuples = sharedJvmTest.getTuples();
+    assertThat(tuples).hasSize(2);
+    final SharedJvmTuple tuple = tuples.get(1);
+    final org.gradle.api.tasks.testing.Test testTask =
+        (org.gradle.api.tasks.testing.Test)
+            project.getTasks().getByName("testCompatibilityWithDimA2Dot0");
+    assertThat(tuple.getTupleName().get()).isEqualTo("testCompatibilityWithDimA2Dot0");
+    assertThat(tuple.getSystemProperties().get()).containsEntry("VERSION", "2.0");
+    assertThat(tuple.getJvmArgs().get()).containsExactly("-XX:+UseSerialGC");
+    assertThat(tuple.getMinHeapSize().isPresent()).isFalse();
+    assertThat(tuple.getMaxHeapSize().get()).isEqualTo("256m");
+    assertThat(tuple.getClasspath().getFiles()).isEqualTo(testTask.getClasspath().getFiles());
+    assertThat(tuple.getTestClassesDirs().getFiles())
+        .isEqualTo(testTask.getTestClassesDirs().getFiles());
+    assertThat(tuple.getResultsDirectory().get().getAsFile())
+        .isEqualTo(
+            new File(
+                project.getLayout().getBuildDirectory().get().getAsFile(),
+                "test-results/testCompatibilityInSharedJvm/testCompatibilityWithDimA2Dot0"));
+  }
+
+  @Test
+  void sharedJvmTestTaskRunsAllTuplesWhenSampling() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0", "3.0", "4.0"));
+          compatibilityTestConfig.getSampleSize().set(2);
+          compatibilityTestConfig.getSampleSeed().set("seed");
+          compatibilityTestConfig.getSharedJvm().set(true);
+        });
+
+    assertThat(
+            ((SharedJvmCompatibilityTest)
+                    project.getTasks().getByName("testCompatibilityInSharedJvm"))
+                .getTuples())
+        .hasSize(2);
+    final Task sharedJvmTestAll = project.getTasks().getByName("testCompatibilityAllInSharedJvm");
+    assertThat(((SharedJvmCompatibilityTest) sharedJvmTestAll).getTuples()).hasSize(4);
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibilityAll")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .containsExactly(sharedJvmTestAll);
+  }
+
+  @Test
+  void sharedJvmIsDisabledByDefault() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0")));
+
+    assertThat(project.getTasks().findByName("testCompatibilityInSharedJvm")).isNull();
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibility")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .hasSize(2);
+  }
+
+  @Test
+  void resolveClasspathsTaskReportsUnresolvableTuples() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+    project.getDependencies().add("testRuntimeOnly", "com.example:missing:1.0");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0")));
+
+    final ResolveCompatibilityClasspaths resolveTask =
+        (ResolveCompatibilityClasspaths)
+            project.getTasks().getByName("resolveCompatibilityClasspaths");
+    assertThat(resolveTask.getClasspaths().keySet())
+        .containsExactly("testCompatibilityWithDimA1Dot0", "testCompatibilityWithDimA2Dot0")
+        .inOrder();
+    final GradleException exception = assertThrows(GradleException.class, resolveTask::resolve);
+    assertThat(exception.getMessage()).contains("\n  testCompatibilityWithDimA1Dot0: ");
+    assertThat(exception.getMessage()).contains("\n  testCompatibilityWithDimA2Dot0: ");
+    /* The classpaths are not resolved up front unless requested. */
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibility")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .doesNotContain(resolveTask);
+  }
+
+  @Test
+  void classpathsCanBeResolvedFirst() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig.getResolveClasspathsFirst().set(true);
+        });
+
+    final Task resolveTask = project.getTasks().getByName("resolveCompatibilityClasspaths");
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibility")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .contains(resolveTask);
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibilityAll")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .contains(resolveTask);
+    assertThat(
+            project
+                .getTasks()
+                .getByName("testCompatibilityWithDimA1Dot0")
+                .getMustRunAfter()
+                .getDependencies(null))
+        .containsExactly(resolveTask);
+  }
+
+  @Test
+  void linkageIsCheckedAgainstEachTuple() {
     Project project = ProjectBuilder.builder().build();
-    project.getPlugins().apply("java");
+    project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
 
     final VersionCompatibilityExtension extension =
         project.getExtensions().getByType(VersionCompatibilityExtension.class);
-    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+    extension.tests(
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0")));
 
-    final DependencySet implementation =
-        project.getConfigurations().getByName("implementation").getDependencies();
-    assertThat(implementation)
-        .comparingElementsUsing(
-            Correspondence.from(
-                (Dependency d, Class<?> c) ->
-                    c.isAssignableFrom(((FileCollectionDependency) d).getFiles().getClass()),
-                "is subtype of"))
-        .contains(SourceSetOutput.class);
+    final CheckCompatibilityLinkage linkageCheck =
+        (CheckCompatibilityLinkage)
+            project.getTasks().getByName("checkTestCompatibilityLinkageWithDimA1Dot0");
+    assertThat(linkageCheck.getClasses().getFiles())
+        .containsExactlyElementsIn(
+            project
+                .getExtensions()
+                .getByType(SourceSetContainer.class)
+                .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+                .getOutput()
+                .getClassesDirs()
+                .getFiles());
+    assertThat(linkageCheck.getReportFile().get().getAsFile())
+        .isEqualTo(
+            new File(
+                project.getLayout().getBuildDirectory().get().getAsFile(),
+                "reports/compatibility-linkage/checkTestCompatibilityLinkageWithDimA1Dot0.txt"));
+    assertThat(
+            project
+                .getTasks()
+                .getByName("checkCompatibilityLinkage")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .containsExactly(
+            linkageCheck,
+            project.getTasks().getByName("checkTestCompatibilityLinkageWithDimA2Dot0"));
   }
 
   @Test
-  void commonConfigurationsAreDefined() {
+  void testsAreSelectedByReferenceToTheConstrainedModules() throws IOException {
     Project project = ProjectBuilder.builder().build();
     project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
 
+    final File repository = new File(project.getProjectDir(), "repository");
+    for (String artifactId : Arrays.asList("lib", "other")) {
+      writePom(repository, artifactId, "");
+      final File jar =
+          new File(repository, "com/example/" + artifactId + "/1.0/" + artifactId + "-1.0.jar");
+      try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar.toPath()))) {
+        zip.putNextEntry(new ZipEntry(artifactId + "/README"));
+      }
+      project.getDependencies().add("testRuntimeOnly", "com.example:" + artifactId + ":1.0");
+    }
+    project.getRepositories().maven(r -> r.setUrl(repository.toURI()));
+
     final VersionCompatibilityExtension extension =
         project.getExtensions().getByType(VersionCompatibilityExtension.class);
-    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("lib", dc -> dc.getVersions().add("1.0"));
+          compatibilityTestConfig.eachTestRuntimeOnly(
+              c -> c.addConstraint("com.example:lib:" + c.getVersions().get(0)));
+          compatibilityTestConfig.getSelectTestsByReference().set(true);
+        });
 
-    assertThat(project.getConfigurations().findByName("commonImplementation")).isNotNull();
-    assertThat(project.getConfigurations().findByName("commonCompileOnly")).isNotNull();
-    assertThat(project.getConfigurations().findByName("testCommonImplementation")).isNotNull();
-    assertThat(project.getConfigurations().findByName("testCommonRuntimeOnly")).isNotNull();
+    final SelectCompatibilityTests selection =
+        (SelectCompatibilityTests)
+            project.getTasks().getByName("selectTestCompatibilityTestsWithLib1Dot0");
+    final File buildDirectory = project.getLayout().getBuildDirectory().get().getAsFile();
+    assertThat(selection.getSelectionFile().get().getAsFile())
+        .isEqualTo(
+            new File(
+                buildDirectory,
+                "version-compatibility/test-selections/"
+                    + "selectTestCompatibilityTestsWithLib1Dot0.txt"));
+    assertThat(selection.getTestClasses().getFiles())
+        .containsExactly(new File(buildDirectory, "classes/java/test"));
+    assertThat(selection.getProductionClasses().getFiles())
+        .containsExactly(new File(buildDirectory, "classes/java/main"));
+    assertThat(
+            selection.getDependencySymbolIndexes().getFiles().stream()
+                .map(File::getName)
+                .collect(Collectors.toList()))
+        .containsExactly("lib-1.0.jar.symbols");
+
+    final Task testTask = project.getTasks().getByName("testCompatibilityWithLib1Dot0");
+    assertThat(testTask.getTaskDependencies().getDependencies(null)).contains(selection);
+    /* The test selection filter is added to the test task itself. */
+    assertThat(testTask.getActions()).hasSize(2);
   }
 
   @Test
-  void commonConfigurationsExtendsFromApiIfAvailable() {
+  void testsAreNotSelectedByDefault() {
     Project project = ProjectBuilder.builder().build();
     project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
 
     final VersionCompatibilityExtension extension =
         project.getExtensions().getByType(VersionCompatibilityExtension.class);
-    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+    extension.tests(
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("lib", dc -> dc.getVersions().add("1.0")));
 
-    final Set<Configuration> extendsFrom =
-        project.getConfigurations().getByName("commonImplementation").getExtendsFrom();
-    assertThat(extendsFrom)
-        .comparingElementsUsing(
-            Correspondence.transforming(Configuration::getName, "has a name of"))
-        .containsExactly(JavaPlugin.API_CONFIGURATION_NAME);
+    assertThat(project.getTasks().findByName("selectTestCompatibilityTestsWithLib1Dot0")).isNull();
+    /* Only the test task itself, as the durations are not recorded by default. */
+    assertThat(project.getTasks().getByName("testCompatibilityWithLib1Dot0").getActions())
+        .hasSize(1);
   }
 
   @Test
-  void customSourceSetHasCompatAdaptersOnImplementationClasspath() {
+  void benchmarksAreRunAgainstEachTuple() {
     Project project = ProjectBuilder.builder().build();
     project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
-
     final SourceSetContainer sourceSetContainer =
         project.getExtensions().getByType(SourceSetContainer.class);
-    sourceSetContainer.create("custom");
+    sourceSetContainer.register("jmh");
 
     final VersionCompatibilityExtension extension =
         project.getExtensions().getByType(VersionCompatibilityExtension.class);
-    extension.adapters(
-        ac ->
-            ac.getNamespaces()
-                .register(
-                    "",
-                    ns -> {
-                      ns.getVersions().add("1.0");
-                      ns.getTargetSourceSetName().set("custom");
-                    }));
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig.getBenchmarkSourceSetName().set("jmh");
+        });
 
-    final DependencySet implementation =
-        project.getConfigurations().getByName("customImplementation").getDependencies();
-    assertThat(implementation)
-        .comparingElementsUsing(
-            Correspondence.from(
-                (Dependency d, Class<?> c) ->
-                    c.isAssignableFrom(((FileCollectionDependency) d).getFiles().getClass()),
-                "is subtype of"))
-        .contains(SourceSetOutput.class);
+    assertThat(
+            project
+                .getConfigurations()
+                .getByName("jmhCompatibilityWithDimA1Dot0RuntimeOnly")
+                .getExtendsFrom())
+        .containsExactly(project.getConfigurations().getByName("jmhRuntimeClasspath"));
+
+    final JavaExec benchmarkTask =
+        (JavaExec) project.getTasks().getByName("jmhCompatibilityWithDimA1Dot0");
+    final File resultFile =
+        new File(
+            project.getLayout().getBuildDirectory().get().getAsFile(),
+            "reports/compatibility-performance/jmhCompatibilityWithDimA1Dot0.json");
+    assertThat(benchmarkTask.getMainClass().get()).isEqualTo("org.openjdk.jmh.Main");
+    assertThat(benchmarkTask.getArgs())
+        .containsExactly("-rf", "json", "-rff", resultFile.getAbsolutePath())
+        .inOrder();
+    assertThat(benchmarkTask.getOutputs().getFiles().getFiles()).containsExactly(resultFile);
+    assertThat(benchmarkTask.getClasspath().getFiles())
+        .containsAtLeastElementsIn(
+            sourceSetContainer.getByName("jmh").getOutput().getClassesDirs().getFiles());
+    final org.gradle.api.tasks.testing.Test testTask =
+        (org.gradle.api.tasks.testing.Test)
+            project.getTasks().getByName("testCompatibilityWithDimA1Dot0");
+    assertThat(benchmarkTask.getJavaLauncher().get().getMetadata().getInstallationPath())
+        .isEqualTo(testTask.getJavaLauncher().get().getMetadata().getInstallationPath());
+
+    final CheckCompatibilityPerformance checkTask =
+        (CheckCompatibilityPerformance)
+            project.getTasks().getByName("checkJmhCompatibilityPerformance");
+    assertThat(checkTask.getResultFiles().getFiles())
+        .containsExactly(
+            resultFile, new File(resultFile.getParentFile(), "jmhCompatibilityWithDimA2Dot0.json"))
+        .inOrder();
+    final File baselineFile =
+        new File(project.getProjectDir(), "jmh-compatibility-baseline.properties");
+    assertThat(checkTask.getBaselineFile().get().getAsFile()).isEqualTo(baselineFile);
+    assertThat(checkTask.getThreshold().get()).isEqualTo(0.1);
+    assertThat(checkTask.getBaselineTaskName().get()).isEqualTo("updateJmhCompatibilityBaseline");
+    assertThat(
+            project
+                .getTasks()
+                .getByName("checkCompatibilityPerformance")
+                .getTaskDependencies()
+                .getDependencies(null))
+        .containsExactly(checkTask);
+
+    final UpdateCompatibilityBaseline updateTask =
+        (UpdateCompatibilityBaseline)
+            project.getTasks().getByName("updateJmhCompatibilityBaseline");
+    assertThat(updateTask.getResultFiles().getFiles())
+        .isEqualTo(checkTask.getResultFiles().getFiles());
+    assertThat(updateTask.getBaselineFile().get().getAsFile()).isEqualTo(baselineFile);
   }
 
   @Test
-  void versionSourceSetsExtendsFromCommon() {
+  void benchmarksAreOptIn() {
     Project project = ProjectBuilder.builder().build();
     project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
 
     final VersionCompatibilityExtension extension =
         project.getExtensions().getByType(VersionCompatibilityExtension.class);
-    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+    extension.tests(
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("dimA", dc -> dc.getVersions().add("1.0")));
 
-    final Set<Configuration> extendsFrom =
-        project.getConfigurations().getByName("compat1Dot0CompileOnly").getExtendsFrom();
-    assertThat(extendsFrom)
-        .comparingElementsUsing(
-            Correspondence.transforming(Configuration::getName, "has a name of"))
-        .contains("commonCompileOnly");
+    assertThat(project.getTasks().findByName("checkCompatibilityPerformance")).isNull();
+    assertThat(project.getTasks().findByName("updateTestCompatibilityBaseline")).isNull();
   }
 
   @Test
-  void versionSourceSetsExtendsFromCompileAndTestOnlyConfiguration() {
+  void reportsEachTuple() {
     Project project = ProjectBuilder.builder().build();
     project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
 
     final VersionCompatibilityExtension extension =
         project.getExtensions().getByType(VersionCompatibilityExtension.class);
-    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimB", dc -> dc.getVersions().add("3.0"));
+        });
 
-    final Set<Configuration> extendsFrom =
-        project.getConfigurations().getByName("compat1Dot0CompileOnly").getExtendsFrom();
-    assertThat(extendsFrom)
-        .comparingElementsUsing(
-            Correspondence.transforming(Configuration::getName, "has a name of"))
-        .contains("compat1Dot0CompileAndTestOnly");
+    final GenerateCompatibilityReport reportTask =
+        (GenerateCompatibilityReport) project.getTasks().getByName("compatibilityReport");
+    final CompatibilityReportTuple tuple = reportTask.getTuples().get(1);
+    assertThat(reportTask.getTuples()).hasSize(2);
+    assertThat(tuple.getSuite().get()).isEqualTo("test");
+    assertThat(tuple.getTaskName().get()).isEqualTo("testCompatibilityWithDimA2Dot0AndDimB3Dot0");
+    assertThat(tuple.getDimensions().get()).containsExactly("dimA", "dimB").inOrder();
+    assertThat(tuple.getVersions().get()).containsExactly("2.0", "3.0").inOrder();
+    assertThat(tuple.getResultsDirectory().get().getAsFile())
+        .isEqualTo(
+            new File(
+                project.getLayout().getBuildDirectory().get().getAsFile(),
+                "test-results/testCompatibilityWithDimA2Dot0AndDimB3Dot0"));
+    assertThat(tuple.getDurationService().isPresent()).isTrue();
+    final ResolveCompatibilityClasspaths resolveTask =
+        (ResolveCompatibilityClasspaths)
+            project.getTasks().getByName("resolveCompatibilityClasspaths");
+    assertThat(reportTask.getResolutionTimesFile().get())
+        .isEqualTo(resolveTask.getResolutionTimesFile().get());
+    /* The report only runs after the tests, rather than running them. */
+    assertThat(reportTask.getTaskDependencies().getDependencies(null)).isEmpty();
+    assertThat(reportTask.getMustRunAfter().getDependencies(null))
+        .containsExactly(
+            resolveTask,
+            project.getTasks().getByName("testCompatibilityWithDimA1Dot0AndDimB3Dot0"),
+            project.getTasks().getByName("testCompatibilityWithDimA2Dot0AndDimB3Dot0"));
   }
 
   @Test
-  void versionTestSourceSetsExtendsFromCompileAndTestOnlyConfiguration() {
+  void aggregatesTheResultsOfEachTuple() {
     Project project = ProjectBuilder.builder().build();
     project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
 
     final VersionCompatibilityExtension extension =
         project.getExtensions().getByType(VersionCompatibilityExtension.class);
-    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig.getShardResults().from("shard-results");
+        });
 
-    final Set<Configuration> extendsFrom =
-        project.getConfigurations().getByName("testCompat1Dot0Implementation").getExtendsFrom();
-    assertThat(extendsFrom)
-        .comparingElementsUsing(
-            Correspondence.transforming(Configuration::getName, "has a name of"))
-        .contains("compat1Dot0CompileAndTestOnly");
+    final AggregateCompatibilityResults aggregateTask =
+        (AggregateCompatibilityResults)
+            project.getTasks().getByName("aggregateCompatibilityResults");
+    assertThat(aggregateTask.getTuples()).hasSize(2);
+    final CompatibilityReportTuple tuple = aggregateTask.getTuples().get(0);
+    assertThat(tuple.getTaskName().get()).isEqualTo("testCompatibilityWithDimA1Dot0");
+    assertThat(tuple.getVersions().get()).containsExactly("1.0");
+    assertThat(tuple.getResultsDirectory().get().getAsFile())
+        .isEqualTo(
+            new File(
+                project.getLayout().getBuildDirectory().get().getAsFile(),
+                "test-results/testCompatibilityWithDimA1Dot0"));
+    assertThat(tuple.getDurationService().isPresent()).isFalse();
+    assertThat(aggregateTask.getShardResults().getFiles())
+        .containsExactly(project.file("shard-results"));
+    /* The aggregation only runs after the tests, rather than running them. */
+    assertThat(aggregateTask.getTaskDependencies().getDependencies(null)).isEmpty();
+    assertThat(aggregateTask.getMustRunAfter().getDependencies(null))
+        .containsExactly(
+            project.getTasks().getByName("testCompatibilityWithDimA1Dot0"),
+            project.getTasks().getByName("testCompatibilityWithDimA2Dot0"));
   }
 
   @Test
-  void compatibilityTestTaskIsCreated() {
+  void exportsOfflineRepository() throws IOException {
     Project project = ProjectBuilder.builder().build();
     project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
 
+    final File sourceRepository = new File(project.getProjectDir(), "source-repository");
+    writePom(
+        sourceRepository,
+        "parent",
+        "<packaging>pom</packaging>"
+            + "<dependencyManagement><dependencies><dependency>"
+            + "<groupId>com.example</groupId><artifactId>bom</artifactId>"
+            + "<version>${project.version}</version><type>pom</type><scope>import</scope>"
+            + "</dependency></dependencies></dependencyManagement>");
+    writePom(sourceRepository, "bom", "<packaging>pom</packaging>");
+    writePom(
+        sourceRepository,
+        "lib",
+        "<parent><groupId>com.example</groupId><artifactId>parent</artifactId>"
+            + "<version>1.0</version></parent>");
+    final File jar = new File(sourceRepository, "com/example/lib/1.0/lib-1.0.jar");
+    Files.write(jar.toPath(), new byte[] {1, 2, 3});
+    project.getRepositories().maven(repository -> repository.setUrl(sourceRepository.toURI()));
+
     final VersionCompatibilityExtension extension =
         project.getExtensions().getByType(VersionCompatibilityExtension.class);
     extension.tests(
-        compatibilityTestConfig ->
-            compatibilityTestConfig
-                .getDimensions()
-                .register("dim", dc -> dc.getVersions().add("1.0")));
-    final org.gradle.api.tasks.testing.Test compatibilityTestWithDim1Dot0Task =
-        (org.gradle.api.tasks.testing.Test)
-            project.getTasks().findByName("testCompatibilityWithDim1Dot0");
-    assertThat(compatibilityTestWithDim1Dot0Task).isNotNull();
-    assertThat(compatibilityTestWithDim1Dot0Task.getGroup()).isEqualTo("verification");
-    assertThat(compatibilityTestWithDim1Dot0Task.getDescription())
-        .isEqualTo("Runs compatibility test with dim 1.0.");
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("lib", dc -> dc.getVersions().add("1.0"));
+          compatibilityTestConfig.eachTestRuntimeOnly(
+              c ->
+                  project
+                      .getDependencies()
+                      .add(
+                          "testCompatibilityWithLib1Dot0RuntimeOnly",
+                          "com.example:lib:" + c.getVersions().get(0)));
+        });
 
-    // Uses the project classes from the test source set
-    project
-        .getConfigurations()
-        .getByName("testCompatibilityWithDim1Dot0RuntimeOnly")
-        .getDependencies()
-        .add(project.getDependencies().create(project.files("dummy")));
-    final SourceSetContainer sourceSetContainer =
-        project.getExtensions().getByType(SourceSetContainer.class);
-    assertThat(compatibilityTestWithDim1Dot0Task.getTestClassesDirs())
-        .isEqualTo(sourceSetContainer.getByName("test").getOutput().getClassesDirs());
-    assertThat(compatibilityTestWithDim1Dot0Task.getClasspath().getFiles()).hasSize(5);
+    final ExportCompatibilityRepository exportTask =
+        (ExportCompatibilityRepository)
+            project.getTasks().getByName("exportCompatibilityRepository");
+    exportTask.export();
+
+    final File repository = exportTask.getRepositoryDirectory().get().getAsFile();
+    assertThat(repository)
+        .isEqualTo(
+            new File(
+                project.getLayout().getBuildDirectory().get().getAsFile(),
+                "version-compatibility/offline-repository"));
+    assertThat(exportTask.getRepositoryPaths().get().keySet())
+        .containsExactly(
+            "com/example/bom/1.0/bom-1.0.pom",
+            "com/example/lib/1.0/lib-1.0.jar",
+            "com/example/lib/1.0/lib-1.0.pom",
+            "com/example/parent/1.0/parent-1.0.pom")
+        .inOrder();
+    assertThat(exportTask.getFiles().getFiles())
+        .containsExactlyElementsIn(
+            exportTask.getRepositoryPaths().get().values().stream()
+                .map(File::new)
+                .collect(Collectors.toList()));
+    for (String path : exportTask.getRepositoryPaths().get().keySet()) {
+      assertThat(new File(repository, path).isFile()).isTrue();
+    }
+    assertThat(new File(repository, "repository.gradle").isFile()).isTrue();
   }
 
   @Test
-  void compatibilityTestTaskIsCreatedWithDimensionOrderBasedOnAdditionOrder() {
+  void bisectionTaskDependsOnTestTasksOfDimension() {
     Project project = ProjectBuilder.builder().build();
     project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
@@ -348,53 +1680,89 @@ class VersionCompatibilityPluginTest {
         compatibilityTestConfig -> {
           compatibilityTestConfig
               .getDimensions()
-              .register("dimA", dc -> dc.getVersions().add("1.0"));
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
           compatibilityTestConfig
               .getDimensions()
-              .register("dimB", dc -> dc.getVersions().add("1.0"));
+              .register("dimB", dc -> dc.getVersions().addAll("1.0", "2.0"));
         });
-    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB1Dot0"))
-        .isNotNull();
+    final Task bisectionTask = project.getTasks().getByName("bisectTestCompatibilityWithDimA");
+    assertThat(bisectionTask.getGroup()).isEqualTo("verification");
+    assertThat(bisectionTask.getDescription())
+        .isEqualTo(
+            "Bisects the versions of dimA to find the first one that fails the compatibility"
+                + " tests.");
+    assertThat(bisectionTask.getTaskDependencies().getDependencies(null))
+        .comparingElementsUsing(Correspondence.transforming(Task::getName, "has name"))
+        .containsExactly(
+            "testCompatibilityWithDimA1Dot0AndDimB1Dot0",
+            "testCompatibilityWithDimA1Dot0AndDimB2Dot0",
+            "testCompatibilityWithDimA2Dot0AndDimB1Dot0",
+            "testCompatibilityWithDimA2Dot0AndDimB2Dot0");
+    assertThat(project.getTasks().findByName("bisectTestCompatibilityWithDimB")).isNotNull();
+
+    /* The test tasks are unaffected unless the bisection is requested. */
+    final TaskInternal task =
+        (TaskInternal) project.getTasks().getByName("testCompatibilityWithDimA1Dot0AndDimB1Dot0");
+    assertThat(task.getMustRunAfter().getDependencies(task)).isEmpty();
+    assertThat(project.getGradle().getSharedServices().getRegistrations().getNames())
+        .doesNotContain("versionCompatibilityBisection:bisectTestCompatibilityWithDimA");
+  }
+
+  @Test
+  void requestedBisectionOrdersAndGuardsTestTasks() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+    project
+        .getGradle()
+        .getStartParameter()
+        .setTaskNames(Arrays.asList("check", "bisectTestCompatibilityWithDimA"));
 
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
     extension.tests(
         compatibilityTestConfig -> {
           compatibilityTestConfig
               .getDimensions()
-              .register("dim2B", dc -> dc.getVersions().add("1.0"));
-          compatibilityTestConfig
-              .getDimensions()
-              .register("dim2A", dc -> dc.getVersions().add("1.0"));
+              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0", "3.0", "4.0"));
+          compatibilityTestConfig.exclude(ImmutableMap.of("dimA", "4.0"));
         });
-    assertThat(project.getTasks().findByName("testCompatibilityWithDim2B1Dot0AndDim2A1Dot0"))
-        .isNotNull();
+    final Function<String, TaskInternal> getTask =
+        version ->
+            (TaskInternal)
+                project.getTasks().getByName("testCompatibilityWithDimA" + version + "Dot0");
+
+    /* The middle version is tested first, then the others in any order. */
+    assertThat(getTask.apply("2").getMustRunAfter().getDependencies(null)).isEmpty();
+    assertThat(getTask.apply("1").getMustRunAfter().getDependencies(null))
+        .containsExactly(getTask.apply("2"));
+    assertThat(getTask.apply("3").getMustRunAfter().getDependencies(null))
+        .containsExactly(getTask.apply("1"));
+    assertThat(getTask.apply("1").getOnlyIf().isSatisfiedBy(getTask.apply("1"))).isFalse();
+    assertThat(getTask.apply("2").getOnlyIf().isSatisfiedBy(getTask.apply("2"))).isTrue();
+    assertThat(getTask.apply("2").getActions()).hasSize(3);
   }
 
   @Test
-  void versionsCanBeFiltered() {
+  void bisectionCanBeRequestedByPath() {
     Project project = ProjectBuilder.builder().build();
     project.getPlugins().apply("java-library");
     project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+    project
+        .getGradle()
+        .getStartParameter()
+        .setTaskNames(Collections.singletonList(":bisectTestCompatibilityWithDimA"));
 
     final VersionCompatibilityExtension extension =
         project.getExtensions().getByType(VersionCompatibilityExtension.class);
     extension.tests(
-        compatibilityTestConfig -> {
-          compatibilityTestConfig
-              .getDimensions()
-              .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0"));
-          compatibilityTestConfig
-              .getDimensions()
-              .register("dimB", dc -> dc.getVersions().addAll("3.0", "4.0"));
-          compatibilityTestConfig.filter(versionTuple -> versionTuple.get(0).equals("2.0"));
-        });
-    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB3Dot0"))
-        .isNull();
-    assertThat(project.getTasks().findByName("testCompatibilityWithDimA1Dot0AndDimB4Dot0"))
-        .isNull();
-    assertThat(project.getTasks().findByName("testCompatibilityWithDimA2Dot0AndDimB3Dot0"))
-        .isNotNull();
-    assertThat(project.getTasks().findByName("testCompatibilityWithDimA2Dot0AndDimB4Dot0"))
-        .isNotNull();
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("dimA", dc -> dc.getVersions().addAll("1.0", "2.0")));
+
+    assertThat(project.getGradle().getSharedServices().getRegistrations().getNames())
+        .contains("versionCompatibilityBisection:bisectTestCompatibilityWithDimA");
   }
 
   @Test
@@ -448,6 +1816,102 @@ class VersionCompatibilityPluginTest {
         .containsExactly(project.getDependencies().getConstraints().create("a:b:1.0"));
   }
 
+  @Test
+  void testRuntimeOnlyConfigurationsAreRealizedWithTheTestTask() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    final AtomicInteger executedActions = new AtomicInteger();
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dim", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig.eachTestRuntimeOnly(c -> executedActions.incrementAndGet());
+        });
+    assertThat(project.getConfigurations().getNames())
+        .containsAtLeast(
+            "testCompatibilityWithDim1Dot0RuntimeOnly", "testCompatibilityWithDim1Dot0Classpath");
+    assertThat(executedActions.get()).isEqualTo(0);
+
+    project.getTasks().getByName("testCompatibilityWithDim1Dot0");
+    assertThat(executedActions.get()).isEqualTo(1);
+  }
+
+  @Test
+  void profilesTheConfiguration() throws IOException {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.getProfileConfiguration().set(true);
+    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+    extension.tests(
+        compatibilityTestConfig -> {
+          compatibilityTestConfig
+              .getDimensions()
+              .register("dim", dc -> dc.getVersions().addAll("1.0", "2.0"));
+          compatibilityTestConfig.eachTestRuntimeOnly(c -> {});
+        });
+    project.getTasks().getByName("testCompatibilityWithDim1Dot0");
+    project
+        .getGradle()
+        .getSharedServices()
+        .registerIfAbsent(
+            "versionCompatibilityConfigurationProfile",
+            ConfigurationProfileService.class,
+            spec -> {})
+        .get()
+        .close();
+
+    final String profile =
+        new String(
+            Files.readAllBytes(
+                new File(
+                        project.getLayout().getBuildDirectory().get().getAsFile(),
+                        "version-compatibility/configuration-profile.json")
+                    .toPath()),
+            StandardCharsets.UTF_8);
+    assertThat(profile).startsWith("{\"project\":\":\",\"wallMicros\":");
+    assertThat(profile).contains("\"sourceSets\":3,");
+    assertThat(profile).contains("{\"name\":\"configuration creation\",\"count\":4,");
+    assertThat(profile).contains("{\"name\":\"task registration\",\"count\":3,");
+    assertThat(profile).contains("{\"name\":\"tuple generation\",\"count\":1,");
+    assertThat(profile).contains("{\"name\":\"filtering\",\"count\":1,");
+    assertThat(profile).contains("{\"name\":\"eachTestRuntimeOnly actions\",\"count\":1,");
+  }
+
+  @Test
+  void doesNotProfileTheConfigurationByDefault() {
+    Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java-library");
+    project.getPlugins().apply("io.github.davidburstrom.version-compatibility");
+
+    final VersionCompatibilityExtension extension =
+        project.getExtensions().getByType(VersionCompatibilityExtension.class);
+    extension.adapters(ac -> ac.getNamespaces().register("", ns -> ns.getVersions().add("1.0")));
+    extension.tests(
+        compatibilityTestConfig ->
+            compatibilityTestConfig
+                .getDimensions()
+                .register("dim", dc -> dc.getVersions().add("1.0")));
+    project.getTasks().getByName("testCompatibilityWithDim1Dot0");
+
+    assertThat(extension.getProfileConfiguration().get()).isFalse();
+    assertThat(
+            project
+                .getGradle()
+                .getSharedServices()
+                .getRegistrations()
+                .findByName("versionCompatibilityConfigurationProfile"))
+        .isNull();
+  }
+
   @Test
   void configuresTestTask() {
     Project project = ProjectBuilder.builder().build();
@@ -797,6 +2261,22 @@ class VersionCompatibilityPluginTest {
         });
   }
 
+  private static void writePom(File repository, String artifactId, String content)
+      throws IOException {
+    final File pom =
+        new File(repository, "com/example/" + artifactId + "/1.0/" + artifactId + "-1.0.pom");
+    Files.createDirectories(pom.getParentFile().toPath());
+    Files.write(
+        pom.toPath(),
+        ("<project><modelVersion>4.0.0</modelVersion><groupId>com.example</groupId>"
+                + "<artifactId>"
+                + artifactId
+                + "</artifactId><version>1.0</version>"
+                + content
+                + "</project>")
+            .getBytes(StandardCharsets.UTF_8));
+  }
+
   private static File getOutputFolder(
       final SourceSetContainer sourceSetContainer, String sourceSetName) {
     return sourceSetContainer.getByName(sourceSetName).getOutput().getClassesDirs().getSingleFile();
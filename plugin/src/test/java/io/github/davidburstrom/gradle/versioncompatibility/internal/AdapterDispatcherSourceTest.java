@@ -0,0 +1,221 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AdapterDispatcherSourceTest {
+  private static final List<String> VERSIONS = Arrays.asList("1.0", "1.10", "1.5-rc1", "2");
+
+  @TempDir File tempDir;
+
+  @Test
+  void selectsNewestAdapterThatIsNotNewer() throws Exception {
+    try (URLClassLoader classLoader = compile()) {
+      final Method adapterVersion =
+          classLoader.loadClass("a.Dispatcher").getMethod("adapterVersion", String.class);
+      final VersionComparator comparator = new VersionComparator();
+      for (String version :
+          Arrays.asList(
+              "1.0",
+              "1",
+              "1.0.1",
+              "1.4",
+              "1.5-rc0",
+              "1.5-rc1",
+              "1.5",
+              "1.09",
+              "1.10",
+              "1.11",
+              "2.0.0",
+              "2-SNAPSHOT",
+              "10")) {
+        assertThat(adapterVersion.invoke(null, version)).isEqualTo(expected(comparator, version));
+      }
+      final InvocationTargetException exception =
+          assertThrows(InvocationTargetException.class, () -> adapterVersion.invoke(null, "0.9"));
+      assertThat(exception.getCause()).isInstanceOf(IllegalArgumentException.class);
+      assertThat(exception.getCause().getMessage())
+          .isEqualTo("No adapter supports version 0.9, the oldest is 1.0");
+    }
+  }
+
+  @Test
+  void loadsOnlyTheMatchingAdapter() throws Exception {
+    try (URLClassLoader classLoader = compile()) {
+      final Class<?> api = classLoader.loadClass("a.Api");
+      final Method create =
+          classLoader.loadClass("a.Dispatcher").getMethod("create", Class.class, String.class);
+
+      assertThat(create.invoke(null, api, "1.7").getClass().getName())
+          .isEqualTo("a.Api1Dot5Dashrc1");
+      assertThat(
+              assertThrows(InvocationTargetException.class, () -> create.invoke(null, api, "1.0"))
+                  .getCause())
+          .isInstanceOf(ExceptionInInitializerError.class);
+      final InvocationTargetException exception =
+          assertThrows(InvocationTargetException.class, () -> create.invoke(null, api, "2.1"));
+      assertThat(exception.getCause()).isInstanceOf(IllegalStateException.class);
+      assertThat(exception.getCause().getMessage()).isEqualTo("Could not instantiate a.Api2");
+    }
+  }
+
+  @Test
+  void detectsVersionsFromManifestsAndFileNames() throws Exception {
+    try (URLClassLoader classLoader = compile()) {
+      final File classes = new File(tempDir, "classes");
+      final Manifest manifest = new Manifest();
+      manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+      manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_VERSION, "4.2");
+      final File manifestJar = jar(new File(tempDir, "lib-1.0.jar"), manifest, classes, "p");
+      final File fileNameJar =
+          jar(new File(tempDir, "other-1.7-beta.jar"), new Manifest(), classes, "q");
+      try (URLClassLoader libraryLoader =
+          new URLClassLoader(
+              new URL[] {manifestJar.toURI().toURL(), fileNameJar.toURI().toURL()}, null)) {
+        final Method detectVersion =
+            classLoader.loadClass("a.Dispatcher").getMethod("detectVersion", Class.class);
+
+        assertThat(detectVersion.invoke(null, libraryLoader.loadClass("p.Probe"))).isEqualTo("4.2");
+        assertThat(detectVersion.invoke(null, libraryLoader.loadClass("q.Probe")))
+            .isEqualTo("1.7-beta");
+        final InvocationTargetException exception =
+            assertThrows(
+                InvocationTargetException.class,
+                () -> detectVersion.invoke(null, classLoader.loadClass("p.Probe")));
+        assertThat(exception.getCause().getMessage())
+            .isEqualTo("Could not detect the library version of p.Probe");
+        final Method create =
+            classLoader.loadClass("a.Dispatcher").getMethod("create", Class.class, Class.class);
+        final Object adapter =
+            create.invoke(null, classLoader.loadClass("a.Api"), libraryLoader.loadClass("q.Probe"));
+        assertThat(adapter.getClass().getName()).isEqualTo("a.Api1Dot5Dashrc1");
+      }
+    }
+  }
+
+  @Test
+  void rejectsInvalidConfigurations() {
+    assertThrows(
+        IllegalArgumentException.class, () -> AdapterDispatcherSource.generate("a..B", VERSIONS));
+    assertThrows(
+        IllegalArgumentException.class, () -> AdapterDispatcherSource.generate("a.1B", VERSIONS));
+    assertThrows(
+        IllegalArgumentException.class, () -> AdapterDispatcherSource.generate("a.B-", VERSIONS));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AdapterDispatcherSource.generate("a.B", Collections.emptyList()));
+  }
+
+  @Test
+  void generatesClassesInTheDefaultPackage() {
+    assertThat(AdapterDispatcherSource.generate("Dispatcher", VERSIONS))
+        .startsWith("/**\n * Detects a library version at runtime");
+    assertThat(AdapterDispatcherSource.generate("a.Dispatcher", Collections.singletonList("\"\\")))
+        .contains("VERSIONS = {\"\\\"\\\\\"};");
+  }
+
+  private static String expected(VersionComparator comparator, String version) {
+    String expected = null;
+    for (String candidate : VERSIONS) {
+      if (comparator.compare(candidate, version) <= 0
+          && (expected == null || comparator.compare(candidate, expected) > 0)) {
+        expected = candidate;
+      }
+    }
+    return expected;
+  }
+
+  /*
+   * Compiles the dispatcher with an adapter interface and adapters, where the adapter for 1.0
+   * can't be initialized, to show that it is not loaded unless it is selected, and the adapter for
+   * 2 is missing.
+   */
+  private URLClassLoader compile() throws IOException {
+    final File sourceDirectory = new File(tempDir, "a");
+    Files.createDirectories(sourceDirectory.toPath());
+    final List<String> arguments =
+        new ArrayList<>(Arrays.asList("-d", new File(tempDir, "classes").getPath()));
+    arguments.add(
+        write(
+            sourceDirectory,
+            "Dispatcher",
+            AdapterDispatcherSource.generate("a.Dispatcher", VERSIONS)));
+    arguments.add(write(sourceDirectory, "Api", "package a; public interface Api {}"));
+    arguments.add(
+        write(
+            sourceDirectory,
+            "Api1Dot0",
+            "package a; public class Api1Dot0 implements Api {"
+                + " static { if (true) throw new IllegalStateException(); } }"));
+    arguments.add(
+        write(
+            sourceDirectory,
+            "Api1Dot5Dashrc1",
+            "package a; public class Api1Dot5Dashrc1 implements Api {}"));
+    for (String packageName : Arrays.asList("p", "q")) {
+      final File packageDirectory = new File(tempDir, packageName);
+      Files.createDirectories(packageDirectory.toPath());
+      arguments.add(
+          write(packageDirectory, "Probe", "package " + packageName + "; public class Probe {}"));
+    }
+    Files.createDirectories(new File(tempDir, "classes").toPath());
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assertThat(compiler.run(null, null, null, arguments.toArray(new String[0]))).isEqualTo(0);
+    return new URLClassLoader(new URL[] {new File(tempDir, "classes").toURI().toURL()});
+  }
+
+  /* Creates a jar with the probe class of a package. */
+  private static File jar(File jar, Manifest manifest, File classes, String packageName)
+      throws IOException {
+    final File classFile = new File(classes, packageName + "/Probe.class");
+    try (OutputStream outputStream = Files.newOutputStream(jar.toPath());
+        JarOutputStream jarOutputStream = new JarOutputStream(outputStream, manifest)) {
+      jarOutputStream.putNextEntry(new JarEntry(packageName + "/Probe.class"));
+      jarOutputStream.write(Files.readAllBytes(classFile.toPath()));
+    }
+    return jar;
+  }
+
+  private static String write(File directory, String name, String source) throws IOException {
+    final File file = new File(directory, name + ".java");
+    Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    return file.getPath();
+  }
+}
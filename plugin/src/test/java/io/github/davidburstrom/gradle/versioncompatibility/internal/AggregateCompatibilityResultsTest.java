@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AggregateCompatibilityResultsTest {
+  @TempDir File projectDir;
+
+  @Test
+  void mergesTheResultsOfThisBuildAndTheOtherShards() throws IOException {
+    write("results/testWithLib1/TEST-Foo.xml", "<testsuite name=\"Local\"/>");
+    write("shard/testWithLib1/TEST-Foo.xml", "<testsuite name=\"Stale\"/>");
+    write(
+        "shard/testWithLib2/TEST-Foo.xml",
+        "<testsuite name=\"Foo\">"
+            + "<testcase name=\"t\" classname=\"Foo\"><failure message=\"boom\"/></testcase>"
+            + "</testsuite>");
+    write("shard/test/TEST-Foo.xml", "<testsuite name=\"NotCompatibility\"/>");
+    final Project project = ProjectBuilder.builder().withProjectDir(projectDir).build();
+    final AggregateCompatibilityResults task =
+        project.getTasks().register("aggregate", AggregateCompatibilityResults.class).get();
+    task.getTuples().add(tuple(project, "1"));
+    task.getTuples().add(tuple(project, "2"));
+    task.getShardResults().from(file("shard"), file("missing"));
+    task.getResultsFile().set(file("out/results/TEST-compatibility.xml"));
+    task.getFailuresFile().set(file("out/failures/failures.txt"));
+
+    task.aggregate();
+
+    final String results = read("out/results/TEST-compatibility.xml");
+    assertThat(results).contains("<testsuite name=\"Local [lib=1]\">");
+    assertThat(results).contains("<testsuite name=\"Foo [lib=2]\">");
+    assertThat(results).doesNotContain("Stale");
+    assertThat(results).doesNotContain("NotCompatibility");
+    assertThat(read("out/failures/failures.txt"))
+        .isEqualTo(
+            "1 distinct failure(s) in 1 failed test(s)\n\nFoo > t: boom\n  testWithLib2 [lib=2]\n");
+  }
+
+  private CompatibilityReportTuple tuple(Project project, String version) {
+    final CompatibilityReportTuple tuple =
+        project.getObjects().newInstance(CompatibilityReportTuple.class);
+    tuple.getSuite().set("test");
+    tuple.getTaskName().set("testWithLib" + version);
+    tuple.getDimensions().add("lib");
+    tuple.getVersions().add(version);
+    tuple.getResultsDirectory().set(file("results/testWithLib" + version));
+    return tuple;
+  }
+
+  private File file(String path) {
+    return new File(projectDir, path);
+  }
+
+  private void write(String path, String text) throws IOException {
+    Files.createDirectories(file(path).getParentFile().toPath());
+    Files.write(file(path).toPath(), text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String read(String path) throws IOException {
+    return new String(Files.readAllBytes(file(path).toPath()), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class BenchmarkComparisonTest {
+  static final String OLD_RESULTS =
+      "[\n"
+          + "  {\n"
+          + "    \"benchmark\": \"a.Bench.remove\",\n"
+          + "    \"mode\": \"thrpt\",\n"
+          + "    \"params\": {\"size\": \"10\", \"kind\": \"bytes\"},\n"
+          + "    \"primaryMetric\": {\"score\": 1234.56789, \"scoreUnit\": \"ops/s\"},\n"
+          + "    \"secondaryMetrics\": {\n"
+          + "      \"gc.alloc.rate\": {\"score\": 1.0, \"scoreUnit\": \"MB/sec\"},\n"
+          + "      \"gc.alloc.rate.norm\": {\"score\": 48.0, \"scoreUnit\": \"B/op\"}\n"
+          + "    }\n"
+          + "  },\n"
+          + "  {\n"
+          + "    \"benchmark\": \"a.Bench.legacy\",\n"
+          + "    \"mode\": \"avgt\",\n"
+          + "    \"primaryMetric\": {\"score\": \"NaN\", \"scoreUnit\": \"us/op\"},\n"
+          + "    \"secondaryMetrics\": {}\n"
+          + "  }\n"
+          + "]\n";
+  static final String NEW_RESULTS =
+      "[{\"benchmark\": \"a.Bench.remove\", \"mode\": \"thrpt\","
+          + " \"params\": {\"size\": \"10\", \"kind\": \"bytes\"},"
+          + " \"primaryMetric\": {\"score\": 2000, \"scoreUnit\": \"ops/s\"}}]";
+
+  @Test
+  void formatsResultsSideBySide() {
+    final Map<String, String> resultsByVersion = new LinkedHashMap<>();
+    resultsByVersion.put("3.0", OLD_RESULTS);
+    resultsByVersion.put("3.10", NEW_RESULTS);
+
+    assertThat(BenchmarkComparison.format(resultsByVersion))
+        .isEqualTo(
+            "| Benchmark | 3.0 | 3.10 |\n"
+                + "|---|---|---|\n"
+                + "| a.Bench.remove (thrpt, size=10, kind=bytes) | 1234.568 ops/s, 48.000 B/op"
+                + " | 2000.000 ops/s |\n"
+                + "| a.Bench.legacy (avgt) | NaN us/op | - |\n");
+  }
+
+  @Test
+  void rejectsMalformedResults() {
+    for (String results :
+        new String[] {
+          "{}",
+          "[1]",
+          "[{\"benchmark\": \"a\", \"params\": 1}]",
+          "[{\"benchmark\": \"a\", \"primaryMetric\": 1}]",
+          "[{\"benchmark\": \"a\", \"primaryMetric\": {}, \"secondaryMetrics\": 1}]"
+        }) {
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> BenchmarkComparison.format(Collections.singletonMap("1.0", results)),
+          results);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+
+class BisectionServiceTest {
+
+  @Test
+  void testsVersionsInBisectionOrder() {
+    final BisectionService service = registerService().get();
+
+    assertThat(service.shouldRun("1.0")).isFalse();
+    assertThat(service.shouldRun("3.0")).isTrue();
+    pass(service, "3.0", ":a");
+    assertThat(service.shouldRun("2.0")).isFalse();
+    assertThat(service.shouldRun("4.0")).isFalse();
+    assertThat(service.shouldRun("5.0")).isTrue();
+    fail(service, "5.0", ":b");
+    assertThat(service.shouldRun("4.0")).isTrue();
+    fail(service, "4.0", ":c");
+    service.close();
+
+    assertThat(service.getFirstIncompatible()).isEqualTo(3);
+  }
+
+  @Test
+  void runsAllTasksOfVersion() {
+    final BisectionService service = registerService().get();
+
+    assertThat(service.shouldRun("3.0")).isTrue();
+    service.started("3.0", ":a");
+    assertThat(service.shouldRun("3.0")).isTrue();
+    fail(service, "3.0", ":b");
+    service.finished("3.0", ":a");
+
+    assertThat(service.shouldRun("1.0")).isFalse();
+    assertThat(service.shouldRun("2.0")).isTrue();
+  }
+
+  @Test
+  void tasksThatDidNotExecuteHavePassed() {
+    final BisectionService service = registerService().get();
+
+    assertThat(service.shouldRun("3.0")).isTrue();
+    assertThat(service.shouldRun("5.0")).isTrue();
+  }
+
+  @Test
+  void findsEarliestVersionAsIncompatible() {
+    final BisectionService service = registerService().get();
+    service.shouldRun("3.0");
+    fail(service, "3.0", ":a");
+    assertThat(service.shouldRun("2.0")).isTrue();
+    fail(service, "2.0", ":b");
+    assertThat(service.shouldRun("1.0")).isTrue();
+    fail(service, "1.0", ":c");
+    service.close();
+
+    assertThat(service.getFirstIncompatible()).isEqualTo(0);
+  }
+
+  @Test
+  void findsThatAllVersionsAreCompatible() {
+    final BisectionService service = registerService().get();
+    assertThat(service.shouldRun("3.0")).isTrue();
+    assertThat(service.shouldRun("5.0")).isTrue();
+    service.close();
+
+    assertThat(service.getFirstIncompatible()).isEqualTo(5);
+  }
+
+  @Test
+  void leavesBisectionIncompleteAfterFailure() {
+    final BisectionService service = registerService().get();
+    assertThat(service.shouldRun("3.0")).isTrue();
+    fail(service, "3.0", ":a");
+    service.close();
+
+    assertThat(service.getFirstIncompatible()).isEqualTo(-1);
+  }
+
+  @Test
+  void closesWithoutTestedVersions() {
+    final BisectionService service = registerService().get();
+    service.close();
+
+    assertThat(service.getFirstIncompatible()).isEqualTo(-1);
+  }
+
+  @Test
+  void specAndRecorderReportToService() {
+    final Project project = ProjectBuilder.builder().build();
+    final Provider<BisectionService> serviceProvider = registerService(project);
+    final Task task = project.getTasks().create("someTest");
+
+    assertThat(new BisectionSpec(serviceProvider, "1.0").isSatisfiedBy(task)).isFalse();
+    assertThat(new BisectionSpec(serviceProvider, "3.0").isSatisfiedBy(task)).isTrue();
+    BisectionRecorder.start(serviceProvider, "3.0").execute(task);
+    assertThat(serviceProvider.get().shouldRun("2.0")).isTrue();
+    BisectionRecorder.finish(serviceProvider, "3.0").execute(task);
+    assertThat(serviceProvider.get().shouldRun("5.0")).isTrue();
+  }
+
+  private static void pass(BisectionService service, String version, String taskPath) {
+    service.started(version, taskPath);
+    service.finished(version, taskPath);
+  }
+
+  private static void fail(BisectionService service, String version, String taskPath) {
+    service.started(version, taskPath);
+  }
+
+  private static Provider<BisectionService> registerService() {
+    return registerService(ProjectBuilder.builder().build());
+  }
+
+  private static Provider<BisectionService> registerService(Project project) {
+    return project
+        .getGradle()
+        .getSharedServices()
+        .registerIfAbsent(
+            "bisection",
+            BisectionService.class,
+            spec -> {
+              spec.getParameters().getDimension().set("dimA");
+              spec.getParameters()
+                  .getVersions()
+                  .set(Arrays.asList("1.0", "2.0", "3.0", "4.0", "5.0"));
+            });
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class BisectionTest {
+
+  @Test
+  void probeOrderIsLevelOrderOfSearchTree() {
+    assertThat(Bisection.probeOrder(7)).containsExactly(3, 1, 5, 0, 2, 4, 6).inOrder();
+    assertThat(Bisection.probeOrder(4)).containsExactly(2, 1, 3, 0).inOrder();
+    assertThat(Bisection.probeOrder(1)).containsExactly(0);
+    assertThat(Bisection.probeOrder(0)).isEmpty();
+  }
+
+  @Test
+  void probeOrderContainsAllVersions() {
+    assertThat(Bisection.probeOrder(13))
+        .containsExactlyElementsIn(IntStream.range(0, 13).boxed().collect(Collectors.toList()));
+  }
+
+  @Test
+  void findsEveryBoundaryInLogarithmicNumberOfProbes() {
+    final int count = 13;
+    final List<Integer> probeOrder = Bisection.probeOrder(count);
+    for (int boundary = 0; boundary <= count; boundary++) {
+      final List<Boolean> outcomes = new ArrayList<>(Collections.nCopies(count, null));
+      int probes = 0;
+      int lastPosition = -1;
+      for (int probe = Bisection.nextProbe(outcomes);
+          probe >= 0;
+          probe = Bisection.nextProbe(outcomes)) {
+        assertThat(Bisection.firstIncompatible(outcomes)).isEqualTo(-1);
+        /* The probes must be scheduled in the probe order. */
+        assertThat(probeOrder.indexOf(probe)).isGreaterThan(lastPosition);
+        lastPosition = probeOrder.indexOf(probe);
+        outcomes.set(probe, probe < boundary);
+        probes++;
+      }
+      assertThat(Bisection.firstIncompatible(outcomes)).isEqualTo(boundary);
+      assertThat(probes).isAtMost(4);
+    }
+  }
+
+  @Test
+  void searchesBothHalves() {
+    assertThat(Bisection.nextProbe(Arrays.asList(null, null, null, null, null))).isEqualTo(2);
+    assertThat(Bisection.nextProbe(Arrays.asList(null, null, true, null, null))).isEqualTo(4);
+    assertThat(Bisection.nextProbe(Arrays.asList(null, null, false, null, null))).isEqualTo(1);
+  }
+
+  @Test
+  void findsFirstIncompatibleVersion() {
+    assertThat(Bisection.firstIncompatible(Arrays.asList(null, true, false))).isEqualTo(2);
+    assertThat(Bisection.firstIncompatible(Arrays.asList(false, false, null))).isEqualTo(0);
+    assertThat(Bisection.firstIncompatible(Arrays.asList(null, true, true))).isEqualTo(3);
+    assertThat(Bisection.firstIncompatible(Collections.emptyList())).isEqualTo(0);
+    assertThat(Bisection.nextProbe(Collections.emptyList())).isEqualTo(-1);
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckCompatibilityPerformanceTest {
+  private static final String BASELINE =
+      "jmhCompatibilityWithLang3Dot0\\ a.Bench.remove\\ (thrpt,\\ size\\=10,\\ kind\\=bytes)=1500\n"
+          + "jmhCompatibilityWithLang3Dot10\\ a.Bench.remove\\ (thrpt,\\ size\\=10,\\"
+          + " kind\\=bytes)=1500\n";
+
+  @TempDir File directory;
+
+  @Test
+  void writesOnlyTheRegressedTasks() throws IOException {
+    final CheckCompatibilityPerformance task = checkTask();
+    write(task.getBaselineFile().get().getAsFile(), BASELINE);
+    task.getResultFiles()
+        .from(
+            write(
+                new File(directory, "jmhCompatibilityWithLang3Dot0.json"),
+                BenchmarkComparisonTest.OLD_RESULTS),
+            write(
+                new File(directory, "jmhCompatibilityWithLang3Dot10.json"),
+                BenchmarkComparisonTest.NEW_RESULTS));
+
+    final GradleException exception = assertThrows(GradleException.class, task::check);
+
+    final String expected =
+        "jmhCompatibilityWithLang3Dot0:\n"
+            + "  a.Bench.remove (thrpt, size=10, kind=bytes): 1234.568 ops/s, baseline 1500.000"
+            + " (-17.7%)\n";
+    assertThat(read(task.getReportFile().get().getAsFile())).isEqualTo(expected);
+    assertThat(exception.getMessage())
+        .isEqualTo(
+            "1 benchmark task(s) regressed beyond the threshold, see "
+                + task.getReportFile().get().getAsFile()
+                + ": jmhCompatibilityWithLang3Dot0");
+  }
+
+  @Test
+  void passesWithinTheThreshold() throws IOException {
+    final CheckCompatibilityPerformance task = checkTask();
+    task.getThreshold().set(0.2);
+    write(task.getBaselineFile().get().getAsFile(), BASELINE);
+    task.getResultFiles()
+        .from(
+            write(
+                new File(directory, "jmhCompatibilityWithLang3Dot0.json"),
+                BenchmarkComparisonTest.OLD_RESULTS));
+
+    task.check();
+
+    assertThat(read(task.getReportFile().get().getAsFile())).isEmpty();
+  }
+
+  @Test
+  void failsWithoutBaseline() {
+    final CheckCompatibilityPerformance task = checkTask();
+
+    assertThat(assertThrows(GradleException.class, task::check).getMessage())
+        .isEqualTo(
+            "The performance baseline "
+                + task.getBaselineFile().get().getAsFile()
+                + " does not exist, it can be created by the updateJmhCompatibilityBaseline task");
+  }
+
+  @Test
+  void failsIfResultsCanNotBeRead() throws IOException {
+    final CheckCompatibilityPerformance task = checkTask();
+    write(task.getBaselineFile().get().getAsFile(), BASELINE);
+    task.getResultFiles().from(new File(directory, "missing.json"));
+
+    assertThat(assertThrows(UncheckedIOException.class, task::check).getMessage())
+        .isEqualTo("Could not check the benchmark results");
+  }
+
+  @Test
+  void updatesTheBaseline() throws IOException {
+    final Project project = ProjectBuilder.builder().build();
+    final UpdateCompatibilityBaseline task =
+        project
+            .getTasks()
+            .register("updateJmhCompatibilityBaseline", UpdateCompatibilityBaseline.class)
+            .get();
+    final File baselineFile = new File(directory, "baseline.properties");
+    task.getBaselineFile().set(baselineFile);
+    task.getResultFiles()
+        .from(
+            write(
+                new File(directory, "jmhCompatibilityWithLang3Dot0.json"),
+                BenchmarkComparisonTest.NEW_RESULTS));
+
+    task.update();
+    write(
+        new File(directory, "jmhCompatibilityWithLang3Dot0.json"),
+        BenchmarkComparisonTest.OLD_RESULTS);
+    task.getResultFiles()
+        .setFrom(
+            write(
+                new File(directory, "jmhCompatibilityWithLang3Dot10.json"),
+                BenchmarkComparisonTest.NEW_RESULTS));
+    task.update();
+
+    assertThat(read(baselineFile))
+        .isEqualTo(
+            "# Compatibility benchmark scores\n"
+                + "jmhCompatibilityWithLang3Dot0\\ a.Bench.remove\\ (thrpt,\\ size\\=10,\\"
+                + " kind\\=bytes)=2000.0\n"
+                + "jmhCompatibilityWithLang3Dot10\\ a.Bench.remove\\ (thrpt,\\ size\\=10,\\"
+                + " kind\\=bytes)=2000.0\n");
+  }
+
+  @Test
+  void failsIfTheBaselineCanNotBeUpdated() {
+    final UpdateCompatibilityBaseline task =
+        ProjectBuilder.builder()
+            .build()
+            .getTasks()
+            .register("updateJmhCompatibilityBaseline", UpdateCompatibilityBaseline.class)
+            .get();
+    task.getBaselineFile().set(new File(directory, "missing/baseline.properties"));
+
+    assertThat(assertThrows(UncheckedIOException.class, task::update).getMessage())
+        .isEqualTo("Could not update the performance baseline");
+  }
+
+  private CheckCompatibilityPerformance checkTask() {
+    final CheckCompatibilityPerformance task =
+        ProjectBuilder.builder()
+            .build()
+            .getTasks()
+            .register("checkJmhCompatibilityPerformance", CheckCompatibilityPerformance.class)
+            .get();
+    task.getBaselineFile().set(new File(directory, "baseline.properties"));
+    task.getThreshold().set(0.1);
+    task.getBaselineTaskName().set("updateJmhCompatibilityBaseline");
+    task.getReportFile().set(new File(directory, "report.txt"));
+    return task;
+  }
+
+  private static File write(File file, String text) throws IOException {
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static String read(File file) throws IOException {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+}
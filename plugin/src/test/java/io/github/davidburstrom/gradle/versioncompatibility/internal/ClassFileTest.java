@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class ClassFileTest {
+  @Test
+  void parsesDeclarationsAndReferences() throws IOException {
+    final ClassFile classFile = ClassFile.parse(classBytes(Fixture.class));
+
+    assertThat(classFile.getName()).isEqualTo(internalName(Fixture.class));
+    assertThat(classFile.getSuperName()).isEqualTo("java/util/AbstractList");
+    assertThat(classFile.getInterfaces()).containsExactly("java/lang/Runnable");
+    assertThat(classFile.getFields()).containsExactly("values:[Ljava/lang/String;");
+    assertThat(classFile.getMethods()).contains("run()V");
+    assertThat(classFile.getMethods()).contains("size()I");
+    assertThat(classFile.getReferencedClasses()).contains("java/lang/StringBuilder");
+    assertThat(classFile.getReferencedClasses()).doesNotContain(internalName(Fixture.class));
+    final List<String> members =
+        classFile.getReferencedMembers().stream()
+            .map(ClassFile.MemberReference::toString)
+            .collect(Collectors.toList());
+    assertThat(members).contains("java/lang/StringBuilder.append(I)Ljava/lang/StringBuilder;");
+    assertThat(members).contains(internalName(Fixture.class) + ".values:[Ljava/lang/String;");
+  }
+
+  @Test
+  void referencesArrayElementClasses() {
+    assertThat(ClassFile.elementClassName("[[Ljava/lang/String;")).isEqualTo("java/lang/String");
+    assertThat(ClassFile.elementClassName("java/lang/String")).isEqualTo("java/lang/String");
+    assertThat(ClassFile.elementClassName("[I")).isNull();
+  }
+
+  @Test
+  void rejectsInvalidClassFiles() {
+    assertThrows(IllegalArgumentException.class, () -> ClassFile.parse(new byte[] {1, 2, 3, 4}));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ClassFile.parse(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE}));
+  }
+
+  static byte[] classBytes(Class<?> type) throws IOException {
+    try (InputStream inputStream = type.getResourceAsStream("/" + internalName(type) + ".class")) {
+      return SymbolIndex.readAllBytes(inputStream);
+    }
+  }
+
+  static String internalName(Class<?> type) {
+    return type.getName().replace('.', '/');
+  }
+
+  @SuppressWarnings("unused")
+  static final class Fixture extends java.util.AbstractList<String> implements Runnable {
+    private final String[] values = {"a"};
+
+    @Override
+    @SuppressWarnings({"UnnecessaryStringBuilder", "PMD.SystemPrintln"})
+    public void run() {
+      System.out.println(new StringBuilder().append(values.length));
+    }
+
+    @Override
+    public String get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+}
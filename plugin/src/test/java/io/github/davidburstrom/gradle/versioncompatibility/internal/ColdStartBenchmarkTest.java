@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.jvm.toolchain.JavaToolchainService;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ColdStartBenchmarkTest {
+  @TempDir File directory;
+
+  @Test
+  void measuresEachTargetInForkedJvms() throws IOException, URISyntaxException {
+    final Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java");
+    final ColdStartBenchmark task =
+        project.getTasks().register("coldStartCompatLang", ColdStartBenchmark.class).get();
+    task.getJavaLauncher()
+        .set(
+            project
+                .getExtensions()
+                .getByType(JavaToolchainService.class)
+                .launcherFor(
+                    project.getExtensions().getByType(JavaPluginExtension.class).getToolchain()));
+    task.getClassName().set(ColdStartProbeTest.CountingRunnable.class.getName());
+    task.getForks().set(2);
+    task.getReportFile().set(new File(directory, "report.md"));
+    for (String version : new String[] {"1.0", "2.0"}) {
+      final ColdStartTarget target = project.getObjects().newInstance(ColdStartTarget.class);
+      target.getVersion().set(version);
+      target.getClasspath().from(testClassesLocation());
+      task.getTargets().add(target);
+    }
+
+    task.measure();
+
+    final String report =
+        new String(
+            Files.readAllBytes(task.getReportFile().get().getAsFile().toPath()),
+            StandardCharsets.UTF_8);
+    assertThat(report).contains("\n| 1.0 | 2 | ");
+    assertThat(report).contains("\n| 2.0 | 2 | ");
+  }
+
+  @Test
+  void rejectsNonPositiveForks() {
+    final ColdStartBenchmark task =
+        ProjectBuilder.builder()
+            .build()
+            .getTasks()
+            .register("coldStartCompatLang", ColdStartBenchmark.class)
+            .get();
+    task.getForks().set(0);
+
+    assertThat(assertThrows(IllegalArgumentException.class, task::measure).getMessage())
+        .isEqualTo("The number of forks must be positive, got 0");
+  }
+
+  private static File testClassesLocation() throws URISyntaxException {
+    return Paths.get(
+            ColdStartProbeTest.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+        .toFile();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.PublicMemberInNonPublicType")
+class ColdStartProbeTest {
+  static final AtomicInteger RUNS = new AtomicInteger();
+
+  /** Counts its runs. */
+  public static class CountingRunnable implements Runnable {
+    @Override
+    public void run() {
+      RUNS.incrementAndGet();
+    }
+  }
+
+  /** Is only initialized. */
+  public static class Initialized {}
+
+  @Test
+  void measuresRunnable() throws ReflectiveOperationException {
+    final int runs = RUNS.get();
+
+    final ColdStartReport.Sample sample =
+        ColdStartReport.parse(ColdStartProbe.measure(CountingRunnable.class.getName()));
+
+    assertThat(RUNS.get()).isEqualTo(runs + 1);
+    assertThat(sample.getTimeToFirstCall()).isAtLeast(0L);
+    assertThat(sample.getTimeToFirstCall()).isLessThan(TimeUnit.MINUTES.toNanos(1));
+    assertThat(sample.getLoadedClasses()).isGreaterThan(0L);
+    assertThat(sample.getMetaspace()).isGreaterThan(0L);
+  }
+
+  @Test
+  void measuresInitializationOnly() throws ReflectiveOperationException {
+    assertThat(ColdStartProbe.measure(Initialized.class.getName()))
+        .startsWith(ColdStartProbe.RESULT_PREFIX);
+  }
+
+  @Test
+  void printsTheResult() throws ReflectiveOperationException, UnsupportedEncodingException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final PrintStream originalOut = System.out;
+    System.setOut(new PrintStream(output, true, "UTF-8"));
+    try {
+      ColdStartProbe.main(new String[] {Initialized.class.getName()});
+    } finally {
+      System.setOut(originalOut);
+    }
+
+    assertThat(ColdStartReport.parse(new String(output.toByteArray(), StandardCharsets.UTF_8)))
+        .isNotNull();
+  }
+
+  @Test
+  void failsForMissingClass() {
+    assertThrows(ClassNotFoundException.class, () -> ColdStartProbe.measure("missing.Class"));
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ColdStartReportTest {
+
+  @Test
+  void parsesTheResultAmongOtherOutput() {
+    final ColdStartReport.Sample sample =
+        ColdStartReport.parse(
+            "Starting\n" + ColdStartProbe.RESULT_PREFIX + "12345678 1500 4096000\r\nDone\n");
+
+    assertThat(sample.getTimeToFirstCall()).isEqualTo(12_345_678L);
+    assertThat(sample.getLoadedClasses()).isEqualTo(1500L);
+    assertThat(sample.getMetaspace()).isEqualTo(4_096_000L);
+  }
+
+  @Test
+  void rejectsMalformedResults() {
+    for (String output :
+        new String[] {
+          "",
+          "no result",
+          ColdStartProbe.RESULT_PREFIX + "1 2",
+          ColdStartProbe.RESULT_PREFIX + "1 2 3 4",
+          ColdStartProbe.RESULT_PREFIX + "1 2 x"
+        }) {
+      assertThrows(IllegalArgumentException.class, () -> ColdStartReport.parse(output), output);
+    }
+  }
+
+  @Test
+  void computesNearestRankPercentiles() {
+    final List<ColdStartReport.Sample> samples = new ArrayList<>();
+    for (long value = 100; value >= 1; value--) {
+      samples.add(new ColdStartReport.Sample(value, 0, 0));
+    }
+
+    assertThat(ColdStartReport.percentile(samples, ColdStartReport.Sample::getTimeToFirstCall, 0.5))
+        .isEqualTo(50L);
+    assertThat(
+            ColdStartReport.percentile(samples, ColdStartReport.Sample::getTimeToFirstCall, 0.99))
+        .isEqualTo(99L);
+    assertThat(
+            ColdStartReport.percentile(
+                samples.subList(0, 1), ColdStartReport.Sample::getTimeToFirstCall, 0.99))
+        .isEqualTo(100L);
+  }
+
+  @Test
+  void formatsPercentilesPerVersion() {
+    final Map<String, List<ColdStartReport.Sample>> samplesByVersion = new LinkedHashMap<>();
+    samplesByVersion.put(
+        "3.0",
+        Arrays.asList(
+            new ColdStartReport.Sample(30_000_000, 1200, 4_096_000),
+            new ColdStartReport.Sample(10_000_000, 1000, 2_048_000),
+            new ColdStartReport.Sample(20_000_000, 1100, 3_072_000)));
+    samplesByVersion.put(
+        "3.10", Arrays.asList(new ColdStartReport.Sample(12_345_678, 1500, 5_120_000)));
+
+    assertThat(ColdStartReport.format(samplesByVersion))
+        .isEqualTo(
+            "| Version | Forks | First call p50 | First call p99 | Loaded classes p50"
+                + " | Loaded classes p99 | Metaspace p50 | Metaspace p99 |\n"
+                + "|---|---|---|---|---|---|---|---|\n"
+                + "| 3.0 | 3 | 20.000 ms | 30.000 ms | 1100 | 1200 | 3000 KiB | 4000 KiB |\n"
+                + "| 3.10 | 1 | 12.346 ms | 12.346 ms | 1500 | 1500 | 5000 KiB | 5000 KiB |\n");
+  }
+}
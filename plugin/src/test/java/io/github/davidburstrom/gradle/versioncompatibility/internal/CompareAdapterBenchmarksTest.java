@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompareAdapterBenchmarksTest {
+  @TempDir File directory;
+
+  @Test
+  void writesTheComparison() throws IOException {
+    final CompareAdapterBenchmarks task = task();
+    task.getResultFiles()
+        .from(
+            write(new File(directory, "3.10.json"), BenchmarkComparisonTest.NEW_RESULTS),
+            write(new File(directory, "3.0.json"), BenchmarkComparisonTest.OLD_RESULTS));
+
+    task.compare();
+
+    final Map<String, String> resultsByVersion = new LinkedHashMap<>();
+    resultsByVersion.put("3.10", BenchmarkComparisonTest.NEW_RESULTS);
+    resultsByVersion.put("3.0", BenchmarkComparisonTest.OLD_RESULTS);
+    final String expected = BenchmarkComparison.format(resultsByVersion);
+    assertThat(
+            new String(
+                Files.readAllBytes(task.getReportFile().get().getAsFile().toPath()),
+                StandardCharsets.UTF_8))
+        .isEqualTo(expected);
+  }
+
+  @Test
+  void failsIfResultsCanNotBeRead() {
+    final CompareAdapterBenchmarks task = task();
+    task.getResultFiles().from(new File(directory, "missing.json"));
+
+    assertThat(assertThrows(UncheckedIOException.class, task::compare).getMessage())
+        .isEqualTo("Could not compare the benchmark results");
+  }
+
+  private CompareAdapterBenchmarks task() {
+    final CompareAdapterBenchmarks task =
+        ProjectBuilder.builder()
+            .build()
+            .getTasks()
+            .register("compare", CompareAdapterBenchmarks.class)
+            .get();
+    task.getReportFile().set(new File(directory, "report.md"));
+    return task;
+  }
+
+  private static File write(File file, String text) throws IOException {
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+}
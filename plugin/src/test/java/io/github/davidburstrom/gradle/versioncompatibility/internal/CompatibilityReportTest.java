@@ -0,0 +1,198 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompatibilityReportTest {
+  @TempDir File resultsDir;
+
+  @Test
+  void sumsTheJUnitResults() throws IOException {
+    write(
+        "TEST-a.xml",
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<testsuite name=\"a\" tests=\"3\" skipped=\"1\" failures=\"1\" errors=\"0\""
+            + " time=\"0.25\"><testcase name=\"x\"/></testsuite>");
+    write("TEST-b.xml", "<testsuite tests=\"2\" skipped=\"0\" failures=\"0\" errors=\"1\"/>");
+    write("TEST-c.txt", "ignored");
+    write("other.xml", "ignored");
+
+    final CompatibilityReport.TestCounts counts = CompatibilityReport.readJUnitResults(resultsDir);
+
+    assertThat(json(counts)).contains("\"tests\":5,\"failures\":2,\"skipped\":1");
+    assertThat(json(counts)).contains("\"testMillis\":250");
+  }
+
+  @Test
+  void readsNoResultsFromMissingOrEmptyDirectories() {
+    assertThat(CompatibilityReport.readJUnitResults(resultsDir)).isNull();
+    assertThat(CompatibilityReport.readJUnitResults(new File(resultsDir, "missing"))).isNull();
+  }
+
+  @Test
+  void rejectsMalformedResults() throws IOException {
+    for (String xml :
+        new String[] {"<testcase/>", "<testsuite tests=\"x\"/>", "<testsuite", "not xml"}) {
+      write("TEST-a.xml", xml);
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> CompatibilityReport.readJUnitResults(resultsDir),
+          xml);
+    }
+  }
+
+  @Test
+  void doesNotResolveExternalEntities() throws IOException {
+    write(
+        "TEST-a.xml",
+        "<!DOCTYPE testsuite [<!ENTITY e SYSTEM \"file:///etc/passwd\">]>"
+            + "<testsuite tests=\"1\">&e;</testsuite>");
+
+    assertThrows(
+        IllegalArgumentException.class, () -> CompatibilityReport.readJUnitResults(resultsDir));
+  }
+
+  @Test
+  void derivesTheOutcomes() {
+    assertThat(entry("1", "a", null, null, null).getOutcome()).isEqualTo("not run");
+    assertThat(entry("1", "a", null, null, counts(2, 1, 0, 0)).getOutcome()).isEqualTo("failed");
+    assertThat(entry("1", "a", null, null, counts(2, 0, 2, 0)).getOutcome()).isEqualTo("skipped");
+    assertThat(entry("1", "a", null, null, counts(2, 0, 1, 0)).getOutcome()).isEqualTo("passed");
+  }
+
+  @Test
+  void derivesTheOverhead() {
+    assertThat(entry("1", "a", null, 900L, counts(1, 0, 0, 400)).getOverheadMillis())
+        .isEqualTo(500L);
+    assertThat(entry("1", "a", null, 300L, counts(1, 0, 0, 400)).getOverheadMillis()).isEqualTo(0L);
+    assertThat(entry("1", "a", null, null, counts(1, 0, 0, 400)).getOverheadMillis()).isNull();
+    assertThat(entry("1", "a", null, 900L, null).getOverheadMillis()).isNull();
+  }
+
+  @Test
+  void formatsTheEntriesAsJson() {
+    assertThat(
+            CompatibilityReport.formatJson(
+                Arrays.asList(
+                    entry("1.0", "a", 100L, 2_000L, counts(4, 0, 1, 1_500)),
+                    entry("2.0", "a", null, null, null))))
+        .isEqualTo(
+            "{\"tuples\":["
+                + "{\"task\":\"testWithLib1.0AndOthera\",\"suite\":\"test\","
+                + "\"versions\":{\"lib\":\"1.0\",\"other\":\"a\"},\"outcome\":\"passed\","
+                + "\"tests\":4,\"failures\":0,\"skipped\":1,\"resolutionMillis\":100,"
+                + "\"durationMillis\":2000,\"testMillis\":1500,\"overheadMillis\":500},"
+                + "{\"task\":\"testWithLib2.0AndOthera\",\"suite\":\"test\","
+                + "\"versions\":{\"lib\":\"2.0\",\"other\":\"a\"},\"outcome\":\"not run\","
+                + "\"tests\":null,\"failures\":null,\"skipped\":null,\"resolutionMillis\":null,"
+                + "\"durationMillis\":null,\"testMillis\":null,\"overheadMillis\":null}]}");
+  }
+
+  @Test
+  void formatsTheEntriesAsAHeatMapPerSuite() {
+    final String html =
+        CompatibilityReport.formatHtml(
+            Arrays.asList(
+                entry("1.0", "a", 100L, 2_000L, counts(4, 0, 1, 1_500)),
+                entry("1.0", "<b>", null, 1_000L, counts(4, 0, 0, 500)),
+                entry("2.0", "a", null, 500L, counts(4, 2, 0, 400)),
+                new CompatibilityReport.Entry(
+                    "otherTest",
+                    "otherTestWithLib1.0",
+                    Collections.singletonList(new NamedVersion("lib", "1.0")),
+                    null,
+                    null,
+                    null)));
+
+    assertThat(html).contains("<h2>test</h2>\n<table>\n<tr><th>lib \\ other</th>");
+    assertThat(html).contains("<th>a</th><th>&lt;b&gt;</th></tr>\n");
+    assertThat(html)
+        .contains(
+            "<tr><th>1.0</th>"
+                + "<td style=\"background: hsl(30, 100%, 50%)\""
+                + " title=\"testWithLib1.0AndOthera: resolution 100 ms, overhead 500 ms,"
+                + " tests 1500 ms\">2.0 s<br>4 tests, 1 skipped</td>"
+                + "<td style=\"background: hsl(30, 100%, 72%)\""
+                + " title=\"testWithLib1.0AndOther&lt;b&gt;: resolution -, overhead 500 ms,"
+                + " tests 500 ms\">1.0 s<br>4 tests</td></tr>\n");
+    assertThat(html)
+        .contains(
+            "<tr><th>2.0</th><td class=\"failed\" title=\"testWithLib2.0AndOthera: resolution -,"
+                + " overhead 100 ms, tests 400 ms\">0.5 s<br>4 tests, 2 failed</td><td></td></tr>");
+    assertThat(html)
+        .contains(
+            "<h2>otherTest</h2>\n<table>\n<tr><th>lib</th><th></th></tr>\n"
+                + "<tr><th>1.0</th><td class=\"not-run\" title=\"otherTestWithLib1.0:"
+                + " resolution -, overhead -, tests -\">-<br>not run</td></tr>\n");
+  }
+
+  @Test
+  void doesNotShadeCellsWithoutDurations() {
+    final String html =
+        CompatibilityReport.formatHtml(
+            Arrays.asList(
+                entry("1.0", "a", null, null, counts(1, 0, 0, 0)),
+                new CompatibilityReport.Entry(
+                    "empty", "empty", Collections.emptyList(), null, 0L, counts(1, 0, 0, 0))));
+
+    assertThat(html).doesNotContain("hsl(");
+    assertThat(html)
+        .contains("<h2>empty</h2>\n<table>\n<tr><th></th><th></th></tr>\n<tr><th></th><td");
+  }
+
+  private static CompatibilityReport.TestCounts counts(
+      long tests, long failures, long skipped, long timeMillis) {
+    return new CompatibilityReport.TestCounts(tests, failures, skipped, timeMillis);
+  }
+
+  private static CompatibilityReport.Entry entry(
+      String version,
+      String other,
+      Long resolutionMillis,
+      Long durationMillis,
+      CompatibilityReport.TestCounts counts) {
+    final List<NamedVersion> versions =
+        Arrays.asList(new NamedVersion("lib", version), new NamedVersion("other", other));
+    return new CompatibilityReport.Entry(
+        "test",
+        "testWithLib" + version + "AndOther" + other,
+        versions,
+        resolutionMillis,
+        durationMillis,
+        counts);
+  }
+
+  private static String json(CompatibilityReport.TestCounts counts) {
+    return CompatibilityReport.formatJson(
+        Collections.singletonList(entry("1", "a", null, null, counts)));
+  }
+
+  private void write(String name, String text) throws IOException {
+    Files.write(new File(resultsDir, name).toPath(), text.getBytes(StandardCharsets.UTF_8));
+  }
+}
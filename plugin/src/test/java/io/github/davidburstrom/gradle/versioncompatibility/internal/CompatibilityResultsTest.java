@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompatibilityResultsTest {
+  @TempDir File resultsDir;
+
+  @Test
+  void mergesAndTagsTheResults() throws IOException {
+    write(
+        "a/TEST-Foo.xml",
+        "<?xml version=\"1.0\"?>\n<testsuite name=\"Foo\" tests=\"2\">\n"
+            + "  <properties><property name=\"p\" value=\"v\"/></properties>\n"
+            + "  <testcase name=\"passes\" classname=\"Foo\" time=\"0.1\"/>\n"
+            + "  <testcase name=\"fails\" classname=\"Foo\">"
+            + "<failure message=\"a &lt; b\" type=\"Error\">trace</failure></testcase>\n"
+            + "  <system-out><![CDATA[out & more]]></system-out>\n"
+            + "</testsuite>");
+    write("b/TEST-Bar.xml", "<testsuite name=\"Bar\"><testcase name=\"t\"/></testsuite>");
+    write("c/TEST-Bar.xml", "<testsuite name=\"Overridden\"/>");
+    write("c/TEST-Baz.xml", "<testsuite name=\"Baz\"/>");
+    write("c/other.xml", "<ignored/>");
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final CompatibilityResults results =
+        CompatibilityResults.aggregate(
+            Arrays.asList(
+                source("testWithLib1", "1", "a"), source("testWithLib2", "2", "missing", "b", "c")),
+            output);
+
+    assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8))
+        .isEqualTo(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?><testsuites>"
+                + "<testsuite name=\"Foo [lib=1]\" tests=\"2\"><properties>"
+                + "<property name=\"compatibility.task\" value=\"testWithLib1\"/>"
+                + "<property name=\"lib\" value=\"1\"/>"
+                + "<property name=\"p\" value=\"v\"></property></properties>"
+                + "<testcase name=\"passes [lib=1]\" classname=\"Foo\" time=\"0.1\"></testcase>"
+                + "<testcase name=\"fails [lib=1]\" classname=\"Foo\">"
+                + "<failure message=\"a &lt; b\" type=\"Error\">trace</failure></testcase>"
+                + "<system-out>out &amp; more</system-out></testsuite>"
+                + "<testsuite name=\"Bar [lib=2]\"><properties>"
+                + "<property name=\"compatibility.task\" value=\"testWithLib2\"/>"
+                + "<property name=\"lib\" value=\"2\"/></properties>"
+                + "<testcase name=\"t [lib=2]\"></testcase></testsuite>"
+                + "<testsuite name=\"Baz [lib=2]\"><properties>"
+                + "<property name=\"compatibility.task\" value=\"testWithLib2\"/>"
+                + "<property name=\"lib\" value=\"2\"/></properties></testsuite>"
+                + "</testsuites>");
+    assertThat(results.getTests()).isEqualTo(3L);
+    assertThat(results.getFailures()).isEqualTo(1L);
+    assertThat(results.getDistinctFailures()).isEqualTo(1);
+  }
+
+  @Test
+  void groupsIdenticalFailuresAcrossTuples() throws IOException {
+    final String failures =
+        "<testsuite>"
+            + "<testcase name=\"a\" classname=\"Foo\">"
+            + "<failure message=\"boom\" type=\"Error\"/><error message=\"x\" type=\"Y\"/>"
+            + "</testcase>"
+            + "<testcase name=\"b\" classname=\"Foo\"><error type=\"Error\"/></testcase>"
+            + "<testcase name=\"c\" classname=\"Foo\">"
+            + "<failure message=\"line&#10;next\"/></testcase>"
+            + "<testcase name=\"d\"><skipped/></testcase>"
+            + "</testsuite>";
+    write("a/TEST-Foo.xml", failures);
+    write("b/TEST-Foo.xml", failures.replace("boom", "bang"));
+    write("c/TEST-Foo.xml", failures);
+
+    final CompatibilityResults results =
+        CompatibilityResults.aggregate(
+            Arrays.asList(
+                source("testWithLib1", "1", "a"),
+                source("testWithLib2", "2", "b"),
+                source("testWithLib3", "3", "c")),
+            new ByteArrayOutputStream());
+
+    assertThat(results.getTests()).isEqualTo(12L);
+    assertThat(results.getFailures()).isEqualTo(9L);
+    assertThat(results.formatFailures())
+        .isEqualTo(
+            "5 distinct failure(s) in 9 failed test(s)\n"
+                + "\n"
+                + "Foo > a: Error: bang\n"
+                + "  testWithLib2 [lib=2]\n"
+                + "\n"
+                + "Foo > a: Error: boom\n"
+                + "  testWithLib1 [lib=1]\n"
+                + "  testWithLib3 [lib=3]\n"
+                + "\n"
+                + "Foo > a: Y: x\n"
+                + "  testWithLib1 [lib=1]\n"
+                + "  testWithLib2 [lib=2]\n"
+                + "  testWithLib3 [lib=3]\n"
+                + "\n"
+                + "Foo > b: Error\n"
+                + "  testWithLib1 [lib=1]\n"
+                + "  testWithLib2 [lib=2]\n"
+                + "  testWithLib3 [lib=3]\n"
+                + "\n"
+                + "Foo > c: line ...\n"
+                + "  testWithLib1 [lib=1]\n"
+                + "  testWithLib2 [lib=2]\n"
+                + "  testWithLib3 [lib=3]\n");
+  }
+
+  @Test
+  void aggregatesNoResults() {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    final CompatibilityResults results =
+        CompatibilityResults.aggregate(Collections.emptyList(), output);
+
+    assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8))
+        .isEqualTo("<?xml version=\"1.0\" encoding=\"UTF-8\"?><testsuites></testsuites>");
+    assertThat(results.formatFailures()).isEqualTo("0 distinct failure(s) in 0 failed test(s)\n");
+  }
+
+  @Test
+  void rejectsMalformedResults() throws IOException {
+    for (String xml : new String[] {"<testcase/>", "<testsuite>", "not xml"}) {
+      write("a/TEST-a.xml", xml);
+      assertThrows(
+          IllegalArgumentException.class,
+          () ->
+              CompatibilityResults.aggregate(
+                  Collections.singletonList(source("test", "1", "a")), new ByteArrayOutputStream()),
+          xml);
+    }
+  }
+
+  @Test
+  void failsToWriteTheResults() throws IOException {
+    final StringBuilder testCases = new StringBuilder(256_000);
+    for (int index = 0; index < 10_000; index++) {
+      testCases.append("<testcase name=\"").append(index).append("\"/>");
+    }
+    write("a/TEST-a.xml", "<testsuite>" + testCases + "</testsuite>");
+    final OutputStream failingOutput =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("full");
+          }
+        };
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            CompatibilityResults.aggregate(
+                Collections.singletonList(source("test", "1", "a")), failingOutput));
+    assertThrows(
+        IllegalStateException.class,
+        () -> CompatibilityResults.aggregate(Collections.emptyList(), failingOutput));
+  }
+
+  private CompatibilityResults.Source source(
+      String taskName, String version, String... directories) {
+    final List<File> files =
+        Arrays.stream(directories)
+            .map(directory -> new File(resultsDir, directory))
+            .collect(Collectors.toList());
+    return new CompatibilityResults.Source(
+        taskName, Collections.singletonList(new NamedVersion("lib", version)), files);
+  }
+
+  private void write(String path, String text) throws IOException {
+    final File file = new File(resultsDir, path);
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConfigurationProfileServiceTest {
+  @TempDir File projectDir;
+
+  @Test
+  void writesTheProfilesOnClose() throws IOException {
+    final ConfigurationProfileService service =
+        ProjectBuilder.builder()
+            .withProjectDir(projectDir)
+            .build()
+            .getGradle()
+            .getSharedServices()
+            .registerIfAbsent("profiles", ConfigurationProfileService.class, spec -> {})
+            .get();
+    final File libFile = new File(projectDir, "lib/build/profile.json");
+    final File appFile = new File(projectDir, "app/build/profile.json");
+    service.add(":lib", profiler(), libFile);
+    service.add(":app", profiler(), appFile);
+
+    service.close();
+
+    assertThat(new String(Files.readAllBytes(libFile.toPath()), StandardCharsets.UTF_8))
+        .isEqualTo(profiler().formatJson(":lib"));
+    assertThat(new String(Files.readAllBytes(appFile.toPath()), StandardCharsets.UTF_8))
+        .isEqualTo(profiler().formatJson(":app"));
+  }
+
+  private static ConfigurationProfiler profiler() {
+    return new ConfigurationProfiler(() -> 0, () -> 0, () -> 0, () -> 0, () -> 0);
+  }
+}
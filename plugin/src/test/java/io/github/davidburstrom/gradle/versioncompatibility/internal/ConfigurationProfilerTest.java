@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.api.Test;
+
+class ConfigurationProfilerTest {
+  private final AtomicLong time = new AtomicLong();
+  private final AtomicLong allocated = new AtomicLong();
+  private final AtomicInteger sourceSets = new AtomicInteger();
+  private final AtomicInteger configurations = new AtomicInteger();
+  private final AtomicInteger tasks = new AtomicInteger();
+  private final ConfigurationProfiler profiler =
+      new ConfigurationProfiler(
+          time::get, allocated::get, sourceSets::get, configurations::get, tasks::get);
+
+  @Test
+  void measuresThePhases() {
+    profiler.start("generation");
+    advance(2_000_000, 100, 0, 0, 0);
+    profiler.stop();
+    profiler.start("registration");
+    advance(3_000_000, 200, 1, 2, 3);
+    profiler.stop();
+    profiler.start("generation");
+    advance(1_000_500, 10, 0, 0, 0);
+    profiler.stop();
+
+    assertThat(profiler.formatJson(":lib"))
+        .isEqualTo(
+            "{\"project\":\":lib\",\"wallMicros\":6000,\"allocatedBytes\":310,\"sourceSets\":1,"
+                + "\"configurations\":2,\"tasks\":3,\"phases\":["
+                + "{\"name\":\"generation\",\"count\":2,\"wallMicros\":3000,\"allocatedBytes\":110,"
+                + "\"sourceSets\":0,\"configurations\":0,\"tasks\":0},"
+                + "{\"name\":\"registration\",\"count\":1,\"wallMicros\":3000,"
+                + "\"allocatedBytes\":200,\"sourceSets\":1,\"configurations\":2,\"tasks\":3}]}");
+    assertThat(profiler.formatSummary(":lib"))
+        .isEqualTo(
+            "Version compatibility configuration of project ':lib': 6.0 ms, 0.0 MiB allocated,"
+                + " 1 source set(s), 2 configuration(s) and 3 task(s) registered");
+  }
+
+  @Test
+  void attributesNestedPhasesOnlyToTheInnermostOne() {
+    profiler.start("registration");
+    advance(1_000_000, 1_048_576, 0, 0, 1);
+    profiler.start("creation");
+    advance(2_000_000, 1_048_576, 0, 2, 0);
+    profiler.start("actions");
+    advance(4_000_000, 0, 0, 0, 0);
+    profiler.stop();
+    profiler.stop();
+    advance(8_000_000, 0, 0, 0, 1);
+    profiler.stop();
+
+    assertThat(profiler.formatJson(":"))
+        .isEqualTo(
+            "{\"project\":\":\",\"wallMicros\":15000,\"allocatedBytes\":2097152,\"sourceSets\":0,"
+                + "\"configurations\":2,\"tasks\":2,\"phases\":["
+                + "{\"name\":\"actions\",\"count\":1,\"wallMicros\":4000,\"allocatedBytes\":0,"
+                + "\"sourceSets\":0,\"configurations\":0,\"tasks\":0},"
+                + "{\"name\":\"creation\",\"count\":1,\"wallMicros\":2000,"
+                + "\"allocatedBytes\":1048576,\"sourceSets\":0,\"configurations\":2,\"tasks\":0},"
+                + "{\"name\":\"registration\",\"count\":1,\"wallMicros\":9000,"
+                + "\"allocatedBytes\":1048576,\"sourceSets\":0,\"configurations\":0,"
+                + "\"tasks\":2}]}");
+    assertThat(profiler.formatSummary(":")).contains(": 15.0 ms, 2.0 MiB allocated,");
+  }
+
+  @Test
+  void reportsUnknownAllocations() {
+    allocated.set(-1);
+    profiler.start("outer");
+    profiler.start("inner");
+    profiler.stop();
+    profiler.stop();
+    allocated.set(0);
+    profiler.start("known");
+    profiler.stop();
+
+    assertThat(profiler.formatJson(":"))
+        .startsWith("{\"project\":\":\",\"wallMicros\":0,\"allocatedBytes\":null,");
+    assertThat(profiler.formatJson(":"))
+        .contains("{\"name\":\"outer\",\"count\":1,\"wallMicros\":0,\"allocatedBytes\":null,");
+    assertThat(profiler.formatJson(":"))
+        .contains("{\"name\":\"known\",\"count\":1,\"wallMicros\":0,\"allocatedBytes\":0,");
+    assertThat(profiler.formatSummary(":")).contains(" unknown allocated,");
+  }
+
+  @Test
+  void reportsUnknownAllocationsThatStartedUnknown() {
+    allocated.set(-1);
+    profiler.start("phase");
+    allocated.set(100);
+    profiler.stop();
+
+    assertThat(profiler.formatJson(":")).contains("\"allocatedBytes\":null");
+  }
+
+  @Test
+  void rejectsStoppingWithoutAPhase() {
+    final IllegalStateException exception =
+        assertThrows(IllegalStateException.class, profiler::stop);
+
+    assertThat(exception.getMessage()).isEqualTo("No configuration phase is started");
+  }
+
+  @Test
+  void measuresTheAllocationOfTheCurrentThread() {
+    final LongSupplier allocatedBytes = ConfigurationProfiler.currentThreadAllocatedBytes();
+    final long before = allocatedBytes.getAsLong();
+    final long[] allocation = new long[100_000];
+
+    assertThat(allocatedBytes.getAsLong() - before).isAtLeast((long) allocation.length * 8);
+  }
+
+  private void advance(
+      long nanos, long bytes, int addedSourceSets, int addedConfigurations, int addedTasks) {
+    time.addAndGet(nanos);
+    allocated.addAndGet(bytes);
+    sourceSets.addAndGet(addedSourceSets);
+    configurations.addAndGet(addedConfigurations);
+    tasks.addAndGet(addedTasks);
+  }
+}
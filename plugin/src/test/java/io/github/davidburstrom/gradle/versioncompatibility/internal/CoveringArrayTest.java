@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class CoveringArrayTest {
+
+  @Test
+  void coversAllPairs() {
+    final List<List<NamedVersion>> tuples =
+        generate(Arrays.asList(versions(13), versions(3), versions(4)), tuple -> true);
+
+    final List<List<NamedVersion>> selected = CoveringArray.select(tuples, 2);
+
+    assertThat(combinations(selected, 2)).isEqualTo(combinations(tuples, 2));
+    assertThat(selected.size()).isAtMost(13 * 4 + 4);
+    assertThat(selected.size()).isLessThan(tuples.size());
+  }
+
+  @Test
+  void coversAllTriples() {
+    final List<List<NamedVersion>> tuples =
+        generate(Arrays.asList(versions(3), versions(3), versions(3), versions(3)), tuple -> true);
+
+    final List<List<NamedVersion>> selected = CoveringArray.select(tuples, 3);
+
+    assertThat(combinations(selected, 3)).isEqualTo(combinations(tuples, 3));
+    assertThat(selected.size()).isLessThan(tuples.size());
+  }
+
+  @Test
+  void selectsGreedilyInOriginalOrder() {
+    final List<List<NamedVersion>> tuples =
+        generate(Arrays.asList(versions(2), versions(2), versions(2)), tuple -> true);
+
+    assertThat(versionsOf(CoveringArray.select(tuples, 2)))
+        .containsExactly(
+            Arrays.asList("0", "0", "0"),
+            Arrays.asList("0", "1", "1"),
+            Arrays.asList("1", "0", "1"),
+            Arrays.asList("1", "1", "0"))
+        .inOrder();
+  }
+
+  @Test
+  void strengthOneCoversEachVersion() {
+    final List<List<NamedVersion>> tuples =
+        generate(Arrays.asList(versions(3), versions(2)), tuple -> true);
+
+    assertThat(versionsOf(CoveringArray.select(tuples, 1)))
+        .containsExactly(Arrays.asList("0", "0"), Arrays.asList("1", "1"), Arrays.asList("2", "0"))
+        .inOrder();
+  }
+
+  @Test
+  void onlySelectsAmongTheGivenTuples() {
+    final List<List<NamedVersion>> tuples =
+        generate(
+            Arrays.asList(versions(4), versions(4), versions(4)),
+            tuple -> !(tuple.get(0).equals("0") && tuple.get(2).equals("3")));
+
+    final List<List<NamedVersion>> selected = CoveringArray.select(tuples, 2);
+
+    assertThat(versionsOf(tuples)).containsAtLeastElementsIn(versionsOf(selected));
+    assertThat(combinations(selected, 2)).isEqualTo(combinations(tuples, 2));
+  }
+
+  @Test
+  void retainsAllTuplesIfTheStrengthCoversAllDimensions() {
+    final List<List<NamedVersion>> tuples =
+        generate(Arrays.asList(versions(2), versions(2)), tuple -> true);
+
+    assertThat(CoveringArray.select(tuples, 2)).isSameInstanceAs(tuples);
+    assertThat(CoveringArray.select(tuples, 3)).isSameInstanceAs(tuples);
+  }
+
+  @Test
+  void retainsNoTuples() {
+    assertThat(CoveringArray.select(Collections.emptyList(), 2)).isEmpty();
+  }
+
+  @Test
+  void strengthMustBePositive() {
+    final IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class, () -> CoveringArray.select(Collections.emptyList(), 0));
+    assertThat(exception.getMessage()).isEqualTo("The coverage strength must be positive, got 0");
+  }
+
+  private static List<String> versions(int count) {
+    final List<String> versions = new ArrayList<>();
+    for (int version = 0; version < count; version++) {
+      versions.add(String.valueOf(version));
+    }
+    return versions;
+  }
+
+  private static List<List<NamedVersion>> generate(
+      List<List<String>> dimensionVersions, Predicate<List<String>> filter) {
+    final List<String> dimensionNames = new ArrayList<>();
+    for (int dimension = 0; dimension < dimensionVersions.size(); dimension++) {
+      dimensionNames.add("d" + dimension);
+    }
+    return new VersionTupleGenerator(dimensionNames, dimensionVersions)
+        .generate(prefix -> true, Collections.singletonList(filter));
+  }
+
+  private static List<List<String>> versionsOf(List<List<NamedVersion>> tuples) {
+    return tuples.stream()
+        .map(tuple -> tuple.stream().map(NamedVersion::getVersion).collect(Collectors.toList()))
+        .collect(Collectors.toList());
+  }
+
+  /* All the combinations of versions of any strength dimensions, encoded as strings. */
+  private static Set<String> combinations(List<List<NamedVersion>> tuples, int strength) {
+    final Set<String> combinations = new HashSet<>();
+    final int dimensionCount = tuples.get(0).size();
+    for (List<NamedVersion> tuple : tuples) {
+      for (int mask = 0; mask < (1 << dimensionCount); mask++) {
+        if (Integer.bitCount(mask) == strength) {
+          final StringBuilder combination = new StringBuilder();
+          for (int dimension = 0; dimension < dimensionCount; dimension++) {
+            if ((mask & (1 << dimension)) != 0) {
+              combination.append(dimension).append('=').append(tuple.get(dimension).getVersion());
+            }
+            combination.append(';');
+          }
+          combinations.add(combination.toString());
+        }
+      }
+    }
+    return combinations;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collections;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+
+class DuplicateTestServiceTest {
+
+  @Test
+  void skipsTasksWithSeenFingerprints() {
+    final DuplicateTestService service = registerService(ProjectBuilder.builder().build()).get();
+
+    assertThat(service.shouldRun(":a", "1")).isTrue();
+    assertThat(service.shouldRun(":b", "2")).isTrue();
+    assertThat(service.shouldRun(":c", "1")).isFalse();
+    assertThat(service.shouldRun(":a", "1")).isTrue();
+  }
+
+  @Test
+  void keepsSkippingAliasesWhenClosed() {
+    final DuplicateTestService service = registerService(ProjectBuilder.builder().build()).get();
+    assertThat(service.shouldRun(":a", "1")).isTrue();
+    assertThat(service.shouldRun(":b", "2")).isTrue();
+    assertThat(service.shouldRun(":d", "1")).isFalse();
+    assertThat(service.shouldRun(":c", "2")).isFalse();
+    service.close();
+
+    assertThat(service.shouldRun(":b", "2")).isTrue();
+    assertThat(service.shouldRun(":d", "1")).isFalse();
+  }
+
+  @Test
+  void closesWithoutAliases() {
+    final DuplicateTestService service = registerService(ProjectBuilder.builder().build()).get();
+    assertThat(service.shouldRun(":a", "1")).isTrue();
+    service.close();
+
+    assertThat(service.shouldRun(":a", "1")).isTrue();
+  }
+
+  @Test
+  void specSkipsTasksWithSameFingerprint() {
+    final Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java");
+    final DuplicateTestSpec spec =
+        new DuplicateTestSpec(registerService(project), Collections.emptySet());
+
+    assertThat(
+            spec.isSatisfiedBy(
+                project.getTasks().create("a", org.gradle.api.tasks.testing.Test.class)))
+        .isTrue();
+    assertThat(
+            spec.isSatisfiedBy(
+                project.getTasks().create("b", org.gradle.api.tasks.testing.Test.class)))
+        .isFalse();
+  }
+
+  private static Provider<DuplicateTestService> registerService(Project project) {
+    return project
+        .getGradle()
+        .getSharedServices()
+        .registerIfAbsent("duplicateTests", DuplicateTestService.class, spec -> {});
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class DurationHistoryTest {
+
+  @Test
+  void parsesDurations() {
+    assertThat(DurationHistory.parse("# comment\na=1\nb = 20 \n"))
+        .containsExactly("a", 1L, "b", 20L);
+  }
+
+  @Test
+  void skipsMalformedDurations() {
+    assertThat(DurationHistory.parse("a=x\nb=-1\nc=0\n")).containsExactly("c", 0L);
+  }
+
+  @Test
+  void ignoresCorruptFiles() {
+    assertThat(DurationHistory.parse("a=1\nb=\\uZZZZ\n")).isEmpty();
+  }
+
+  @Test
+  void formatsSortedDurations() {
+    final Map<String, Long> durations = new TreeMap<>();
+    durations.put("b", 2L);
+    durations.put("a", 1L);
+    assertThat(DurationHistory.format(durations))
+        .isEqualTo("# Compatibility test task durations in milliseconds\na=1\nb=2\n");
+  }
+
+  @Test
+  void formatsWithTheGivenHeader() {
+    assertThat(DurationHistory.format(Collections.singletonMap("a", 1L), "Other durations"))
+        .isEqualTo("# Other durations\na=1\n");
+  }
+
+  @Test
+  void formattedDurationsCanBeParsed() {
+    final Map<String, Long> durations = new TreeMap<>();
+    durations.put("testCompatibilityWithGradle7Dot0", 12_345L);
+    assertThat(DurationHistory.parse(DurationHistory.format(durations))).isEqualTo(durations);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExportCompatibilityRepositoryTest {
+  private static final FileTime OLD_TIME = FileTime.fromMillis(0);
+
+  @TempDir File directory;
+
+  @Test
+  void copiesChangedFilesAndWritesRepositoryScript() throws IOException {
+    final File repository = new File(directory, "repository");
+    final File unchanged = write(new File(directory, "unchanged.jar"), "unchanged");
+    final File changed = write(new File(directory, "changed.jar"), "changed");
+    final File added = write(new File(directory, "added.pom"), "added");
+    final File unchangedTarget = write(new File(repository, "a/b/1/unchanged.jar"), "unchanged");
+    final File changedTarget = write(new File(repository, "a/b/1/changed.jar"), "original");
+    Files.setLastModifiedTime(unchangedTarget.toPath(), OLD_TIME);
+    Files.setLastModifiedTime(changedTarget.toPath(), OLD_TIME);
+
+    final ExportCompatibilityRepository task =
+        ProjectBuilder.builder()
+            .build()
+            .getTasks()
+            .register("export", ExportCompatibilityRepository.class)
+            .get();
+    task.getRepositoryDirectory().set(repository);
+    task.getRepositoryPaths().put("a/b/1/unchanged.jar", unchanged.getAbsolutePath());
+    task.getRepositoryPaths().put("a/b/1/changed.jar", changed.getAbsolutePath());
+    task.getRepositoryPaths().put("a/c/2/added.pom", added.getAbsolutePath());
+    task.export();
+
+    assertThat(Files.getLastModifiedTime(unchangedTarget.toPath())).isEqualTo(OLD_TIME);
+    assertThat(read(changedTarget)).isEqualTo("changed");
+    assertThat(read(new File(repository, "a/c/2/added.pom"))).isEqualTo("added");
+    final String repositoryScript = read(new File(repository, "repository.gradle"));
+    assertThat(repositoryScript)
+        .contains("def offlineRepositoryDirectory = buildscript.sourceFile.parentFile\n");
+    assertThat(repositoryScript).contains("url = offlineRepositoryDirectory.toURI()\n");
+  }
+
+  private static File write(File file, String text) throws IOException {
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static String read(File file) throws IOException {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+}
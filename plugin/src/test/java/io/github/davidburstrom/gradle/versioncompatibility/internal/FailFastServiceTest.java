@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.lang.reflect.Proxy;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationResult;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskOperationDescriptor;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+import org.junit.jupiter.api.Test;
+
+class FailFastServiceTest {
+
+  @Test
+  void runsTasksUntilAnyHasFailed() {
+    final FailFastService service = registerService().get();
+    assertThat(service.shouldRun(":a")).isTrue();
+    assertThat(service.shouldRun(":b")).isTrue();
+    service.onFinish(taskFinishEvent(":a", TaskSuccessResult.class));
+    assertThat(service.shouldRun(":c")).isTrue();
+    service.onFinish(taskFinishEvent(":b", TaskFailureResult.class));
+
+    assertThat(service.shouldRun(":d")).isFalse();
+    assertThat(service.getFailedTasks()).containsExactly(":b");
+    assertThat(service.getSkippedTasks()).containsExactly(":d");
+  }
+
+  @Test
+  void ignoresFailuresOfOtherTasks() {
+    final FailFastService service = registerService().get();
+    service.onFinish(taskFinishEvent(":compileJava", TaskFailureResult.class));
+
+    assertThat(service.shouldRun(":a")).isTrue();
+    assertThat(service.getFailedTasks()).isEmpty();
+  }
+
+  @Test
+  void ignoresOtherEvents() {
+    final FailFastService service = registerService().get();
+    service.shouldRun(":a");
+    service.onFinish(stub(FinishEvent.class, stub(TaskFailureResult.class, null)));
+
+    assertThat(service.shouldRun(":b")).isTrue();
+  }
+
+  @Test
+  void keepsTheSkippedTasksInOrderWhenClosed() {
+    final FailFastService service = registerService().get();
+    service.shouldRun(":a");
+    service.onFinish(taskFinishEvent(":a", TaskFailureResult.class));
+    assertThat(service.shouldRun(":c")).isFalse();
+    assertThat(service.shouldRun(":b")).isFalse();
+    service.close();
+
+    assertThat(service.getFailedTasks()).containsExactly(":a");
+    assertThat(service.getSkippedTasks()).containsExactly(":b", ":c").inOrder();
+  }
+
+  @Test
+  void closesWithoutSkippedTasks() {
+    final FailFastService service = registerService().get();
+    service.shouldRun(":a");
+    service.onFinish(taskFinishEvent(":a", TaskFailureResult.class));
+    service.close();
+
+    assertThat(service.getFailedTasks()).containsExactly(":a");
+    assertThat(service.getSkippedTasks()).isEmpty();
+  }
+
+  @Test
+  void specSkipsTasksAfterFailure() {
+    final Project project = ProjectBuilder.builder().build();
+    final Provider<FailFastService> serviceProvider = registerService(project);
+    final Task task = project.getTasks().create("someTest");
+    final FailFastSpec spec = new FailFastSpec(serviceProvider);
+
+    assertThat(spec.isSatisfiedBy(task)).isTrue();
+    serviceProvider.get().onFinish(taskFinishEvent(":someTest", TaskFailureResult.class));
+    assertThat(spec.isSatisfiedBy(task)).isFalse();
+  }
+
+  private static Provider<FailFastService> registerService() {
+    return registerService(ProjectBuilder.builder().build());
+  }
+
+  private static Provider<FailFastService> registerService(Project project) {
+    return project
+        .getGradle()
+        .getSharedServices()
+        .registerIfAbsent("failFast", FailFastService.class, spec -> {});
+  }
+
+  static TaskFinishEvent taskFinishEvent(
+      String taskPath, Class<? extends OperationResult> resultType) {
+    final TaskOperationDescriptor descriptor = stub(TaskOperationDescriptor.class, taskPath);
+    final OperationResult result = stub(resultType, null);
+    return (TaskFinishEvent)
+        Proxy.newProxyInstance(
+            FailFastServiceTest.class.getClassLoader(),
+            new Class<?>[] {TaskFinishEvent.class},
+            (proxy, method, args) ->
+                "getDescriptor".equals(method.getName()) ? descriptor : result);
+  }
+
+  /* Creates an instance of the interface where every method returns the given value. */
+  private static <T> T stub(Class<T> type, Object returnValue) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            FailFastServiceTest.class.getClassLoader(),
+            new Class<?>[] {type},
+            (proxy, method, args) -> returnValue));
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GenerateCompatibilityReportTest {
+  @TempDir File projectDir;
+
+  @Test
+  void reportsTheOutcomesAndTimingsOfTheTuples() throws IOException {
+    final Project project = ProjectBuilder.builder().withProjectDir(projectDir).build();
+    final Provider<TestDurationService> service =
+        project
+            .getGradle()
+            .getSharedServices()
+            .registerIfAbsent(
+                "testDurations",
+                TestDurationService.class,
+                spec -> spec.getParameters().getHistoryFile().set(file("durations.properties")));
+    write("durations.properties", "testWithLib2=3000\n");
+    write("resolution.properties", "testWithLib1=40\n");
+    write("results/1/TEST-a.xml", "<testsuite tests=\"2\" time=\"0.5\"/>");
+    service.get().started("testWithLib1");
+    service.get().finished("testWithLib1");
+
+    final GenerateCompatibilityReport task =
+        project.getTasks().register("report", GenerateCompatibilityReport.class).get();
+    task.getTuples().add(tuple(project, "1", service));
+    task.getTuples().add(tuple(project, "2", service));
+    final CompatibilityReportTuple withoutService = tuple(project, "3", service);
+    withoutService.getDurationService().set((TestDurationService) null);
+    task.getTuples().add(withoutService);
+    task.getResolutionTimesFile().set(file("resolution.properties"));
+    task.getJsonFile().set(file("report/report.json"));
+    task.getHtmlFile().set(file("report/index.html"));
+
+    task.generate();
+
+    final String json = read("report/report.json");
+    assertThat(json)
+        .containsMatch(
+            "\"task\":\"testWithLib1\",.*\"outcome\":\"passed\",\"tests\":2,.*"
+                + "\"resolutionMillis\":40,\"durationMillis\":\\d+,\"testMillis\":500,");
+    assertThat(json)
+        .contains(
+            "\"task\":\"testWithLib2\",\"suite\":\"test\",\"versions\":{\"lib\":\"2\"},"
+                + "\"outcome\":\"not run\",\"tests\":null,\"failures\":null,\"skipped\":null,"
+                + "\"resolutionMillis\":null,\"durationMillis\":3000,");
+    assertThat(json).contains("\"versions\":{\"lib\":\"3\"},\"outcome\":\"not run\"");
+    assertThat(json)
+        .endsWith("\"durationMillis\":null,\"testMillis\":null,\"overheadMillis\":null}]}");
+    assertThat(read("report/index.html")).contains("<h2>test</h2>");
+  }
+
+  @Test
+  void reportsWithoutResolutionTimesOrHistory() throws IOException {
+    final Project project = ProjectBuilder.builder().withProjectDir(projectDir).build();
+    final Provider<TestDurationService> service =
+        project
+            .getGradle()
+            .getSharedServices()
+            .registerIfAbsent(
+                "testDurations",
+                TestDurationService.class,
+                spec -> spec.getParameters().getHistoryFile().set(file("missing.properties")));
+    final GenerateCompatibilityReport task =
+        project.getTasks().register("report", GenerateCompatibilityReport.class).get();
+    task.getTuples()
+        .addAll(Arrays.asList(tuple(project, "1", service), tuple(project, "2", service)));
+    task.getJsonFile().set(file("report.json"));
+    task.getHtmlFile().set(file("index.html"));
+
+    task.generate();
+
+    assertThat(read("report.json")).doesNotContainMatch("Millis\":\\d");
+  }
+
+  private CompatibilityReportTuple tuple(
+      Project project, String version, Provider<TestDurationService> service) {
+    final CompatibilityReportTuple tuple =
+        project.getObjects().newInstance(CompatibilityReportTuple.class);
+    tuple.getSuite().set("test");
+    tuple.getTaskName().set("testWithLib" + version);
+    tuple.getDimensions().add("lib");
+    tuple.getVersions().add(version);
+    tuple.getResultsDirectory().set(file("results/" + version));
+    tuple.getDurationService().set(service);
+    return tuple;
+  }
+
+  private File file(String path) {
+    return new File(projectDir, path);
+  }
+
+  private void write(String path, String text) throws IOException {
+    Files.createDirectories(file(path).getParentFile().toPath());
+    Files.write(file(path).toPath(), text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String read(String path) throws IOException {
+    return new String(Files.readAllBytes(file(path).toPath()), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GitRevisionTest {
+  private static final String COMMIT = "0123456789abcdef0123456789abcdef01234567";
+
+  @TempDir File projectDir;
+
+  @Test
+  void readsDetachedHead() throws IOException {
+    write(".git/HEAD", COMMIT + "\n");
+    assertThat(headCommit()).isEqualTo(COMMIT);
+  }
+
+  @Test
+  void readsLooseRef() throws IOException {
+    write(".git/HEAD", "ref: refs/heads/main\n");
+    write(".git/refs/heads/main", COMMIT + "\n");
+    assertThat(headCommit()).isEqualTo(COMMIT);
+  }
+
+  @Test
+  void readsPackedRef() throws IOException {
+    write(".git/HEAD", "ref: refs/heads/main\n");
+    write(
+        ".git/packed-refs",
+        "# pack-refs with: peeled fully-peeled sorted\n"
+            + "fedcba9876543210fedcba9876543210fedcba98 refs/heads/feature/main\n"
+            + COMMIT
+            + " refs/heads/main\n");
+    assertThat(headCommit()).isEqualTo(COMMIT);
+  }
+
+  @Test
+  void missingPackedRefIsEmpty() throws IOException {
+    write(".git/HEAD", "ref: refs/heads/main\n");
+    write(".git/packed-refs", "# pack-refs with: peeled fully-peeled sorted\n");
+    assertThat(headCommit()).isEmpty();
+  }
+
+  @Test
+  void readsRepositoryInParentDirectory() throws IOException {
+    write(".git/HEAD", COMMIT + "\n");
+    assertThat(headCommit(new File(projectDir, "build/root"))).isEqualTo(COMMIT);
+  }
+
+  @Test
+  void readsSubmodule() throws IOException {
+    write("sub/.git", "gitdir: ../.git/modules/sub\n");
+    write(".git/modules/sub/HEAD", "ref: refs/heads/main\n");
+    write(".git/modules/sub/refs/heads/main", COMMIT + "\n");
+    write(".git/HEAD", "fedcba9876543210fedcba9876543210fedcba98\n");
+    assertThat(headCommit(new File(projectDir, "sub"))).isEqualTo(COMMIT);
+  }
+
+  @Test
+  void readsWorktreeBranchFromCommonDirectory() throws IOException {
+    write(
+        "worktree/.git",
+        "gitdir: " + new File(projectDir, "main/.git/worktrees/worktree").getAbsolutePath() + "\n");
+    write("main/.git/worktrees/worktree/HEAD", "ref: refs/heads/feature\n");
+    write("main/.git/worktrees/worktree/commondir", "../..\n");
+    write(
+        "main/.git/packed-refs",
+        "# pack-refs with: peeled fully-peeled sorted\n" + COMMIT + " refs/heads/feature\n");
+    assertThat(headCommit(new File(projectDir, "worktree"))).isEqualTo(COMMIT);
+  }
+
+  @Test
+  void missingRepositoryIsEmpty() {
+    assertThat(headCommit()).isEmpty();
+  }
+
+  private String headCommit() {
+    return headCommit(projectDir);
+  }
+
+  private static String headCommit(File rootDir) {
+    final Project project = ProjectBuilder.builder().withProjectDir(rootDir).build();
+    return GitRevision.headCommit(project).get();
+  }
+
+  private void write(String path, String content) throws IOException {
+    final File file = new File(projectDir, path);
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JUnitPlatformRunnerTest {
+  static final String FIXTURE_PROPERTY = "versionCompatibility.sharedJvmFixture";
+
+  @TempDir File testClassesDir;
+
+  @Test
+  void runsTestsInIsolatedClassLoader() throws IOException {
+    final List<TestResult> results = run(SharedJvmFixtureTests.class);
+
+    final Map<String, TestResult.Status> statuses = new HashMap<>();
+    for (TestResult result : results) {
+      assertThat(result.getClassName()).isEqualTo(SharedJvmFixtureTests.class.getName());
+      statuses.put(result.getName(), result.getStatus());
+    }
+    assertThat(statuses).hasSize(3);
+    assertThat(statuses).containsEntry("passes()", TestResult.Status.PASSED);
+    assertThat(statuses).containsEntry("fails()", TestResult.Status.FAILED);
+    assertThat(statuses).containsEntry("isSkipped()", TestResult.Status.SKIPPED);
+    for (TestResult result : results) {
+      if (result.getStatus() == TestResult.Status.FAILED) {
+        assertThat(result.getFailure().getMessage()).isEqualTo("Expected failure");
+      }
+    }
+  }
+
+  @Test
+  void reportsFailingContainers() throws IOException {
+    final List<TestResult> results = run(SharedJvmFailingFixtureTests.class);
+
+    assertThat(results).hasSize(1);
+    final TestResult result = results.get(0);
+    assertThat(result.getClassName()).isEqualTo(SharedJvmFailingFixtureTests.class.getName());
+    assertThat(result.getName()).isEqualTo("classMethod");
+    assertThat(result.getStatus()).isEqualTo(TestResult.Status.FAILED);
+    assertThat(result.getFailure().getMessage()).isEqualTo("Expected setup failure");
+  }
+
+  @Test
+  void reportsMissingLauncher() {
+    final IllegalStateException exception =
+        assertThrows(
+            IllegalStateException.class,
+            () ->
+                JUnitPlatformRunner.run(
+                    Collections.singletonList(testClassesDir),
+                    Collections.singletonList(testClassesDir)));
+    assertThat(exception.getMessage()).contains("junit-platform-launcher");
+  }
+
+  private List<TestResult> run(Class<?> fixture) throws IOException {
+    final String resourceName = fixture.getName().replace('.', '/') + ".class";
+    final File fixtureClass = new File(testClassesDir, resourceName);
+    Files.createDirectories(fixtureClass.getParentFile().toPath());
+    try (InputStream inputStream = fixture.getClassLoader().getResourceAsStream(resourceName)) {
+      Files.copy(inputStream, fixtureClass.toPath());
+    }
+    final List<File> classpath = new ArrayList<>();
+    classpath.add(testClassesDir);
+    for (String path : System.getProperty("java.class.path").split(File.pathSeparator, -1)) {
+      classpath.add(new File(path));
+    }
+
+    System.setProperty(FIXTURE_PROPERTY, "true");
+    try {
+      return JUnitPlatformRunner.run(classpath, Collections.singletonList(testClassesDir));
+    } finally {
+      System.clearProperty(FIXTURE_PROPERTY);
+    }
+  }
+}
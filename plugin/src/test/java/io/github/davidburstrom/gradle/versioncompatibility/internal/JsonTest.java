@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class JsonTest {
+  @Test
+  void parsesValues() {
+    final Map<String, Object> expected = new LinkedHashMap<>();
+    expected.put("b", Arrays.asList(1.0, -2.5e3, true, false, null, "x"));
+    expected.put("a", Collections.emptyMap());
+    expected.put("c", Collections.emptyList());
+    expected.put("d", Collections.singletonMap("e", "f"));
+
+    final Object value =
+        Json.parse(
+            " { \"b\" : [1, -2.5e3, true, false, null, \"x\"],\n"
+                + "\"a\": {}, \"c\": [ ], \"d\": {\"e\": \"f\"} } ");
+
+    assertThat(value).isEqualTo(expected);
+    assertThat(((Map<?, ?>) value).keySet()).containsExactly("b", "a", "c", "d").inOrder();
+  }
+
+  @Test
+  void parsesEscapes() {
+    assertThat(Json.parse("\"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00e9\""))
+        .isEqualTo("\"\\/\b\f\n\r\t\u00e9");
+  }
+
+  @Test
+  void rejectsMalformedDocuments() {
+    for (String document :
+        Arrays.asList(
+            "",
+            "{",
+            "{\"a\" 1}",
+            "{1: 2}",
+            "[1 2]",
+            "[1,]",
+            "\"a",
+            "\"\\x\"",
+            "\"\\",
+            "\"\\u12\"",
+            "\"\\uxyzw\"",
+            "-",
+            "nope",
+            "1 2")) {
+      assertThrows(IllegalArgumentException.class, () -> Json.parse(document), document);
+    }
+  }
+
+  @Test
+  void reportsTheOffsetOfErrors() {
+    assertThat(assertThrows(IllegalArgumentException.class, () -> Json.parse("[1 2]")).getMessage())
+        .isEqualTo("Expected ']' at offset 3");
+  }
+
+  @Test
+  void formatsValues() {
+    final Map<String, Object> value = new LinkedHashMap<>();
+    value.put("b", Arrays.asList(1L, -2.5, 0.5f, true, false, null, "x y"));
+    value.put("a", Collections.emptyMap());
+    value.put("c", Collections.emptyList());
+    value.put("d", Collections.singletonMap("e", new StringBuilder("f")));
+    value.put("quote\"", "back\\slash\n\u0001/\u00e9");
+
+    final String json = Json.format(value);
+
+    assertThat(json)
+        .isEqualTo(
+            "{\"b\":[1,-2.5,0.5,true,false,null,\"x y\"],\"a\":{},\"c\":[],\"d\":{\"e\":\"f\"},"
+                + "\"quote\\\"\":\"back\\\\slash\\u000a\\u0001/\u00e9\"}");
+    assertThat(((Map<?, ?>) Json.parse(json)).get("quote\""))
+        .isEqualTo("back\\slash\n\u0001/\u00e9");
+  }
+
+  @Test
+  void rejectsUnformattableValues() {
+    for (Object value :
+        Arrays.asList(
+            new Object(),
+            Double.NaN,
+            Double.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY,
+            Collections.singletonMap(1, "a"),
+            Collections.singletonList(new Object()))) {
+      assertThrows(IllegalArgumentException.class, () -> Json.format(value), String.valueOf(value));
+    }
+  }
+}
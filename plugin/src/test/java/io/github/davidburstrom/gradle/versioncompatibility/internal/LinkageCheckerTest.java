@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LinkageCheckerTest {
+  private static final Map<String, ClassFile> CLASSPATH =
+      SymbolIndex.parse(
+          "C lib/Base java/lang/Object lib/Api\n"
+              + "F count:I\n"
+              + "M base()V\n"
+              + "C lib/Api -\n"
+              + "M api()V\n"
+              + "C lib/Impl lib/Base\n"
+              + "C lib/Broken lib/Gone\n");
+
+  @Test
+  void acceptsResolvableReferences() {
+    final ClassFile user =
+        user(
+            Arrays.asList("lib/Impl", "java/lang/String"),
+            Arrays.asList(
+                new ClassFile.MemberReference("lib/Impl", "base", "()V", false),
+                new ClassFile.MemberReference("lib/Impl", "api", "()V", false),
+                new ClassFile.MemberReference("lib/Impl", "count", "I", true),
+                new ClassFile.MemberReference("lib/Impl", "hashCode", "()I", false),
+                new ClassFile.MemberReference("java/lang/String", "length", "()I", false),
+                new ClassFile.MemberReference(
+                    "[Llib/Impl;", "clone", "()Ljava/lang/Object;", false),
+                new ClassFile.MemberReference(
+                    "java/lang/invoke/MethodHandle", "invokeExact", "(I)V", false)));
+
+    assertThat(new LinkageChecker(CLASSPATH).check(Collections.singletonList(user))).isEmpty();
+  }
+
+  @Test
+  void reportsMissingSymbols() {
+    final ClassFile user =
+        user(
+            Arrays.asList("lib/Impl", "lib/Missing"),
+            Arrays.asList(
+                new ClassFile.MemberReference("lib/Impl", "removed", "()V", false),
+                new ClassFile.MemberReference("lib/Impl", "count", "J", true),
+                new ClassFile.MemberReference("lib/Broken", "any", "()V", false),
+                new ClassFile.MemberReference("lib/Missing", "any", "()V", false)));
+
+    assertThat(new LinkageChecker(CLASSPATH).check(Collections.singletonList(user)))
+        .containsExactly(
+            "Missing class lib.Gone",
+            "Missing class lib.Missing",
+            "Missing field lib.Impl.count:J",
+            "Missing method lib.Impl.removed()V")
+        .inOrder();
+  }
+
+  private static ClassFile user(
+      List<String> referencedClasses, List<ClassFile.MemberReference> referencedMembers) {
+    return new ClassFile(
+        "app/User",
+        "java/lang/Object",
+        Collections.emptyList(),
+        Collections.emptySet(),
+        Collections.emptySet(),
+        new LinkedHashSet<>(referencedClasses),
+        referencedMembers);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class PerformanceBaselineTest {
+  private static final String THROUGHPUT_KEY =
+      "jmhCompatibilityWithLang3Dot0 a.Bench.remove (thrpt, size=10, kind=bytes)";
+  private static final String AVERAGE_TIME_KEY = "jmhCompatibilityWithLang3Dot0 a.Bench.get (avgt)";
+
+  @Test
+  void formatsAndParsesScores() {
+    final Map<String, Double> scores = new TreeMap<>();
+    scores.put(THROUGHPUT_KEY, 1234.5);
+    scores.put("other a:b=c#d!e\\f", 0.25);
+
+    final String text = PerformanceBaseline.format(scores);
+
+    assertThat(text)
+        .isEqualTo(
+            "# Compatibility benchmark scores\n"
+                + "jmhCompatibilityWithLang3Dot0\\ a.Bench.remove\\ (thrpt,\\ size\\=10,\\"
+                + " kind\\=bytes)=1234.5\n"
+                + "other\\ a\\:b\\=c\\#d\\!e\\\\f=0.25\n");
+    assertThat(PerformanceBaseline.parse(text)).isEqualTo(scores);
+  }
+
+  @Test
+  void rejectsMalformedScores() {
+    assertThat(
+            assertThrows(IllegalArgumentException.class, () -> PerformanceBaseline.parse("a=b"))
+                .getMessage())
+        .isEqualTo("Malformed score 'b' of 'a' in the performance baseline");
+  }
+
+  @Test
+  void updatesOnlyTheBenchmarkedTasks() {
+    final Map<String, Double> baseline = new TreeMap<>();
+    baseline.put(THROUGHPUT_KEY, 1.0);
+    baseline.put("jmhCompatibilityWithLang3Dot0 a.Bench.removed (avgt)", 2.0);
+    baseline.put("jmhCompatibilityWithLang3Dot1 a.Bench.get (avgt)", 3.0);
+
+    final Map<String, Double> expected = new TreeMap<>();
+    expected.put(THROUGHPUT_KEY, 1_234.567_89);
+    expected.put("jmhCompatibilityWithLang3Dot1 a.Bench.get (avgt)", 3.0);
+    /* The NaN score of a.Bench.legacy is not recorded. */
+    assertThat(
+            PerformanceBaseline.update(
+                baseline,
+                Collections.singletonMap(
+                    "jmhCompatibilityWithLang3Dot0", BenchmarkComparisonTest.OLD_RESULTS)))
+        .isEqualTo(expected);
+  }
+
+  @Test
+  void reportsOnlyTheRegressedTasks() {
+    final Map<String, Double> baseline = new TreeMap<>();
+    baseline.put(THROUGHPUT_KEY, 2000.0);
+    baseline.put(AVERAGE_TIME_KEY, 10.0);
+    baseline.put(
+        "jmhCompatibilityWithLang3Dot1 a.Bench.remove (thrpt, size=10, kind=bytes)", 2000.0);
+
+    final Map<String, String> resultsByTask = new LinkedHashMap<>();
+    resultsByTask.put(
+        "jmhCompatibilityWithLang3Dot0",
+        "[{\"benchmark\": \"a.Bench.remove\", \"mode\": \"thrpt\","
+            + " \"params\": {\"size\": \"10\", \"kind\": \"bytes\"},"
+            + " \"primaryMetric\": {\"score\": 1700, \"scoreUnit\": \"ops/s\"}},"
+            + " {\"benchmark\": \"a.Bench.get\", \"mode\": \"avgt\","
+            + " \"primaryMetric\": {\"score\": 12, \"scoreUnit\": \"us/op\"}},"
+            + " {\"benchmark\": \"a.Bench.added\", \"mode\": \"avgt\","
+            + " \"primaryMetric\": {\"score\": 100, \"scoreUnit\": \"us/op\"}}]");
+    resultsByTask.put("jmhCompatibilityWithLang3Dot1", BenchmarkComparisonTest.NEW_RESULTS);
+
+    assertThat(PerformanceBaseline.regressions(baseline, resultsByTask, 0.1))
+        .isEqualTo(
+            Collections.singletonMap(
+                "jmhCompatibilityWithLang3Dot0",
+                Arrays.asList(
+                    "a.Bench.remove (thrpt, size=10, kind=bytes): 1700.000 ops/s,"
+                        + " baseline 2000.000 (-15.0%)",
+                    "a.Bench.get (avgt): 12.000 us/op, baseline 10.000 (+20.0%)")));
+    assertThat(PerformanceBaseline.regressions(baseline, resultsByTask, 0.2)).isEmpty();
+  }
+
+  @Test
+  void toleratesScoresAtTheThreshold() {
+    final Map<String, String> resultsByTask =
+        Collections.singletonMap(
+            "jmhCompatibilityWithLang3Dot0",
+            "[{\"benchmark\": \"a.Bench.get\", \"mode\": \"avgt\","
+                + " \"primaryMetric\": {\"score\": 12, \"scoreUnit\": \"us/op\"}},"
+                + " {\"benchmark\": \"a.Bench.remove\", \"mode\": \"thrpt\","
+                + " \"params\": {\"size\": \"10\", \"kind\": \"bytes\"},"
+                + " \"primaryMetric\": {\"score\": 8, \"scoreUnit\": \"ops/s\"}},"
+                + " {\"benchmark\": \"a.Bench.legacy\", \"mode\": \"avgt\","
+                + " \"primaryMetric\": {\"score\": \"NaN\", \"scoreUnit\": \"us/op\"}}]");
+    final Map<String, Double> baseline = new TreeMap<>();
+    baseline.put(AVERAGE_TIME_KEY, 10.0);
+    baseline.put(THROUGHPUT_KEY, 10.0);
+    baseline.put("jmhCompatibilityWithLang3Dot0 a.Bench.legacy (avgt)", 1.0);
+
+    assertThat(PerformanceBaseline.regressions(baseline, resultsByTask, 0.2)).isEmpty();
+    assertThat(PerformanceBaseline.regressions(baseline, resultsByTask, 0.19).keySet())
+        .containsExactly("jmhCompatibilityWithLang3Dot0");
+  }
+
+  @Test
+  void rejectsNegativeThreshold() {
+    assertThat(
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () ->
+                        PerformanceBaseline.regressions(
+                            Collections.emptyMap(), Collections.emptyMap(), -0.1))
+                .getMessage())
+        .isEqualTo("The performance regression threshold must not be negative, got -0.1");
+    assertThat(PerformanceBaseline.regressions(Collections.emptyMap(), Collections.emptyMap(), 0.0))
+        .isEmpty();
+  }
+}
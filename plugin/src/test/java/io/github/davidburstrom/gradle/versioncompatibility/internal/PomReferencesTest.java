@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class PomReferencesTest {
+  @Test
+  void findsParentAndImportedBoms() {
+    assertThat(
+            PomReferences.parse(
+                "<?xml version=\"1.0\"?>\n"
+                    + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                    + "  <parent>\n"
+                    + "    <groupId>com.example</groupId>\n"
+                    + "    <artifactId>parent</artifactId>\n"
+                    + "    <version>1.0</version>\n"
+                    + "    <relativePath>../pom.xml</relativePath>\n"
+                    + "  </parent>\n"
+                    + "  <artifactId>lib</artifactId>\n"
+                    + "  <version>2.0</version>\n"
+                    + "  <properties>\n"
+                    + "    <other.version>3.0</other.version>\n"
+                    + "  </properties>\n"
+                    + "  <dependencyManagement>\n"
+                    + "    <dependencies>\n"
+                    + "      <dependency>\n"
+                    + "        <groupId>${project.groupId}</groupId>\n"
+                    + "        <artifactId>bom</artifactId>\n"
+                    + "        <version>${pom.version}</version>\n"
+                    + "        <type>pom</type>\n"
+                    + "        <scope>import</scope>\n"
+                    + "      </dependency>\n"
+                    + "      <dependency>\n"
+                    + "        <groupId>com.other</groupId>\n"
+                    + "        <artifactId>other-bom</artifactId>\n"
+                    + "        <version>v${other.version}-${other.version}</version>\n"
+                    + "        <type>pom</type>\n"
+                    + "        <scope>import</scope>\n"
+                    + "      </dependency>\n"
+                    + "      <dependency>\n"
+                    + "        <groupId>com.other</groupId>\n"
+                    + "        <artifactId>managed</artifactId>\n"
+                    + "        <version>1.0</version>\n"
+                    + "        <exclusions>\n"
+                    + "          <exclusion>\n"
+                    + "            <groupId>com.excluded</groupId>\n"
+                    + "            <artifactId>excluded</artifactId>\n"
+                    + "          </exclusion>\n"
+                    + "        </exclusions>\n"
+                    + "      </dependency>\n"
+                    + "    </dependencies>\n"
+                    + "  </dependencyManagement>\n"
+                    + "  <dependencies>\n"
+                    + "    <dependency>\n"
+                    + "      <groupId>com.other</groupId>\n"
+                    + "      <artifactId>dependency</artifactId>\n"
+                    + "      <version>1.0</version>\n"
+                    + "      <type>pom</type>\n"
+                    + "      <scope>import</scope>\n"
+                    + "    </dependency>\n"
+                    + "  </dependencies>\n"
+                    + "</project>\n"))
+        .containsExactly(
+            "com.example:parent:1.0", "com.example:bom:2.0", "com.other:other-bom:v3.0-3.0")
+        .inOrder();
+  }
+
+  @Test
+  void inheritsVersionFromParent() {
+    assertThat(
+            PomReferences.parse(
+                "<project>"
+                    + "<parent><groupId>a</groupId><artifactId>p</artifactId><version>1</version>"
+                    + "</parent>"
+                    + "<dependencyManagement><dependencies><dependency>"
+                    + "<groupId>b</groupId><artifactId>bom</artifactId>"
+                    + "<version>${project.version}</version><type>pom</type><scope>import</scope>"
+                    + "</dependency></dependencies></dependencyManagement>"
+                    + "</project>"))
+        .containsExactly("a:p:1", "b:bom:1")
+        .inOrder();
+  }
+
+  @Test
+  void ignoresUnresolvableReferences() {
+    assertThat(
+            PomReferences.parse(
+                "<project>"
+                    + "<groupId>a</groupId><artifactId>lib</artifactId><version>1</version>"
+                    + "<dependencyManagement><dependencies><dependency>"
+                    + "<groupId>b</groupId><artifactId>bom</artifactId>"
+                    + "<version>${inherited.version}</version><type>pom</type><scope>import</scope>"
+                    + "</dependency><dependency>"
+                    + "<groupId>b</groupId><artifactId>unversioned</artifactId>"
+                    + "<type>pom</type><scope>import</scope>"
+                    + "</dependency></dependencies></dependencyManagement>"
+                    + "</project>"))
+        .isEmpty();
+  }
+
+  @Test
+  void rejectsMalformedPom() {
+    final IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> PomReferences.parse("<project>"));
+    assertThat(exception.getMessage()).isEqualTo("Could not parse the POM");
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.ArtifactCollection;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResolveCompatibilityClasspathsTest {
+  @TempDir File tempDir;
+  private final ResolveCompatibilityClasspaths task =
+      ProjectBuilder.builder()
+          .build()
+          .getTasks()
+          .register("resolve", ResolveCompatibilityClasspaths.class)
+          .get();
+
+  @Test
+  void resolvesClasspaths() throws IOException {
+    final File resolutionTimesFile = new File(tempDir, "times/resolution.properties");
+    task.getResolutionTimesFile().set(resolutionTimesFile);
+    task.getClasspaths().put("a", artifactCollection(2, Collections.emptyList()));
+    task.getClasspaths().put("b", artifactCollection(0, Collections.emptyList()));
+
+    task.resolve();
+
+    assertThat(new String(Files.readAllBytes(resolutionTimesFile.toPath()), StandardCharsets.UTF_8))
+        .matches("# Compatibility classpath resolution times in milliseconds\na=\\d+\nb=\\d+\n");
+  }
+
+  @Test
+  void failsWithAllUnresolvedClasspaths() {
+    task.getClasspaths()
+        .put(
+            "a",
+            artifactCollection(
+                0,
+                Arrays.asList(
+                    new IllegalStateException("first"), new IllegalStateException("second"))));
+    task.getClasspaths().put("b", artifactCollection(1, Collections.emptyList()));
+    task.getClasspaths()
+        .put(
+            "c",
+            artifactCollection(0, Collections.singletonList(new IllegalStateException("third"))));
+
+    final GradleException exception = assertThrows(GradleException.class, task::resolve);
+
+    assertThat(exception.getMessage())
+        .isEqualTo(
+            "Could not resolve the classpaths of the compatibility tests:\n"
+                + "  a: first\n"
+                + "  a: second\n"
+                + "  c: third");
+  }
+
+  @Test
+  void writesTheResolutionTimes() throws IOException {
+    final File resolutionTimesFile = new File(tempDir, "times/resolution.properties");
+    task.getResolutionTimesFile().set(resolutionTimesFile);
+    task.getClasspaths().put("b", artifactCollection(0, Collections.emptyList()));
+    task.getClasspaths()
+        .put(
+            "a",
+            artifactCollection(0, Collections.singletonList(new IllegalStateException("first"))));
+
+    assertThrows(GradleException.class, task::resolve);
+
+    assertThat(new String(Files.readAllBytes(resolutionTimesFile.toPath()), StandardCharsets.UTF_8))
+        .matches("# Compatibility classpath resolution times in milliseconds\na=\\d+\nb=\\d+\n");
+  }
+
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  private static ArtifactCollection artifactCollection(
+      int artifactCount, Collection<Throwable> failures) {
+    final Set<ResolvedArtifactResult> artifacts = new HashSet<>();
+    for (int index = 0; index < artifactCount; index++) {
+      artifacts.add(
+          (ResolvedArtifactResult)
+              Proxy.newProxyInstance(
+                  ResolveCompatibilityClasspathsTest.class.getClassLoader(),
+                  new Class<?>[] {ResolvedArtifactResult.class},
+                  (proxy, method, args) ->
+                      "hashCode".equals(method.getName())
+                          ? System.identityHashCode(proxy)
+                          : proxy == args[0]));
+    }
+    return (ArtifactCollection)
+        Proxy.newProxyInstance(
+            ResolveCompatibilityClasspathsTest.class.getClassLoader(),
+            new Class<?>[] {ArtifactCollection.class},
+            (proxy, method, args) ->
+                "getArtifacts".equals(method.getName()) ? artifacts : failures);
+  }
+}
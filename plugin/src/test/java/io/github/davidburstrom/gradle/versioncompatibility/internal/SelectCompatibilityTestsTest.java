@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SelectCompatibilityTestsTest {
+  @TempDir File projectDir;
+
+  @Test
+  void selectsTheTestClassesThatReachTheDependencies() throws IOException {
+    copyClass(TestDurationRecorder.class, "test");
+    copyClass(FailFastSpec.class, "test");
+    copyClass(DuplicateTestSpec.class, "test");
+    copyClass(TestDurationService.class, "main");
+    copyClass(FailFastService.class, "main");
+    copyClass(DuplicateTestService.class, "api");
+    write("lib.symbols", "C java/nio/file/Files java/lang/Object\n");
+    final SelectCompatibilityTests task = registerTask();
+
+    task.select();
+
+    final String recorder = ClassFileTest.internalName(TestDurationRecorder.class);
+    final String duplicateSpec = ClassFileTest.internalName(DuplicateTestSpec.class);
+    assertThat(read("selection.txt"))
+        .isEqualTo(
+            duplicateSpec
+                + ".class\n"
+                + duplicateSpec
+                + "$*.class\n"
+                + recorder
+                + ".class\n"
+                + recorder
+                + "$*.class\n");
+  }
+
+  @Test
+  void selectsAllTestClassesWithoutDependencyClasses() throws IOException {
+    copyClass(FailFastSpec.class, "test");
+    write("lib.symbols", "");
+    final SelectCompatibilityTests task = registerTask();
+
+    task.select();
+
+    assertThat(read("selection.txt")).isEqualTo("**\n");
+  }
+
+  @Test
+  void filtersTheTestTaskBySelection() throws IOException {
+    final Project project = ProjectBuilder.builder().withProjectDir(projectDir).build();
+    final org.gradle.api.tasks.testing.Test test =
+        project.getTasks().register("test", org.gradle.api.tasks.testing.Test.class).get();
+    final TestSelectionFilter filter = new TestSelectionFilter(file("selection.txt"));
+
+    write("selection.txt", "");
+    assertThat(filter.isSatisfiedBy(test)).isFalse();
+
+    write("selection.txt", "app/FooTest.class\napp/FooTest$*.class\n");
+    assertThat(filter.isSatisfiedBy(test)).isTrue();
+    filter.execute(test);
+    assertThat(test.getIncludes()).containsExactly("app/FooTest.class", "app/FooTest$*.class");
+  }
+
+  private SelectCompatibilityTests registerTask() {
+    final Project project = ProjectBuilder.builder().withProjectDir(projectDir).build();
+    final SelectCompatibilityTests task =
+        project.getTasks().register("select", SelectCompatibilityTests.class).get();
+    task.getTestClasses().from(file("test"));
+    task.getProductionClasses().from(file("main"));
+    task.getDependencyClasses().from(file("api"));
+    task.getDependencySymbolIndexes().from(file("lib.symbols"));
+    task.getSelectionFile().set(file("selection.txt"));
+    return task;
+  }
+
+  private void copyClass(Class<?> type, String directory) throws IOException {
+    final File file = file(directory + "/" + ClassFileTest.internalName(type) + ".class");
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), ClassFileTest.classBytes(type));
+  }
+
+  private void write(String path, String content) throws IOException {
+    Files.write(file(path).toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String read(String path) throws IOException {
+    return new String(Files.readAllBytes(file(path).toPath()), StandardCharsets.UTF_8);
+  }
+
+  private File file(String path) {
+    return new File(projectDir, path);
+  }
+}
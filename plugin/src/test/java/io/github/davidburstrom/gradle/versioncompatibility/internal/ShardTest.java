@@ -0,0 +1,180 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ShardTest {
+
+  @Test
+  void eachTupleBelongsToExactlyOneShard() {
+    final List<Shard> shards = new ArrayList<>();
+    for (int index = 1; index <= 8; index++) {
+      shards.add(Shard.parse(index + "/8"));
+    }
+    final int[] shardSizes = new int[shards.size()];
+    for (List<NamedVersion> tuple : tuples(100)) {
+      int containingShards = 0;
+      for (int index = 0; index < shards.size(); index++) {
+        if (shards.get(index).contains(tuple)) {
+          containingShards++;
+          shardSizes[index]++;
+        }
+      }
+      assertThat(containingShards).isEqualTo(1);
+    }
+    for (int shardSize : shardSizes) {
+      assertThat(shardSize).isGreaterThan(0);
+    }
+  }
+
+  @Test
+  void assignmentIsIndependentOfOtherTuples() {
+    final Shard shard = Shard.parse("2/3");
+    final List<NamedVersion> tuple =
+        Arrays.asList(new NamedVersion("Gradle", "7.0"), new NamedVersion("Java", "8"));
+    assertThat(shard.contains(tuple)).isEqualTo(shard.contains(new ArrayList<>(tuple)));
+  }
+
+  @Test
+  void assignmentIsStable() {
+    final List<NamedVersion> tuple =
+        Arrays.asList(new NamedVersion("Gradle", "7.0"), new NamedVersion("Java", "8"));
+    assertThat(Shard.parse("1/3").contains(tuple)).isTrue();
+    assertThat(Shard.parse("2/3").contains(tuple)).isFalse();
+    assertThat(Shard.parse("3/3").contains(tuple)).isFalse();
+  }
+
+  @Test
+  void singleShardContainsEverything() {
+    assertThat(Shard.ALL.contains(Collections.emptyList())).isTrue();
+    for (List<NamedVersion> tuple : tuples(10)) {
+      assertThat(Shard.parse("1/1").contains(tuple)).isTrue();
+    }
+  }
+
+  @Test
+  void parsesWhitespace() {
+    assertThat(Shard.parse(" 3 / 8 ").toString()).isEqualTo("3/8");
+  }
+
+  @Test
+  void invalidShardsAreRejected() {
+    for (String specification : Arrays.asList("3", "0/8", "9/8", "a/8", "3/b", "-1/-1", "/")) {
+      final IllegalArgumentException exception =
+          assertThrows(IllegalArgumentException.class, () -> Shard.parse(specification));
+      assertThat(exception.getMessage())
+          .isEqualTo(
+              "Invalid shard "
+                  + specification
+                  + ", expected <index>/<count> where 1 <= index <= count, e.g. 3/8");
+    }
+  }
+
+  @Test
+  void selectsByHashWithoutDurations() {
+    final List<List<NamedVersion>> tuples = tuples(20);
+    final Shard shard = Shard.parse("2/3");
+    final BitSet selected =
+        shard.select(tuples, keys(tuples.size()), Collections.singletonMap("unknown", 10L));
+    for (int tuple = 0; tuple < tuples.size(); tuple++) {
+      assertThat(selected.get(tuple)).isEqualTo(shard.contains(tuples.get(tuple)));
+    }
+  }
+
+  @Test
+  void packsLongestDurationsFirst() {
+    final Map<String, Long> durations = new HashMap<>();
+    durations.put("task0", 10L);
+    durations.put("task1", 70L);
+    durations.put("task2", 20L);
+    durations.put("task3", 40L);
+    durations.put("task4", 30L);
+    final List<List<NamedVersion>> tuples = tuples(5);
+
+    /* 70 -> shard 1, 40 -> shard 2, 30 -> shard 2, 20 -> shard 1, 10 -> shard 2. */
+    assertThat(Shard.parse("1/2").select(tuples, keys(5), durations)).isEqualTo(bits(1, 2));
+    assertThat(Shard.parse("2/2").select(tuples, keys(5), durations)).isEqualTo(bits(0, 3, 4));
+  }
+
+  @Test
+  void unknownDurationsAreExpectedToBeAverage() {
+    final Map<String, Long> durations = new HashMap<>();
+    durations.put("task0", 100L);
+    durations.put("task1", 51L);
+    durations.put("task2", 49L);
+    final List<List<NamedVersion>> tuples = tuples(4);
+
+    /* 100 -> shard 1, 66 (task3) -> shard 2, 51 -> shard 2, 49 -> shard 1. */
+    assertThat(Shard.parse("1/2").select(tuples, keys(4), durations)).isEqualTo(bits(0, 2));
+    assertThat(Shard.parse("2/2").select(tuples, keys(4), durations)).isEqualTo(bits(1, 3));
+  }
+
+  @Test
+  void equalDurationsArePackedInOrder() {
+    final Map<String, Long> durations = new HashMap<>();
+    for (int tuple = 0; tuple < 4; tuple++) {
+      durations.put("task" + tuple, 0L);
+    }
+    final List<List<NamedVersion>> tuples = tuples(4);
+
+    assertThat(Shard.parse("1/3").select(tuples, keys(4), durations)).isEqualTo(bits(0, 3));
+    assertThat(Shard.parse("2/3").select(tuples, keys(4), durations)).isEqualTo(bits(1));
+    assertThat(Shard.parse("3/3").select(tuples, keys(4), durations)).isEqualTo(bits(2));
+  }
+
+  @Test
+  void countIsParsed() {
+    assertThat(Shard.parse("3/8").getCount()).isEqualTo(8);
+    assertThat(Shard.ALL.getCount()).isEqualTo(1);
+  }
+
+  private static List<String> keys(int count) {
+    final List<String> keys = new ArrayList<>();
+    for (int tuple = 0; tuple < count; tuple++) {
+      keys.add("task" + tuple);
+    }
+    return keys;
+  }
+
+  private static BitSet bits(int... indices) {
+    final BitSet bits = new BitSet();
+    for (int index : indices) {
+      bits.set(index);
+    }
+    return bits;
+  }
+
+  private static List<List<NamedVersion>> tuples(int count) {
+    final List<List<NamedVersion>> tuples = new ArrayList<>();
+    for (int version = 0; version < count; version++) {
+      tuples.add(
+          Arrays.asList(
+              new NamedVersion("Gradle", "8." + version), new NamedVersion("Java", "17")));
+    }
+    return tuples;
+  }
+}
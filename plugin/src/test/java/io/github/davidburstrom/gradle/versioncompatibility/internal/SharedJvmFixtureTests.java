@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/** Test fixture for {@link JUnitPlatformRunnerTest}, which is only enabled when run by it. */
+@EnabledIfSystemProperty(named = JUnitPlatformRunnerTest.FIXTURE_PROPERTY, matches = "true")
+class SharedJvmFixtureTests {
+  @Test
+  void passes() {}
+
+  @Test
+  void fails() {
+    fail("Expected failure");
+  }
+
+  @Disabled
+  @Test
+  void isSkipped() {}
+}
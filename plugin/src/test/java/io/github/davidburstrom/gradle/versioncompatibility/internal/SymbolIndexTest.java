@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.ClassFileTest.classBytes;
+import static io.github.davidburstrom.gradle.versioncompatibility.internal.ClassFileTest.internalName;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SymbolIndexTest {
+  private static final String INDEX =
+      "C a/B java/lang/Object java/lang/Runnable java/io/Serializable\n"
+          + "F count:I\n"
+          + "M run()V\n"
+          + "M <init>()V\n"
+          + "C a/C -\n";
+
+  @TempDir File tempDir;
+
+  @Test
+  void roundTripsTheIndex() {
+    final Map<String, ClassFile> classes = SymbolIndex.parse(INDEX);
+
+    assertThat(classes.keySet()).containsExactly("a/B", "a/C").inOrder();
+    final ClassFile classB = classes.get("a/B");
+    assertThat(classB.getSuperName()).isEqualTo("java/lang/Object");
+    assertThat(classB.getInterfaces())
+        .containsExactly("java/lang/Runnable", "java/io/Serializable")
+        .inOrder();
+    assertThat(classB.getFields()).containsExactly("count:I");
+    assertThat(classB.getMethods()).containsExactly("run()V", "<init>()V").inOrder();
+    assertThat(classes.get("a/C").getSuperName()).isNull();
+    assertThat(SymbolIndex.format(classes.values())).isEqualTo(INDEX);
+  }
+
+  @Test
+  void rejectsMalformedIndexes() {
+    assertThrows(IllegalArgumentException.class, () -> SymbolIndex.parse("M run()V\n"));
+    assertThrows(IllegalArgumentException.class, () -> SymbolIndex.parse("X a/B -\n"));
+    assertThrows(IllegalArgumentException.class, () -> SymbolIndex.parse("C a/B\n"));
+  }
+
+  @Test
+  void readsClassDirectoriesAndJars() throws IOException {
+    final byte[] fixture = classBytes(ClassFileTest.Fixture.class);
+    final Path classFile =
+        tempDir
+            .toPath()
+            .resolve("classes")
+            .resolve(internalName(ClassFileTest.Fixture.class) + ".class");
+    Files.createDirectories(classFile.getParent());
+    Files.write(classFile, fixture);
+    Files.write(classFile.resolveSibling("module-info.class"), new byte[0]);
+    Files.write(classFile.resolveSibling("resource.txt"), new byte[0]);
+    final File jar = new File(tempDir, "lib.jar");
+    try (OutputStream outputStream = Files.newOutputStream(jar.toPath());
+        ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+      zipOutputStream.putNextEntry(new ZipEntry("META-INF/versions/9/a/B.class"));
+      zipOutputStream.putNextEntry(new ZipEntry("package-info.class"));
+      zipOutputStream.putNextEntry(
+          new ZipEntry(internalName(ClassFileTest.Fixture.class) + ".class"));
+      zipOutputStream.write(fixture);
+    }
+
+    for (File file : Arrays.asList(new File(tempDir, "classes"), jar)) {
+      final List<String> names =
+          SymbolIndex.readClasses(file).stream()
+              .map(ClassFile::getName)
+              .collect(Collectors.toList());
+      assertThat(names).containsExactly(internalName(ClassFileTest.Fixture.class));
+    }
+    assertThat(SymbolIndex.readClasses(new File(tempDir, "missing"))).isEmpty();
+  }
+}
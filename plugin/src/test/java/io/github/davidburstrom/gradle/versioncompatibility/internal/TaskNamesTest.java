@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TaskNamesTest {
+  private static final List<NamedVersion> TUPLE =
+      Arrays.asList(new NamedVersion("gradle", "7.6-rc-1"), new NamedVersion("Java", "8"));
+
+  @Test
+  void createsTaskName() {
+    assertThat(TaskNames.compatibilityTestTaskName("test", TUPLE))
+        .isEqualTo("testCompatibilityWithGradle7Dot6DashrcDash1AndJava8");
+  }
+
+  @Test
+  void createsBisectionTaskName() {
+    assertThat(TaskNames.bisectionTaskName("functionalTest", "commons-lang"))
+        .isEqualTo("bisectFunctionalTestCompatibilityWithCommonsDashlang");
+  }
+
+  @Test
+  void createsLinkageCheckTaskName() {
+    assertThat(TaskNames.linkageCheckTaskName("functionalTest", TUPLE))
+        .isEqualTo("checkFunctionalTestCompatibilityLinkageWithGradle7Dot6DashrcDash1AndJava8");
+  }
+
+  @Test
+  void createsTestSelectionTaskName() {
+    assertThat(TaskNames.testSelectionTaskName("functionalTest", TUPLE))
+        .isEqualTo("selectFunctionalTestCompatibilityTestsWithGradle7Dot6DashrcDash1AndJava8");
+  }
+
+  @Test
+  void createsPerformanceTaskNames() {
+    assertThat(TaskNames.performanceCheckTaskName("jmh"))
+        .isEqualTo("checkJmhCompatibilityPerformance");
+    assertThat(TaskNames.performanceBaselineTaskName("jmh"))
+        .isEqualTo("updateJmhCompatibilityBaseline");
+  }
+
+  @Test
+  void createsTaskDescription() {
+    assertThat(TaskNames.compatibilityTestTaskDescription(TUPLE))
+        .isEqualTo("gradle 7.6-rc-1 and Java 8");
+  }
+
+  @Test
+  void createsTaskNameForEmptyTuple() {
+    assertThat(TaskNames.compatibilityTestTaskName("test", Collections.emptyList()))
+        .isEqualTo("testCompatibilityWith");
+  }
+
+  @Test
+  void capitalizesOnlyLowerCaseCharacters() {
+    assertThat(TaskNames.capitalize("")).isEqualTo("");
+    assertThat(TaskNames.capitalize("abc")).isEqualTo("Abc");
+    assertThat(TaskNames.capitalize("Abc")).isEqualTo("Abc");
+    assertThat(TaskNames.capitalize("1bc")).isEqualTo("1bc");
+  }
+
+  @Test
+  void unpunctuatesDotsAndDashes() {
+    assertThat(TaskNames.unpunctuate("1.0-SNAPSHOT")).isEqualTo("1Dot0DashSNAPSHOT");
+  }
+}
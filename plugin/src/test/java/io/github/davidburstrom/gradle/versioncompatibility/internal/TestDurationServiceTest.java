@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestDurationServiceTest {
+  @TempDir File projectDir;
+
+  @Test
+  void recordsDurationsOfFinishedTasks() throws InterruptedException {
+    final TestDurationService service = registerService().get();
+    service.started("a");
+    service.started("b");
+    Thread.sleep(5);
+    service.finished("a");
+    service.finished("c");
+
+    assertThat(service.getDurations().keySet()).containsExactly("a");
+    assertThat(service.getDurations().get("a")).isAtLeast(5L);
+  }
+
+  @Test
+  void mergesDurationsIntoHistoryOnClose() throws IOException {
+    final File historyFile = new File(projectDir, "durations/history.properties");
+    Files.createDirectories(historyFile.getParentFile().toPath());
+    Files.write(historyFile.toPath(), "a=1\nb=2\n".getBytes(StandardCharsets.UTF_8));
+
+    final TestDurationService service = registerService().get();
+    service.started("b");
+    service.finished("b");
+    service.close();
+
+    assertThat(readHistory()).containsEntry("a", 1L);
+    assertThat(readHistory()).containsKey("b");
+    assertThat(readHistory()).hasSize(2);
+  }
+
+  @Test
+  void createsHistoryOnClose() throws IOException {
+    final TestDurationService service = registerService().get();
+    service.started("a");
+    service.finished("a");
+    service.close();
+
+    assertThat(readHistory()).containsKey("a");
+  }
+
+  @Test
+  void doesNotCreateHistoryWithoutDurations() {
+    registerService().get().close();
+
+    assertThat(new File(projectDir, "durations/history.properties").exists()).isFalse();
+  }
+
+  @Test
+  void recorderAndTaskCompletionReportToService() {
+    final Project project = ProjectBuilder.builder().withProjectDir(projectDir).build();
+    final Provider<TestDurationService> serviceProvider = registerService(project);
+    final Task task = project.getTasks().create("someTest");
+
+    TestDurationRecorder.start(serviceProvider).execute(task);
+    serviceProvider
+        .get()
+        .onFinish(FailFastServiceTest.taskFinishEvent(":someTest", TaskSuccessResult.class));
+
+    assertThat(serviceProvider.get().getDurations()).containsKey("someTest");
+  }
+
+  @Test
+  void recordsDurationsOfFailedTasks() {
+    final TestDurationService service = registerService().get();
+    service.started("someTest");
+    service.onFinish(FailFastServiceTest.taskFinishEvent(":sub:someTest", TaskFailureResult.class));
+
+    assertThat(service.getDurations()).containsKey("someTest");
+  }
+
+  private Provider<TestDurationService> registerService() {
+    return registerService(ProjectBuilder.builder().withProjectDir(projectDir).build());
+  }
+
+  private Provider<TestDurationService> registerService(Project project) {
+    return project
+        .getGradle()
+        .getSharedServices()
+        .registerIfAbsent(
+            "testDurations",
+            TestDurationService.class,
+            spec ->
+                spec.getParameters()
+                    .getHistoryFile()
+                    .set(new File(projectDir, "durations/history.properties")));
+  }
+
+  private Map<String, Long> readHistory() throws IOException {
+    return DurationHistory.parse(
+        new String(
+            Files.readAllBytes(new File(projectDir, "durations/history.properties").toPath()),
+            StandardCharsets.UTF_8));
+  }
+}
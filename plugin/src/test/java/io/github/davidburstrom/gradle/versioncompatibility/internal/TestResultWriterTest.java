@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestResultWriterTest {
+  @TempDir File directory;
+
+  @Test
+  void writesOneFilePerTestClass() throws IOException {
+    final AssertionError failure = new AssertionError("expected <1>");
+    failure.setStackTrace(new StackTraceElement[0]);
+    TestResultWriter.write(
+        Arrays.asList(
+            new TestResult("a.B", "passes()", 10, TestResult.Status.PASSED, null),
+            new TestResult("a.C", "passes()", 0, TestResult.Status.PASSED, null),
+            new TestResult("a.B", "fails()", 1500, TestResult.Status.FAILED, failure),
+            new TestResult("a.B", "isSkipped()", 0, TestResult.Status.SKIPPED, null)),
+        directory);
+
+    assertThat(Arrays.asList(directory.list())).containsExactly("TEST-a.B.xml", "TEST-a.C.xml");
+    assertThat(read("TEST-a.B.xml"))
+        .isEqualTo(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<testsuite name=\"a.B\" tests=\"3\" skipped=\"1\" failures=\"1\" errors=\"0\""
+                + " time=\"1.510\">"
+                + "<testcase name=\"passes()\" classname=\"a.B\" time=\"0.010\"></testcase>"
+                + "<testcase name=\"fails()\" classname=\"a.B\" time=\"1.500\">"
+                + "<failure message=\"expected &lt;1&gt;\" type=\"java.lang.AssertionError\">"
+                + "java.lang.AssertionError: expected &lt;1&gt;"
+                + System.lineSeparator()
+                + "</failure></testcase>"
+                + "<testcase name=\"isSkipped()\" classname=\"a.B\" time=\"0.000\"><skipped/>"
+                + "</testcase></testsuite>");
+  }
+
+  @Test
+  void writesFailureWithoutThrowable() throws IOException {
+    TestResultWriter.write(
+        Collections.singletonList(
+            new TestResult("a.B", "fails()", 0, TestResult.Status.FAILED, null)),
+        directory);
+
+    assertThat(read("TEST-a.B.xml")).contains("<failure></failure>");
+  }
+
+  @Test
+  void replacesPreviousResults() throws IOException {
+    final File previousResult = new File(directory, "TEST-a.Old.xml");
+    final File otherFile = new File(directory, "other.txt");
+    Files.write(previousResult.toPath(), new byte[0]);
+    Files.write(otherFile.toPath(), new byte[0]);
+
+    TestResultWriter.write(Collections.emptyList(), directory);
+
+    assertThat(previousResult.exists()).isFalse();
+    assertThat(otherFile.exists()).isTrue();
+  }
+
+  @Test
+  void createsDirectory() {
+    final File resultsDirectory = new File(directory, "results");
+    TestResultWriter.write(
+        Collections.singletonList(
+            new TestResult("a.B", "passes()", 0, TestResult.Status.PASSED, null)),
+        resultsDirectory);
+
+    assertThat(new File(resultsDirectory, "TEST-a.B.xml").exists()).isTrue();
+  }
+
+  private String read(String fileName) throws IOException {
+    return new String(
+        Files.readAllBytes(new File(directory, fileName).toPath()), StandardCharsets.UTF_8);
+  }
+}
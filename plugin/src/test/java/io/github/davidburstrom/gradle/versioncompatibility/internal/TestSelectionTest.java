@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import org.junit.jupiter.api.Test;
+
+class TestSelectionTest {
+
+  @Test
+  void selectsTestClassesThatReachTheDependencyThroughProductionClasses() {
+    assertThat(
+            TestSelection.select(
+                Arrays.asList(
+                    classFile("app/DirectTest", "lib/Api", "lib/internal/Impl"),
+                    classFile("app/IndirectTest", "app/Service", "app/Adapter"),
+                    classFile("app/UnrelatedTest", "app/Util", "java/lang/String"),
+                    classFile("app/CyclicTest", "app/Cycle")),
+                Arrays.asList(
+                    classFile("app/Service", "app/Adapter"),
+                    classFile("app/Adapter", "lib/internal/Gone"),
+                    classFile("app/Util", "app/Cycle"),
+                    classFile("app/Cycle", "app/Util")),
+                Arrays.asList("lib/Api", "lib/internal/Impl")))
+        .containsExactly("app/DirectTest", "app/IndirectTest")
+        .inOrder();
+  }
+
+  @Test
+  void selectsTopLevelClassesOfNestedTestClasses() {
+    assertThat(
+            TestSelection.select(
+                Arrays.asList(
+                    classFile("app/OuterTest$Nested", "lib/Api"),
+                    classFile("app/OuterTest"),
+                    classFile("Default$Nested", "lib/Api")),
+                Collections.emptyList(),
+                Collections.singletonList("lib/Api")))
+        .containsExactly("Default", "app/OuterTest")
+        .inOrder();
+  }
+
+  @Test
+  void doesNotSelectTestClassesThatOnlyReachClassesInTheDependencyPackages() {
+    assertThat(
+            TestSelection.select(
+                Collections.singletonList(classFile("lib/SamePackageTest", "lib/Helper")),
+                Collections.singletonList(classFile("lib/Helper")),
+                Collections.singletonList("lib/Api")))
+        .isEmpty();
+  }
+
+  @Test
+  void selectsTestClassesThatReachTheDefaultPackage() {
+    assertThat(
+            TestSelection.select(
+                Arrays.asList(
+                    classFile("app/DefaultTest", "Api"), classFile("app/OtherTest", "app/Api")),
+                Collections.emptyList(),
+                Collections.singletonList("Api")))
+        .containsExactly("app/DefaultTest");
+  }
+
+  @Test
+  void findsTopLevelClassNames() {
+    assertThat(TestSelection.topLevelClassName("app/Test")).isEqualTo("app/Test");
+    assertThat(TestSelection.topLevelClassName("app/Test$1")).isEqualTo("app/Test");
+    assertThat(TestSelection.topLevelClassName("app$x/Test")).isEqualTo("app$x/Test");
+    assertThat(TestSelection.topLevelClassName("Test$A$B")).isEqualTo("Test");
+  }
+
+  private static ClassFile classFile(String name, String... referencedClasses) {
+    return new ClassFile(
+        name,
+        "java/lang/Object",
+        Collections.emptyList(),
+        Collections.emptySet(),
+        Collections.emptySet(),
+        new LinkedHashSet<>(Arrays.asList(referencedClasses)),
+        Collections.emptyList());
+  }
+}
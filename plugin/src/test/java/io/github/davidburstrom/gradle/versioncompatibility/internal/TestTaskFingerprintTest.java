@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.gradle.api.Project;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+
+class TestTaskFingerprintTest {
+  private final Project project = createProject();
+
+  @Test
+  void identicalTasksHaveSameFingerprint() {
+    final String fingerprint = fingerprint(createTest("a", test -> {}));
+
+    assertThat(fingerprint(createTest("b", test -> {}))).isEqualTo(fingerprint);
+    assertThat(fingerprint).matches("[0-9a-f]{64}");
+  }
+
+  @Test
+  void classpathIsPartOfFingerprint() {
+    assertDifferentFingerprint(test -> test.setClasspath(project.files("other.jar")));
+  }
+
+  @Test
+  void testClassesAreFingerprinted() {
+    assertDifferentFingerprint(test -> test.setTestClassesDirs(project.files("other")));
+  }
+
+  @Test
+  void javaLauncherIsFingerprinted() {
+    assertDifferentFingerprint(
+        test ->
+            test.getJavaLauncher()
+                .set(
+                    (JavaLauncher)
+                        Proxy.newProxyInstance(
+                            getClass().getClassLoader(),
+                            new Class<?>[] {JavaLauncher.class},
+                            (proxy, method, args) ->
+                                project.getLayout().getProjectDirectory().file("other/java"))));
+  }
+
+  @Test
+  void systemPropertiesAreFingerprinted() {
+    assertDifferentFingerprint(test -> test.systemProperty("GRADLE_VERSION", "8.0"));
+  }
+
+  @Test
+  void ignoredSystemPropertiesAreNotFingerprinted() {
+    final Set<String> ignored = Collections.singleton("LIB_VERSION");
+    assertThat(
+            TestTaskFingerprint.of(
+                createTest("a", test -> test.systemProperty("LIB_VERSION", "1.0")), ignored))
+        .isEqualTo(
+            TestTaskFingerprint.of(
+                createTest("b", test -> test.systemProperty("LIB_VERSION", "2.0")), ignored));
+    assertThat(
+            TestTaskFingerprint.of(
+                createTest("c", test -> test.systemProperty("LIB_VERSION_X", "1.0")), ignored))
+        .isNotEqualTo(TestTaskFingerprint.of(createTest("d", test -> {}), ignored));
+  }
+
+  @Test
+  void environmentIsFingerprinted() {
+    assertDifferentFingerprint(test -> test.environment("SOME_VARIABLE", "value"));
+  }
+
+  @Test
+  void includesAndExcludesAreFingerprinted() {
+    assertDifferentFingerprint(test -> test.include("**/Some*"));
+    assertDifferentFingerprint(test -> test.exclude("**/Some*"));
+    assertDifferentFingerprint(test -> test.getFilter().includeTestsMatching("Some*"));
+  }
+
+  @Test
+  void elementsAreSeparated() {
+    assertThat(fingerprint(createTest("a", test -> test.include("ab", "c"))))
+        .isNotEqualTo(fingerprint(createTest("b", test -> test.include("a", "bc"))));
+  }
+
+  private void assertDifferentFingerprint(
+      Consumer<org.gradle.api.tasks.testing.Test> configuration) {
+    final String name = "test" + project.getTasks().size();
+    assertThat(fingerprint(createTest(name + "Changed", configuration)))
+        .isNotEqualTo(fingerprint(createTest(name, test -> {})));
+  }
+
+  private static String fingerprint(org.gradle.api.tasks.testing.Test test) {
+    return TestTaskFingerprint.of(test, Collections.emptySet());
+  }
+
+  private org.gradle.api.tasks.testing.Test createTest(
+      String name, Consumer<org.gradle.api.tasks.testing.Test> configuration) {
+    final org.gradle.api.tasks.testing.Test test =
+        project.getTasks().create(name, org.gradle.api.tasks.testing.Test.class);
+    configuration.accept(test);
+    return test;
+  }
+
+  private static Project createProject() {
+    final Project project = ProjectBuilder.builder().build();
+    project.getPlugins().apply("java");
+    return project;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.BitSet;
+import org.junit.jupiter.api.Test;
+
+class TupleSamplerTest {
+
+  @Test
+  void sampleSizeDefaultsToPopulationSize() {
+    assertThat(TupleSampler.sampleSize(10, null, null)).isEqualTo(10);
+  }
+
+  @Test
+  void sampleSizeIsBoundedByPopulationSize() {
+    assertThat(TupleSampler.sampleSize(10, 3, null)).isEqualTo(3);
+    assertThat(TupleSampler.sampleSize(10, 10, null)).isEqualTo(10);
+    assertThat(TupleSampler.sampleSize(10, 11, null)).isEqualTo(10);
+  }
+
+  @Test
+  void sampleRatioIsRoundedUp() {
+    assertThat(TupleSampler.sampleSize(10, null, 0.25)).isEqualTo(3);
+    assertThat(TupleSampler.sampleSize(10, null, 0.01)).isEqualTo(1);
+    assertThat(TupleSampler.sampleSize(10, null, 1.0)).isEqualTo(10);
+    assertThat(TupleSampler.sampleSize(0, null, 0.5)).isEqualTo(0);
+  }
+
+  @Test
+  void invalidSampleSizesAreRejected() {
+    assertThat(
+            assertThrows(IllegalArgumentException.class, () -> TupleSampler.sampleSize(10, 1, 0.5))
+                .getMessage())
+        .isEqualTo("Only one of sampleSize and sampleRatio can be set");
+    assertThat(
+            assertThrows(IllegalArgumentException.class, () -> TupleSampler.sampleSize(10, 0, null))
+                .getMessage())
+        .isEqualTo("The sample size must be positive, got 0");
+    assertThat(
+            assertThrows(
+                    IllegalArgumentException.class, () -> TupleSampler.sampleSize(10, null, 0.0))
+                .getMessage())
+        .isEqualTo("The sample ratio must be greater than 0 and at most 1, got 0.0");
+    assertThat(
+            assertThrows(
+                    IllegalArgumentException.class, () -> TupleSampler.sampleSize(10, null, 1.5))
+                .getMessage())
+        .isEqualTo("The sample ratio must be greater than 0 and at most 1, got 1.5");
+    assertThrows(
+        IllegalArgumentException.class, () -> TupleSampler.sampleSize(10, null, Double.NaN));
+  }
+
+  @Test
+  void sampleHasTheGivenSize() {
+    final BitSet sample = TupleSampler.sample(100, 17, "seed");
+    assertThat(sample.cardinality()).isEqualTo(17);
+    assertThat(sample.length()).isAtMost(100);
+  }
+
+  @Test
+  void fullSampleContainsEverything() {
+    assertThat(TupleSampler.sample(5, 5, "seed").cardinality()).isEqualTo(5);
+    assertThat(TupleSampler.sample(0, 0, "seed").isEmpty()).isTrue();
+  }
+
+  @Test
+  void sampleIsReproducible() {
+    assertThat(TupleSampler.sample(100, 10, "0123abcd"))
+        .isEqualTo(TupleSampler.sample(100, 10, "0123abcd"));
+  }
+
+  @Test
+  void sampleDependsOnSeed() {
+    assertThat(TupleSampler.sample(100, 10, "0123abcd"))
+        .isNotEqualTo(TupleSampler.sample(100, 10, "0123abce"));
+  }
+
+  @Test
+  void sampleIsStable() {
+    final BitSet expected = new BitSet();
+    for (int index : new int[] {0, 3, 5}) {
+      expected.set(index);
+    }
+    assertThat(TupleSampler.sample(10, 3, "")).isEqualTo(expected);
+  }
+
+  @Test
+  void hashIsFnv1a() {
+    assertThat(TupleSampler.hash("")).isEqualTo(0xcbf2_9ce4_8422_2325L);
+    assertThat(TupleSampler.hash("a")).isEqualTo(0xaf63_dc4c_8601_ec8cL);
+    assertThat(TupleSampler.hash("\u00ff")).isEqualTo(0x0ac2_0907_b718_0637L);
+  }
+}
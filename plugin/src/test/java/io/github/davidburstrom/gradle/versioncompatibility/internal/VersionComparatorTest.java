@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class VersionComparatorTest {
+  private final VersionComparator comparator = new VersionComparator();
+
+  @Test
+  void sortsVersionsNumerically() {
+    final List<String> versions = Arrays.asList("10.0", "9.1", "1.10", "1.9", "1.0", "1");
+    versions.sort(comparator);
+    assertThat(versions).containsExactly("1.0", "1", "1.9", "1.10", "9.1", "10.0").inOrder();
+  }
+
+  @Test
+  void missingSegmentsAreZero() {
+    assertThat(comparator.compare("8", "8.0.0")).isEqualTo(0);
+    assertThat(comparator.compare("8.0.1", "8")).isGreaterThan(0);
+    assertThat(comparator.compare("8", "8.0.1")).isLessThan(0);
+  }
+
+  @Test
+  void leadingZerosAreIgnored() {
+    assertThat(comparator.compare("1.02", "1.2")).isEqualTo(0);
+    assertThat(comparator.compare("1.010", "1.9")).isGreaterThan(0);
+    assertThat(comparator.compare("1.0", "1.00")).isEqualTo(0);
+  }
+
+  @Test
+  void numbersOfEqualLengthAreComparedByDigits() {
+    assertThat(comparator.compare("1.18", "1.27")).isLessThan(0);
+    assertThat(comparator.compare("1.27", "1.18")).isGreaterThan(0);
+  }
+
+  @Test
+  void qualifiersSortBeforeNumbers() {
+    assertThat(comparator.compare("9.0-rc-1", "9.0")).isLessThan(0);
+    assertThat(comparator.compare("9.0", "9.0-rc-1")).isGreaterThan(0);
+    assertThat(comparator.compare("9.0-milestone-1", "9.0-rc-1")).isLessThan(0);
+    assertThat(comparator.compare("9.0-rc-1", "9.0-rc-2")).isLessThan(0);
+  }
+
+  @Test
+  @SuppressWarnings("PMD.AvoidUsingHardCodedIP")
+  void allSeparatorsAreEquivalent() {
+    assertThat(comparator.compare("1.2.3.4", "1-2_3+4")).isEqualTo(0);
+  }
+
+  @Test
+  void emptySegmentsAreQualifiers() {
+    assertThat(comparator.compare("1..2", "1.0.2")).isLessThan(0);
+  }
+}
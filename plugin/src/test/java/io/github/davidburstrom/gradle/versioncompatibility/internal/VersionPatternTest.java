@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class VersionPatternTest {
+
+  @Test
+  void exactPatternMatchesOnlyTheSameVersion() {
+    final VersionPattern pattern = VersionPattern.parse("8.0");
+    assertThat(pattern.matches("8.0")).isTrue();
+    assertThat(pattern.matches("8")).isFalse();
+    assertThat(pattern.matches("8.0.1")).isFalse();
+  }
+
+  @Test
+  void globPatternMatchesAnySequence() {
+    final VersionPattern pattern = VersionPattern.parse("7.*");
+    assertThat(pattern.matches("7.")).isTrue();
+    assertThat(pattern.matches("7.0")).isTrue();
+    assertThat(pattern.matches("7.6.3")).isTrue();
+    assertThat(pattern.matches("17.0")).isFalse();
+    assertThat(pattern.matches("7")).isFalse();
+  }
+
+  @Test
+  @SuppressWarnings("PMD.AvoidUsingHardCodedIP")
+  void globPatternBacktracks() {
+    final VersionPattern pattern = VersionPattern.parse("*.1*.3");
+    assertThat(pattern.matches("2.1.1.3")).isTrue();
+    assertThat(pattern.matches("2.14.3")).isTrue();
+    assertThat(pattern.matches("2.1.4")).isFalse();
+    assertThat(pattern.matches("2.1.3.4")).isFalse();
+    assertThat(VersionPattern.parse("**").matches("")).isTrue();
+    assertThat(VersionPattern.parse("*9").matches("")).isFalse();
+  }
+
+  @Test
+  void inclusiveRangeIncludesBounds() {
+    final VersionPattern pattern = VersionPattern.parse("[7.2,8.0]");
+    assertThat(pattern.matches("7.1")).isFalse();
+    assertThat(pattern.matches("7.2")).isTrue();
+    assertThat(pattern.matches("7.10")).isTrue();
+    assertThat(pattern.matches("8.0")).isTrue();
+    assertThat(pattern.matches("8.0.1")).isFalse();
+  }
+
+  @Test
+  void exclusiveRangeExcludesBounds() {
+    final VersionPattern pattern = VersionPattern.parse("(7.2, 8.0)");
+    assertThat(pattern.matches("7.2")).isFalse();
+    assertThat(pattern.matches("7.2.1")).isTrue();
+    assertThat(pattern.matches("8.0-rc-1")).isTrue();
+    assertThat(pattern.matches("8.0")).isFalse();
+  }
+
+  @Test
+  void rangesCanBeUnbounded() {
+    assertThat(VersionPattern.parse("[9,)").matches("9.0.0")).isTrue();
+    assertThat(VersionPattern.parse("[9,)").matches("8.14.4")).isFalse();
+    assertThat(VersionPattern.parse("(,8.3)").matches("1")).isTrue();
+    assertThat(VersionPattern.parse("(,8.3)").matches("8.3")).isFalse();
+    assertThat(VersionPattern.parse("(,)").matches("anything")).isTrue();
+  }
+
+  @Test
+  void invalidRangesAreRejected() {
+    assertThat(
+            assertThrows(IllegalArgumentException.class, () -> VersionPattern.parse("[7.0]"))
+                .getMessage())
+        .isEqualTo("Invalid version range [7.0]");
+    assertThat(
+            assertThrows(IllegalArgumentException.class, () -> VersionPattern.parse("(7.0,8.0"))
+                .getMessage())
+        .isEqualTo("Invalid version range (7.0,8.0");
+  }
+
+  @Test
+  void rangesEndingWithBracketAreAccepted() {
+    assertThat(VersionPattern.parse("(7.0,8.0]").matches("8.0")).isTrue();
+  }
+
+  @Test
+  void toStringReturnsThePattern() {
+    assertThat(VersionPattern.parse("[7.2, 8.0)").toString()).isEqualTo("[7.2, 8.0)");
+    assertThat(VersionPattern.parse("7.*").toString()).isEqualTo("7.*");
+  }
+}
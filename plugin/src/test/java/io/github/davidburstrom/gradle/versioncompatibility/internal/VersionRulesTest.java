@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class VersionRulesTest {
+  private static final List<String> DIMENSIONS = Arrays.asList("Gradle", "Java");
+
+  @Test
+  void withoutRulesEverythingIsRetained() {
+    final VersionRules rules =
+        new VersionRules(DIMENSIONS, Collections.emptyList(), Collections.emptyList());
+    assertThat(rules.test(Collections.singletonList("7.0"))).isTrue();
+    assertThat(rules.test(Arrays.asList("7.0", "8"))).isTrue();
+  }
+
+  @Test
+  void exclusionRejectsMatchingTuples() {
+    final VersionRules rules =
+        new VersionRules(
+            DIMENSIONS,
+            Collections.singletonList(
+                VersionRule.of(ImmutableMap.of("Java", Arrays.asList("8", "11"), "Gradle", "9.*"))),
+            Collections.emptyList());
+    assertThat(rules.test(Collections.singletonList("9.0"))).isTrue();
+    assertThat(rules.test(Arrays.asList("9.0", "8"))).isFalse();
+    assertThat(rules.test(Arrays.asList("9.0", "11"))).isFalse();
+    assertThat(rules.test(Arrays.asList("9.0", "17"))).isTrue();
+    assertThat(rules.test(Arrays.asList("8.0", "8"))).isTrue();
+  }
+
+  @Test
+  void exclusionOfLeadingDimensionsRejectsThePrefix() {
+    final VersionRules rules =
+        new VersionRules(
+            DIMENSIONS,
+            Collections.singletonList(VersionRule.of(ImmutableMap.of("Gradle", "7.0"))),
+            Collections.emptyList());
+    assertThat(rules.test(Collections.singletonList("7.0"))).isFalse();
+    assertThat(rules.test(Collections.singletonList("7.1"))).isTrue();
+  }
+
+  @Test
+  void inclusionRetainsOnlyMatchingTuples() {
+    final VersionRules rules =
+        new VersionRules(
+            DIMENSIONS,
+            Collections.emptyList(),
+            Arrays.asList(
+                VersionRule.of(ImmutableMap.of("Java", "8")),
+                VersionRule.of(ImmutableMap.of("Gradle", "[9,)", "Java", "17"))));
+    assertThat(rules.test(Collections.singletonList("8.0"))).isTrue();
+    assertThat(rules.test(Arrays.asList("8.0", "8"))).isTrue();
+    assertThat(rules.test(Arrays.asList("8.0", "17"))).isFalse();
+    assertThat(rules.test(Arrays.asList("9.0", "17"))).isTrue();
+    assertThat(rules.test(Arrays.asList("9.0", "11"))).isFalse();
+  }
+
+  @Test
+  void inclusionRejectsPrefixesThatNoRuleCanMatch() {
+    final VersionRules rules =
+        new VersionRules(
+            DIMENSIONS,
+            Collections.emptyList(),
+            Collections.singletonList(VersionRule.of(ImmutableMap.of("Gradle", "[9,)"))));
+    assertThat(rules.test(Collections.singletonList("8.0"))).isFalse();
+    assertThat(rules.test(Collections.singletonList("9.0"))).isTrue();
+  }
+
+  @Test
+  void exclusionTakesPrecedenceOverInclusion() {
+    final VersionRule rule = VersionRule.of(ImmutableMap.of("Java", "8"));
+    final VersionRules rules =
+        new VersionRules(
+            DIMENSIONS, Collections.singletonList(rule), Collections.singletonList(rule));
+    assertThat(rules.test(Arrays.asList("8.0", "8"))).isFalse();
+  }
+
+  @Test
+  void unknownDimensionsAreRejected() {
+    final IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                new VersionRules(
+                    DIMENSIONS,
+                    Collections.emptyList(),
+                    Collections.singletonList(VersionRule.of(ImmutableMap.of("Kotlin", "2.0")))));
+    assertThat(exception.getMessage()).isEqualTo("Unknown dimension Kotlin in version rule");
+  }
+
+  @Test
+  void rulesMustHaveDimensions() {
+    assertThat(
+            assertThrows(
+                    IllegalArgumentException.class, () -> VersionRule.of(Collections.emptyMap()))
+                .getMessage())
+        .isEqualTo("At least one dimension must be given");
+  }
+
+  @Test
+  void rulesMustHavePatterns() {
+    assertThat(
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> VersionRule.of(ImmutableMap.of("Java", Collections.emptyList())))
+                .getMessage())
+        .isEqualTo("No version patterns given for Java");
+    assertThat(
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> VersionRule.of(ImmutableMap.of("Java", 8)))
+                .getMessage())
+        .isEqualTo("Expected a version pattern for Java, got 8");
+    assertThat(
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> VersionRule.of(ImmutableMap.of("Java", Arrays.asList("8", 11))))
+                .getMessage())
+        .isEqualTo("Expected a version pattern for Java, got 11");
+  }
+
+  @Test
+  void rulesAreSerializable() throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+      output.writeObject(VersionRule.of(ImmutableMap.of("Gradle", "[7.2,8.0)", "Java", "1*")));
+    }
+    final VersionRule rule;
+    try (ObjectInputStream input =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      rule = (VersionRule) input.readObject();
+    }
+    assertThat(rule.getDimensionCount()).isEqualTo(2);
+    assertThat(rule.getDimensionName(1)).isEqualTo("Java");
+    assertThat(rule.matches(0, "7.6.3")).isTrue();
+    assertThat(rule.matches(0, "8.0")).isFalse();
+    assertThat(rule.matches(1, "17")).isTrue();
+    assertThat(rule.matches(1, "8")).isFalse();
+  }
+}
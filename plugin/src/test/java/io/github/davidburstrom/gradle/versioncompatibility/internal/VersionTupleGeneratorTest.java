@@ -0,0 +1,184 @@
+/*
+ * Copyright 2022-2024 David Burström
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.davidburstrom.gradle.versioncompatibility.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class VersionTupleGeneratorTest {
+
+  @Test
+  void generatesTuplesInOdometerOrder() {
+    final VersionTupleGenerator generator =
+        new VersionTupleGenerator(
+            Arrays.asList("a", "b"),
+            Arrays.asList(Arrays.asList("1", "2"), Arrays.asList("3", "4")));
+
+    assertThat(versionsOf(generator.generate(prefix -> true, Collections.emptyList())))
+        .containsExactly(
+            Arrays.asList("1", "3"),
+            Arrays.asList("1", "4"),
+            Arrays.asList("2", "3"),
+            Arrays.asList("2", "4"))
+        .inOrder();
+  }
+
+  @Test
+  void retainsNamesOfTheDimensions() {
+    final VersionTupleGenerator generator =
+        new VersionTupleGenerator(
+            Arrays.asList("a", "b"),
+            Arrays.asList(Collections.singletonList("1"), Collections.singletonList("2")));
+
+    final List<NamedVersion> tuple =
+        generator.generate(prefix -> true, Collections.emptyList()).get(0);
+    assertThat(tuple.stream().map(NamedVersion::getName).collect(Collectors.toList()))
+        .containsExactly("a", "b")
+        .inOrder();
+  }
+
+  @Test
+  void appliesAllFilters() {
+    final VersionTupleGenerator generator =
+        new VersionTupleGenerator(
+            Arrays.asList("a", "b"),
+            Arrays.asList(Arrays.asList("1", "2"), Arrays.asList("3", "4")));
+
+    assertThat(
+            versionsOf(
+                generator.generate(
+                    prefix -> true,
+                    Arrays.asList(
+                        tuple -> !tuple.get(0).equals("1"), tuple -> !tuple.get(1).equals("3")))))
+        .containsExactly(Arrays.asList("2", "4"));
+  }
+
+  @Test
+  void rejectedPrefixesAreNotEnumerated() {
+    final VersionTupleGenerator generator =
+        new VersionTupleGenerator(
+            Arrays.asList("a", "b", "c"),
+            Arrays.asList(
+                Arrays.asList("1", "2"), Arrays.asList("3", "4"), Arrays.asList("5", "6")));
+
+    final List<List<String>> prefixes = new ArrayList<>();
+    final List<List<String>> tuples = new ArrayList<>();
+    final List<List<NamedVersion>> result =
+        generator.generate(
+            prefix -> {
+              prefixes.add(new ArrayList<>(prefix));
+              return !prefix.get(0).equals("1") && !prefix.equals(Arrays.asList("2", "3", "6"));
+            },
+            Collections.singletonList(tuple -> tuples.add(new ArrayList<>(tuple))));
+
+    assertThat(prefixes)
+        .containsExactly(
+            Collections.singletonList("1"),
+            Collections.singletonList("2"),
+            Arrays.asList("2", "3"),
+            Arrays.asList("2", "3", "5"),
+            Arrays.asList("2", "3", "6"),
+            Arrays.asList("2", "4"),
+            Arrays.asList("2", "4", "5"),
+            Arrays.asList("2", "4", "6"))
+        .inOrder();
+    assertThat(tuples)
+        .containsExactly(
+            Arrays.asList("2", "3", "5"),
+            Arrays.asList("2", "4", "5"),
+            Arrays.asList("2", "4", "6"))
+        .inOrder();
+    assertThat(versionsOf(result)).isEqualTo(tuples);
+  }
+
+  @Test
+  void filtersReceiveReadOnlyView() {
+    final VersionTupleGenerator generator =
+        new VersionTupleGenerator(
+            Collections.singletonList("a"),
+            Collections.singletonList(Collections.singletonList("1")));
+
+    final List<String> seenVersions = new ArrayList<>();
+    generator.generate(
+        prefix -> true,
+        Collections.singletonList(
+            tuple -> {
+              seenVersions.addAll(tuple);
+              assertThrows(UnsupportedOperationException.class, () -> tuple.add("2"));
+              return true;
+            }));
+    assertThat(seenVersions).containsExactly("1");
+  }
+
+  @Test
+  void retainedTuplesAreUnmodifiable() {
+    final VersionTupleGenerator generator =
+        new VersionTupleGenerator(
+            Collections.singletonList("a"),
+            Collections.singletonList(Collections.singletonList("1")));
+
+    final List<NamedVersion> tuple =
+        generator.generate(prefix -> true, Collections.emptyList()).get(0);
+    assertThrows(UnsupportedOperationException.class, () -> tuple.set(0, null));
+  }
+
+  @Test
+  void generatesSingleEmptyTupleWithoutDimensions() {
+    final VersionTupleGenerator generator =
+        new VersionTupleGenerator(Collections.emptyList(), Collections.emptyList());
+
+    assertThat(generator.generate(prefix -> true, Collections.emptyList()))
+        .containsExactly(Collections.emptyList());
+    assertThat(generator.generate(prefix -> true, Collections.singletonList(tuple -> false)))
+        .isEmpty();
+  }
+
+  @Test
+  void generatesNothingIfADimensionIsEmpty() {
+    final VersionTupleGenerator generator =
+        new VersionTupleGenerator(
+            Arrays.asList("a", "b"),
+            Arrays.asList(Collections.singletonList("1"), Collections.emptyList()));
+
+    assertThat(generator.generate(prefix -> true, Collections.emptyList())).isEmpty();
+  }
+
+  @Test
+  void requiresVersionsForEachDimension() {
+    final IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                new VersionTupleGenerator(
+                    Arrays.asList("a", "b"),
+                    Collections.singletonList(Collections.singletonList("1"))));
+    assertThat(exception.getMessage())
+        .isEqualTo("Expected one list of versions per dimension, got 1 for 2 dimensions");
+  }
+
+  private static List<List<String>> versionsOf(final List<List<NamedVersion>> tuples) {
+    return tuples.stream()
+        .map(tuple -> tuple.stream().map(NamedVersion::getVersion).collect(Collectors.toList()))
+        .collect(Collectors.toList());
+  }
+}